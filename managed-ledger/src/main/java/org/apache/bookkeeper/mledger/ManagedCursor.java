@@ -53,6 +53,13 @@ public interface ManagedCursor {
      */
     public String getName();
 
+    /**
+     * Tells whether this cursor is durable or just used for reading.
+     *
+     * @return true if the cursor position is persisted, false if it only lives in memory
+     */
+    public boolean isDurable();
+
     /**
      * Read entries from the ManagedLedger, up to the specified number. The returned list can be smaller.
      *
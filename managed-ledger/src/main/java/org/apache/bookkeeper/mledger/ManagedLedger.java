@@ -172,6 +172,23 @@ public interface ManagedLedger {
      */
     public void asyncOpenCursor(String name, OpenCursorCallback callback, Object ctx);
 
+    /**
+     * Creates a new cursor whose metadata is not backed by durable storage. A caller can use this cursor to read
+     * entries from the managed ledger without affecting the retention of the data.
+     * <p>
+     * The cursor is not registered with the managed ledger: it will not prevent entries from being trimmed and it
+     * will not be considered when computing the slowest consumer.
+     *
+     * @param startCursorPosition
+     *            the position where the cursor should be initialized, or null to start from the current last entry.
+     *            {@link org.apache.bookkeeper.mledger.impl.PositionImpl#earliest} and
+     *            {@link org.apache.bookkeeper.mledger.impl.PositionImpl#latest} can be used to start from the
+     *            oldest or the newest available entry
+     * @return the new NonDurableCursor
+     * @throws ManagedLedgerException
+     */
+    public ManagedCursor newNonDurableCursor(Position startCursorPosition) throws ManagedLedgerException;
+
     /**
      * Get a list of all the cursors reading from this ManagedLedger
      *
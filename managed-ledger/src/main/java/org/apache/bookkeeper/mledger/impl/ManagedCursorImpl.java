@@ -79,8 +79,8 @@ public class ManagedCursorImpl implements ManagedCursor {
     protected final ManagedLedgerImpl ledger;
     private final String name;
 
-    private volatile PositionImpl markDeletePosition;
-    private volatile PositionImpl readPosition;
+    protected volatile PositionImpl markDeletePosition;
+    protected volatile PositionImpl readPosition;
 
     protected final AtomicReference<OpReadEntry> waitingReadOp = new AtomicReference<OpReadEntry>();
     protected AtomicBoolean resetCursorInProgress = new AtomicBoolean(false);
@@ -89,7 +89,7 @@ public class ManagedCursorImpl implements ManagedCursor {
     // This counters are used to compute the numberOfEntries and numberOfEntriesInBacklog values, without having to look
     // at the list of ledgers in the ml. They are initialized to (-backlog) at opening, and will be incremented each
     // time a message is read or deleted.
-    private volatile long messagesConsumedCounter;
+    protected volatile long messagesConsumedCounter;
 
     // Current ledger used to append the mark-delete position
     private volatile LedgerHandle cursorLedger;
@@ -130,7 +130,7 @@ public class ManagedCursorImpl implements ManagedCursor {
         Closed // The managed cursor has been closed
     };
 
-    private final AtomicReference<State> state = new AtomicReference<State>();
+    protected final AtomicReference<State> state = new AtomicReference<State>();
 
     public interface VoidCallback {
         public void operationComplete();
@@ -654,6 +654,7 @@ public class ManagedCursorImpl implements ManagedCursor {
                 resetCursorCallback.resetFailed(
                         new ManagedLedgerException.ConcurrentFindCursorPositionException("reset already in progress"),
                         newPosition);
+                return;
             }
         }
 
@@ -872,7 +873,7 @@ public class ManagedCursorImpl implements ManagedCursor {
         return alreadyAcknowledgedPositions;
     }
 
-    private long getNumberOfEntries(Range<PositionImpl> range) {
+    protected long getNumberOfEntries(Range<PositionImpl> range) {
         long allEntries = ledger.getNumberOfEntries(range);
 
         if (log.isDebugEnabled()) {
@@ -1205,7 +1206,7 @@ public class ManagedCursorImpl implements ManagedCursor {
         internalAsyncMarkDelete(newPosition, callback, ctx);
     }
 
-    private void internalAsyncMarkDelete(final PositionImpl newPosition, final MarkDeleteCallback callback,
+    protected void internalAsyncMarkDelete(final PositionImpl newPosition, final MarkDeleteCallback callback,
             final Object ctx) {
         ledger.mbean.addMarkDeleteOp();
 
@@ -1524,6 +1525,11 @@ public class ManagedCursorImpl implements ManagedCursor {
         return name;
     }
 
+    @Override
+    public boolean isDurable() {
+        return true;
+    }
+
     @Override
     public Position getReadPosition() {
         return PositionImpl.get(readPosition);
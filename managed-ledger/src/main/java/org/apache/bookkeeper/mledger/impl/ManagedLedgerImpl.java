@@ -210,7 +210,14 @@ public class ManagedLedgerImpl implements ManagedLedger, CreateCallback {
                 }
 
                 // Last ledger stat may be zeroed, we must update it
-                if (ledgers.size() > 0) {
+                if (ledgers.size() > 0 && ledgers.lastEntry().getValue().getTimestamp() > 0) {
+                    // The last ledger was closed and its stats stored when the managed ledger was properly closed, so
+                    // there's no need to open it to find out its last entry
+                    if (log.isDebugEnabled()) {
+                        log.debug("[{}] Last ledger {} was already closed", name, ledgers.lastKey());
+                    }
+                    initializeBookKeeper(callback);
+                } else if (ledgers.size() > 0) {
                     final long id = ledgers.lastKey();
                     OpenCallback opencb = (rc, lh, ctx1) -> {
                         executor.submitOrdered(name, safeRun(() -> {
@@ -599,6 +606,14 @@ public class ManagedLedgerImpl implements ManagedLedger, CreateCallback {
         });
     }
 
+    @Override
+    public ManagedCursor newNonDurableCursor(Position startCursorPosition) throws ManagedLedgerException {
+        checkManagedLedgerIsOpen();
+        checkFenced();
+
+        return new NonDurableCursorImpl(bookKeeper, config, this, null, (PositionImpl) startCursorPosition);
+    }
+
     @Override
     public synchronized void asyncDeleteCursor(final String consumerName, final DeleteCursorCallback callback,
             final Object ctx) {
@@ -892,6 +907,7 @@ public class ManagedLedgerImpl implements ManagedLedger, CreateCallback {
 
             // Close all cursors in parallel
             List<CompletableFuture<Void>> futures = Lists.newArrayList();
+            futures.add(storeClosedLedgerInfo(lh));
             for (ManagedCursor cursor : cursors) {
                 Futures.CloseFuture closeFuture = new Futures.CloseFuture();
                 cursor.asyncClose(closeFuture, null);
@@ -1037,6 +1053,39 @@ public class ManagedLedgerImpl implements ManagedLedger, CreateCallback {
     // //////////////////////////////////////////////////////////////////////
     // Private helpers
 
+    /**
+     * Store the final stats of the ledger closed with the managed ledger, so that the next owner of the managed ledger
+     * won't need to open it (with recovery) to find out its last entry. A failure is not fatal: the ledger will then be
+     * recovered when the managed ledger is reopened.
+     */
+    private synchronized CompletableFuture<Void> storeClosedLedgerInfo(final LedgerHandle lh) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        if (!ledgers.containsKey(lh.getId())) {
+            // Empty ledger that was already discarded
+            future.complete(null);
+            return future;
+        }
+
+        LedgerInfo info = LedgerInfo.newBuilder().setLedgerId(lh.getId()).setEntries(lh.getLastAddConfirmed() + 1)
+                .setSize(lh.getLength()).setTimestamp(System.currentTimeMillis()).build();
+        ledgers.put(lh.getId(), info);
+        ManagedLedgerInfo mlInfo = ManagedLedgerInfo.newBuilder().addAllLedgerInfo(ledgers.values()).build();
+        store.asyncUpdateLedgerIds(name, mlInfo, ledgersVersion, new MetaStoreCallback<Void>() {
+            @Override
+            public void operationComplete(Void result, Version version) {
+                ledgersVersion = version;
+                future.complete(null);
+            }
+
+            @Override
+            public void operationFailed(MetaStoreException e) {
+                log.warn("[{}] Failed to store the info of closed ledger {}: {}", name, lh.getId(), e.getMessage());
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
     synchronized void ledgerClosed(final LedgerHandle lh) {
         final State state = this.state.get();
         if (state == State.ClosingLedger || state == State.LedgerOpened) {
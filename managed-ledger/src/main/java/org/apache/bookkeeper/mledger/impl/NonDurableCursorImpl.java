@@ -0,0 +1,133 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.bookkeeper.mledger.impl;
+
+import org.apache.bookkeeper.client.BookKeeper;
+import org.apache.bookkeeper.client.LedgerHandle;
+import org.apache.bookkeeper.mledger.AsyncCallbacks.CloseCallback;
+import org.apache.bookkeeper.mledger.AsyncCallbacks.MarkDeleteCallback;
+import org.apache.bookkeeper.mledger.ManagedLedgerConfig;
+import org.apache.bookkeeper.mledger.util.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Range;
+
+/**
+ * A cursor whose position only lives in memory.
+ * <p>
+ * The cursor is not registered in the managed ledger list of cursors, so it doesn't contribute to the retention of the
+ * data nor to the computation of the slowest reader. Acknowledgments are only used to move the in-memory mark-delete
+ * position forward.
+ */
+public class NonDurableCursorImpl extends ManagedCursorImpl {
+
+    NonDurableCursorImpl(BookKeeper bookkeeper, ManagedLedgerConfig config, ManagedLedgerImpl ledger, String cursorName,
+            PositionImpl startCursorPosition) {
+        super(bookkeeper, config, ledger, cursorName);
+
+        if (startCursorPosition == null || startCursorPosition.equals(PositionImpl.latest)) {
+            // Start from last entry
+            initializeCursorPosition(ledger.getLastPositionAndCounter());
+        } else if (startCursorPosition.equals(PositionImpl.earliest)) {
+            // Start from the first entry that is still available in the managed ledger
+            recoverCursor(ledger.getFirstPosition());
+        } else {
+            // Since the cursor is positioning on the mark-delete position, the first entry returned will be the one
+            // immediately following the specified position
+            recoverCursor(startCursorPosition);
+        }
+
+        state.set(State.Open);
+        log.info("[{}] Created non-durable cursor read-position={} mark-delete-position={}", ledger.getName(),
+                readPosition, markDeletePosition);
+    }
+
+    private void recoverCursor(PositionImpl mdPosition) {
+        Pair<PositionImpl, Long> lastEntryAndCounter = ledger.getLastPositionAndCounter();
+        PositionImpl firstPosition = ledger.getFirstPosition();
+
+        if (mdPosition.compareTo(firstPosition) < 0) {
+            // The requested position was already trimmed, start from the oldest available entry
+            mdPosition = firstPosition;
+        } else if (mdPosition.compareTo(lastEntryAndCounter.first) > 0) {
+            // The requested position is not there yet, start from the end of the managed ledger
+            mdPosition = lastEntryAndCounter.first;
+        }
+
+        this.readPosition = ledger.getNextValidPosition(mdPosition);
+        this.markDeletePosition = mdPosition;
+
+        // Initialize the counter such that the difference between the messages written on the ML and the
+        // messagesConsumed is equal to the current backlog (negated).
+        long initialBacklog = readPosition.compareTo(lastEntryAndCounter.first) <= 0
+                ? getNumberOfEntries(Range.closed(readPosition, lastEntryAndCounter.first)) : 0;
+        this.messagesConsumedCounter = lastEntryAndCounter.second - initialBacklog;
+    }
+
+    @Override
+    public boolean isDurable() {
+        return false;
+    }
+
+    /**
+     * Disable mark-delete persistence: the new position is only kept in memory.
+     */
+    @Override
+    protected void internalAsyncMarkDelete(final PositionImpl newPosition, final MarkDeleteCallback callback,
+            final Object ctx) {
+        callback.markDeleteComplete(ctx);
+    }
+
+    /**
+     * There is no cursor ledger to persist to: accept the new position right away (used when resetting the cursor).
+     */
+    @Override
+    void persistPosition(LedgerHandle lh, PositionImpl position, VoidCallback callback) {
+        callback.operationComplete();
+    }
+
+    @Override
+    public void setActive() {
+        /// No-Op
+    }
+
+    @Override
+    public boolean isActive() {
+        return false;
+    }
+
+    @Override
+    public void setInactive() {
+        /// No-Op
+    }
+
+    @Override
+    public void asyncClose(CloseCallback callback, Object ctx) {
+        state.set(State.Closed);
+        // No-Op
+        callback.closeComplete(ctx);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return Objects.toStringHelper(this).add("ledger", ledger.getName()).add("ackPos", markDeletePosition)
+                .add("readPos", readPosition).toString();
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(NonDurableCursorImpl.class);
+}
@@ -33,6 +33,9 @@ public class PositionImpl implements Position, Comparable<PositionImpl> {
 
     private final Handle recyclerHandle;
 
+    public static final PositionImpl earliest = new PositionImpl(-1, -1);
+    public static final PositionImpl latest = new PositionImpl(Long.MAX_VALUE, Long.MAX_VALUE);
+
     public PositionImpl(PositionInfo pi) {
         this.ledgerId = pi.getLedgerId();
         this.entryId = pi.getEntryId();
@@ -101,6 +101,11 @@ public class ManagedCursorContainerTest {
             return name;
         }
 
+        @Override
+        public boolean isDurable() {
+            return true;
+        }
+
         public String toString() {
             return String.format("%s=%s", name, position);
         }
@@ -15,6 +15,11 @@
  */
 package org.apache.bookkeeper.mledger.impl;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
@@ -40,6 +45,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
 import org.apache.bookkeeper.client.BKException;
+import org.apache.bookkeeper.client.MockBookKeeper;
 import org.apache.bookkeeper.mledger.AsyncCallbacks.AddEntryCallback;
 import org.apache.bookkeeper.mledger.AsyncCallbacks.CloseCallback;
 import org.apache.bookkeeper.mledger.AsyncCallbacks.DeleteLedgerCallback;
@@ -191,6 +197,43 @@ public class ManagedLedgerTest extends MockedBookKeeperTestCase {
         factory2.shutdown();
     }
 
+    @Test(timeOut = 20000)
+    public void reopenAfterCloseSkipsLedgerRecovery() throws Exception {
+        ManagedLedgerImpl ledger = (ManagedLedgerImpl) factory.open("my_test_ledger");
+        ManagedCursor cursor = ledger.openCursor("c1");
+        ledger.addEntry("dummy-entry-1".getBytes(Encoding));
+        Position p2 = ledger.addEntry("dummy-entry-2".getBytes(Encoding));
+        cursor.markDelete(p2);
+        ledger.addEntry("dummy-entry-3".getBytes(Encoding));
+        long lastLedgerId = p2.getLedgerId();
+        ledger.close();
+
+        // The stats of the last ledger are stored when closing
+        ManagedLedgerInfo mlInfo = getManagedLedgerInfo("my_test_ledger");
+        LedgerInfo lastLedger = mlInfo.getLedgerInfo(mlInfo.getLedgerInfoCount() - 1);
+        assertEquals(lastLedger.getLedgerId(), lastLedgerId);
+        assertEquals(lastLedger.getEntries(), 3);
+        assertTrue(lastLedger.getTimestamp() > 0);
+
+        // The new owner doesn't need to open the closed ledger to find its last entry
+        MockBookKeeper bkSpy = spy(bkc);
+        ManagedLedgerFactoryImpl factory2 = new ManagedLedgerFactoryImpl(bkSpy, bkc.getZkHandle());
+        ledger = (ManagedLedgerImpl) factory2.open("my_test_ledger");
+        verify(bkSpy, never()).asyncOpenLedger(anyLong(), any(), any(), any(), any());
+
+        cursor = ledger.openCursor("c1");
+        assertEquals(ledger.getNumberOfEntries(), 3);
+        assertEquals(cursor.getMarkDeletedPosition(), p2);
+
+        List<Entry> entries = cursor.readEntries(100);
+        assertEquals(entries.size(), 1);
+        assertEquals(new String(entries.get(0).getData(), Encoding), "dummy-entry-3");
+        entries.forEach(e -> e.release());
+
+        ledger.close();
+        factory2.shutdown();
+    }
+
     @Test(timeOut = 20000)
     public void acknowledge1() throws Exception {
         ManagedLedger ledger = factory.open("my_test_ledger");
@@ -2118,6 +2161,27 @@ public class ManagedLedgerTest extends MockedBookKeeperTestCase {
         ledger.close();
     }
 
+    private ManagedLedgerInfo getManagedLedgerInfo(String ledgerName) throws Exception {
+        MetaStore store = new MetaStoreImplZookeeper(zkc, executor);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<ManagedLedgerInfo> mlInfo = new AtomicReference<>();
+        store.getManagedLedgerInfo(ledgerName, new MetaStoreCallback<ManagedLedgerInfo>() {
+            @Override
+            public void operationComplete(ManagedLedgerInfo result, Version version) {
+                mlInfo.set(result);
+                latch.countDown();
+            }
+
+            @Override
+            public void operationFailed(MetaStoreException e) {
+                latch.countDown();
+            }
+        });
+        latch.await();
+        assertNotNull(mlInfo.get());
+        return mlInfo.get();
+    }
+
     public ByteBuf getMessageWithMetadata(byte[] data) throws IOException {
         MessageMetadata messageData = MessageMetadata.newBuilder().setPublishTime(System.currentTimeMillis())
                 .setProducerName("prod-name").setSequenceId(0).build();
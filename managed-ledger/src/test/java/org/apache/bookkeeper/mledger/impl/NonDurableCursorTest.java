@@ -0,0 +1,183 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.bookkeeper.mledger.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.apache.bookkeeper.mledger.Entry;
+import org.apache.bookkeeper.mledger.ManagedCursor;
+import org.apache.bookkeeper.mledger.ManagedLedger;
+import org.apache.bookkeeper.mledger.ManagedLedgerConfig;
+import org.apache.bookkeeper.mledger.Position;
+import org.apache.bookkeeper.test.MockedBookKeeperTestCase;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Iterables;
+
+public class NonDurableCursorTest extends MockedBookKeeperTestCase {
+
+    private static final Charset Encoding = Charsets.UTF_8;
+
+    @Test(timeOut = 20000)
+    void readFromEmptyLedger() throws Exception {
+        ManagedLedger ledger = factory.open("my_test_ledger");
+
+        ManagedCursor c1 = ledger.newNonDurableCursor(PositionImpl.earliest);
+        List<Entry> entries = c1.readEntries(10);
+        assertEquals(entries.size(), 0);
+        entries.forEach(e -> e.release());
+
+        ledger.addEntry("test".getBytes(Encoding));
+        entries = c1.readEntries(10);
+        assertEquals(entries.size(), 1);
+        entries.forEach(e -> e.release());
+
+        entries = c1.readEntries(10);
+        assertEquals(entries.size(), 0);
+        entries.forEach(e -> e.release());
+
+        assertFalse(c1.isDurable());
+        assertTrue(ledger.openCursor("c2").isDurable());
+    }
+
+    @Test(timeOut = 20000)
+    void readFromEarliest() throws Exception {
+        ManagedLedger ledger = factory.open("my_test_ledger", new ManagedLedgerConfig().setMaxEntriesPerLedger(1));
+
+        ledger.addEntry("entry-1".getBytes(Encoding));
+        ledger.addEntry("entry-2".getBytes(Encoding));
+
+        ManagedCursor c1 = ledger.newNonDurableCursor(PositionImpl.earliest);
+        assertEquals(c1.getNumberOfEntriesInBacklog(), 2);
+
+        List<Entry> entries = c1.readEntries(10);
+        assertEquals(entries.size(), 2);
+        assertEquals(new String(entries.get(0).getData(), Encoding), "entry-1");
+        assertEquals(new String(entries.get(1).getData(), Encoding), "entry-2");
+        entries.forEach(e -> e.release());
+
+        assertFalse(c1.hasMoreEntries());
+    }
+
+    @Test(timeOut = 20000)
+    void readFromLatest() throws Exception {
+        ManagedLedger ledger = factory.open("my_test_ledger");
+
+        ledger.addEntry("entry-1".getBytes(Encoding));
+
+        ManagedCursor c1 = ledger.newNonDurableCursor(PositionImpl.latest);
+        assertEquals(c1.getNumberOfEntriesInBacklog(), 0);
+        assertFalse(c1.hasMoreEntries());
+
+        ledger.addEntry("entry-2".getBytes(Encoding));
+
+        List<Entry> entries = c1.readEntries(10);
+        assertEquals(entries.size(), 1);
+        assertEquals(new String(entries.get(0).getData(), Encoding), "entry-2");
+        entries.forEach(e -> e.release());
+    }
+
+    @Test(timeOut = 20000)
+    void readFromPosition() throws Exception {
+        ManagedLedger ledger = factory.open("my_test_ledger", new ManagedLedgerConfig().setMaxEntriesPerLedger(2));
+
+        ledger.addEntry("entry-1".getBytes(Encoding));
+        Position p2 = ledger.addEntry("entry-2".getBytes(Encoding));
+        ledger.addEntry("entry-3".getBytes(Encoding));
+        ledger.addEntry("entry-4".getBytes(Encoding));
+
+        // The first entry returned is the one following the start position
+        ManagedCursor c1 = ledger.newNonDurableCursor(p2);
+        assertEquals(c1.getNumberOfEntriesInBacklog(), 2);
+
+        List<Entry> entries = c1.readEntries(10);
+        assertEquals(entries.size(), 2);
+        assertEquals(new String(entries.get(0).getData(), Encoding), "entry-3");
+        assertEquals(new String(entries.get(1).getData(), Encoding), "entry-4");
+        entries.forEach(e -> e.release());
+    }
+
+    @Test(timeOut = 20000)
+    void markDeleteIsNotPersisted() throws Exception {
+        ManagedLedger ledger = factory.open("my_test_ledger");
+
+        Position p1 = ledger.addEntry("entry-1".getBytes(Encoding));
+        ledger.addEntry("entry-2".getBytes(Encoding));
+
+        ManagedCursor c1 = ledger.newNonDurableCursor(PositionImpl.earliest);
+        List<Entry> entries = c1.readEntries(1);
+        assertEquals(entries.size(), 1);
+        entries.forEach(e -> e.release());
+
+        c1.markDelete(p1);
+        assertEquals(c1.getMarkDeletedPosition(), p1);
+        assertEquals(c1.getNumberOfEntriesInBacklog(), 1);
+
+        c1.close();
+
+        ledger.close();
+        ledger = factory.open("my_test_ledger");
+        assertEquals(Iterables.size(ledger.getCursors()), 0);
+    }
+
+    @Test(timeOut = 20000)
+    void doesNotPreventTrimming() throws Exception {
+        ManagedLedger ledger = factory.open("my_test_ledger", new ManagedLedgerConfig().setMaxEntriesPerLedger(1));
+
+        ManagedCursor c1 = ledger.openCursor("c1");
+        ManagedCursor nonDurable = ledger.newNonDurableCursor(PositionImpl.earliest);
+
+        // The non-durable cursor is neither visible nor considered as slowest reader
+        assertEquals(Iterables.size(ledger.getCursors()), 1);
+        assertEquals(ledger.getSlowestConsumer(), c1);
+        assertFalse(nonDurable.isActive());
+
+        ledger.addEntry("entry-1".getBytes(Encoding));
+        Position p2 = ledger.addEntry("entry-2".getBytes(Encoding));
+        ledger.addEntry("entry-3".getBytes(Encoding));
+
+        c1.markDelete(p2);
+        assertEquals(ledger.getSlowestConsumer(), c1);
+        assertEquals(nonDurable.getNumberOfEntriesInBacklog(), 3);
+    }
+
+    @Test(timeOut = 20000)
+    void resetCursor() throws Exception {
+        ManagedLedger ledger = factory.open("my_test_ledger");
+
+        Position p1 = ledger.addEntry("entry-1".getBytes(Encoding));
+        ledger.addEntry("entry-2".getBytes(Encoding));
+
+        ManagedCursor c1 = ledger.newNonDurableCursor(PositionImpl.latest);
+        assertEquals(c1.getNumberOfEntriesInBacklog(), 0);
+
+        // The reset doesn't need a cursor ledger to be persisted
+        c1.resetCursor(p1);
+        assertEquals(c1.getReadPosition(), p1);
+        assertEquals(c1.getNumberOfEntriesInBacklog(), 2);
+
+        List<Entry> entries = c1.readEntries(10);
+        assertEquals(entries.size(), 2);
+        assertEquals(new String(entries.get(0).getData(), Encoding), "entry-1");
+        entries.forEach(e -> e.release());
+    }
+}
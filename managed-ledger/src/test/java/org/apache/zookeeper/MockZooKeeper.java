@@ -143,6 +143,17 @@ public class MockZooKeeper extends ZooKeeper {
 
         tree.put(path, Pair.create(new String(data), 0));
 
+        final Set<Watcher> toNotifyCreate = Sets.newHashSet();
+        toNotifyCreate.addAll(watchers.get(path));
+        watchers.removeAll(path);
+
+        final String finalPath = path;
+        executor.execute(() -> {
+            toNotifyCreate.forEach(
+                    watcher -> watcher.process(new WatchedEvent(EventType.NodeCreated, KeeperState.SyncConnected,
+                            finalPath)));
+        });
+
         if (!parent.isEmpty()) {
             final Set<Watcher> toNotifyParent = Sets.newHashSet();
             toNotifyParent.addAll(watchers.get(parent));
@@ -180,6 +191,10 @@ public class MockZooKeeper extends ZooKeeper {
                 } else {
                     tree.put(path, Pair.create(new String(data), 0));
                     cb.processResult(0, path, ctx, null);
+                    Set<Watcher> toNotifyCreate = Sets.newHashSet(watchers.get(path));
+                    watchers.removeAll(path);
+                    toNotifyCreate.forEach(watcher -> watcher
+                            .process(new WatchedEvent(EventType.NodeCreated, KeeperState.SyncConnected, path)));
                     if (!parent.isEmpty()) {
                         watchers.get(parent).forEach(watcher -> watcher.process(
                                 new WatchedEvent(EventType.NodeChildrenChanged, KeeperState.SyncConnected, parent)));
@@ -451,6 +466,31 @@ public class MockZooKeeper extends ZooKeeper {
         });
     }
 
+    @Override
+    public void exists(String path, Watcher watcher, StatCallback cb, Object ctx) {
+        executor.execute(() -> {
+            synchronized (this) {
+                if (getProgrammedFailStatus()) {
+                    cb.processResult(failReturnCode.intValue(), path, ctx, null);
+                    return;
+                } else if (stopped) {
+                    cb.processResult(KeeperException.Code.ConnectionLoss, path, ctx, null);
+                    return;
+                }
+
+                if (watcher != null) {
+                    watchers.put(path, watcher);
+                }
+
+                if (tree.containsKey(path)) {
+                    cb.processResult(0, path, ctx, new Stat());
+                } else {
+                    cb.processResult(KeeperException.Code.NoNode, path, ctx, null);
+                }
+            }
+        });
+    }
+
     @Override
     public void sync(String path, VoidCallback cb, Object ctx) {
         executor.execute(() -> {
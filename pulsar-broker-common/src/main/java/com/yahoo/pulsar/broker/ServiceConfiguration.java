@@ -85,6 +85,25 @@ public class ServiceConfiguration {
     // messages to consumer once, this limit reaches until consumer starts acknowledging messages back
     // Using a value of 0, is disabling unackedMessage-limit check and consumer can receive messages without any restriction
     private int maxUnackedMessagesPerConsumer = 50000;
+    // Max number of entries to read from the managed ledger in a single read operation, for both dispatchers and
+    // replicators
+    private int dispatcherMaxReadBatchSize = 100;
+    // Target size in bytes of a single read operation. The number of entries to read is derived from the average
+    // entry size observed on the topic
+    private long dispatcherMaxReadSizeBytes = 5 * 1024 * 1024;
+    // Reads taking longer than this time are considered slow and make the dispatcher shrink its read batch size
+    private long dispatcherSlowReadThresholdMillis = 100;
+    // Granularity of the metrics exposed in Prometheus format on the /metrics endpoint: topic, namespace or broker
+    private String prometheusMetricsGranularity = "namespace";
+    // Max number of topics the broker loads concurrently. Additional topic loads are queued and served round-robin
+    // across namespaces, so that a namespace with many topics cannot delay the loading of the other ones
+    private int maxConcurrentTopicLoadRequest = 5000;
+    // Load the topics of a namespace bundle as soon as the broker acquires its ownership, before the clients look
+    // them up
+    private boolean preloadTopicsOnBundleAcquisitionEnabled = true;
+    // When greater than 0, only preload the topics whose managed ledger was opened or updated in the last given
+    // minutes. 0 means all the topics of the bundle are preloaded
+    private int preloadTopicsActivityWindowMinutes = 0;
 
     /***** --- TLS --- ****/
     // Enable TLS
@@ -220,6 +239,28 @@ public class ServiceConfiguration {
     private int loadBalancerNamespaceBundleMaxBandwidthMbytes = 100;
     // maximum number of bundles in a namespace
     private int loadBalancerNamespaceMaximumBundles = 128;
+    // Place the boundaries of an automatic bundle split so that the traffic of the topics is evenly shared between
+    // the new bundles, instead of splitting the hash range in equal parts
+    private boolean loadBalancerNamespaceBundleSplitByTrafficEnabled = true;
+    // maximum number of bundles a hot bundle can be split into in a single step
+    private int loadBalancerNamespaceBundleMaxSplitCount = 4;
+    // When unloading a bundle, choose the new owner first and transfer the bundle to it, so that its topics are
+    // loaded on the new owner before the clients reconnect
+    private boolean loadBalancerBundleHandoffEnabled = false;
+    // Write the load reports in ZooKeeper with the compact binary encoding, publishing only the changed bundle stats.
+    // All the brokers and discovery services of the cluster must support the binary encoding before enabling it.
+    private boolean loadBalancerReportBinaryEncodingEnabled = false;
+    // Load manager implementation used by the broker
+    private String loadManagerClassName = "com.yahoo.pulsar.broker.loadbalance.impl.SimpleLoadManagerImpl";
+    // Number of load report samples averaged to estimate the traffic of a bundle (traffic load manager)
+    private int loadBalancerTrafficHistoryWindowSize = 6;
+    // Bytes/s of throughput equivalent to 1 msg/s when computing the traffic of a bundle (traffic load manager)
+    private int loadBalancerTrafficMsgRateWeight = 1024;
+    // Bundles are moved only when the most loaded broker exceeds the average broker traffic by more than this
+    // percentage, and until it gets within half of it (traffic load manager)
+    private int loadBalancerTrafficImbalanceThresholdPercentage = 20;
+    // Max number of bundles moved in a single load shedding run (traffic load manager)
+    private int loadBalancerTrafficMaxBundleMovesPerRun = 5;
 
     /**** --- Replication --- ****/
     // Enable replication metrics
@@ -417,6 +458,62 @@ public class ServiceConfiguration {
         this.maxUnackedMessagesPerConsumer = maxUnackedMessagesPerConsumer;
     }
 
+    public int getDispatcherMaxReadBatchSize() {
+        return dispatcherMaxReadBatchSize;
+    }
+
+    public void setDispatcherMaxReadBatchSize(int dispatcherMaxReadBatchSize) {
+        this.dispatcherMaxReadBatchSize = dispatcherMaxReadBatchSize;
+    }
+
+    public long getDispatcherMaxReadSizeBytes() {
+        return dispatcherMaxReadSizeBytes;
+    }
+
+    public void setDispatcherMaxReadSizeBytes(long dispatcherMaxReadSizeBytes) {
+        this.dispatcherMaxReadSizeBytes = dispatcherMaxReadSizeBytes;
+    }
+
+    public long getDispatcherSlowReadThresholdMillis() {
+        return dispatcherSlowReadThresholdMillis;
+    }
+
+    public void setDispatcherSlowReadThresholdMillis(long dispatcherSlowReadThresholdMillis) {
+        this.dispatcherSlowReadThresholdMillis = dispatcherSlowReadThresholdMillis;
+    }
+
+    public String getPrometheusMetricsGranularity() {
+        return prometheusMetricsGranularity;
+    }
+
+    public void setPrometheusMetricsGranularity(String prometheusMetricsGranularity) {
+        this.prometheusMetricsGranularity = prometheusMetricsGranularity;
+    }
+
+    public int getMaxConcurrentTopicLoadRequest() {
+        return maxConcurrentTopicLoadRequest;
+    }
+
+    public void setMaxConcurrentTopicLoadRequest(int maxConcurrentTopicLoadRequest) {
+        this.maxConcurrentTopicLoadRequest = maxConcurrentTopicLoadRequest;
+    }
+
+    public boolean isPreloadTopicsOnBundleAcquisitionEnabled() {
+        return preloadTopicsOnBundleAcquisitionEnabled;
+    }
+
+    public void setPreloadTopicsOnBundleAcquisitionEnabled(boolean preloadTopicsOnBundleAcquisitionEnabled) {
+        this.preloadTopicsOnBundleAcquisitionEnabled = preloadTopicsOnBundleAcquisitionEnabled;
+    }
+
+    public int getPreloadTopicsActivityWindowMinutes() {
+        return preloadTopicsActivityWindowMinutes;
+    }
+
+    public void setPreloadTopicsActivityWindowMinutes(int preloadTopicsActivityWindowMinutes) {
+        this.preloadTopicsActivityWindowMinutes = preloadTopicsActivityWindowMinutes;
+    }
+
     public boolean isTlsEnabled() {
         return tlsEnabled;
     }
@@ -837,6 +934,79 @@ public class ServiceConfiguration {
         return this.loadBalancerNamespaceMaximumBundles;
     }
 
+    public boolean isLoadBalancerNamespaceBundleSplitByTrafficEnabled() {
+        return loadBalancerNamespaceBundleSplitByTrafficEnabled;
+    }
+
+    public void setLoadBalancerNamespaceBundleSplitByTrafficEnabled(boolean enabled) {
+        this.loadBalancerNamespaceBundleSplitByTrafficEnabled = enabled;
+    }
+
+    public int getLoadBalancerNamespaceBundleMaxSplitCount() {
+        return loadBalancerNamespaceBundleMaxSplitCount;
+    }
+
+    public void setLoadBalancerNamespaceBundleMaxSplitCount(int loadBalancerNamespaceBundleMaxSplitCount) {
+        this.loadBalancerNamespaceBundleMaxSplitCount = loadBalancerNamespaceBundleMaxSplitCount;
+    }
+
+    public boolean isLoadBalancerBundleHandoffEnabled() {
+        return loadBalancerBundleHandoffEnabled;
+    }
+
+    public void setLoadBalancerBundleHandoffEnabled(boolean loadBalancerBundleHandoffEnabled) {
+        this.loadBalancerBundleHandoffEnabled = loadBalancerBundleHandoffEnabled;
+    }
+
+    public boolean isLoadBalancerReportBinaryEncodingEnabled() {
+        return loadBalancerReportBinaryEncodingEnabled;
+    }
+
+    public void setLoadBalancerReportBinaryEncodingEnabled(boolean loadBalancerReportBinaryEncodingEnabled) {
+        this.loadBalancerReportBinaryEncodingEnabled = loadBalancerReportBinaryEncodingEnabled;
+    }
+
+    public String getLoadManagerClassName() {
+        return loadManagerClassName;
+    }
+
+    public void setLoadManagerClassName(String loadManagerClassName) {
+        this.loadManagerClassName = loadManagerClassName;
+    }
+
+    public int getLoadBalancerTrafficHistoryWindowSize() {
+        return loadBalancerTrafficHistoryWindowSize;
+    }
+
+    public void setLoadBalancerTrafficHistoryWindowSize(int loadBalancerTrafficHistoryWindowSize) {
+        this.loadBalancerTrafficHistoryWindowSize = loadBalancerTrafficHistoryWindowSize;
+    }
+
+    public int getLoadBalancerTrafficMsgRateWeight() {
+        return loadBalancerTrafficMsgRateWeight;
+    }
+
+    public void setLoadBalancerTrafficMsgRateWeight(int loadBalancerTrafficMsgRateWeight) {
+        this.loadBalancerTrafficMsgRateWeight = loadBalancerTrafficMsgRateWeight;
+    }
+
+    public int getLoadBalancerTrafficImbalanceThresholdPercentage() {
+        return loadBalancerTrafficImbalanceThresholdPercentage;
+    }
+
+    public void setLoadBalancerTrafficImbalanceThresholdPercentage(
+            int loadBalancerTrafficImbalanceThresholdPercentage) {
+        this.loadBalancerTrafficImbalanceThresholdPercentage = loadBalancerTrafficImbalanceThresholdPercentage;
+    }
+
+    public int getLoadBalancerTrafficMaxBundleMovesPerRun() {
+        return loadBalancerTrafficMaxBundleMovesPerRun;
+    }
+
+    public void setLoadBalancerTrafficMaxBundleMovesPerRun(int loadBalancerTrafficMaxBundleMovesPerRun) {
+        this.loadBalancerTrafficMaxBundleMovesPerRun = loadBalancerTrafficMaxBundleMovesPerRun;
+    }
+
     public boolean isReplicationMetricsEnabled() {
         return replicationMetricsEnabled;
     }
@@ -16,6 +16,7 @@
 package com.yahoo.pulsar.broker.cache;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.bookkeeper.util.ZkUtils;
 import org.apache.zookeeper.CreateMode;
@@ -118,6 +119,15 @@ public class ConfigurationCacheService {
 
     }
 
+    /**
+     * Bulk load the properties and the namespaces policies in the cache.
+     */
+    public CompletableFuture<Void> prefetch() {
+        // Properties are stored at /admin/policies/property and policies at /admin/policies/property/cluster/namespace.
+        // Loading the properties first leaves the top level children list in the cache for the second traversal
+        return propertiesCache.prefetch(POLICIES_ROOT, 1).thenCompose(v -> policiesCache.prefetch(POLICIES_ROOT, 3));
+    }
+
     public ZooKeeperDataCache<PropertyAdmin> propertiesCache() {
         return this.propertiesCache;
     }
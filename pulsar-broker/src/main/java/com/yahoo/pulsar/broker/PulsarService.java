@@ -31,6 +31,7 @@ import java.util.function.Supplier;
 import org.apache.bookkeeper.mledger.ManagedLedgerFactory;
 import org.apache.bookkeeper.util.OrderedSafeExecutor;
 import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.Stat;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +52,7 @@ import com.yahoo.pulsar.broker.namespace.NamespaceService;
 import com.yahoo.pulsar.broker.service.BrokerService;
 import com.yahoo.pulsar.broker.service.Topic;
 import com.yahoo.pulsar.broker.stats.MetricsGenerator;
+import com.yahoo.pulsar.broker.stats.prometheus.PrometheusMetricsServlet;
 import com.yahoo.pulsar.broker.web.WebService;
 import com.yahoo.pulsar.client.admin.PulsarAdmin;
 import com.yahoo.pulsar.client.util.FutureUtil;
@@ -234,7 +236,7 @@ public class PulsarService implements AutoCloseable {
                     getBookKeeperClientFactory());
 
             // Start load management service (even if load balancing is disabled)
-            this.loadManager = new SimpleLoadManagerImpl(this);
+            this.loadManager = createLoadManager();
 
             this.brokerService = new BrokerService(this);
 
@@ -250,6 +252,8 @@ public class PulsarService implements AutoCloseable {
             this.webService.addRestResources("/", "com.yahoo.pulsar.broker.web", false);
             this.webService.addRestResources("/admin", "com.yahoo.pulsar.broker.admin", true);
             this.webService.addRestResources("/lookup", "com.yahoo.pulsar.broker.lookup", true);
+            this.webService.addServlet(PrometheusMetricsServlet.SERVLET_PATH,
+                    new ServletHolder(new PrometheusMetricsServlet(this)), false);
 
             if (config.isWebSocketServiceEnabled()) {
                 // Use local broker address to avoid different IP address when using a VIP for service discovery
@@ -382,6 +386,13 @@ public class PulsarService implements AutoCloseable {
 
         this.configurationCacheService = new ConfigurationCacheService(getGlobalZkCache());
         this.localZkCacheService = new LocalZooKeeperCacheService(getLocalZkCache(), this.configurationCacheService);
+
+        // Warm up the caches in background, entries that are not loaded yet are fetched on first access
+        long prefetchStartTime = System.nanoTime();
+        CompletableFuture.allOf(configurationCacheService.prefetch(), localZkCacheService.prefetch()).thenRun(() -> {
+            LOG.info("Prefetched ZooKeeper caches in {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - prefetchStartTime));
+        });
     }
 
     private void startNamespaceService() throws PulsarServerException {
@@ -395,6 +406,18 @@ public class PulsarService implements AutoCloseable {
         return () -> new NamespaceService(PulsarService.this);
     }
 
+    private LoadManager createLoadManager() throws PulsarServerException {
+        String className = config.getLoadManagerClassName();
+        try {
+            LoadManager manager = (LoadManager) Class.forName(className).getConstructor(PulsarService.class)
+                    .newInstance(this);
+            LOG.info("Created load manager {}", className);
+            return manager;
+        } catch (Throwable e) {
+            throw new PulsarServerException("Failed to create the load manager " + className, e);
+        }
+    }
+
     private void startLoadManagementService() throws PulsarServerException {
         LOG.info("Starting load management service ...");
         this.loadManager.start();
@@ -424,6 +447,10 @@ public class PulsarService implements AutoCloseable {
 
     /**
      * Load all the destination contained in a namespace
+     * <p>
+     * When <code>preloadTopicsActivityWindowMinutes</code> is set, only the destinations whose managed ledger was
+     * opened or updated within the window are loaded. The loads go through the broker topic load scheduler, so they
+     * share the concurrency limit with the loads triggered by the clients.
      *
      * @param bundle
      *            <code>NamespaceBundle</code> to identify the service unit
@@ -436,12 +463,15 @@ public class PulsarService implements AutoCloseable {
             NamespaceName nsName = bundle.getNamespaceObject();
             List<CompletableFuture<Topic>> persistentTopics = Lists.newArrayList();
             long topicLoadStart = System.nanoTime();
+            int activityWindowMinutes = config.getPreloadTopicsActivityWindowMinutes();
+            long minActivityTimestamp = activityWindowMinutes > 0
+                    ? System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(activityWindowMinutes) : 0;
 
             for (String topic : getNamespaceService().getListOfDestinations(nsName.getProperty(), nsName.getCluster(),
                     nsName.getLocalName())) {
                 try {
                     DestinationName dn = DestinationName.get(topic);
-                    if (bundle.includes(dn)) {
+                    if (bundle.includes(dn) && isRecentlyActive(dn, minActivityTimestamp)) {
                         CompletableFuture<Topic> future = brokerService.getTopic(topic);
                         if (future != null) {
                             persistentTopics.add(future);
@@ -464,6 +494,24 @@ public class PulsarService implements AutoCloseable {
         });
     }
 
+    /**
+     * Check whether the managed ledger of a destination was opened or updated since the given time, using the
+     * modification time of its z-node. Ledger rollovers, opens and closes all update the z-node.
+     */
+    private boolean isRecentlyActive(DestinationName dn, long minActivityTimestamp) {
+        if (minActivityTimestamp == 0) {
+            return true;
+        }
+
+        try {
+            Stat stat = getZkClient().exists("/managed-ledgers/" + dn.getPersistenceNamingEncoding(), false);
+            return stat != null && stat.getMtime() >= minActivityTimestamp;
+        } catch (Exception e) {
+            LOG.warn("Failed to check the last activity of topic {}, loading it anyway: {}", dn, e.getMessage());
+            return true;
+        }
+    }
+
     // No need to synchronize since config is only init once
     // We only read this from memory later
     public String getStatusFilePath() {
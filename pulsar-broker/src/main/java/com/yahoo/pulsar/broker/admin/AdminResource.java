@@ -83,10 +83,24 @@ public abstract class AdminResource extends PulsarWebResource {
 
     protected void zkCreate(String path, byte[] content) throws Exception {
         globalZk().create(path, content, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+        invalidateCreatedNode(path);
     }
 
     protected void zkCreateOptimistic(String path, byte[] content) throws Exception {
         ZkUtils.createFullPathOptimistic(globalZk(), path, content, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+        invalidateCreatedNode(path);
+    }
+
+    /**
+     * The cache may hold a negative entry for a newly created z-node until the watch notification is received: drop it
+     * right away so that the following requests can read the new z-node.
+     */
+    private void invalidateCreatedNode(String path) {
+        globalZkCache().invalidate(path);
+        int parentIndex = path.lastIndexOf('/');
+        if (parentIndex > 0) {
+            globalZkCache().invalidateChildren(path.substring(0, parentIndex));
+        }
     }
 
     /**
@@ -777,12 +777,25 @@ public class Namespaces extends AdminResource {
     @ApiResponses(value = { @ApiResponse(code = 403, message = "Don't have admin permission") })
     public void splitNamespaceBundle(@PathParam("property") String property, @PathParam("cluster") String cluster,
             @PathParam("namespace") String namespace, @PathParam("bundle") String bundleRange,
-            @QueryParam("authoritative") @DefaultValue("false") boolean authoritative) {
-        log.info("[{}] Split namespace bundle {}/{}/{}/{}", clientAppId(), property, cluster, namespace, bundleRange);
+            @QueryParam("authoritative") @DefaultValue("false") boolean authoritative,
+            @QueryParam("numBundles") @DefaultValue("2") int numBundles,
+            @QueryParam("balanceByTraffic") @DefaultValue("false") boolean balanceByTraffic) {
+        log.info("[{}] Split namespace bundle {}/{}/{}/{} in {} bundles, balanceByTraffic {}", clientAppId(), property,
+                cluster, namespace, bundleRange, numBundles, balanceByTraffic);
 
         validateSuperUserAccess();
+        if (numBundles < 2) {
+            throw new RestException(Status.PRECONDITION_FAILED, "Bundle must be split in at least 2 bundles");
+        }
         Policies policies = getNamespacePolicies(property, cluster, namespace);
 
+        // Splitting a bundle in n bundles adds n - 1 bundles to the namespace
+        int maxBundles = pulsar().getConfiguration().getLoadBalancerNamespaceMaximumBundles();
+        if (policies.bundles.getBoundaries().size() - 1 + numBundles - 1 > maxBundles) {
+            throw new RestException(Status.PRECONDITION_FAILED, "Splitting in " + numBundles
+                    + " bundles would exceed the maximum of " + maxBundles + " bundles in the namespace");
+        }
+
         if (!cluster.equals(Namespaces.GLOBAL_CLUSTER)) {
             validateClusterOwnership(cluster);
             validateClusterForProperty(property, cluster);
@@ -794,7 +807,7 @@ public class Namespaces extends AdminResource {
                 true);
 
         try {
-            pulsar().getNamespaceService().splitAndOwnBundle(nsBundle).get();
+            pulsar().getNamespaceService().splitAndOwnBundle(nsBundle, numBundles, balanceByTraffic).get();
             log.info("[{}] Successfully split namespace bundle {}", clientAppId(), nsBundle.toString());
         } catch (Exception e) {
             log.error("[{}] Failed to split namespace bundle {}/{}", clientAppId(), fqnn.toString(), bundleRange, e);
@@ -802,6 +815,66 @@ public class Namespaces extends AdminResource {
         }
     }
 
+    @PUT
+    @Path("/{property}/{cluster}/{namespace}/{bundle}/handoff/prepare")
+    @ApiOperation(value = "Get ready to take over a namespace bundle that is going to be unloaded by its current owner")
+    @ApiResponses(value = { @ApiResponse(code = 403, message = "Don't have admin permission") })
+    public void prepareNamespaceBundleHandoff(@PathParam("property") String property,
+            @PathParam("cluster") String cluster, @PathParam("namespace") String namespace,
+            @PathParam("bundle") String bundleRange) {
+        log.info("[{}] Prepare handoff of namespace bundle {}/{}/{}/{}", clientAppId(), property, cluster, namespace,
+                bundleRange);
+
+        validateSuperUserAccess();
+        Policies policies = getNamespacePolicies(property, cluster, namespace);
+
+        if (!cluster.equals(Namespaces.GLOBAL_CLUSTER)) {
+            validateClusterOwnership(cluster);
+            validateClusterForProperty(property, cluster);
+        }
+
+        NamespaceName fqnn = new NamespaceName(property, cluster, namespace);
+        NamespaceBundle nsBundle = validateNamespaceBundleRange(fqnn, policies.bundles, bundleRange);
+
+        try {
+            pulsar().getNamespaceService().prepareNamespaceBundleHandoff(nsBundle);
+        } catch (Exception e) {
+            log.warn("[{}] Can't take over namespace bundle {}/{}: {}", clientAppId(), fqnn.toString(), bundleRange,
+                    e.getMessage());
+            throw new RestException(Status.PRECONDITION_FAILED, e.getMessage());
+        }
+    }
+
+    @POST
+    @Path("/{property}/{cluster}/{namespace}/{bundle}/handoff/complete")
+    @ApiOperation(value = "Take over a namespace bundle just unloaded by its previous owner, loading its topics")
+    @ApiResponses(value = { @ApiResponse(code = 403, message = "Don't have admin permission") })
+    public void completeNamespaceBundleHandoff(@PathParam("property") String property,
+            @PathParam("cluster") String cluster, @PathParam("namespace") String namespace,
+            @PathParam("bundle") String bundleRange, List<String> topics) {
+        validateSuperUserAccess();
+        Policies policies = getNamespacePolicies(property, cluster, namespace);
+
+        if (!cluster.equals(Namespaces.GLOBAL_CLUSTER)) {
+            validateClusterOwnership(cluster);
+            validateClusterForProperty(property, cluster);
+        }
+
+        NamespaceName fqnn = new NamespaceName(property, cluster, namespace);
+        NamespaceBundle nsBundle = validateNamespaceBundleRange(fqnn, policies.bundles, bundleRange);
+
+        try {
+            int loadedTopics = pulsar().getNamespaceService()
+                    .completeNamespaceBundleHandoff(nsBundle, topics != null ? topics : Lists.newArrayList()).get();
+            log.info("[{}] Took over namespace bundle {} with {} topics", clientAppId(), nsBundle.toString(),
+                    loadedTopics);
+        } catch (Exception e) {
+            log.error("[{}] Failed to take over namespace bundle {}/{}", clientAppId(), fqnn.toString(), bundleRange,
+                    e);
+            throw new RestException(e);
+        }
+    }
+
     @GET
     @Path("/{property}/{cluster}/{namespace}/backlogQuotaMap")
     @ApiOperation(value = "Get backlog quota map on a namespace.")
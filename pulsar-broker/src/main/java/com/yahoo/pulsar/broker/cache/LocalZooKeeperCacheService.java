@@ -201,6 +201,8 @@ public class LocalZooKeeperCacheService {
                         if (rc == KeeperException.Code.OK.intValue()
                                 || rc == KeeperException.Code.NODEEXISTS.intValue()) {
                             LOG.info("Successfully copyied bundles data to local zk at {}", path);
+                            // Drop the negative entry without waiting for the watch notification
+                            cache.invalidate(path);
                             future.complete(localPolicies);
                         } else {
                             LOG.error("Failed to create policies for {} in local zookeeper: {}", path,
@@ -216,6 +218,14 @@ public class LocalZooKeeperCacheService {
         return future;
     }
 
+    /**
+     * Bulk load the local policies and the namespace bundles ownership information in the cache.
+     */
+    public CompletableFuture<Void> prefetch() {
+        return CompletableFuture.allOf(policiesCache.prefetch(LOCAL_POLICIES_ROOT, 3),
+                ownerInfoCache.prefetch(OWNER_INFO_ROOT, 4));
+    }
+
     public ResourceQuotaCache getResourceQuotaCache() {
         return this.resourceQuotaCache;
     }
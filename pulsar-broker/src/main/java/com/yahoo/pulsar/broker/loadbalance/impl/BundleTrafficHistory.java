@@ -0,0 +1,115 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.loadbalance.impl;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.NamespaceBundleStats;
+
+/**
+ * Short sliding window of the traffic seen on each bundle.
+ * <p>
+ * The traffic of a bundle is expressed as a single value, in bytes/s, that combines the throughput and the message
+ * rate, in and out, of the bundle. Averaging the last few samples avoids reacting to short spikes when deciding where
+ * to place the bundles.
+ */
+public class BundleTrafficHistory {
+
+    private final int windowSize;
+    private final double msgRateWeight;
+    private final Map<String, Window> windows = Maps.newHashMap();
+
+    private static class Window {
+        private final double[] samples;
+        private int count = 0;
+        private int next = 0;
+        private double sum = 0;
+
+        Window(int size) {
+            this.samples = new double[size];
+        }
+
+        void add(double value) {
+            if (count == samples.length) {
+                sum -= samples[next];
+            } else {
+                ++count;
+            }
+            samples[next] = value;
+            sum += value;
+            next = (next + 1) % samples.length;
+        }
+
+        double average() {
+            return count == 0 ? 0 : Math.max(0, sum / count);
+        }
+    }
+
+    /**
+     * @param windowSize
+     *            number of samples averaged for each bundle
+     * @param msgRateWeight
+     *            bytes/s of throughput equivalent to 1 msg/s, to account for the per-message overhead
+     */
+    public BundleTrafficHistory(int windowSize, double msgRateWeight) {
+        this.windowSize = Math.max(1, windowSize);
+        this.msgRateWeight = msgRateWeight;
+    }
+
+    public static double getTraffic(NamespaceBundleStats stats, double msgRateWeight) {
+        return stats.msgThroughputIn + stats.msgThroughputOut + msgRateWeight * (stats.msgRateIn + stats.msgRateOut);
+    }
+
+    public synchronized void addSample(String bundle, NamespaceBundleStats stats) {
+        windows.computeIfAbsent(bundle, b -> new Window(windowSize)).add(getTraffic(stats, msgRateWeight));
+    }
+
+    /**
+     * @return the average traffic of the bundle over the window, or 0 if the bundle was never seen
+     */
+    public synchronized double getTraffic(String bundle) {
+        Window window = windows.get(bundle);
+        return window != null ? window.average() : 0;
+    }
+
+    public synchronized boolean contains(String bundle) {
+        return windows.containsKey(bundle);
+    }
+
+    public synchronized double getAverageBundleTraffic() {
+        if (windows.isEmpty()) {
+            return 0;
+        }
+        double total = 0;
+        for (Window window : windows.values()) {
+            total += window.average();
+        }
+        return total / windows.size();
+    }
+
+    /**
+     * Forget the bundles that are not reported anymore (unloaded, split or deleted)
+     */
+    public synchronized void retainAll(Set<String> bundles) {
+        windows.keySet().retainAll(bundles);
+    }
+
+    public synchronized int size() {
+        return windows.size();
+    }
+}
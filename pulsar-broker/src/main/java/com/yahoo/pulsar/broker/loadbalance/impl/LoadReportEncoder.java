@@ -0,0 +1,178 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.loadbalance.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.bookkeeper.util.ZkUtils;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooDefs.Ids;
+import org.apache.zookeeper.ZooKeeper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReport;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReportCodec;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReportCodec.Snapshot;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.NamespaceBundleStats;
+
+/**
+ * Writes the binary load reports of a broker, see {@link LoadReportCodec}.
+ * <p>
+ * Each report only carries the bundles whose stats moved by more than the change threshold since the last snapshot
+ * of the bundle stats. A new snapshot is written (before the report referring to it) when more than half of the
+ * bundles changed, or when the snapshot is older than the max snapshot age, which bounds how stale the stats seen by
+ * the other brokers can be.
+ */
+class LoadReportEncoder {
+
+    private final ZooKeeper zk;
+    private final String snapshotPath;
+    private final double changeThreshold;
+    private final long maxSnapshotAgeMillis;
+
+    private Snapshot snapshot = null;
+    private long snapshotTimestamp = 0;
+
+    private int lastReportSize = 0;
+    private int lastSnapshotSize = 0;
+    private int lastChangedBundles = 0;
+
+    LoadReportEncoder(ZooKeeper zk, String snapshotPath, int changeThresholdPercentage, long maxSnapshotAgeMillis) {
+        this.zk = zk;
+        this.snapshotPath = snapshotPath;
+        this.changeThreshold = changeThresholdPercentage / 100.0;
+        this.maxSnapshotAgeMillis = maxSnapshotAgeMillis;
+    }
+
+    synchronized byte[] encode(LoadReport report) throws Exception {
+        Map<String, NamespaceBundleStats> bundleStats = report.getBundleStats() != null ? report.getBundleStats()
+                : Collections.emptyMap();
+        Map<String, NamespaceBundleStats> changedBundles = Maps.newHashMap();
+        List<String> removedBundles = Lists.newArrayList();
+
+        boolean needSnapshot = snapshot == null
+                || System.currentTimeMillis() - snapshotTimestamp > maxSnapshotAgeMillis;
+        if (!needSnapshot) {
+            Map<String, NamespaceBundleStats> snapshotStats = snapshot.getBundleStats();
+            bundleStats.forEach((bundle, stats) -> {
+                NamespaceBundleStats snapshotBundleStats = snapshotStats.get(bundle);
+                if (snapshotBundleStats == null || hasChanged(snapshotBundleStats, stats)) {
+                    changedBundles.put(bundle, stats);
+                }
+            });
+            snapshotStats.keySet().forEach(bundle -> {
+                if (!bundleStats.containsKey(bundle)) {
+                    removedBundles.add(bundle);
+                }
+            });
+            needSnapshot = changedBundles.size() + removedBundles.size() > snapshotStats.size() / 2;
+        }
+
+        if (needSnapshot) {
+            writeSnapshot(bundleStats);
+            changedBundles.clear();
+            removedBundles.clear();
+        }
+
+        byte[] content = LoadReportCodec.encodeReport(report, snapshot.getId(), changedBundles, removedBundles);
+        lastReportSize = content.length;
+        lastChangedBundles = changedBundles.size() + removedBundles.size();
+        return content;
+    }
+
+    private void writeSnapshot(Map<String, NamespaceBundleStats> bundleStats) throws Exception {
+        // The broker stats objects are reused across updates, keep a copy
+        Map<String, NamespaceBundleStats> snapshotStats = Maps.newHashMapWithExpectedSize(bundleStats.size());
+        bundleStats.forEach((bundle, stats) -> snapshotStats.put(bundle, copyOf(stats)));
+
+        long now = System.currentTimeMillis();
+        long id = snapshot != null ? Math.max(snapshot.getId() + 1, now) : now;
+        Snapshot newSnapshot = new Snapshot(id, snapshotStats);
+        byte[] content = LoadReportCodec.encodeSnapshot(newSnapshot);
+
+        try {
+            zk.setData(snapshotPath, content, -1);
+        } catch (KeeperException.NoNodeException e) {
+            ZkUtils.createFullPathOptimistic(zk, snapshotPath, content, Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Written bundle stats snapshot {} with {} bundles on {} ({} bytes)", id, snapshotStats.size(),
+                    snapshotPath, content.length);
+        }
+        snapshot = newSnapshot;
+        snapshotTimestamp = now;
+        lastSnapshotSize = content.length;
+    }
+
+    synchronized void deleteSnapshot() throws Exception {
+        try {
+            zk.delete(snapshotPath, -1);
+        } catch (KeeperException.NoNodeException e) {
+            // Already gone
+        }
+        snapshot = null;
+    }
+
+    private boolean hasChanged(NamespaceBundleStats oldStats, NamespaceBundleStats newStats) {
+        return oldStats.topics != newStats.topics || oldStats.producerCount != newStats.producerCount
+                || oldStats.consumerCount != newStats.consumerCount
+                || hasChanged(oldStats.msgRateIn, newStats.msgRateIn)
+                || hasChanged(oldStats.msgRateOut, newStats.msgRateOut)
+                || hasChanged(oldStats.msgThroughputIn, newStats.msgThroughputIn)
+                || hasChanged(oldStats.msgThroughputOut, newStats.msgThroughputOut)
+                || hasChanged(oldStats.cacheSize, newStats.cacheSize);
+    }
+
+    private boolean hasChanged(double oldValue, double newValue) {
+        double delta = Math.abs(newValue - oldValue);
+        // Ignore the noise on idle bundles
+        return delta > 1.0 && delta > changeThreshold * Math.max(Math.abs(oldValue), Math.abs(newValue));
+    }
+
+    private static NamespaceBundleStats copyOf(NamespaceBundleStats stats) {
+        NamespaceBundleStats copy = new NamespaceBundleStats();
+        copy.msgRateIn = stats.msgRateIn;
+        copy.msgThroughputIn = stats.msgThroughputIn;
+        copy.msgRateOut = stats.msgRateOut;
+        copy.msgThroughputOut = stats.msgThroughputOut;
+        copy.consumerCount = stats.consumerCount;
+        copy.producerCount = stats.producerCount;
+        copy.topics = stats.topics;
+        copy.cacheSize = stats.cacheSize;
+        return copy;
+    }
+
+    int getLastReportSize() {
+        return lastReportSize;
+    }
+
+    int getLastSnapshotSize() {
+        return lastSnapshotSize;
+    }
+
+    int getLastChangedBundles() {
+        return lastChangedBundles;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(LoadReportEncoder.class);
+}
@@ -35,6 +35,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.bookkeeper.util.ZkUtils;
 import org.apache.zookeeper.CreateMode;
@@ -69,6 +70,7 @@ import com.yahoo.pulsar.common.naming.NamespaceName;
 import com.yahoo.pulsar.common.naming.ServiceUnitId;
 import com.yahoo.pulsar.common.policies.data.ResourceQuota;
 import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReport;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReportCodec;
 import com.yahoo.pulsar.common.policies.data.loadbalancer.NamespaceBundleStats;
 import com.yahoo.pulsar.common.policies.data.loadbalancer.ResourceUnitRanking;
 import com.yahoo.pulsar.common.policies.data.loadbalancer.SystemResourceUsage;
@@ -78,7 +80,7 @@ import com.yahoo.pulsar.zookeeper.ZooKeeperCacheListener;
 import com.yahoo.pulsar.zookeeper.ZooKeeperChildrenCache;
 import com.yahoo.pulsar.zookeeper.ZooKeeperDataCache;
 
-public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListener<LoadReport> {
+public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListener<LoadReportCodec.Delta> {
 
     private static final Logger log = LoggerFactory.getLogger(SimpleLoadManagerImpl.class);
     private final SimpleResourceAllocationPolicies policies;
@@ -127,13 +129,16 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
 
     private final PlacementStrategy placementStrategy;
 
-    private final ZooKeeperDataCache<LoadReport> loadReportCacheZk;
+    private final ZooKeeperDataCache<LoadReportCodec.Delta> loadReportCacheZk;
+    private final ZooKeeperDataCache<LoadReportCodec.Snapshot> bundleStatsSnapshotCacheZk;
     private final ZooKeeperDataCache<Map<String, String>> dynamicConfigurationCache;
     private final BrokerHostUsage brokerHostUsage;
     private final LoadingCache<String, PulsarAdmin> adminCache;
     private final LoadingCache<String, Long> unloadedHotNamespaceCache;
 
     public static final String LOADBALANCE_BROKERS_ROOT = "/loadbalance/brokers";
+    // snapshots of the bundle stats referred by the binary load reports
+    public static final String LOADBALANCE_BUNDLE_STATS_ROOT = "/loadbalance/bundle-stats";
     public static final String LOADBALANCER_DYNAMIC_SETTING_STRATEGY_ZPATH = "/loadbalance/settings/strategy";
     private static final String LOADBALANCER_DYNAMIC_SETTING_LOAD_FACTOR_CPU_ZPATH = "/loadbalance/settings/load_factor_cpu";
     private static final String LOADBALANCER_DYNAMIC_SETTING_LOAD_FACTOR_MEM_ZPATH = "/loadbalance/settings/load_factor_mem";
@@ -165,6 +170,13 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
     private long lastResourceUsageTimestamp = -1;
     // flag to force update load report
     private boolean forceLoadReportUpdate = false;
+    // writer of the binary load reports, null when the reports are written in JSON
+    private LoadReportEncoder loadReportEncoder = null;
+    // size of the last load report written on ZK
+    private volatile int lastLoadReportSize = 0;
+    // time spent decoding the load reports of all the brokers, since the last metrics collection
+    private final LongAdder loadReportDecodeCount = new LongAdder();
+    private final LongAdder loadReportDecodeTimeNanos = new LongAdder();
 
     public SimpleLoadManagerImpl(PulsarService pulsar) {
         this.policies = new SimpleResourceAllocationPolicies(pulsar);
@@ -178,10 +190,28 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
         lastLoadReport = new LoadReport(pulsar.getWebServiceAddress(), pulsar.getWebServiceAddressTls(),
                 pulsar.getBrokerServiceUrl(), pulsar.getBrokerServiceUrlTls());
         brokerHostUsage = new BrokerHostUsage(pulsar);
-        loadReportCacheZk = new ZooKeeperDataCache<LoadReport>(pulsar.getLocalZkCache()) {
+        loadReportCacheZk = new ZooKeeperDataCache<LoadReportCodec.Delta>(pulsar.getLocalZkCache()) {
             @Override
-            public LoadReport deserialize(String key, byte[] content) throws Exception {
-                return ObjectMapperFactory.getThreadLocal().readValue(content, LoadReport.class);
+            public LoadReportCodec.Delta deserialize(String key, byte[] content) throws Exception {
+                long startTime = System.nanoTime();
+                try {
+                    if (LoadReportCodec.isBinary(content)) {
+                        // Only decode here, the bundle stats snapshot is merged when the report is used
+                        return LoadReportCodec.decodeReport(content);
+                    } else {
+                        return new LoadReportCodec.Delta(
+                                ObjectMapperFactory.getThreadLocal().readValue(content, LoadReport.class));
+                    }
+                } finally {
+                    loadReportDecodeCount.increment();
+                    loadReportDecodeTimeNanos.add(System.nanoTime() - startTime);
+                }
+            }
+        };
+        bundleStatsSnapshotCacheZk = new ZooKeeperDataCache<LoadReportCodec.Snapshot>(pulsar.getLocalZkCache()) {
+            @Override
+            public LoadReportCodec.Snapshot deserialize(String key, byte[] content) throws Exception {
+                return LoadReportCodec.decodeSnapshot(content);
             }
         };
         loadReportCacheZk.registerListener(this);
@@ -241,6 +271,12 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
 
             String lookupServiceAddress = pulsar.getAdvertisedAddress() + ":" + conf.getWebServicePort();
             brokerZnodePath = LOADBALANCE_BROKERS_ROOT + "/" + lookupServiceAddress;
+            if (conf.isLoadBalancerReportBinaryEncodingEnabled()) {
+                loadReportEncoder = new LoadReportEncoder(pulsar.getZkClient(),
+                        LOADBALANCE_BUNDLE_STATS_ROOT + "/" + lookupServiceAddress,
+                        conf.getLoadBalancerReportUpdateThresholdPercentage(),
+                        TimeUnit.MINUTES.toMillis(conf.getLoadBalancerReportUpdateMaxIntervalMinutes()));
+            }
             LoadReport loadReport = null;
             try {
                 loadReport = generateLoadReport();
@@ -284,16 +320,44 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
         if (isNotEmpty(brokerZnodePath)) {
             pulsar.getZkClient().delete(brokerZnodePath, -1);
         }
+        if (loadReportEncoder != null) {
+            loadReportEncoder.deleteSnapshot();
+        }
     }
 
     public ZooKeeperChildrenCache getActiveBrokersCache() {
         return this.availableActiveBrokers;
     }
 
-    public ZooKeeperDataCache<LoadReport> getLoadReportCache() {
+    public ZooKeeperDataCache<LoadReportCodec.Delta> getLoadReportCache() {
         return this.loadReportCacheZk;
     }
 
+    /**
+     * Get the complete load report of a broker, merging the bundle stats snapshot into binary reports.
+     */
+    private LoadReport getLoadReport(String broker) throws Exception {
+        String path = String.format("%s/%s", LOADBALANCE_BROKERS_ROOT, broker);
+        LoadReportCodec.Delta delta = loadReportCacheZk.get(path)
+                .orElseThrow(() -> new KeeperException.NoNodeException(path));
+        if (delta.isComplete()) {
+            return delta.getReport();
+        }
+
+        long startTime = System.nanoTime();
+        String snapshotPath = String.format("%s/%s", LOADBALANCE_BUNDLE_STATS_ROOT, broker);
+        LoadReportCodec.Snapshot snapshot = bundleStatsSnapshotCacheZk.get(snapshotPath).orElse(null);
+        if (snapshot == null || snapshot.getId() != delta.getSnapshotId()) {
+            // The snapshot is always written before the reports referring to it, but the cache might not have
+            // received the watch notification yet
+            bundleStatsSnapshotCacheZk.invalidate(snapshotPath);
+            snapshot = bundleStatsSnapshotCacheZk.get(snapshotPath).orElse(null);
+        }
+        LoadReport report = LoadReportCodec.merge(delta, snapshot);
+        loadReportDecodeTimeNanos.add(System.nanoTime() - startTime);
+        return report;
+    }
+
     private void setDynamicConfigurationToZK(String zkPath, Map<String, String> settings) throws IOException {
         byte[] settingBytes = ObjectMapperFactory.getThreadLocal().writeValueAsBytes(settings);
         try {
@@ -694,7 +758,23 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
     }
 
     public List<Metrics> getLoadBalancingMetrics() {
-        List<Metrics> metrics = this.loadBalancingMetrics.get();
+        List<Metrics> metrics = Lists.newArrayList(this.loadBalancingMetrics.get());
+
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put("broker", pulsar.getAdvertisedAddress());
+        dimensions.put("metric", "loadReport");
+        Metrics m = Metrics.create(dimensions);
+        m.put("brk_lb_report_size_bytes", lastLoadReportSize);
+        if (loadReportEncoder != null) {
+            m.put("brk_lb_report_snapshot_size_bytes", loadReportEncoder.getLastSnapshotSize());
+            m.put("brk_lb_report_changed_bundles", loadReportEncoder.getLastChangedBundles());
+        }
+        long decodeCount = loadReportDecodeCount.sumThenReset();
+        long decodeTimeNanos = loadReportDecodeTimeNanos.sumThenReset();
+        m.put("brk_lb_report_decode_count", decodeCount);
+        m.put("brk_lb_report_decode_avg_time_us",
+                decodeCount > 0 ? TimeUnit.NANOSECONDS.toMicros(decodeTimeNanos) / (double) decodeCount : 0.0);
+        metrics.add(m);
         return metrics;
     }
 
@@ -998,7 +1078,7 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
      * everything
      */
     @Override
-    public void onUpdate(String path, LoadReport data, Stat stat) {
+    public void onUpdate(String path, LoadReportCodec.Delta data, Stat stat) {
         log.debug("Received updated load report from broker node - [{}], scheduling re-ranking of brokers.", path);
         scheduler.submit(this::updateRanking);
     }
@@ -1010,9 +1090,7 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
                 Set<String> activeBrokers = availableActiveBrokers.get();
                 for (String broker : activeBrokers) {
                     try {
-                        String key = String.format("%s/%s", LOADBALANCE_BROKERS_ROOT, broker);
-                        LoadReport lr = loadReportCacheZk.get(key)
-                                .orElseThrow(() -> new KeeperException.NoNodeException());
+                        LoadReport lr = getLoadReport(broker);
                         ResourceUnit ru = new SimpleResourceUnit(String.format("http://%s", lr.getName()),
                                 fromLoadReport(lr));
                         this.currentLoadReports.put(ru, lr);
@@ -1022,12 +1100,24 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
                 }
                 updateRealtimeResourceQuota();
                 doLoadRanking();
+                onLoadReportsUpdated(currentLoadReports);
             }
         } catch (Exception e) {
             log.warn("Error reading active brokers list from zookeeper while re-ranking load reports [{}]", e);
         }
     }
 
+    /**
+     * Invoked, while holding the lock on the reports, every time the load reports of the active brokers have been
+     * re-read from ZooKeeper.
+     *
+     * @param loadReports
+     *            the latest load report of each active broker
+     */
+    protected void onLoadReportsUpdated(Map<ResourceUnit, LoadReport> loadReports) {
+        // no-op
+    }
+
     public static boolean isAboveLoadLevel(SystemResourceUsage usage, float thresholdPercentage) {
         return (usage.bandwidthOut.percentUsage() > thresholdPercentage
                 || usage.bandwidthIn.percentUsage() > thresholdPercentage
@@ -1194,8 +1284,10 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
 
         if (needUpdate) {
             LoadReport lr = generateLoadReport();
-            pulsar.getZkClient().setData(brokerZnodePath, ObjectMapperFactory.getThreadLocal().writeValueAsBytes(lr),
-                    -1);
+            byte[] content = loadReportEncoder != null ? loadReportEncoder.encode(lr)
+                    : ObjectMapperFactory.getThreadLocal().writeValueAsBytes(lr);
+            pulsar.getZkClient().setData(brokerZnodePath, content, -1);
+            this.lastLoadReportSize = content.length;
             this.lastLoadReport = lr;
             this.lastResourceUsageTimestamp = lr.getTimestamp();
         }
@@ -1257,29 +1349,46 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
 
     private void unloadNamespacesFromOverLoadedBrokers(Map<ResourceUnit, String> namespaceBundlesToUnload) {
         for (Map.Entry<ResourceUnit, String> bundle : namespaceBundlesToUnload.entrySet()) {
-            String brokerName = bundle.getKey().getResourceId();
-            String bundleName = bundle.getValue();
-            try {
-                if (unloadedHotNamespaceCache.getIfPresent(bundleName) == null) {
-                    if (!isUnloadDisabledInLoadShedding()) {
-                        log.info("Unloading namespace {} from overloaded broker {}", bundleName, brokerName);
-                        adminCache.get(brokerName).namespaces().unloadNamespaceBundle(
-                                getNamespaceNameFromBundleName(bundleName), getBundleRangeFromBundleName(bundleName));
-                        log.info("Successfully unloaded namespace {} from broker {}", bundleName, brokerName);
-                    } else {
-                        log.info("DRY RUN: Unload in Load Shedding is disabled. Namespace {} would have been "
-                                + "unloaded from overloaded broker {} otherwise.", bundleName, brokerName);
-                    }
-                    unloadedHotNamespaceCache.put(bundleName, System.currentTimeMillis());
+            unloadBundle(bundle.getKey().getResourceId(), bundle.getValue());
+        }
+    }
+
+    /**
+     * Check whether a bundle was unloaded by the load shedding within the shedding grace period
+     */
+    protected boolean isRecentlyUnloaded(String bundleName) {
+        return unloadedHotNamespaceCache.getIfPresent(bundleName) != null;
+    }
+
+    /**
+     * Unload a bundle from the broker that currently owns it, unless the bundle was already unloaded within the
+     * shedding grace period or unloading is disabled.
+     *
+     * @return true if the bundle was unloaded (or would have been, in dry-run mode)
+     */
+    protected boolean unloadBundle(String brokerName, String bundleName) {
+        try {
+            if (unloadedHotNamespaceCache.getIfPresent(bundleName) == null) {
+                if (!isUnloadDisabledInLoadShedding()) {
+                    log.info("Unloading namespace {} from overloaded broker {}", bundleName, brokerName);
+                    adminCache.get(brokerName).namespaces().unloadNamespaceBundle(
+                            getNamespaceNameFromBundleName(bundleName), getBundleRangeFromBundleName(bundleName));
+                    log.info("Successfully unloaded namespace {} from broker {}", bundleName, brokerName);
                 } else {
-                    // we can't unload this namespace so move to next one
-                    log.info("Can't unload Namespace {} because it was unloaded last at {} and unload interval has "
-                            + "not exceeded.", bundleName, LocalDateTime.now());
+                    log.info("DRY RUN: Unload in Load Shedding is disabled. Namespace {} would have been "
+                            + "unloaded from overloaded broker {} otherwise.", bundleName, brokerName);
                 }
-            } catch (Exception e) {
-                log.warn("ERROR failed to unload the bundle {} from overloaded broker {}", bundleName, brokerName, e);
+                unloadedHotNamespaceCache.put(bundleName, System.currentTimeMillis());
+                return true;
+            } else {
+                // we can't unload this namespace so move to next one
+                log.info("Can't unload Namespace {} because it was unloaded last at {} and unload interval has "
+                        + "not exceeded.", bundleName, LocalDateTime.now());
             }
+        } catch (Exception e) {
+            log.warn("ERROR failed to unload the bundle {} from overloaded broker {}", bundleName, brokerName, e);
         }
+        return false;
     }
 
     @Override
@@ -1340,6 +1449,8 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
         long maxBundleSessions = pulsar.getConfiguration().getLoadBalancerNamespaceBundleMaxSessions();
         long maxBundleMsgRate = pulsar.getConfiguration().getLoadBalancerNamespaceBundleMaxMsgRate();
         long maxBundleBandwidth = pulsar.getConfiguration().getLoadBalancerNamespaceBundleMaxBandwidthMbytes() * MBytes;
+        int maxSplitCount = Math.max(2, pulsar.getConfiguration().getLoadBalancerNamespaceBundleMaxSplitCount());
+        boolean splitByTraffic = pulsar.getConfiguration().isLoadBalancerNamespaceBundleSplitByTrafficEnabled();
 
         log.info(
                 "Running namespace bundle split with thresholds: topics {}, sessions {}, msgRate {}, bandwidth {}, maxBundles {}",
@@ -1349,7 +1460,7 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
         }
 
         Map<String, NamespaceBundleStats> bundleStats = this.lastLoadReport.getBundleStats();
-        Set<String> bundlesToBeSplit = new HashSet<>();
+        Map<String, Integer> bundlesToBeSplit = new HashMap<>();
         for (Map.Entry<String, NamespaceBundleStats> statsEntry : bundleStats.entrySet()) {
             String bundleName = statsEntry.getKey();
             NamespaceBundleStats stats = statsEntry.getValue();
@@ -1359,6 +1470,7 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
             double totalBandwidth = stats.msgThroughputIn + stats.msgThroughputOut;
 
             boolean needSplit = false;
+            int splitCount = 2;
             if (stats.topics > maxBundleTopics || totalSessions > maxBundleSessions || totalMsgRate > maxBundleMsgRate
                     || totalBandwidth > maxBundleBandwidth) {
                 if (stats.topics <= 1) {
@@ -1371,6 +1483,16 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
                                 bundleName);
                     } else {
                         needSplit = true;
+                        // Split a very hot bundle in more than 2 bundles at once, so that each new bundle is below
+                        // the thresholds without waiting for further split rounds
+                        double overload = Math.max(
+                                Math.max((double) stats.topics / maxBundleTopics,
+                                        (double) totalSessions / maxBundleSessions),
+                                Math.max(totalMsgRate / maxBundleMsgRate, totalBandwidth / maxBundleBandwidth));
+                        splitCount = (int) Math.min(Math.ceil(overload), maxSplitCount);
+                        splitCount = (int) Math.min(splitCount,
+                                Math.min(stats.topics, maxBundleCount - numBundles + 1));
+                        splitCount = Math.max(2, splitCount);
                     }
                 }
             }
@@ -1378,9 +1500,9 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
             if (needSplit) {
                 if (this.getLoadBalancerAutoBundleSplitEnabled()) {
                     log.info(
-                            "Will split hot namespace bundle {}, topics {}, producers+consumers {}, msgRate in+out {}, bandwidth in+out {}",
-                            bundleName, stats.topics, totalSessions, totalMsgRate, totalBandwidth);
-                    bundlesToBeSplit.add(bundleName);
+                            "Will split hot namespace bundle {} in {}, topics {}, producers+consumers {}, msgRate in+out {}, bandwidth in+out {}",
+                            bundleName, splitCount, stats.topics, totalSessions, totalMsgRate, totalBandwidth);
+                    bundlesToBeSplit.put(bundleName, splitCount);
                 } else {
                     log.info(
                             "DRY RUN - split hot namespace bundle {}, topics {}, producers+consumers {}, msgRate in+out {}, bandwidth in+out {}",
@@ -1390,10 +1512,18 @@ public class SimpleLoadManagerImpl implements LoadManager, ZooKeeperCacheListene
         }
 
         if (bundlesToBeSplit.size() > 0) {
-            for (String bundleName : bundlesToBeSplit) {
+            for (Map.Entry<String, Integer> splitEntry : bundlesToBeSplit.entrySet()) {
+                String bundleName = splitEntry.getKey();
+                int splitCount = splitEntry.getValue();
                 try {
-                    pulsar.getAdminClient().namespaces().splitNamespaceBundle(
-                            getNamespaceNameFromBundleName(bundleName), getBundleRangeFromBundleName(bundleName));
+                    if (splitCount == 2 && !splitByTraffic) {
+                        pulsar.getAdminClient().namespaces().splitNamespaceBundle(
+                                getNamespaceNameFromBundleName(bundleName), getBundleRangeFromBundleName(bundleName));
+                    } else {
+                        pulsar.getAdminClient().namespaces().splitNamespaceBundle(
+                                getNamespaceNameFromBundleName(bundleName), getBundleRangeFromBundleName(bundleName),
+                                splitCount, splitByTraffic);
+                    }
                     log.info("Successfully split namespace bundle {}", bundleName);
                 } catch (Exception e) {
                     log.error("Failed to split namespace bundle {}", bundleName, e);
@@ -0,0 +1,201 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.loadbalance.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.yahoo.pulsar.broker.PulsarService;
+import com.yahoo.pulsar.broker.ServiceConfiguration;
+import com.yahoo.pulsar.broker.loadbalance.ResourceUnit;
+import com.yahoo.pulsar.broker.loadbalance.impl.TrafficPlacementPlanner.BundleMove;
+import com.yahoo.pulsar.common.naming.ServiceUnitId;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReport;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.NamespaceBundleStats;
+
+/**
+ * Load manager that balances the brokers based on the traffic of the bundles they own.
+ * <p>
+ * Load reports are published and ranked as in {@link SimpleLoadManagerImpl}, but the placement decisions are driven by
+ * the message rate and throughput of each bundle, averaged over the last few load reports:
+ * <ul>
+ * <li>Load shedding moves the minimal set of bundles needed to bring the most loaded broker close to the average (see
+ * {@link TrafficPlacementPlanner}), and remembers the target broker chosen for each moved bundle
+ * <li>New or moved bundles are assigned to the planned target broker, or else to the candidate broker with the lowest
+ * traffic
+ * </ul>
+ * Decisions are taken by the leader broker only.
+ */
+public class TrafficLoadManagerImpl extends SimpleLoadManagerImpl {
+
+    private final BundleTrafficHistory trafficHistory;
+    private final TrafficPlacementPlanner planner;
+
+    // Target broker of the bundles unloaded by the last load shedding runs
+    private final Cache<String, String> plannedTargets;
+
+    // Timestamp of the last load report used from each broker, to only sample each report once
+    private final Map<String, Long> lastReportTimestamps = Maps.newHashMap();
+
+    // Traffic of each bundle, grouped by owner broker, and estimated traffic of each broker. The broker traffic
+    // includes the bundles assigned since the last load report. Both are protected by the lock on brokerLoads.
+    private Map<String, Map<String, Double>> currentPlacement = Collections.emptyMap();
+    private final Map<String, Double> brokerLoads = Maps.newHashMap();
+
+    public TrafficLoadManagerImpl(PulsarService pulsar) {
+        super(pulsar);
+        ServiceConfiguration conf = pulsar.getConfiguration();
+        this.trafficHistory = new BundleTrafficHistory(conf.getLoadBalancerTrafficHistoryWindowSize(),
+                conf.getLoadBalancerTrafficMsgRateWeight());
+        this.planner = new TrafficPlacementPlanner(conf.getLoadBalancerTrafficImbalanceThresholdPercentage(),
+                conf.getLoadBalancerTrafficMaxBundleMovesPerRun());
+        this.plannedTargets = CacheBuilder.newBuilder()
+                .expireAfterWrite(conf.getLoadBalancerSheddingGracePeriodMinutes(), TimeUnit.MINUTES).build();
+    }
+
+    @Override
+    public boolean isCentralized() {
+        // Assignments must be decided where the planned targets and the estimated loads are tracked
+        return true;
+    }
+
+    @Override
+    protected void onLoadReportsUpdated(Map<ResourceUnit, LoadReport> loadReports) {
+        if (trafficHistory == null) {
+            // Reports re-ranked before this instance was fully constructed
+            return;
+        }
+
+        // When a bundle shows up in multiple reports (eg: just after a move), trust the most recent one
+        Map<String, String> bundleOwners = Maps.newHashMap();
+        Map<String, Long> bundleReportTimestamps = Maps.newHashMap();
+        Map<String, Map<String, Double>> placement = Maps.newHashMap();
+
+        for (Map.Entry<ResourceUnit, LoadReport> entry : loadReports.entrySet()) {
+            String broker = entry.getKey().getResourceId();
+            LoadReport report = entry.getValue();
+            Map<String, NamespaceBundleStats> bundleStats = report.getBundleStats() != null ? report.getBundleStats()
+                    : Collections.emptyMap();
+            placement.put(broker, Maps.newHashMap());
+
+            Long lastTimestamp = lastReportTimestamps.put(broker, report.getTimestamp());
+            boolean isNewReport = lastTimestamp == null || lastTimestamp != report.getTimestamp();
+
+            for (Map.Entry<String, NamespaceBundleStats> bundle : bundleStats.entrySet()) {
+                if (isNewReport) {
+                    trafficHistory.addSample(bundle.getKey(), bundle.getValue());
+                }
+                Long ownerTimestamp = bundleReportTimestamps.get(bundle.getKey());
+                if (ownerTimestamp == null || ownerTimestamp < report.getTimestamp()) {
+                    bundleOwners.put(bundle.getKey(), broker);
+                    bundleReportTimestamps.put(bundle.getKey(), report.getTimestamp());
+                }
+            }
+        }
+
+        lastReportTimestamps.keySet().retainAll(placement.keySet());
+        trafficHistory.retainAll(bundleOwners.keySet());
+        bundleOwners.forEach((bundle, broker) -> placement.get(broker).put(bundle, trafficHistory.getTraffic(bundle)));
+
+        synchronized (brokerLoads) {
+            currentPlacement = placement;
+            brokerLoads.clear();
+            brokerLoads.putAll(TrafficPlacementPlanner.getBrokerLoads(placement));
+        }
+    }
+
+    @Override
+    public ResourceUnit getLeastLoaded(ServiceUnitId serviceUnit) throws Exception {
+        String bundle = serviceUnit.toString();
+        Set<String> activeBrokers = getActiveBrokersCache().get();
+        String plannedTarget = plannedTargets.getIfPresent(bundle);
+
+        ResourceUnit selectedBroker = null;
+        synchronized (brokerLoads) {
+            double selectedLoad = Double.MAX_VALUE;
+            for (ResourceUnit candidate : getResourceAvailabilityFor(serviceUnit).values()) {
+                String broker = candidate.getResourceId();
+                if (!activeBrokers.contains(broker.replace("http://", ""))) {
+                    continue;
+                }
+                if (broker.equals(plannedTarget)) {
+                    selectedBroker = candidate;
+                    break;
+                }
+                double load = brokerLoads.getOrDefault(broker, 0.0);
+                if (load < selectedLoad) {
+                    selectedBroker = candidate;
+                    selectedLoad = load;
+                }
+            }
+
+            if (selectedBroker != null) {
+                // Account for the new bundle until it shows up in the next load report of the broker
+                double traffic = trafficHistory.contains(bundle) ? trafficHistory.getTraffic(bundle)
+                        : trafficHistory.getAverageBundleTraffic();
+                brokerLoads.merge(selectedBroker.getResourceId(), traffic, Double::sum);
+            }
+        }
+        plannedTargets.invalidate(bundle);
+
+        if (selectedBroker == null) {
+            return super.getLeastLoaded(serviceUnit);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Selected {} for {} (planned target: {})", selectedBroker.getResourceId(), bundle,
+                    plannedTarget);
+        }
+        return selectedBroker;
+    }
+
+    @Override
+    public void doLoadShedding() {
+        Map<String, Map<String, Double>> placement;
+        synchronized (brokerLoads) {
+            placement = currentPlacement;
+        }
+
+        Set<String> pinnedBundles = Sets.newHashSet();
+        placement.values().forEach(bundles -> bundles.keySet().forEach(bundle -> {
+            if (isRecentlyUnloaded(bundle)) {
+                pinnedBundles.add(bundle);
+            }
+        }));
+
+        List<BundleMove> moves = planner.plan(placement, pinnedBundles);
+        log.info("Running traffic based load shedding as leader broker, broker loads {}, {} pinned bundles, moves {}",
+                TrafficPlacementPlanner.getBrokerLoads(placement), pinnedBundles.size(), moves);
+
+        for (BundleMove move : moves) {
+            plannedTargets.put(move.getBundle(), move.getTargetBroker());
+            if (!unloadBundle(move.getSourceBroker(), move.getBundle())) {
+                plannedTargets.invalidate(move.getBundle());
+            }
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficLoadManagerImpl.class);
+}
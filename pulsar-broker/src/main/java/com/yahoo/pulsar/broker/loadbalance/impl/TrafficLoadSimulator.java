@@ -0,0 +1,289 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.loadbalance.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.yahoo.pulsar.broker.loadbalance.impl.TrafficPlacementPlanner.BundleMove;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReport;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.NamespaceBundleStats;
+import com.yahoo.pulsar.common.util.ObjectMapperFactory;
+
+/**
+ * Offline harness that replays recorded load reports through the traffic based placement, to evaluate the settings of
+ * {@link TrafficLoadManagerImpl} without touching a live cluster.
+ * <p>
+ * The input is a file with one load report in JSON format per line, as returned by the
+ * <code>/admin/broker-stats/load-report</code> endpoint of each broker. Reports are replayed in timestamp order; every
+ * shedding interval the planner is run on the simulated placement and its moves are applied, while the recorded
+ * placement keeps following the reports. The imbalance (max broker traffic over average broker traffic) of both
+ * placements is measured at each round.
+ */
+public class TrafficLoadSimulator {
+
+    private final BundleTrafficHistory trafficHistory;
+    private final TrafficPlacementPlanner planner;
+    private final double msgRateWeight;
+    private final long sheddingIntervalMillis;
+    private final long gracePeriodMillis;
+
+    // Last reported traffic of each bundle
+    private final Map<String, Double> bundleTraffic = Maps.newHashMap();
+    // Bundles owned by each broker according to the latest reports
+    private final Map<String, Set<String>> recordedPlacement = Maps.newHashMap();
+    // Owner broker of each bundle in the simulation
+    private final Map<String, String> simulatedOwners = Maps.newHashMap();
+    // Time of the last simulated move of each bundle
+    private final Map<String, Long> lastMoveTimestamps = Maps.newHashMap();
+
+    public static class Result {
+        private int rounds = 0;
+        private int moves = 0;
+        private double recordedImbalanceSum = 0;
+        private double simulatedImbalanceSum = 0;
+        private double peakRecordedImbalance = 0;
+        private double peakSimulatedImbalance = 0;
+
+        private void addRound(double recordedImbalance, double simulatedImbalance, int roundMoves) {
+            ++rounds;
+            moves += roundMoves;
+            recordedImbalanceSum += recordedImbalance;
+            simulatedImbalanceSum += simulatedImbalance;
+            peakRecordedImbalance = Math.max(peakRecordedImbalance, recordedImbalance);
+            peakSimulatedImbalance = Math.max(peakSimulatedImbalance, simulatedImbalance);
+        }
+
+        public int getRounds() {
+            return rounds;
+        }
+
+        public int getMoves() {
+            return moves;
+        }
+
+        public double getAverageRecordedImbalance() {
+            return rounds > 0 ? recordedImbalanceSum / rounds : 0;
+        }
+
+        public double getAverageSimulatedImbalance() {
+            return rounds > 0 ? simulatedImbalanceSum / rounds : 0;
+        }
+
+        public double getPeakRecordedImbalance() {
+            return peakRecordedImbalance;
+        }
+
+        public double getPeakSimulatedImbalance() {
+            return peakSimulatedImbalance;
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this).add("rounds", rounds).add("moves", moves)
+                    .add("avgRecordedImbalance", String.format("%.3f", getAverageRecordedImbalance()))
+                    .add("avgSimulatedImbalance", String.format("%.3f", getAverageSimulatedImbalance()))
+                    .add("peakRecordedImbalance", String.format("%.3f", peakRecordedImbalance))
+                    .add("peakSimulatedImbalance", String.format("%.3f", peakSimulatedImbalance)).toString();
+        }
+    }
+
+    public TrafficLoadSimulator(int windowSize, double msgRateWeight, int imbalanceThresholdPercentage,
+            int maxMovesPerRun, long sheddingIntervalMillis, long gracePeriodMillis) {
+        this.trafficHistory = new BundleTrafficHistory(windowSize, msgRateWeight);
+        this.planner = new TrafficPlacementPlanner(imbalanceThresholdPercentage, maxMovesPerRun);
+        this.msgRateWeight = msgRateWeight;
+        this.sheddingIntervalMillis = sheddingIntervalMillis;
+        this.gracePeriodMillis = gracePeriodMillis;
+    }
+
+    public Result replay(List<LoadReport> reports) {
+        List<LoadReport> sortedReports = Lists.newArrayList(reports);
+        sortedReports.sort(Comparator.comparingLong(LoadReport::getTimestamp));
+
+        Result result = new Result();
+        long nextSheddingTimestamp = -1;
+        for (LoadReport report : sortedReports) {
+            addReport(report);
+
+            long now = report.getTimestamp();
+            if (nextSheddingTimestamp < 0) {
+                nextSheddingTimestamp = now + sheddingIntervalMillis;
+            } else if (now >= nextSheddingTimestamp) {
+                runRound(now, result);
+                nextSheddingTimestamp = now + sheddingIntervalMillis;
+            }
+        }
+        return result;
+    }
+
+    private void addReport(LoadReport report) {
+        String broker = report.getName();
+        Map<String, NamespaceBundleStats> bundleStats = report.getBundleStats() != null ? report.getBundleStats()
+                : Maps.newHashMap();
+
+        Set<String> bundles = Sets.newHashSet(bundleStats.keySet());
+        recordedPlacement.values().forEach(brokerBundles -> brokerBundles.removeAll(bundles));
+        Set<String> previousBundles = recordedPlacement.put(broker, bundles);
+
+        bundleStats.forEach((bundle, stats) -> {
+            trafficHistory.addSample(bundle, stats);
+            bundleTraffic.put(bundle, BundleTrafficHistory.getTraffic(stats, msgRateWeight));
+            simulatedOwners.putIfAbsent(bundle, broker);
+        });
+
+        if (previousBundles != null) {
+            // Bundles that disappeared from the broker without showing up elsewhere were unloaded or split
+            for (String bundle : previousBundles) {
+                if (!bundles.contains(bundle) && !isRecorded(bundle)) {
+                    bundleTraffic.remove(bundle);
+                    simulatedOwners.remove(bundle);
+                    lastMoveTimestamps.remove(bundle);
+                }
+            }
+        }
+    }
+
+    private boolean isRecorded(String bundle) {
+        for (Set<String> bundles : recordedPlacement.values()) {
+            if (bundles.contains(bundle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runRound(long now, Result result) {
+        Map<String, Map<String, Double>> recorded = Maps.newHashMap();
+        Map<String, Map<String, Double>> simulated = Maps.newHashMap();
+        Map<String, Map<String, Double>> planned = Maps.newHashMap();
+        for (String broker : recordedPlacement.keySet()) {
+            recorded.put(broker, Maps.newHashMap());
+            simulated.put(broker, Maps.newHashMap());
+            planned.put(broker, Maps.newHashMap());
+        }
+        recordedPlacement.forEach((broker, bundles) -> bundles
+                .forEach(bundle -> recorded.get(broker).put(bundle, bundleTraffic.getOrDefault(bundle, 0.0))));
+        simulatedOwners.forEach((bundle, broker) -> {
+            simulated.get(broker).put(bundle, bundleTraffic.getOrDefault(bundle, 0.0));
+            planned.get(broker).put(bundle, trafficHistory.getTraffic(bundle));
+        });
+
+        Set<String> pinnedBundles = Sets.newHashSet();
+        lastMoveTimestamps.forEach((bundle, timestamp) -> {
+            if (now - timestamp < gracePeriodMillis) {
+                pinnedBundles.add(bundle);
+            }
+        });
+
+        List<BundleMove> moves = planner.plan(planned, pinnedBundles);
+        for (BundleMove move : moves) {
+            simulatedOwners.put(move.getBundle(), move.getTargetBroker());
+            lastMoveTimestamps.put(move.getBundle(), now);
+        }
+
+        result.addRound(getImbalance(recorded), getImbalance(simulated), moves.size());
+    }
+
+    static double getImbalance(Map<String, Map<String, Double>> placement) {
+        Map<String, Double> brokerLoads = TrafficPlacementPlanner.getBrokerLoads(placement);
+        double total = 0;
+        for (double load : brokerLoads.values()) {
+            total += load;
+        }
+        if (total <= 0) {
+            return 1.0;
+        }
+        return TrafficPlacementPlanner.maxLoad(brokerLoads) / (total / brokerLoads.size());
+    }
+
+    public static List<LoadReport> readReports(String path) throws IOException {
+        List<LoadReport> reports = Lists.newArrayList();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    reports.add(ObjectMapperFactory.getThreadLocal().readValue(line, LoadReport.class));
+                }
+            }
+        }
+        return reports;
+    }
+
+    private static class Arguments {
+        @Parameter(names = { "-f", "--reports-file" }, description = "File with one JSON load report per line",
+                required = true)
+        private String reportsFile;
+
+        @Parameter(names = { "--window-size" }, description = "Number of samples averaged for each bundle")
+        private int windowSize = 6;
+
+        @Parameter(names = { "--msg-rate-weight" }, description = "Bytes/s of throughput equivalent to 1 msg/s")
+        private int msgRateWeight = 1024;
+
+        @Parameter(names = { "--imbalance-threshold" }, description = "Imbalance threshold percentage")
+        private int imbalanceThresholdPercentage = 20;
+
+        @Parameter(names = { "--max-moves" }, description = "Max number of bundles moved in each round")
+        private int maxMovesPerRun = 5;
+
+        @Parameter(names = { "--shedding-interval" }, description = "Load shedding interval in minutes")
+        private int sheddingIntervalMinutes = 30;
+
+        @Parameter(names = { "--grace-period" }, description = "Minutes before a moved bundle can move again")
+        private int gracePeriodMinutes = 30;
+
+        @Parameter(names = { "-h", "--help" }, description = "Show this help message")
+        private boolean help = false;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments();
+        JCommander jcommander = new JCommander();
+        try {
+            jcommander.addObject(arguments);
+            jcommander.parse(args);
+            if (arguments.help) {
+                jcommander.usage();
+                return;
+            }
+        } catch (Exception e) {
+            jcommander.usage();
+            return;
+        }
+
+        List<LoadReport> reports = readReports(arguments.reportsFile);
+        TrafficLoadSimulator simulator = new TrafficLoadSimulator(arguments.windowSize, arguments.msgRateWeight,
+                arguments.imbalanceThresholdPercentage, arguments.maxMovesPerRun,
+                TimeUnit.MINUTES.toMillis(arguments.sheddingIntervalMinutes),
+                TimeUnit.MINUTES.toMillis(arguments.gracePeriodMinutes));
+        System.out.println("Replayed " + reports.size() + " load reports: " + simulator.replay(reports));
+    }
+}
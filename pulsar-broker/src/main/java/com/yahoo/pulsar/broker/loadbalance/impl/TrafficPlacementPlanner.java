@@ -0,0 +1,196 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.loadbalance.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Computes the bundles to move between brokers to reduce the load of the most loaded broker.
+ * <p>
+ * The planner is greedy: at each step it moves, from the most loaded broker to the least loaded one, the bundle whose
+ * traffic is the closest to half of the difference between the two brokers, which is the move that lowers the most the
+ * maximum of the two loads. Only bundles lighter than that difference are considered, since moving a heavier one would
+ * just swap the hot spot.
+ * <p>
+ * To avoid moving bundles back and forth, the planner applies an hysteresis: it only starts moving bundles when the
+ * most loaded broker exceeds the average by more than the imbalance threshold, and stops as soon as it gets within
+ * half of that threshold. Pinned bundles (eg: recently moved) are never selected.
+ */
+public class TrafficPlacementPlanner {
+
+    private final double imbalanceThreshold;
+    private final int maxMoves;
+
+    public static class BundleMove {
+        private final String bundle;
+        private final String sourceBroker;
+        private final String targetBroker;
+        private final double traffic;
+
+        public BundleMove(String bundle, String sourceBroker, String targetBroker, double traffic) {
+            this.bundle = bundle;
+            this.sourceBroker = sourceBroker;
+            this.targetBroker = targetBroker;
+            this.traffic = traffic;
+        }
+
+        public String getBundle() {
+            return bundle;
+        }
+
+        public String getSourceBroker() {
+            return sourceBroker;
+        }
+
+        public String getTargetBroker() {
+            return targetBroker;
+        }
+
+        public double getTraffic() {
+            return traffic;
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this).add("bundle", bundle).add("from", sourceBroker)
+                    .add("to", targetBroker).add("traffic", traffic).toString();
+        }
+    }
+
+    /**
+     * @param imbalanceThresholdPercentage
+     *            percentage above the average broker load that triggers the re-balancing
+     * @param maxMoves
+     *            max number of bundles moved in a single plan
+     */
+    public TrafficPlacementPlanner(int imbalanceThresholdPercentage, int maxMoves) {
+        this.imbalanceThreshold = Math.max(0, imbalanceThresholdPercentage) / 100.0;
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * Compute the moves needed to re-balance the brokers.
+     *
+     * @param brokerBundles
+     *            traffic of each bundle, grouped by the broker owning it. Brokers without bundles must be present
+     *            with an empty map to be considered as targets.
+     * @param pinnedBundles
+     *            bundles that must not be moved
+     * @return the list of moves, in the order they were chosen
+     */
+    public List<BundleMove> plan(Map<String, Map<String, Double>> brokerBundles, Set<String> pinnedBundles) {
+        List<BundleMove> moves = Lists.newArrayList();
+        if (brokerBundles.size() < 2) {
+            return moves;
+        }
+
+        Map<String, Map<String, Double>> placement = copyOf(brokerBundles);
+        Map<String, Double> brokerLoads = getBrokerLoads(placement);
+        double averageLoad = 0;
+        for (double load : brokerLoads.values()) {
+            averageLoad += load;
+        }
+        averageLoad /= brokerLoads.size();
+
+        if (maxLoad(brokerLoads) <= averageLoad * (1 + imbalanceThreshold)) {
+            // Within the tolerated imbalance, nothing to do
+            return moves;
+        }
+
+        double targetLoad = averageLoad * (1 + imbalanceThreshold / 2);
+        Set<String> movedBundles = Sets.newHashSet();
+        while (moves.size() < maxMoves) {
+            String source = null;
+            String target = null;
+            for (Map.Entry<String, Double> e : brokerLoads.entrySet()) {
+                if (source == null || e.getValue() > brokerLoads.get(source)) {
+                    source = e.getKey();
+                }
+                if (target == null || e.getValue() < brokerLoads.get(target)) {
+                    target = e.getKey();
+                }
+            }
+
+            double sourceLoad = brokerLoads.get(source);
+            double targetBrokerLoad = brokerLoads.get(target);
+            if (sourceLoad <= targetLoad) {
+                break;
+            }
+
+            double gap = sourceLoad - targetBrokerLoad;
+            String selectedBundle = null;
+            double selectedTraffic = 0;
+            for (Map.Entry<String, Double> e : placement.get(source).entrySet()) {
+                String bundle = e.getKey();
+                double traffic = e.getValue();
+                if (traffic <= 0 || traffic >= gap || pinnedBundles.contains(bundle) || movedBundles.contains(bundle)) {
+                    continue;
+                }
+                if (selectedBundle == null || Math.abs(traffic - gap / 2) < Math.abs(selectedTraffic - gap / 2)) {
+                    selectedBundle = bundle;
+                    selectedTraffic = traffic;
+                }
+            }
+
+            if (selectedBundle == null) {
+                // No bundle on the hottest broker can be moved without creating a new hot spot
+                break;
+            }
+
+            placement.get(source).remove(selectedBundle);
+            placement.get(target).put(selectedBundle, selectedTraffic);
+            brokerLoads.put(source, sourceLoad - selectedTraffic);
+            brokerLoads.put(target, targetBrokerLoad + selectedTraffic);
+            movedBundles.add(selectedBundle);
+            moves.add(new BundleMove(selectedBundle, source, target, selectedTraffic));
+        }
+
+        return moves;
+    }
+
+    public static Map<String, Double> getBrokerLoads(Map<String, Map<String, Double>> brokerBundles) {
+        Map<String, Double> brokerLoads = Maps.newHashMap();
+        for (Map.Entry<String, Map<String, Double>> e : brokerBundles.entrySet()) {
+            double load = 0;
+            for (double traffic : e.getValue().values()) {
+                load += traffic;
+            }
+            brokerLoads.put(e.getKey(), load);
+        }
+        return brokerLoads;
+    }
+
+    public static double maxLoad(Map<String, Double> brokerLoads) {
+        double max = 0;
+        for (double load : brokerLoads.values()) {
+            max = Math.max(max, load);
+        }
+        return max;
+    }
+
+    private static Map<String, Map<String, Double>> copyOf(Map<String, Map<String, Double>> brokerBundles) {
+        Map<String, Map<String, Double>> copy = Maps.newHashMap();
+        brokerBundles.forEach((broker, bundles) -> copy.put(broker, Maps.newHashMap(bundles)));
+        return copy;
+    }
+}
@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -51,10 +52,15 @@ import com.yahoo.pulsar.broker.PulsarService;
 import com.yahoo.pulsar.broker.ServiceConfiguration;
 import com.yahoo.pulsar.broker.admin.AdminResource;
 import com.yahoo.pulsar.broker.loadbalance.LoadManager;
+import com.yahoo.pulsar.broker.loadbalance.ResourceUnit;
 import com.yahoo.pulsar.broker.loadbalance.impl.SimpleLoadManagerImpl;
 import com.yahoo.pulsar.broker.lookup.LookupResult;
 import com.yahoo.pulsar.broker.service.BrokerServiceException.ServiceUnitNotReadyException;
+import com.yahoo.pulsar.broker.service.Topic;
+import com.yahoo.pulsar.broker.service.persistent.PersistentTopic;
 import com.yahoo.pulsar.client.admin.PulsarAdmin;
+import com.yahoo.pulsar.client.admin.PulsarAdminException;
+import com.yahoo.pulsar.client.util.FutureUtil;
 import com.yahoo.pulsar.common.lookup.data.LookupData;
 import com.yahoo.pulsar.common.naming.DestinationName;
 import com.yahoo.pulsar.common.naming.NamespaceBundle;
@@ -67,9 +73,11 @@ import com.yahoo.pulsar.common.policies.data.BrokerAssignment;
 import com.yahoo.pulsar.common.policies.data.BundlesData;
 import com.yahoo.pulsar.common.policies.data.LocalPolicies;
 import com.yahoo.pulsar.common.policies.data.NamespaceOwnershipStatus;
+import com.yahoo.pulsar.common.policies.data.PersistentTopicStats;
 import com.yahoo.pulsar.common.policies.impl.NamespaceIsolationPolicies;
 import com.yahoo.pulsar.common.util.Codec;
 import com.yahoo.pulsar.common.util.ObjectMapperFactory;
+import com.yahoo.pulsar.common.util.collections.ConcurrentOpenHashMap;
 
 /**
  * The <code>NamespaceService</code> provides resource ownership lookup as well as resource ownership claiming services
@@ -248,10 +256,7 @@ public class NamespaceService {
             otherUrl = ownershipCache.tryAcquiringOwnership(nsFullBundle).get().getNativeUrl();
 
             if (myUrl.equals(otherUrl)) {
-                if (nsFullBundle != null) {
-                    // preload heartbeat namespace
-                    pulsar.loadNamespaceDestinations(nsFullBundle);
-                }
+                // the topics of the heartbeat namespace are preloaded by the ownership cache
                 return true;
             }
 
@@ -368,11 +373,8 @@ public class NamespaceService {
                         lookupFuture.completeExceptionally(new IllegalStateException(
                                 String.format("Namespace bundle %s is currently being unloaded", bundle)));
                     } else {
-                        // Found owner for the namespace bundle
-
-                        // Schedule the task to pre-load destinations
-                        pulsar.loadNamespaceDestinations(bundle);
-
+                        // Found owner for the namespace bundle. The destinations are pre-loaded by the ownership
+                        // cache when the bundle is acquired
                         lookupFuture.complete(new LookupResult(ownerInfo));
                     }
                 }).exceptionally(exception -> {
@@ -442,7 +444,132 @@ public class NamespaceService {
     }
 
     public void unloadNamespaceBundle(NamespaceBundle bundle) throws Exception {
-        checkNotNull(ownershipCache.getOwnedBundle(bundle)).handleUnloadRequest(pulsar);
+        String handoffTarget = config.isLoadBalancerBundleHandoffEnabled() ? getHandoffTarget(bundle) : null;
+        if (handoffTarget != null) {
+            handoffNamespaceBundle(bundle, handoffTarget);
+        } else {
+            checkNotNull(ownershipCache.getOwnedBundle(bundle)).handleUnloadRequest(pulsar);
+        }
+    }
+
+    /**
+     * Choose the broker that will take over the bundle when it gets unloaded
+     *
+     * @param bundle
+     * @return the web service address of the new owner, or null if the bundle has to be simply unloaded
+     */
+    private String getHandoffTarget(NamespaceBundle bundle) {
+        if (checkHeartbeatNamespace(bundle) != null || getSLAMonitorBrokerName(bundle) != null) {
+            // These namespaces are bound to a specific broker
+            return null;
+        }
+        try {
+            ResourceUnit target = loadManager.getLeastLoaded(bundle);
+            if (target == null || pulsar.getWebServiceAddress().equals(target.getResourceId())) {
+                return null;
+            }
+            return target.getResourceId();
+        } catch (Exception e) {
+            LOG.warn("Failed to choose the broker to hand off bundle {} to: {}", bundle, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Unload the bundle transferring its ownership to the given broker, to minimize the unavailability of its topics:
+     * <ol>
+     * <li>the new owner gets ready to serve the bundle while its topics are still served by this broker, or refuses
+     * it, in which case the bundle is simply unloaded</li>
+     * <li>the bundle is fenced: its topics are closed, storing their last ledger stats and cursor positions in the
+     * metadata store so that the new owner can reopen them without recovering their ledgers, and the ownership is
+     * released</li>
+     * <li>the new owner acquires the ownership and loads the topics that were being served, so that they are ready
+     * when the clients reconnect and get redirected to it</li>
+     * </ol>
+     *
+     * @param bundle
+     * @param targetBroker
+     *            web service address of the new owner
+     * @throws Exception
+     */
+    public void handoffNamespaceBundle(NamespaceBundle bundle, String targetBroker) throws Exception {
+        OwnedBundle ownedBundle = checkNotNull(ownershipCache.getOwnedBundle(bundle));
+        final String namespace = bundle.getNamespaceObject().toString();
+        final String bundleRange = bundle.getBundleRange();
+
+        try (PulsarAdmin targetAdmin = new PulsarAdmin(new URL(targetBroker),
+                config.getBrokerClientAuthenticationPlugin(), config.getBrokerClientAuthenticationParameters())) {
+            try {
+                targetAdmin.namespaces().prepareNamespaceBundleHandoff(namespace, bundleRange);
+            } catch (PulsarAdminException e) {
+                LOG.warn("Broker {} can't take over bundle {}, unloading it: {}", targetBroker, bundle, e.getMessage());
+                ownedBundle.handleUnloadRequest(pulsar);
+                return;
+            }
+
+            List<String> topics = Lists.newArrayList();
+            pulsar.getBrokerService().getTopics().forEach((topic, topicFuture) -> {
+                if (bundle.includes(DestinationName.get(topic))) {
+                    topics.add(topic);
+                }
+            });
+
+            long handoffStartTime = System.nanoTime();
+            ownedBundle.handleUnloadRequest(pulsar);
+            try {
+                targetAdmin.namespaces().completeNamespaceBundleHandoff(namespace, bundleRange, topics);
+                LOG.info("Handed off bundle {} with {} topics to {} in {} ms", bundle, topics.size(), targetBroker,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - handoffStartTime));
+            } catch (PulsarAdminException e) {
+                // The bundle is unloaded anyway, it will be assigned on the next lookup
+                LOG.warn("Broker {} failed to take over bundle {}: {}", targetBroker, bundle, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get ready to take over a bundle that is going to be handed off by its current owner
+     *
+     * @param bundle
+     * @throws Exception
+     *             if the bundle can't be taken over by this broker
+     */
+    public void prepareNamespaceBundleHandoff(NamespaceBundle bundle) throws Exception {
+        if (pulsar.getState() != PulsarService.State.Started) {
+            throw new ServiceUnitNotReadyException("Broker is not ready to take over bundle " + bundle);
+        }
+        if (ownershipCache.getOwnedBundle(bundle) != null) {
+            throw new IllegalStateException("Bundle " + bundle + " is already owned by this broker");
+        }
+
+        // Warm up the caches used when acquiring the ownership and loading the topics
+        bundleFactory.getBundles(bundle.getNamespaceObject());
+    }
+
+    /**
+     * Take over a bundle that was just released by its previous owner, and load the topics it was serving
+     *
+     * @param bundle
+     * @param topics
+     *            the topics served by the previous owner
+     * @return the number of loaded topics
+     */
+    public CompletableFuture<Integer> completeNamespaceBundleHandoff(NamespaceBundle bundle, List<String> topics) {
+        final String myUrl = pulsar.getBrokerServiceUrl();
+        return ownershipCache.tryAcquiringOwnership(bundle).thenCompose(ownerInfo -> {
+            if (ownerInfo.isDisabled() || !myUrl.equals(ownerInfo.getNativeUrl())) {
+                return FutureUtil.failedFuture(new ServiceUnitNotReadyException(
+                        String.format("Bundle %s is owned by %s", bundle, ownerInfo.getNativeUrl())));
+            }
+
+            List<CompletableFuture<Topic>> topicFutures = Lists.newArrayList();
+            for (String topic : topics) {
+                if (bundle.includes(DestinationName.get(topic))) {
+                    topicFutures.add(pulsar.getBrokerService().getTopic(topic));
+                }
+            }
+            return FutureUtil.waitForAll(topicFutures).thenApply(topic -> topicFutures.size());
+        });
     }
 
     public Map<String, NamespaceOwnershipStatus> getOwnedNameSpacesStatus() throws Exception {
@@ -516,15 +643,40 @@ public class NamespaceService {
      * @throws Exception
      */
     public CompletableFuture<Void> splitAndOwnBundle(NamespaceBundle bundle) throws Exception {
+        return splitAndOwnBundle(bundle, 2 /* by default split into 2 */, false);
+    }
+
+    /**
+     * Same as {@link #splitAndOwnBundle(NamespaceBundle)}, splitting the bundle into <code>numBundles</code> bundles.
+     * <p>
+     * When <code>balanceByTraffic</code> is set, the split boundaries are placed so that the msg rate and bandwidth of
+     * the topics currently served in the bundle are evenly shared between the new bundles. The bundle might be split in
+     * fewer bundles if it doesn't contain enough topics, and it's split in equal hash ranges if it doesn't contain at
+     * least 2 topics.
+     *
+     * @param bundle
+     * @param numBundles
+     * @param balanceByTraffic
+     * @return
+     * @throws Exception
+     */
+    public CompletableFuture<Void> splitAndOwnBundle(NamespaceBundle bundle, int numBundles, boolean balanceByTraffic)
+            throws Exception {
 
         final CompletableFuture<Void> future = new CompletableFuture<>();
 
-        Pair<NamespaceBundles, List<NamespaceBundle>> splittedBundles = bundleFactory.splitBundles(bundle,
-                2 /* by default split into 2 */);
+        final long[] splitBoundaries = balanceByTraffic ? getTrafficBalancedSplitBoundaries(bundle, numBundles) : null;
+        final int expectedBundles = splitBoundaries != null ? splitBoundaries.length + 1 : numBundles;
+        Pair<NamespaceBundles, List<NamespaceBundle>> splittedBundles = splitBoundaries != null
+                ? bundleFactory.splitBundles(bundle, splitBoundaries) : bundleFactory.splitBundles(bundle, numBundles);
         if (splittedBundles != null) {
             checkNotNull(splittedBundles.getLeft());
             checkNotNull(splittedBundles.getRight());
-            checkArgument(splittedBundles.getRight().size() == 2, "bundle has to be split in two bundles");
+            checkArgument(splittedBundles.getRight().size() == expectedBundles, "bundle has to be split in %s bundles",
+                    expectedBundles);
+            if (splitBoundaries != null) {
+                LOG.info("Splitting bundle {} by traffic into {}", bundle, splittedBundles.getRight());
+            }
             NamespaceName nsname = bundle.getNamespaceObject();
             try {
                 // take ownership of newly split bundles
@@ -572,6 +724,37 @@ public class NamespaceService {
         return future;
     }
 
+    /**
+     * Compute the boundaries splitting the bundle in parts with the same traffic, weighting each topic by its msg rate
+     * and bandwidth relative to the bundle split thresholds.
+     *
+     * @param bundle
+     * @param numBundles
+     * @return the split boundaries, or null if the topics of the bundle don't allow a traffic based split
+     */
+    private long[] getTrafficBalancedSplitBoundaries(NamespaceBundle bundle, int numBundles) {
+        ConcurrentOpenHashMap<String, ConcurrentOpenHashMap<String, PersistentTopic>> namespaceTopics = pulsar
+                .getBrokerService().getMultiLayerTopicMap().get(bundle.getNamespaceObject().toString());
+        ConcurrentOpenHashMap<String, PersistentTopic> bundleTopics = namespaceTopics != null
+                ? namespaceTopics.get(bundle.toString()) : null;
+        if (bundleTopics == null || bundleTopics.isEmpty()) {
+            return null;
+        }
+
+        ServiceConfiguration conf = pulsar.getConfiguration();
+        final double maxMsgRate = Math.max(1, conf.getLoadBalancerNamespaceBundleMaxMsgRate());
+        final double maxBandwidth = Math.max(1, conf.getLoadBalancerNamespaceBundleMaxBandwidthMbytes()) * 1024.0
+                * 1024.0;
+        final Map<Long, Double> hashWeights = new HashMap<>();
+        bundleTopics.forEach((topicName, topic) -> {
+            PersistentTopicStats stats = topic.getStats();
+            double weight = (stats.msgRateIn + stats.msgRateOut) / maxMsgRate
+                    + (stats.msgThroughputIn + stats.msgThroughputOut) / maxBandwidth;
+            hashWeights.merge(bundleFactory.getLongHashCode(topicName), weight, Double::sum);
+        });
+        return NamespaceBundleFactory.getTrafficBalancedSplitBoundaries(bundle.getKeyRange(), hashWeights, numBundles);
+    }
+
     /**
      * update new bundle-range to LocalZk (create a new node if not present)
      *
@@ -84,6 +84,11 @@ public class OwnershipCache {
      */
     private final ZooKeeperDataCache<NamespaceEphemeralData> ownershipReadOnlyCache;
 
+    /**
+     * In-memory index of the bundle owners, used to answer the lookups without reading from <code>ZooKeeper</code>
+     */
+    private final OwnershipIndex ownershipIndex;
+
     /**
      * The loading cache of locally owned <code>NamespaceBundle</code> objects
      */
@@ -104,6 +109,11 @@ public class OwnershipCache {
      */
     private final NamespaceBundleFactory bundleFactory;
 
+    /**
+     * The <code>PulsarService</code> used to preload the topics of the acquired bundles
+     */
+    private final PulsarService pulsar;
+
     private class OwnedServiceUnitCacheLoader implements AsyncCacheLoader<String, OwnedBundle> {
 
         @SuppressWarnings("deprecation")
@@ -129,8 +139,14 @@ public class OwnershipCache {
                                 LOG.debug("Successfully acquired zk lock on {}", namespaceBundleZNode);
                             }
                             ownershipReadOnlyCache.invalidate(namespaceBundleZNode);
-                            future.complete(new OwnedBundle(
-                                    ServiceUnitZkUtils.suBundleFromPath(namespaceBundleZNode, bundleFactory)));
+                            NamespaceBundle bundle = ServiceUnitZkUtils.suBundleFromPath(namespaceBundleZNode,
+                                    bundleFactory);
+                            future.complete(new OwnedBundle(bundle));
+
+                            if (pulsar.getConfiguration().isPreloadTopicsOnBundleAcquisitionEnabled()) {
+                                // Warm up the topics of the newly acquired bundle before the clients look them up
+                                pulsar.loadNamespaceDestinations(bundle);
+                            }
                         } else {
                             // Failed to acquire lock
                             future.completeExceptionally(KeeperException.create(rc));
@@ -158,6 +174,9 @@ public class OwnershipCache {
                 }
             }, null);
             ownershipReadOnlyCache.invalidate(key);
+            if (value != null) {
+                ownershipIndex.invalidate(value.getNamespaceBundle());
+            }
         }
     }
 
@@ -175,8 +194,10 @@ public class OwnershipCache {
         this.selfOwnerInfoDisabled = new NamespaceEphemeralData(ownerBrokerUrl, ownerBrokerUrlTls,
                 pulsar.getWebServiceAddress(), pulsar.getWebServiceAddressTls(), true);
         this.bundleFactory = bundleFactory;
+        this.pulsar = pulsar;
         this.localZkCache = pulsar.getLocalZkCache();
         this.ownershipReadOnlyCache = pulsar.getLocalZkCacheService().ownerInfoCache();
+        this.ownershipIndex = new OwnershipIndex(localZkCache);
         // ownedBundlesCache contains all namespaces that are owned by the local broker
         this.ownedBundlesCache = Caffeine.newBuilder().executor(MoreExecutors.sameThreadExecutor())
                 .removalListener(new OwnedServiceUnitCacheRemovalListener())
@@ -204,7 +225,13 @@ public class OwnershipCache {
             });
         }
 
-        // If we're not the owner, we need to check if anybody else is
+        // If we're not the owner, we need to check if anybody else is. The index answers from memory once it has
+        // read the owners of the namespace
+        Optional<NamespaceEphemeralData> indexedOwner = ownershipIndex.getOwner(suname);
+        if (indexedOwner.isPresent()) {
+            return CompletableFuture.completedFuture(indexedOwner);
+        }
+
         return ownershipReadOnlyCache.getAsync(path);
     }
 
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.namespace;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.Watcher.Event.EventType;
+import org.apache.zookeeper.Watcher.Event.KeeperState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import com.yahoo.pulsar.common.naming.NamespaceBundle;
+import com.yahoo.pulsar.common.util.ObjectMapperFactory;
+import com.yahoo.pulsar.common.util.collections.ConcurrentOpenHashMap;
+import com.yahoo.pulsar.zookeeper.ZooKeeperCache;
+
+/**
+ * Broker-wide in-memory index of the bundle owners.
+ * <p>
+ * For each namespace that is looked up on this broker, the index keeps a sorted map from the bundle hash ranges to
+ * their owners. The map is kept current by a children watch on the namespace ownership z-node and by a data watch on
+ * each bundle ownership z-node, so that lookups can be answered from memory without going through the per-path
+ * <code>ZooKeeper</code> data cache.
+ * <p>
+ * The index only knows the owners it has already read: when it can't answer, the caller has to fall back to reading
+ * the ownership from <code>ZooKeeper</code>.
+ */
+public class OwnershipIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OwnershipIndex.class);
+
+    /**
+     * The <code>ZooKeeperCache</code> connecting to the local ZooKeeper
+     */
+    private final ZooKeeperCache localZkCache;
+
+    /**
+     * The <code>ObjectMapper</code> to deserialize the ownership z-nodes
+     */
+    private final ObjectMapper jsonMapper = ObjectMapperFactory.create();
+
+    /**
+     * The owned bundles of each indexed namespace, keyed by namespace name
+     */
+    private final ConcurrentOpenHashMap<String, NamespaceOwners> namespaces = new ConcurrentOpenHashMap<>();
+
+    public OwnershipIndex(ZooKeeperCache localZkCache) {
+        this.localZkCache = localZkCache;
+    }
+
+    /**
+     * Get the owner of a bundle from the index.
+     * <p>
+     * The first call for a namespace starts watching its ownership z-nodes and returns empty.
+     *
+     * @param bundle
+     *            the <code>NamespaceBundle</code> to look up
+     * @return the ownership data of the bundle, or empty if the index doesn't know the owner
+     */
+    public Optional<NamespaceEphemeralData> getOwner(NamespaceBundle bundle) {
+        String namespace = bundle.getNamespaceObject().toString();
+        NamespaceOwners owners = namespaces.get(namespace);
+        if (owners == null) {
+            NamespaceOwners newOwners = new NamespaceOwners(namespace);
+            owners = namespaces.putIfAbsent(namespace, newOwners);
+            if (owners == null) {
+                newOwners.watchOwners();
+                return Optional.empty();
+            }
+        }
+
+        return owners.getOwner(bundle.getBundleRange());
+    }
+
+    /**
+     * Drop a bundle from the index, e.g. when the local broker releases its ownership and the z-node watch hasn't
+     * fired yet.
+     *
+     * @param bundle
+     *            the <code>NamespaceBundle</code> to remove
+     */
+    public void invalidate(NamespaceBundle bundle) {
+        NamespaceOwners owners = namespaces.get(bundle.getNamespaceObject().toString());
+        if (owners != null) {
+            owners.remove(bundle.getBundleRange());
+        }
+    }
+
+    /**
+     * Number of bundles currently tracked by the index
+     */
+    public long size() {
+        long size = 0;
+        for (NamespaceOwners owners : namespaces.values()) {
+            size += owners.ownedRanges.size();
+        }
+        return size;
+    }
+
+    private class NamespaceOwners implements Watcher {
+        private final String namespace;
+        private final String path;
+
+        // Owned bundles, keyed by the lower endpoint of their hash range
+        private final ConcurrentSkipListMap<Long, OwnedRange> ownedRanges = new ConcurrentSkipListMap<>();
+
+        NamespaceOwners(String namespace) {
+            this.namespace = namespace;
+            this.path = ServiceUnitZkUtils.OWNER_INFO_ROOT + "/" + namespace;
+        }
+
+        Optional<NamespaceEphemeralData> getOwner(String bundleRange) {
+            Map.Entry<Long, OwnedRange> entry = ownedRanges.floorEntry(lowerEndpoint(bundleRange));
+            if (entry == null || !entry.getValue().bundleRange.equals(bundleRange)) {
+                // Either not owned, or the bundles were split and we haven't seen the new ones yet
+                return Optional.empty();
+            }
+
+            return Optional.ofNullable(entry.getValue().owner);
+        }
+
+        void remove(String bundleRange) {
+            OwnedRange range = ownedRanges.get(lowerEndpoint(bundleRange));
+            if (range != null && range.bundleRange.equals(bundleRange)) {
+                ownedRanges.remove(range.lowerEndpoint, range);
+            }
+        }
+
+        void watchOwners() {
+            localZkCache.getZooKeeper().getChildren(path, this, (rc, p, ctx, children) -> {
+                if (rc == KeeperException.Code.OK.intValue()) {
+                    updateOwnedRanges(children);
+                } else {
+                    // The namespace has no owned bundle yet or we failed to read it: stop indexing the namespace. It
+                    // will be watched again at the next lookup
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Failed to read the owned bundles of {}: {}", namespace,
+                                KeeperException.Code.get(rc));
+                    }
+                    namespaces.remove(namespace, this);
+                }
+            }, null);
+        }
+
+        private void updateOwnedRanges(List<String> children) {
+            Set<String> bundleRanges = Sets.newHashSet(children);
+            ownedRanges.values().removeIf(range -> !bundleRanges.contains(range.bundleRange));
+
+            for (String bundleRange : bundleRanges) {
+                Range<Long> hashRange;
+                try {
+                    hashRange = ServiceUnitZkUtils.getHashRange(bundleRange);
+                } catch (IllegalArgumentException e) {
+                    LOG.warn("Ignoring malformed bundle ownership z-node {}/{}", path, bundleRange);
+                    continue;
+                }
+
+                OwnedRange range = ownedRanges.get(hashRange.lowerEndpoint());
+                if (range == null || !range.bundleRange.equals(bundleRange)) {
+                    range = new OwnedRange(this, bundleRange, hashRange.lowerEndpoint());
+                    ownedRanges.put(range.lowerEndpoint, range);
+                    range.readOwner();
+                }
+            }
+        }
+
+        @Override
+        public void process(WatchedEvent event) {
+            if (event.getType() == EventType.NodeChildrenChanged || event.getType() == EventType.NodeCreated) {
+                watchOwners();
+            } else if (event.getType() == EventType.NodeDeleted || event.getState() == KeeperState.Expired) {
+                // The watches are gone with the node or the session
+                namespaces.remove(namespace, this);
+            }
+        }
+    }
+
+    private class OwnedRange implements Watcher {
+        private final NamespaceOwners namespaceOwners;
+        private final String bundleRange;
+        private final long lowerEndpoint;
+
+        // null until the ownership z-node has been read
+        private volatile NamespaceEphemeralData owner = null;
+
+        OwnedRange(NamespaceOwners namespaceOwners, String bundleRange, long lowerEndpoint) {
+            this.namespaceOwners = namespaceOwners;
+            this.bundleRange = bundleRange;
+            this.lowerEndpoint = lowerEndpoint;
+        }
+
+        void readOwner() {
+            String path = namespaceOwners.path + "/" + bundleRange;
+            localZkCache.getZooKeeper().getData(path, this, (rc, p, ctx, content, stat) -> {
+                if (rc == KeeperException.Code.OK.intValue()) {
+                    try {
+                        owner = jsonMapper.readValue(content, NamespaceEphemeralData.class);
+                        return;
+                    } catch (Exception e) {
+                        LOG.warn("Failed to deserialize the ownership data of {}: {}", path, e.getMessage());
+                    }
+                }
+
+                namespaceOwners.ownedRanges.remove(lowerEndpoint, this);
+            }, null);
+        }
+
+        @Override
+        public void process(WatchedEvent event) {
+            if (event.getType() == EventType.NodeDataChanged) {
+                // e.g. the owner is disabling the bundle before unloading it
+                readOwner();
+            } else if (event.getType() == EventType.NodeDeleted) {
+                namespaceOwners.ownedRanges.remove(lowerEndpoint, this);
+            }
+        }
+    }
+
+    private static long lowerEndpoint(String bundleRange) {
+        return Long.decode(bundleRange.substring(0, bundleRange.indexOf('_')));
+    }
+}
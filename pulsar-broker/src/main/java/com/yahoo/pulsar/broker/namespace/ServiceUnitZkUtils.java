@@ -78,7 +78,7 @@ public final class ServiceUnitZkUtils {
         return factory.getBundle(new NamespaceName(parts[2], parts[3], parts[4]), range);
     }
 
-    private static Range<Long> getHashRange(String rangePathPart) {
+    static Range<Long> getHashRange(String rangePathPart) {
         String[] endPoints = rangePathPart.split("_");
         checkArgument(endPoints.length == 2, "Malformed bundle hash range path part:" + rangePathPart);
         Long startLong = Long.decode(endPoints[0]);
@@ -136,6 +136,7 @@ public class BrokerService implements Closeable, ZooKeeperCacheListener<Policies
 
     private final int keepAliveIntervalSeconds;
     private final PulsarStats pulsarStats;
+    private final TopicLoadScheduler topicLoadScheduler;
     private final AuthenticationService authenticationService;
 
     public BrokerService(PulsarService pulsar) throws Exception {
@@ -149,6 +150,8 @@ public class BrokerService implements Closeable, ZooKeeperCacheListener<Policies
 
         this.multiLayerTopicsMap = new ConcurrentOpenHashMap<>();
         this.pulsarStats = new PulsarStats(pulsar);
+        this.topicLoadScheduler = new TopicLoadScheduler(pulsar.getConfiguration().getMaxConcurrentTopicLoadRequest(),
+                pulsar.getExecutor());
         this.offlineTopicStatCache = new ConcurrentOpenHashMap<>();
 
         final DefaultThreadFactory acceptorThreadFactory = new DefaultThreadFactory("pulsar-acceptor");
@@ -400,7 +403,7 @@ public class BrokerService implements Closeable, ZooKeeperCacheListener<Policies
     private CompletableFuture<Topic> createPersistentTopic(final String topic) throws RuntimeException {
         checkTopicNsOwnership(topic);
 
-        final long topicCreateTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        final long topicLoadRequestTimeNs = System.nanoTime();
         DestinationName destinationName = DestinationName.get(topic);
         if (!pulsar.getNamespaceService().isServiceUnitActive(destinationName)) {
             // namespace is being unloaded
@@ -411,6 +414,30 @@ public class BrokerService implements Closeable, ZooKeeperCacheListener<Policies
 
         final CompletableFuture<Topic> topicFuture = new CompletableFuture<>();
 
+        topicLoadScheduler.schedule(destinationName.getNamespace(), () -> {
+            long topicLoadQueueTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - topicLoadRequestTimeNs);
+            pulsarStats.recordTopicLoadQueueTimeValue(topic, topicLoadQueueTimeMs);
+
+            if (!pulsar.getNamespaceService().isServiceUnitActive(destinationName)) {
+                // The bundle was unloaded while the load was queued. The topic is removed from a different thread,
+                // since the task might be running while the topics map is being updated
+                String msg = String.format("Namespace is being unloaded, cannot add topic %s", topic);
+                log.warn(msg);
+                topicFuture.completeExceptionally(new ServiceUnitNotReadyException(msg));
+                pulsar.getExecutor().execute(() -> topics.remove(topic, topicFuture));
+            } else {
+                loadPersistentTopic(topic, destinationName, topicFuture);
+            }
+            return topicFuture;
+        });
+
+        return topicFuture;
+    }
+
+    private void loadPersistentTopic(final String topic, final DestinationName destinationName,
+            final CompletableFuture<Topic> topicFuture) {
+        final long topicCreateTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+
         getManagedLedgerConfig(destinationName).thenAccept(config -> {
             // Once we have the configuration, we can proceed with the async open operation
 
@@ -454,8 +481,6 @@ public class BrokerService implements Closeable, ZooKeeperCacheListener<Policies
             topicFuture.completeExceptionally(exception);
             return null;
         });
-
-        return topicFuture;
     }
 
     public CompletableFuture<ManagedLedgerConfig> getManagedLedgerConfig(DestinationName topicName) {
@@ -535,6 +560,9 @@ public class BrokerService implements Closeable, ZooKeeperCacheListener<Policies
                             .computeIfAbsent(topicName.getNamespace(), k -> new ConcurrentOpenHashMap<>()) //
                             .computeIfAbsent(serviceUnit, k -> new ConcurrentOpenHashMap<>()) //
                             .put(topicName.toString(), topic);
+                    // Bind the topic to the latency stats of its namespace while holding the lock, since they are
+                    // discarded when the last topic of the namespace is removed
+                    topic.setLatencyStats(pulsarStats.getNamespaceLatencyStats(topicName.getNamespace()));
                 }
             }
             invalidateOfflineTopicStatCache(topicName);
@@ -602,6 +630,10 @@ public class BrokerService implements Closeable, ZooKeeperCacheListener<Policies
         return pulsarStats.getDestinationMetrics();
     }
 
+    public ConcurrentOpenHashMap<String, ConcurrentOpenHashMap<String, ConcurrentOpenHashMap<String, PersistentTopic>>> getMultiLayerTopicMap() {
+        return multiLayerTopicsMap;
+    }
+
     public Map<String, NamespaceBundleStats> getBundleStats() {
         return pulsarStats.getBundleStats();
     }
@@ -744,6 +776,7 @@ public class BrokerService implements Closeable, ZooKeeperCacheListener<Policies
                     replicationClients.forEach((cluster, client) -> {
                         clusterReplicationMetrics.remove(clusterReplicationMetrics.getKeyName(namespaceName, cluster));
                     });
+                    pulsarStats.removeNamespaceLatencyStats(namespaceName);
                 }
             }
         } catch (Exception e) {
@@ -828,6 +861,10 @@ public class BrokerService implements Closeable, ZooKeeperCacheListener<Policies
         return authenticationService;
     }
 
+    public TopicLoadScheduler getTopicLoadScheduler() {
+        return topicLoadScheduler;
+    }
+
     public List<PersistentTopic> getAllTopicsFromNamespaceBundle(String namespace, String bundle) {
         return multiLayerTopicsMap.get(namespace).get(bundle).values();
     }
@@ -22,9 +22,11 @@ import static com.yahoo.pulsar.common.api.Commands.readChecksum;
 import java.time.Instant;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.bookkeeper.mledger.Entry;
+import org.apache.bookkeeper.mledger.Position;
 import org.apache.bookkeeper.mledger.impl.PositionImpl;
 import org.apache.bookkeeper.mledger.util.Rate;
 import org.apache.commons.lang3.tuple.MutablePair;
@@ -141,6 +143,14 @@ public class Consumer {
 
         sentMessages.setRight(updatePermitsAndPendingAcks(entries));
 
+        final long dispatchStartTimeNs = System.nanoTime();
+        writePromise.addListener(future -> {
+            if (future.isSuccess()) {
+                subscription.getTopic().getLatencyStats()
+                        .recordDispatchLatency(System.nanoTime() - dispatchStartTimeNs);
+            }
+        });
+
         ctx.channel().eventLoop().execute(() -> {
             for (int i = 0; i < entries.size(); i++) {
                 Entry entry = entries.get(i);
@@ -279,6 +289,40 @@ public class Consumer {
         });
     }
 
+    void doSeek(final long requestId, Position position) {
+        completeSeek(requestId, subscription.seek(position));
+    }
+
+    void doSeek(final long requestId, long timestamp) {
+        completeSeek(requestId, subscription.seek(timestamp));
+    }
+
+    private void completeSeek(final long requestId, CompletableFuture<Void> seekFuture) {
+        final ChannelHandlerContext ctx = cnx.ctx();
+
+        seekFuture.thenRun(() -> {
+            log.info("[{}] Reset subscription to new position", this);
+            // The client discards the messages it has received before the seek, they won't get acknowledged
+            if (pendingAcks != null) {
+                pendingAcks.clear();
+            }
+            unackedMessages.set(0);
+            blockedConsumerOnUnackedMsgs = false;
+
+            ctx.writeAndFlush(Commands.newSuccess(requestId));
+
+            // Resume dispatching only after the response is written, so that the client can tell apart the messages
+            // read before and after the seek
+            flowConsumerBlockedPermits(this);
+        }).exceptionally(exception -> {
+            log.warn("[{}] Failed to reset subscription", this, exception);
+            ctx.writeAndFlush(
+                    Commands.newError(requestId, BrokerServiceException.getClientErrorCode(exception.getCause()),
+                            exception.getCause().getMessage()));
+            return null;
+        });
+    }
+
     void messageAcked(CommandAck ack) {
         MessageIdData msgId = ack.getMessageId();
         PositionImpl position = PositionImpl.get(msgId.getLedgerId(), msgId.getEntryId());
@@ -48,4 +48,22 @@ public interface Dispatcher {
     void redeliverUnacknowledgedMessages(Consumer consumer);
 
     void redeliverUnacknowledgedMessages(Consumer consumer, List<PositionImpl> positions);
+
+    /**
+     * Notify the dispatcher that the cursor was moved to a different position. Any pending read is cancelled and the
+     * entries read from the previous position are discarded.
+     * <p>
+     * Dispatching is not resumed here: it will restart with the next flow control message.
+     */
+    void cursorIsReset();
+
+    /**
+     * @return the number of entries the dispatcher is currently asking for in each read operation
+     */
+    int getReadBatchSize();
+
+    /**
+     * @return the number of entries the last read operation of the dispatcher actually returned
+     */
+    int getLastEntriesRead();
 }
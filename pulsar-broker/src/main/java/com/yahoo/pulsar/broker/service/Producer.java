@@ -120,7 +120,8 @@ public class Producer {
 
         startPublishOperation();
         topic.publishMessage(headersAndPayload,
-                MessagePublishedCallback.get(this, sequenceId, msgIn, headersAndPayload.readableBytes(), batchSize));
+                MessagePublishedCallback.get(this, sequenceId, msgIn, headersAndPayload.readableBytes(), batchSize,
+                        System.nanoTime()));
     }
 
     private boolean verifyChecksum(ByteBuf headersAndPayload) {
@@ -176,6 +177,8 @@ public class Producer {
         private Rate rateIn;
         private int msgSize;
         private long batchSize;
+        private long startTimeNs;
+        private long persistedTimeNs;
 
         /**
          * Executed from managed ledger thread when the message is persisted
@@ -196,6 +199,8 @@ public class Producer {
 
                 this.ledgerId = ledgerId;
                 this.entryId = entryId;
+                this.persistedTimeNs = System.nanoTime();
+                producer.topic.getLatencyStats().recordPublishLatency(persistedTimeNs - startTimeNs);
                 producer.cnx.ctx().channel().eventLoop().execute(this);
             }
         }
@@ -215,19 +220,21 @@ public class Producer {
             producer.cnx.ctx().writeAndFlush(
                     Commands.newSendReceipt(producer.producerId, sequenceId, ledgerId, entryId),
                     producer.cnx.ctx().voidPromise());
+            producer.topic.getLatencyStats().recordSendReceiptLatency(System.nanoTime() - persistedTimeNs);
             producer.cnx.completedSendOperation();
             producer.publishOperationCompleted();
             recycle();
         }
 
         static MessagePublishedCallback get(Producer producer, long sequenceId, Rate rateIn, int msgSize,
-                long batchSize) {
+                long batchSize, long startTimeNs) {
             MessagePublishedCallback callback = RECYCLER.get();
             callback.producer = producer;
             callback.sequenceId = sequenceId;
             callback.rateIn = rateIn;
             callback.msgSize = msgSize;
             callback.batchSize = batchSize;
+            callback.startTimeNs = startTimeNs;
             return callback;
         }
 
@@ -251,6 +258,8 @@ public class Producer {
             ledgerId = -1;
             entryId = -1;
             batchSize = 0;
+            startTimeNs = -1;
+            persistedTimeNs = -1;
             RECYCLER.recycle(this, recyclerHandle);
         }
     }
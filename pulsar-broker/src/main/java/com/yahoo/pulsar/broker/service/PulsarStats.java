@@ -31,6 +31,7 @@ import com.yahoo.pulsar.broker.service.persistent.PersistentTopic;
 import com.yahoo.pulsar.broker.stats.BrokerOperabilityMetrics;
 import com.yahoo.pulsar.broker.stats.ClusterReplicationMetrics;
 import com.yahoo.pulsar.broker.stats.Metrics;
+import com.yahoo.pulsar.broker.stats.NamespaceLatencyStats;
 import com.yahoo.pulsar.broker.stats.NamespaceStats;
 import com.yahoo.pulsar.common.naming.NamespaceBundle;
 import com.yahoo.pulsar.common.policies.data.loadbalancer.NamespaceBundleStats;
@@ -52,6 +53,7 @@ public class PulsarStats implements Closeable {
     private List<Metrics> tempMetricsCollection;
     private List<Metrics> metricsCollection;
     private final BrokerOperabilityMetrics brokerOperabilityMetrics;
+    private final ConcurrentOpenHashMap<String, NamespaceLatencyStats> namespaceLatencyStats;
 
     private final ReentrantReadWriteLock bufferLock = new ReentrantReadWriteLock();
 
@@ -67,6 +69,7 @@ public class PulsarStats implements Closeable {
         this.metricsCollection = Lists.newArrayList();
         this.brokerOperabilityMetrics = new BrokerOperabilityMetrics(pulsar.getConfiguration().getClusterName(),
                 pulsar.getAdvertisedAddress());
+        this.namespaceLatencyStats = new ConcurrentOpenHashMap<>();
     }
 
     @Override
@@ -102,6 +105,12 @@ public class PulsarStats implements Closeable {
 
                     nsStats.reset();
 
+                    NamespaceLatencyStats latencyStats = namespaceLatencyStats.get(namespaceName);
+                    if (latencyStats != null) {
+                        latencyStats.refresh();
+                        latencyStats.writeTo(topicStatsStream);
+                    }
+
                     bundles.forEach((bundle, topics) -> {
                         NamespaceBundleStats currentBundleStats = bundleStats.computeIfAbsent(bundle,
                                 k -> new NamespaceBundleStats());
@@ -128,7 +137,11 @@ public class PulsarStats implements Closeable {
 
                     topicStatsStream.endObject();
                     // Update metricsCollection with namespace stats
-                    tempMetricsCollection.add(nsStats.add(namespaceName));
+                    Metrics namespaceMetrics = nsStats.add(namespaceName);
+                    if (latencyStats != null) {
+                        latencyStats.addTo(namespaceMetrics);
+                    }
+                    tempMetricsCollection.add(namespaceMetrics);
                 } catch (Exception e) {
                     log.error("Failed to generate namespace stats for namespace {}: {}", namespaceName, e.getMessage(),
                             e);
@@ -180,6 +193,14 @@ public class PulsarStats implements Closeable {
         return bundleStats;
     }
 
+    public NamespaceLatencyStats getNamespaceLatencyStats(String namespace) {
+        return namespaceLatencyStats.computeIfAbsent(namespace, k -> new NamespaceLatencyStats());
+    }
+
+    public void removeNamespaceLatencyStats(String namespace) {
+        namespaceLatencyStats.remove(namespace);
+    }
+
     public void recordTopicLoadTimeValue(String topic, long topicLoadLatencyMs) {
         try {
             brokerOperabilityMetrics.recordTopicLoadTimeValue(topicLoadLatencyMs);
@@ -187,4 +208,12 @@ public class PulsarStats implements Closeable {
             log.warn("Exception while recording topic load time for topic {}, {}", topic, ex.getMessage());
         }
     }
+
+    public void recordTopicLoadQueueTimeValue(String topic, long topicLoadQueueTimeMs) {
+        try {
+            brokerOperabilityMetrics.recordTopicLoadQueueTimeValue(topicLoadQueueTimeMs);
+        } catch (Exception ex) {
+            log.warn("Exception while recording topic load queue time for topic {}, {}", topic, ex.getMessage());
+        }
+    }
 }
@@ -24,11 +24,14 @@ import java.util.concurrent.TimeUnit;
 import javax.naming.AuthenticationException;
 import javax.net.ssl.SSLSession;
 
+import org.apache.bookkeeper.mledger.impl.PositionImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.yahoo.pulsar.broker.authentication.AuthenticationDataCommand;
 import com.yahoo.pulsar.broker.service.BrokerServiceException.ServiceUnitNotReadyException;
+import com.yahoo.pulsar.client.impl.BatchMessageIdImpl;
+import com.yahoo.pulsar.client.impl.MessageIdImpl;
 import com.yahoo.pulsar.common.api.Commands;
 import com.yahoo.pulsar.common.api.PulsarHandler;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandAck;
@@ -38,10 +41,12 @@ import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandConnect;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandFlow;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandProducer;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandRedeliverUnacknowledgedMessages;
+import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSend;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSubscribe;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSubscribe.SubType;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandUnsubscribe;
+import com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.MessageMetadata;
 import static com.yahoo.pulsar.common.api.proto.PulsarApi.ProtocolVersion.v5;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.ServerError;
@@ -200,6 +205,11 @@ public class ServerCnx extends PulsarHandler {
         final long consumerId = subscribe.getConsumerId();
         final SubType subType = subscribe.getSubType();
         final String consumerName = subscribe.getConsumerName();
+        final boolean isDurable = subscribe.getDurable();
+        final MessageIdData msgIdData = subscribe.hasStartMessageId() ? subscribe.getStartMessageId() : null;
+        // Make a copy since the command is recycled once this method returns
+        final MessageIdImpl startMessageId = msgIdData != null ? new BatchMessageIdImpl(msgIdData.getLedgerId(),
+                msgIdData.getEntryId(), msgIdData.getPartition(), msgIdData.getBatchIndex()) : null;
 
         log.info("[{}] Subscribing on topic {} / {}", remoteAddress, topicName, subscriptionName);
 
@@ -226,8 +236,8 @@ public class ServerCnx extends PulsarHandler {
         }
 
         service.getTopic(topicName)
-                .thenCompose(
-                        topic -> topic.subscribe(ServerCnx.this, subscriptionName, consumerId, subType, consumerName))
+                .thenCompose(topic -> topic.subscribe(ServerCnx.this, subscriptionName, consumerId, subType,
+                        consumerName, isDurable, startMessageId))
                 .thenAccept(consumer -> {
                     if (consumerFuture.complete(consumer)) {
                         log.info("[{}] Created subscription on topic {} / {}", remoteAddress, topicName,
@@ -478,6 +488,31 @@ public class ServerCnx extends PulsarHandler {
         }
     }
 
+    @Override
+    protected void handleSeek(CommandSeek seek) {
+        checkArgument(state == State.Connected);
+        final long requestId = seek.getRequestId();
+        CompletableFuture<Consumer> consumerFuture = consumers.get(seek.getConsumerId());
+
+        if (!seek.hasMessageId() && !seek.hasMessagePublishTime()) {
+            ctx.writeAndFlush(Commands.newError(requestId, ServerError.MetadataError,
+                    "Message id and message publish time were not present"));
+            return;
+        }
+
+        if (consumerFuture != null && consumerFuture.isDone() && !consumerFuture.isCompletedExceptionally()) {
+            Consumer consumer = consumerFuture.getNow(null);
+            if (seek.hasMessageId()) {
+                MessageIdData msgIdData = seek.getMessageId();
+                consumer.doSeek(requestId, new PositionImpl(msgIdData.getLedgerId(), msgIdData.getEntryId()));
+            } else {
+                consumer.doSeek(requestId, seek.getMessagePublishTime());
+            }
+        } else {
+            ctx.writeAndFlush(Commands.newError(requestId, ServerError.MetadataError, "Consumer not found"));
+        }
+    }
+
     @Override
     protected void handleCloseProducer(CommandCloseProducer closeProducer) {
         checkArgument(state == State.Connected);
@@ -20,6 +20,7 @@ import java.util.concurrent.CompletableFuture;
 
 import com.yahoo.pulsar.common.api.proto.PulsarApi;
 import org.apache.bookkeeper.mledger.Entry;
+import org.apache.bookkeeper.mledger.Position;
 import org.apache.bookkeeper.mledger.impl.PositionImpl;
 
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandAck.AckType;
@@ -35,6 +36,8 @@ public interface Subscription {
 
     String getDestination();
 
+    Topic getTopic();
+
     Dispatcher getDispatcher();
 
     long getNumberOfEntriesInBacklog();
@@ -55,6 +58,10 @@ public interface Subscription {
 
     CompletableFuture<Void> resetCursor(long timestamp);
 
+    CompletableFuture<Void> seek(long timestamp);
+
+    CompletableFuture<Void> seek(Position position);
+
     CompletableFuture<Entry> peekNthMessage(int messagePosition);
 
     void expireMessages(int messageTTLInSeconds);
@@ -18,6 +18,8 @@ package com.yahoo.pulsar.broker.service;
 import java.util.concurrent.CompletableFuture;
 
 import com.yahoo.pulsar.broker.service.persistent.PersistentSubscription;
+import com.yahoo.pulsar.broker.stats.NamespaceLatencyStats;
+import com.yahoo.pulsar.client.api.MessageId;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSubscribe.SubType;
 import com.yahoo.pulsar.common.policies.data.BacklogQuota;
 import com.yahoo.pulsar.common.policies.data.Policies;
@@ -39,7 +41,7 @@ public interface Topic {
     void removeProducer(Producer producer);
 
     CompletableFuture<Consumer> subscribe(ServerCnx cnx, String subscriptionName, long consumerId, SubType subType,
-            String consumerName);
+            String consumerName, boolean isDurable, MessageId startMessageId);
 
     CompletableFuture<Void> unsubscribe(String subName);
 
@@ -64,4 +66,9 @@ public interface Topic {
     boolean isBacklogQuotaExceeded(String producerName);
 
     BacklogQuota getBacklogQuota();
+
+    /**
+     * @return the recorders for the latency of the publish and dispatch stages of this topic namespace
+     */
+    NamespaceLatencyStats getLatencyStats();
 }
@@ -0,0 +1,163 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.service;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Limit the number of topics that are loaded at the same time by the broker.
+ * <p>
+ * When a broker starts or acquires a bundle, thousands of topics can be looked up at once and opening all of their
+ * managed ledgers concurrently overwhelms ZooKeeper and BookKeeper. Loads exceeding the concurrency limit are queued
+ * per namespace, and the queues are served round-robin so that a namespace with many topics doesn't starve the
+ * others.
+ */
+public class TopicLoadScheduler {
+
+    private final int maxConcurrentLoads;
+    private final Executor executor;
+
+    private int activeLoads = 0;
+    private int pendingLoads = 0;
+
+    // Pending loads, grouped by namespace. The namespace at the head of the map is the next one to be served and is
+    // moved back to the tail after each dispatched load
+    private final Map<String, Queue<Runnable>> pendingLoadsByNamespace = new LinkedHashMap<>();
+
+    /**
+     *
+     * @param maxConcurrentLoads
+     *            max number of loads in progress at any given time
+     * @param executor
+     *            executor used to start the queued loads once a running load completes
+     */
+    public TopicLoadScheduler(int maxConcurrentLoads, Executor executor) {
+        checkArgument(maxConcurrentLoads > 0, "maxConcurrentLoads must be greater than 0");
+        this.maxConcurrentLoads = maxConcurrentLoads;
+        this.executor = executor;
+    }
+
+    /**
+     * Schedule the load of a topic.
+     * <p>
+     * The load task is started right away if the concurrency limit allows it, otherwise it is started once its turn
+     * comes. The load counts against the limit until the future returned by the task is completed.
+     *
+     * @param namespace
+     *            namespace of the topic, used to order the pending loads fairly
+     * @param loadTask
+     *            task starting the load of the topic
+     * @return a future completed with the outcome of the load
+     */
+    public <T> CompletableFuture<T> schedule(String namespace, Supplier<CompletableFuture<T>> loadTask) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable load = () -> runLoad(loadTask, future);
+
+        synchronized (this) {
+            if (activeLoads >= maxConcurrentLoads) {
+                pendingLoadsByNamespace.computeIfAbsent(namespace, ns -> new ArrayDeque<>()).add(load);
+                ++pendingLoads;
+                return future;
+            }
+
+            ++activeLoads;
+        }
+
+        load.run();
+        return future;
+    }
+
+    private <T> void runLoad(Supplier<CompletableFuture<T>> loadTask, CompletableFuture<T> future) {
+        CompletableFuture<T> loadFuture;
+        try {
+            loadFuture = loadTask.get();
+        } catch (Throwable t) {
+            loadCompleted();
+            future.completeExceptionally(t);
+            return;
+        }
+
+        loadFuture.whenComplete((result, exception) -> {
+            loadCompleted();
+            if (exception != null) {
+                future.completeExceptionally(exception);
+            } else {
+                future.complete(result);
+            }
+        });
+    }
+
+    private void loadCompleted() {
+        Runnable nextLoad;
+
+        synchronized (this) {
+            nextLoad = pollNextPendingLoad();
+            if (nextLoad == null) {
+                --activeLoads;
+                return;
+            }
+        }
+
+        // The permit of the completed load is handed over to the next one. The load is started on the executor to
+        // avoid growing the stack when loads complete synchronously
+        try {
+            executor.execute(nextLoad);
+        } catch (Throwable t) {
+            log.warn("Failed to start queued topic load: {}", t.getMessage());
+            nextLoad.run();
+        }
+    }
+
+    private Runnable pollNextPendingLoad() {
+        Iterator<Map.Entry<String, Queue<Runnable>>> it = pendingLoadsByNamespace.entrySet().iterator();
+        if (!it.hasNext()) {
+            return null;
+        }
+
+        Map.Entry<String, Queue<Runnable>> entry = it.next();
+        Runnable load = entry.getValue().poll();
+        it.remove();
+        if (!entry.getValue().isEmpty()) {
+            // Give the other namespaces a turn before serving this one again
+            pendingLoadsByNamespace.put(entry.getKey(), entry.getValue());
+        }
+
+        --pendingLoads;
+        return load;
+    }
+
+    public synchronized int getActiveLoads() {
+        return activeLoads;
+    }
+
+    public synchronized int getPendingLoads() {
+        return pendingLoads;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(TopicLoadScheduler.class);
+}
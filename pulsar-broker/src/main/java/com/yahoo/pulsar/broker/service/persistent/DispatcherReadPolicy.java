@@ -0,0 +1,133 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.service.persistent;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.bookkeeper.mledger.Entry;
+
+import com.yahoo.pulsar.broker.ServiceConfiguration;
+
+/**
+ * Decides how many entries a dispatcher (or replicator) should read from the managed ledger in the next read operation.
+ * <p>
+ * The number of entries is capped by:
+ * <ul>
+ * <li>the number of permits available on the consumer side</li>
+ * <li>a batch size that grows while reads are fast and shrinks when reads are slow or failing</li>
+ * <li>the configured byte budget per read, converted into entries using the average entry size of the topic</li>
+ * </ul>
+ *
+ * Instances are not thread-safe: the owner must ensure there is at most one read operation in progress at any time
+ * or hold its own lock when calling the policy.
+ */
+class DispatcherReadPolicy {
+
+    private final PersistentTopic topic;
+    private final int maxReadBatchSize;
+    private final long maxReadSizeBytes;
+    private final long slowReadThresholdNanos;
+
+    private int readBatchSize;
+    private int lastEntriesToRead = 0;
+    private int lastEntriesRead = 0;
+    private long readStartTimeNanos = 0;
+
+    DispatcherReadPolicy(PersistentTopic topic, ServiceConfiguration conf) {
+        this(topic, conf.getDispatcherMaxReadBatchSize(), conf.getDispatcherMaxReadSizeBytes(),
+                conf.getDispatcherSlowReadThresholdMillis());
+    }
+
+    DispatcherReadPolicy(PersistentTopic topic, int maxReadBatchSize, long maxReadSizeBytes,
+            long slowReadThresholdMillis) {
+        this.topic = topic;
+        this.maxReadBatchSize = Math.max(1, maxReadBatchSize);
+        this.maxReadSizeBytes = maxReadSizeBytes;
+        this.slowReadThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowReadThresholdMillis);
+        this.readBatchSize = this.maxReadBatchSize;
+    }
+
+    /**
+     * Compute the number of entries to read and mark the beginning of a new read operation.
+     *
+     * @param availablePermits
+     *            number of messages the consumers are ready to receive
+     * @return the number of entries to read, at least 1
+     */
+    int getEntriesToRead(int availablePermits) {
+        int entriesToRead = Math.min(availablePermits, readBatchSize);
+
+        double averageEntrySize = topic.getAverageEntrySize();
+        if (maxReadSizeBytes > 0 && averageEntrySize > 0) {
+            entriesToRead = (int) Math.min(entriesToRead, maxReadSizeBytes / averageEntrySize);
+        }
+
+        lastEntriesToRead = Math.max(1, entriesToRead);
+        readStartTimeNanos = System.nanoTime();
+        return lastEntriesToRead;
+    }
+
+    /**
+     * Update the batch size after a successful read.
+     * <p>
+     * A read that returned less entries than requested has reached the end of the topic and might have been waiting
+     * for new entries to be published, so its latency is neither recorded nor taken into account.
+     */
+    void readCompleted(List<Entry> entries) {
+        long totalSize = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            totalSize += entries.get(i).getLength();
+        }
+        topic.updateAverageEntrySize(totalSize, entries.size());
+        lastEntriesRead = entries.size();
+
+        long readLatencyNanos = System.nanoTime() - readStartTimeNanos;
+        boolean isFullRead = entries.size() >= lastEntriesToRead;
+        if (isFullRead) {
+            topic.getLatencyStats().recordCursorReadLatency(readLatencyNanos);
+        }
+
+        if (isFullRead && readLatencyNanos > slowReadThresholdNanos) {
+            readBatchSize = Math.max(1, readBatchSize / 2);
+        } else if (readBatchSize < maxReadBatchSize) {
+            readBatchSize = Math.min(readBatchSize * 2, maxReadBatchSize);
+        }
+    }
+
+    /**
+     * Reduce read batch size to avoid flooding bookies with retries.
+     */
+    void readFailed() {
+        readBatchSize = 1;
+        lastEntriesRead = 0;
+    }
+
+    /**
+     * @return the batch size, in number of entries, currently chosen by the policy
+     */
+    int getReadBatchSize() {
+        return readBatchSize;
+    }
+
+    /**
+     * @return the number of entries returned by the last read operation, once capped by the permits, the byte budget
+     *         and the end of the topic
+     */
+    int getLastEntriesRead() {
+        return lastEntriesRead;
+    }
+}
@@ -51,7 +51,6 @@ import com.yahoo.pulsar.utils.CopyOnWriteArrayList;
  */
 public class PersistentDispatcherMultipleConsumers implements Dispatcher, ReadEntriesCallback {
 
-    private static final int MaxReadBatchSize = 100;
     private static final int MaxRoundRobinBatchSize = 20;
 
     private final PersistentTopic topic;
@@ -66,10 +65,11 @@ public class PersistentDispatcherMultipleConsumers implements Dispatcher, ReadEn
     private boolean havePendingRead = false;
     private boolean havePendingReplayRead = false;
     private boolean shouldRewindBeforeReadingOrReplaying = false;
+    private boolean shouldDiscardPendingReplay = false;
     private final String name;
 
     private int totalAvailablePermits = 0;
-    private int readBatchSize;
+    private final DispatcherReadPolicy readPolicy;
     private final Backoff readFailureBackoff = new Backoff(15, TimeUnit.SECONDS, 1, TimeUnit.MINUTES);
 
     enum ReadType {
@@ -81,7 +81,7 @@ public class PersistentDispatcherMultipleConsumers implements Dispatcher, ReadEn
         this.name = topic.getName() + " / " + Codec.decode(cursor.getName());
         this.topic = topic;
         this.messagesToReplay = Sets.newTreeSet();
-        this.readBatchSize = MaxReadBatchSize;
+        this.readPolicy = new DispatcherReadPolicy(topic, topic.getBrokerService().pulsar().getConfiguration());
     }
 
     @Override
@@ -152,16 +152,17 @@ public class PersistentDispatcherMultipleConsumers implements Dispatcher, ReadEn
 
     private void readMoreEntries() {
         if (totalAvailablePermits > 0 && isAtleastOneConsumerAvailable()) {
-            int messagesToRead = Math.min(totalAvailablePermits, readBatchSize);
-
             if (!messagesToReplay.isEmpty()) {
                 if (havePendingReplayRead) {
                     log.debug("[{}] Skipping replay while awaiting previous read to complete", name);
                     return;
                 }
 
+                // Replays read scattered entries: they are bounded by the current batch size, but they don't feed the
+                // read policy, which only tracks the sequential cursor reads
+                int messagesToReplayCount = Math.min(totalAvailablePermits, readPolicy.getReadBatchSize());
                 Set<PositionImpl> messagesToReplayNow = ImmutableSet
-                        .copyOf(Iterables.limit(messagesToReplay, messagesToRead));
+                        .copyOf(Iterables.limit(messagesToReplay, messagesToReplayCount));
 
                 if (log.isDebugEnabled()) {
                     log.debug("[{}] Schedule replay of {} messages for {} consumers", name, messagesToReplayNow.size(),
@@ -180,6 +181,7 @@ public class PersistentDispatcherMultipleConsumers implements Dispatcher, ReadEn
                     readMoreEntries();
                 }
             } else if (!havePendingRead) {
+                int messagesToRead = readPolicy.getEntriesToRead(totalAvailablePermits);
                 if (log.isDebugEnabled()) {
                     log.debug("[{}] Schedule read of {} messages for {} consumers", name, messagesToRead,
                             consumerList.size());
@@ -196,6 +198,16 @@ public class PersistentDispatcherMultipleConsumers implements Dispatcher, ReadEn
         }
     }
 
+    @Override
+    public int getReadBatchSize() {
+        return readPolicy.getReadBatchSize();
+    }
+
+    @Override
+    public int getLastEntriesRead() {
+        return readPolicy.getLastEntriesRead();
+    }
+
     @Override
     public boolean isConsumerConnected() {
         return !consumerList.isEmpty();
@@ -242,13 +254,11 @@ public class PersistentDispatcherMultipleConsumers implements Dispatcher, ReadEn
             havePendingReplayRead = false;
         }
 
-        if (readBatchSize < MaxReadBatchSize) {
-            int newReadBatchSize = Math.min(readBatchSize * 2, MaxReadBatchSize);
+        if (readType == ReadType.Normal) {
+            readPolicy.readCompleted(entries);
             if (log.isDebugEnabled()) {
-                log.debug("[{}] Increasing read batch size from {} to {}", name, readBatchSize, newReadBatchSize);
+                log.debug("[{}] Read batch size is now {}", name, readPolicy.getReadBatchSize());
             }
-
-            readBatchSize = newReadBatchSize;
         }
 
         readFailureBackoff.reduceToHalf();
@@ -262,6 +272,14 @@ public class PersistentDispatcherMultipleConsumers implements Dispatcher, ReadEn
             return;
         }
 
+        if (shouldDiscardPendingReplay && readType == ReadType.Replay) {
+            // The cursor was reset while the replay was in progress
+            entries.forEach(Entry::release);
+            shouldDiscardPendingReplay = false;
+            readMoreEntries();
+            return;
+        }
+
         if (log.isDebugEnabled()) {
             log.debug("[{}] Distributing {} messages to {} consumers", name, entries.size(), consumerList.size());
         }
@@ -331,13 +349,15 @@ public class PersistentDispatcherMultipleConsumers implements Dispatcher, ReadEn
             havePendingRead = false;
         } else {
             havePendingReplayRead = false;
+            shouldDiscardPendingReplay = false;
             if (exception instanceof ManagedLedgerException.InvalidReplayPositionException) {
                 PositionImpl markDeletePosition = (PositionImpl) cursor.getMarkDeletedPosition();
                 messagesToReplay.removeIf(current -> current.compareTo(markDeletePosition) <= 0);
             }
         }
 
-        readBatchSize = 1;
+        // Reduce read batch size to avoid flooding bookies with retries
+        readPolicy.readFailed();
 
         topic.getBrokerService().executor().schedule(() -> {
             synchronized (PersistentDispatcherMultipleConsumers.this) {
@@ -420,5 +440,24 @@ public class PersistentDispatcherMultipleConsumers implements Dispatcher, ReadEn
         readMoreEntries();
     }
 
+    @Override
+    public synchronized void cursorIsReset() {
+        if (havePendingRead && cursor.cancelPendingReadRequest()) {
+            havePendingRead = false;
+        }
+
+        if (havePendingRead) {
+            // The read will update the read position when completing, we need to discard it and rewind
+            shouldRewindBeforeReadingOrReplaying = true;
+        } else {
+            cursor.rewind();
+        }
+
+        if (havePendingReplayRead) {
+            shouldDiscardPendingReplay = true;
+        }
+        messagesToReplay.clear();
+    }
+
     private static final Logger log = LoggerFactory.getLogger(PersistentDispatcherMultipleConsumers.class);
 }
@@ -49,14 +49,14 @@ public final class PersistentDispatcherSingleActiveConsumer implements Dispatche
     private final AtomicReference<Consumer> activeConsumer = new AtomicReference<Consumer>();
     private final CopyOnWriteArrayList<Consumer> consumers;
     private boolean havePendingRead = false;
+    private boolean shouldRewindBeforeReading = false;
     private CompletableFuture<Void> closeFuture = null;
     private final int partitionIndex;
 
     // This dispatcher supports both the Exclusive and Failover subscription types
     private final SubType subscriptionType;
 
-    private static final int MaxReadBatchSize = 100;
-    private int readBatchSize;
+    private final DispatcherReadPolicy readPolicy;
     private final Backoff readFailureBackoff = new Backoff(15, TimeUnit.SECONDS, 1, TimeUnit.MINUTES);
 
     public PersistentDispatcherSingleActiveConsumer(ManagedCursor cursor, SubType subscriptionType, int partitionIndex,
@@ -66,7 +66,7 @@ public final class PersistentDispatcherSingleActiveConsumer implements Dispatche
         this.consumers = new CopyOnWriteArrayList<>();
         this.partitionIndex = partitionIndex;
         this.subscriptionType = subscriptionType;
-        this.readBatchSize = MaxReadBatchSize;
+        this.readPolicy = new DispatcherReadPolicy(topic, topic.getBrokerService().pulsar().getConfiguration());
     }
 
     private void pickAndScheduleActiveConsumer() {
@@ -177,14 +177,21 @@ public final class PersistentDispatcherSingleActiveConsumer implements Dispatche
 
         havePendingRead = false;
 
-        if (readBatchSize < MaxReadBatchSize) {
-            int newReadBatchSize = Math.min(readBatchSize * 2, MaxReadBatchSize);
-            if (log.isDebugEnabled()) {
-                log.debug("[{}] Increasing read batch size from {} to {}", readConsumer, readBatchSize,
-                        newReadBatchSize);
+        if (shouldRewindBeforeReading) {
+            // The cursor was reset while the read operation was in progress
+            entries.forEach(Entry::release);
+            cursor.rewind();
+            shouldRewindBeforeReading = false;
+            Consumer currentConsumer = activeConsumer.get();
+            if (currentConsumer != null) {
+                readMoreEntries(currentConsumer);
             }
+            return;
+        }
 
-            readBatchSize = newReadBatchSize;
+        readPolicy.readCompleted(entries);
+        if (log.isDebugEnabled()) {
+            log.debug("[{}] Read batch size is now {}", readConsumer, readPolicy.getReadBatchSize());
         }
 
         readFailureBackoff.reduceToHalf();
@@ -268,6 +275,30 @@ public final class PersistentDispatcherSingleActiveConsumer implements Dispatche
         redeliverUnacknowledgedMessages(consumer);
     }
 
+    @Override
+    public synchronized void cursorIsReset() {
+        if (havePendingRead && cursor.cancelPendingReadRequest()) {
+            havePendingRead = false;
+        }
+
+        if (havePendingRead) {
+            // The read will update the read position when completing, we need to discard it and rewind
+            shouldRewindBeforeReading = true;
+        } else {
+            cursor.rewind();
+        }
+    }
+
+    @Override
+    public int getReadBatchSize() {
+        return readPolicy.getReadBatchSize();
+    }
+
+    @Override
+    public int getLastEntriesRead() {
+        return readPolicy.getLastEntriesRead();
+    }
+
     private void readMoreEntries(Consumer consumer) {
         int availablePermits = consumer.getAvailablePermits();
 
@@ -280,7 +311,7 @@ public final class PersistentDispatcherSingleActiveConsumer implements Dispatche
                 availablePermits = 1;
             }
 
-            int messagesToRead = Math.min(availablePermits, readBatchSize);
+            int messagesToRead = readPolicy.getEntriesToRead(availablePermits);
 
             // Schedule read
             if (log.isDebugEnabled()) {
@@ -301,6 +332,11 @@ public final class PersistentDispatcherSingleActiveConsumer implements Dispatche
         havePendingRead = false;
         Consumer c = (Consumer) ctx;
 
+        if (shouldRewindBeforeReading) {
+            shouldRewindBeforeReading = false;
+            cursor.rewind();
+        }
+
         long waitTimeMillis = readFailureBackoff.next();
 
         if (!(exception instanceof TooManyRequestsException)) {
@@ -316,7 +352,7 @@ public final class PersistentDispatcherSingleActiveConsumer implements Dispatche
         checkNotNull(c);
 
         // Reduce read batch size to avoid flooding bookies with retries
-        readBatchSize = 1;
+        readPolicy.readFailed();
 
         topic.getBrokerService().executor().schedule(() -> {
             synchronized (PersistentDispatcherSingleActiveConsumer.this) {
@@ -36,6 +36,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.yahoo.pulsar.common.policies.data.ReplicatorStats;
+import com.yahoo.pulsar.broker.ServiceConfiguration;
 import com.yahoo.pulsar.broker.service.BrokerService;
 import com.yahoo.pulsar.broker.service.BrokerServiceException.TopicBusyException;
 import com.yahoo.pulsar.client.api.MessageId;
@@ -63,8 +64,7 @@ public class PersistentReplicator implements ReadEntriesCallback, DeleteCallback
     private volatile ProducerImpl producer;
 
     private final int producerQueueSize;
-    private static final int MaxReadBatchSize = 100;
-    private int readBatchSize;
+    private final DispatcherReadPolicy readPolicy;
 
     private final int producerQueueThreshold;
 
@@ -109,12 +109,22 @@ public class PersistentReplicator implements ReadEntriesCallback, DeleteCallback
         this.expiryMonitor = new PersistentMessageExpiryMonitor(topicName, cursor);
 
         producerQueueSize = brokerService.pulsar().getConfiguration().getReplicationProducerQueueSize();
-        readBatchSize = Math.min(producerQueueSize, MaxReadBatchSize);
+        ServiceConfiguration conf = brokerService.pulsar().getConfiguration();
+        readPolicy = new DispatcherReadPolicy(topic, Math.min(producerQueueSize, conf.getDispatcherMaxReadBatchSize()),
+                conf.getDispatcherMaxReadSizeBytes(), conf.getDispatcherSlowReadThresholdMillis());
         producerQueueThreshold = (int) (producerQueueSize * 0.9);
 
         startProducer();
     }
 
+    public int getReadBatchSize() {
+        return readPolicy.getReadBatchSize();
+    }
+
+    public int getLastEntriesRead() {
+        return readPolicy.getLastEntriesRead();
+    }
+
     public String getRemoteCluster() {
         return remoteCluster;
     }
@@ -223,18 +233,18 @@ public class PersistentReplicator implements ReadEntriesCallback, DeleteCallback
         int availablePermits = producerQueueSize - pendingMessages;
 
         if (availablePermits > 0) {
-            int messagesToRead = Math.min(availablePermits, readBatchSize);
             if (!isWritable()) {
                 if (log.isDebugEnabled()) {
                     log.debug("[{}][{} -> {}] Throttling replication traffic because producer is not writable",
                             topicName, localCluster, remoteCluster);
                 }
                 // Minimize the read size if the producer is disconnected or the window is already full
-                messagesToRead = 1;
+                availablePermits = 1;
             }
 
             // Schedule read
             if (havePendingReadUpdater.compareAndSet(this, FALSE, TRUE)) {
+                int messagesToRead = readPolicy.getEntriesToRead(availablePermits);
                 if (log.isDebugEnabled()) {
                     log.debug("[{}][{} -> {}] Schedule read of {} messages", topicName, localCluster, remoteCluster,
                             messagesToRead);
@@ -242,8 +252,8 @@ public class PersistentReplicator implements ReadEntriesCallback, DeleteCallback
                 cursor.asyncReadEntriesOrWait(messagesToRead, this, null);
             } else {
                 if (log.isDebugEnabled()) {
-                    log.debug("[{}][{} -> {}] Not scheduling read due to pending read. Messages To Read {}", topicName,
-                            localCluster, remoteCluster, messagesToRead);
+                    log.debug("[{}][{} -> {}] Not scheduling read due to pending read", topicName, localCluster,
+                            remoteCluster);
                 }
             }
         } else {
@@ -261,14 +271,10 @@ public class PersistentReplicator implements ReadEntriesCallback, DeleteCallback
                     entries.size());
         }
 
-        if (readBatchSize < MaxReadBatchSize) {
-            int newReadBatchSize = Math.min(readBatchSize * 2, MaxReadBatchSize);
-            if (log.isDebugEnabled()) {
-                log.debug("[{}][{} -> {}] Increasing read batch size from {} to {}", topicName, localCluster,
-                        remoteCluster, readBatchSize, newReadBatchSize);
-            }
-
-            readBatchSize = newReadBatchSize;
+        readPolicy.readCompleted(entries);
+        if (log.isDebugEnabled()) {
+            log.debug("[{}][{} -> {}] Read batch size is now {}", topicName, localCluster, remoteCluster,
+                    readPolicy.getReadBatchSize());
         }
 
         readFailureBackoff.reduceToHalf();
@@ -479,7 +485,7 @@ public class PersistentReplicator implements ReadEntriesCallback, DeleteCallback
         }
 
         // Reduce read batch size to avoid flooding bookies with retries
-        readBatchSize = 1;
+        readPolicy.readFailed();
 
         long waitTimeMillis = readFailureBackoff.next();
 
@@ -17,7 +17,6 @@ package com.yahoo.pulsar.broker.service.persistent;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.bookkeeper.mledger.AsyncCallbacks;
@@ -33,6 +32,7 @@ import org.apache.bookkeeper.mledger.ManagedLedgerException;
 import org.apache.bookkeeper.mledger.ManagedLedgerException.ConcurrentFindCursorPositionException;
 import org.apache.bookkeeper.mledger.ManagedLedgerException.InvalidCursorPositionException;
 import org.apache.bookkeeper.mledger.Position;
+import org.apache.bookkeeper.mledger.impl.ManagedLedgerImpl;
 import org.apache.bookkeeper.mledger.impl.PositionImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,7 +52,6 @@ import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSubscribe.SubType;
 import com.yahoo.pulsar.common.naming.DestinationName;
 import com.yahoo.pulsar.common.policies.data.ConsumerStats;
 import com.yahoo.pulsar.common.policies.data.PersistentSubscriptionStats;
-import com.yahoo.pulsar.common.util.Codec;
 import com.yahoo.pulsar.utils.CopyOnWriteArrayList;
 
 public class PersistentSubscription implements Subscription {
@@ -68,11 +67,11 @@ public class PersistentSubscription implements Subscription {
     // for connected subscriptions, message expiry will be checked if the backlog is greater than this threshold
     private static final int MINIMUM_BACKLOG_FOR_EXPIRY_CHECK = 1000;
 
-    public PersistentSubscription(PersistentTopic topic, ManagedCursor cursor) {
+    public PersistentSubscription(PersistentTopic topic, String subscriptionName, ManagedCursor cursor) {
         this.topic = topic;
         this.cursor = cursor;
         this.topicName = topic.getName();
-        this.subName = Codec.decode(cursor.getName());
+        this.subName = subscriptionName;
         this.expiryMonitor = new PersistentMessageExpiryMonitor(topicName, cursor);
     }
 
@@ -127,6 +126,12 @@ public class PersistentSubscription implements Subscription {
         }
         if (dispatcher.getConsumers().isEmpty()) {
             deactivateCursor();
+
+            if (!cursor.isDurable()) {
+                // If cursor is not durable, we need to clean up the subscription as well
+                close();
+                topic.getSubscriptions().remove(subName);
+            }
         }
 
         // invalid consumer remove will throw an exception
@@ -212,6 +217,11 @@ public class PersistentSubscription implements Subscription {
         return this.topicName;
     }
 
+    @Override
+    public PersistentTopic getTopic() {
+        return topic;
+    }
+
     public SubType getType() {
         return dispatcher != null ? dispatcher.getType() : null;
     }
@@ -295,20 +305,25 @@ public class PersistentSubscription implements Subscription {
 
     @Override
     public CompletableFuture<Void> resetCursor(long timestamp) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
         synchronized (this) {
             if (dispatcher != null && dispatcher.isConsumerConnected()) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
                 future.completeExceptionally(new SubscriptionBusyException("Subscription has active consumers"));
                 return future;
             }
         }
-        PersistentMessageFinder persistentMessageFinder = new PersistentMessageFinder(topicName, cursor);
-        class Result {
-            Position position = null;
-        }
 
-        final Result result = new Result();
-        final CountDownLatch counter = new CountDownLatch(1);
+        return seek(timestamp);
+    }
+
+    /**
+     * Move the subscription to the first message published at or after the given timestamp. Unlike
+     * {@link #resetCursor(long)}, this is allowed while consumers are connected.
+     */
+    @Override
+    public CompletableFuture<Void> seek(long timestamp) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        PersistentMessageFinder persistentMessageFinder = new PersistentMessageFinder(topicName, cursor);
 
         if (log.isDebugEnabled()) {
             log.debug("[{}][{}] Resetting subscription to timestamp {}", topicName, subName, timestamp);
@@ -316,8 +331,29 @@ public class PersistentSubscription implements Subscription {
         persistentMessageFinder.findMessages(timestamp, new AsyncCallbacks.FindEntryCallback() {
             @Override
             public void findEntryComplete(Position position, Object ctx) {
-                result.position = position;
-                counter.countDown();
+                if (position == null) {
+                    // this should not happen ideally unless a reset is requested for a time
+                    // that spans beyond the retention limits (time/size)
+                    position = cursor.getFirstPosition();
+                    if (position == null) {
+                        log.warn("[{}][{}] Unable to find position for timestamp {}. "
+                                + "Unable to reset cursor to first position", topicName, subName, timestamp);
+                        future.completeExceptionally(new SubscriptionInvalidCursorPosition(
+                                "Unable to find position for specified timestamp"));
+                        return;
+                    }
+                    log.info("[{}][{}] Unable to find position for timestamp {}. "
+                            + "Resetting cursor to first position {} in ledger", topicName, subName, timestamp,
+                            position);
+                }
+
+                seek(position).whenComplete((v, ex) -> {
+                    if (ex != null) {
+                        future.completeExceptionally(ex);
+                    } else {
+                        future.complete(null);
+                    }
+                });
             }
 
             @Override
@@ -328,53 +364,50 @@ public class PersistentSubscription implements Subscription {
                 } else {
                     future.completeExceptionally(new BrokerServiceException(exception));
                 }
-                counter.countDown();
             }
         });
 
-        try {
-            counter.await();
-        } catch (Exception e) {
-            log.warn("[{}][{}] message find interrupted ", topicName, subName, e);
-            if (future.isCompletedExceptionally()) {
-                return future;
-            }
-            future.completeExceptionally(e);
-            return future;
-        }
+        return future;
+    }
 
-        if (future.isCompletedExceptionally()) {
-            return future;
-        }
-        if (result.position == null) {
-            // this should not happen ideally unless a reset is requested for a time
-            // that spans beyond the retention limits (time/size)
-            result.position = cursor.getFirstPosition();
-            if (result.position == null) {
-                log.warn("[{}][{}] Unable to find position for timestamp {}. Unable to reset cursor to first position",
-                        topicName, subName, timestamp);
-                future.completeExceptionally(
-                        new SubscriptionInvalidCursorPosition("Unable to find position for specified timestamp"));
+    /**
+     * Move the subscription so that the next message to be dispatched is the one at the given position.
+     * <p>
+     * Pending reads on the dispatcher are cancelled. Dispatching resumes with the next flow control message.
+     */
+    @Override
+    public CompletableFuture<Void> seek(Position position) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        if (PositionImpl.earliest.equals(position)) {
+            position = cursor.getFirstPosition();
+            if (position == null) {
+                future.completeExceptionally(new SubscriptionInvalidCursorPosition("Topic has no ledgers"));
                 return future;
             }
-            log.info(
-                    "[{}][{}] Unable to find position for timestamp {}. Resetting cursor to first position {} in ledger",
-                    topicName, subName, timestamp, result.position);
+        } else if (PositionImpl.latest.equals(position)) {
+            // Skip all the stored messages: the next message dispatched will be the first one published after the seek
+            position = ((ManagedLedgerImpl) topic.getManagedLedger()).getLastConfirmedEntry().getNext();
         }
 
-        cursor.asyncResetCursor(result.position, new AsyncCallbacks.ResetCursorCallback() {
+        final Position newPosition = position;
+        cursor.asyncResetCursor(newPosition, new AsyncCallbacks.ResetCursorCallback() {
             @Override
             public void resetComplete(Object ctx) {
                 if (log.isDebugEnabled()) {
-                    log.debug("[{}][{}] Successfully reset subscription to timestamp {}", topicName, subName,
-                            timestamp);
+                    log.debug("[{}][{}] Successfully reset subscription to position {}", topicName, subName,
+                            newPosition);
+                }
+                Dispatcher currentDispatcher = dispatcher;
+                if (currentDispatcher != null) {
+                    currentDispatcher.cursorIsReset();
                 }
                 future.complete(null);
             }
 
             @Override
             public void resetFailed(ManagedLedgerException exception, Object ctx) {
-                log.error("[{}][{}] Failed to reset subscription to timestamp {}", topicName, subName, timestamp,
+                log.error("[{}][{}] Failed to reset subscription to position {}", topicName, subName, newPosition,
                         exception);
                 // todo - retry on InvalidCursorPositionException
                 // or should we just ask user to retry one more time?
@@ -503,6 +536,19 @@ public class PersistentSubscription implements Subscription {
 
         log.info("[{}][{}] Unsubscribing", topicName, subName);
 
+        if (!cursor.isDurable()) {
+            // Non-durable subscriptions have no cursor to remove from the managed ledger
+            this.close().thenAccept(v -> {
+                topic.getSubscriptions().remove(subName);
+                deleteFuture.complete(null);
+            }).exceptionally(exception -> {
+                log.error("[{}][{}] Error deleting subscription", topicName, subName, exception);
+                deleteFuture.completeExceptionally(exception);
+                return null;
+            });
+            return deleteFuture;
+        }
+
         // cursor close handles pending delete (ack) operations
         this.close().thenCompose(v -> topic.unsubscribe(subName)).thenAccept(v -> deleteFuture.complete(null))
                 .exceptionally(exception -> {
@@ -64,12 +64,17 @@ import com.yahoo.pulsar.broker.service.BrokerServiceException.SubscriptionBusyEx
 import com.yahoo.pulsar.broker.service.BrokerServiceException.TopicBusyException;
 import com.yahoo.pulsar.broker.service.BrokerServiceException.TopicFencedException;
 import com.yahoo.pulsar.broker.service.Consumer;
+import com.yahoo.pulsar.broker.service.Dispatcher;
 import com.yahoo.pulsar.broker.service.Producer;
 import com.yahoo.pulsar.broker.service.ServerCnx;
 import com.yahoo.pulsar.broker.service.Topic;
 import com.yahoo.pulsar.broker.stats.ClusterReplicationMetrics;
+import com.yahoo.pulsar.broker.stats.NamespaceLatencyStats;
 import com.yahoo.pulsar.broker.stats.NamespaceStats;
 import com.yahoo.pulsar.broker.stats.ReplicationMetrics;
+import com.yahoo.pulsar.client.api.MessageId;
+import com.yahoo.pulsar.client.impl.BatchMessageIdImpl;
+import com.yahoo.pulsar.client.impl.MessageIdImpl;
 import com.yahoo.pulsar.client.impl.MessageImpl;
 import com.yahoo.pulsar.client.util.FutureUtil;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSubscribe.SubType;
@@ -125,6 +130,15 @@ public class PersistentTopic implements Topic, AddEntryCallback {
     // Timestamp of when this topic was last seen active
     private volatile long lastActive;
 
+    // Moving average of the size of the entries read from the managed ledger, used to size the dispatchers reads
+    private volatile double averageEntrySize = 0;
+    private static final double AVERAGE_ENTRY_SIZE_WEIGHT = 0.2;
+
+    // Latency recorders shared by all the topics of the namespace
+    private volatile NamespaceLatencyStats latencyStats;
+    // Latencies of the topics not bound to the stats of their namespace yet, which are not reported
+    private static final NamespaceLatencyStats UNBOUND_LATENCY_STATS = new NamespaceLatencyStats();
+
     private static final FastThreadLocal<TopicStats> threadLocalTopicStats = new FastThreadLocal<TopicStats>() {
         @Override
         protected TopicStats initialValue() {
@@ -173,13 +187,16 @@ public class PersistentTopic implements Topic, AddEntryCallback {
                         new PersistentReplicator(this, cursor, localCluster, remoteCluster, brokerService));
             } else {
                 final String cursorName = Codec.decode(cursor.getName());
-                subscriptions.put(cursorName, new PersistentSubscription(this, cursor));
+                subscriptions.put(cursorName, new PersistentSubscription(this, cursorName, cursor));
                 // subscription-cursor gets activated by default: deactivate as there is no active subscription right
                 // now
                 subscriptions.get(cursorName).deactivateCursor();
             }
         }
         this.lastActive = System.nanoTime();
+        // The stats of the namespace are only looked up once the topic is added to the stats maps, so that they are
+        // not registered again for a topic that never gets added, and never removed
+        this.latencyStats = UNBOUND_LATENCY_STATS;
     }
 
     @Override
@@ -294,7 +311,7 @@ public class PersistentTopic implements Topic, AddEntryCallback {
 
     @Override
     public CompletableFuture<Consumer> subscribe(final ServerCnx cnx, String subscriptionName, long consumerId,
-            SubType subType, String consumerName) {
+            SubType subType, String consumerName, boolean isDurable, MessageId startMessageId) {
 
         final CompletableFuture<Consumer> future = new CompletableFuture<>();
 
@@ -320,55 +337,107 @@ public class PersistentTopic implements Topic, AddEntryCallback {
             lock.readLock().unlock();
         }
 
+        CompletableFuture<PersistentSubscription> subscriptionFuture = isDurable ? //
+                getDurableSubscription(subscriptionName) //
+                : getNonDurableSubscription(subscriptionName, startMessageId);
+
+        subscriptionFuture.thenAccept(subscription -> {
+            try {
+                Consumer consumer = new Consumer(subscription, subType, consumerId, consumerName,
+                        brokerService.pulsar().getConfiguration().getMaxUnackedMessagesPerConsumer(), cnx,
+                        cnx.getRole());
+                subscription.addConsumer(consumer);
+                if (!cnx.isActive()) {
+                    consumer.close();
+                    if (log.isDebugEnabled()) {
+                        log.debug("[{}] [{}] [{}] Subscribe failed -- count: {}", topic, subscriptionName,
+                                consumer.consumerName(), usageCount.get());
+                    }
+                    future.completeExceptionally(
+                            new BrokerServiceException("Connection was closed while the opening the cursor "));
+                } else {
+                    log.info("[{}][{}] Created new subscription for {}", topic, subscriptionName, consumerId);
+                    future.complete(consumer);
+                }
+            } catch (BrokerServiceException e) {
+                if (e instanceof ConsumerBusyException) {
+                    log.warn("[{}][{}] Consumer {} {} already connected", topic, subscriptionName, consumerId,
+                            consumerName);
+                } else if (e instanceof SubscriptionBusyException) {
+                    log.warn("[{}][{}] {}", topic, subscriptionName, e.getMessage());
+                }
+
+                usageCount.decrementAndGet();
+                future.completeExceptionally(e);
+            }
+        }).exceptionally(ex -> {
+            log.warn("[{}] Failed to create subscription for {}", topic, subscriptionName);
+            usageCount.decrementAndGet();
+            future.completeExceptionally(ex.getCause());
+            return null;
+        });
+
+        return future;
+    }
+
+    private CompletableFuture<PersistentSubscription> getDurableSubscription(String subscriptionName) {
+        CompletableFuture<PersistentSubscription> subscriptionFuture = new CompletableFuture<>();
         ledger.asyncOpenCursor(Codec.encode(subscriptionName), new OpenCursorCallback() {
             @Override
             public void openCursorComplete(ManagedCursor cursor, Object ctx) {
                 if (log.isDebugEnabled()) {
-                    log.debug("[{}][{}] Opened cursor for {} {}", topic, subscriptionName, consumerId, consumerName);
+                    log.debug("[{}][{}] Opened cursor", topic, subscriptionName);
                 }
 
-                try {
-                    PersistentSubscription subscription = subscriptions.computeIfAbsent(subscriptionName,
-                            name -> new PersistentSubscription(PersistentTopic.this, cursor));
-                    
-                    Consumer consumer = new Consumer(subscription, subType, consumerId, consumerName,
-                            brokerService.pulsar().getConfiguration().getMaxUnackedMessagesPerConsumer(), cnx,
-                            cnx.getRole());
-                    subscription.addConsumer(consumer);
-                    if (!cnx.isActive()) {
-                        consumer.close();
-                        if (log.isDebugEnabled()) {
-                            log.debug("[{}] [{}] [{}] Subscribe failed -- count: {}", topic, subscriptionName,
-                                    consumer.consumerName(), usageCount.get());
-                        }
-                        future.completeExceptionally(
-                                new BrokerServiceException("Connection was closed while the opening the cursor "));
-                    } else {
-                        log.info("[{}][{}] Created new subscription for {}", topic, subscriptionName, consumerId);
-                        future.complete(consumer);
-                    }
-                } catch (BrokerServiceException e) {
-                    if (e instanceof ConsumerBusyException) {
-                        log.warn("[{}][{}] Consumer {} {} already connected", topic, subscriptionName, consumerId,
-                                consumerName);
-                    } else if (e instanceof SubscriptionBusyException) {
-                        log.warn("[{}][{}] {}", topic, subscriptionName, e.getMessage());
-                    }
-
-                    usageCount.decrementAndGet();
-                    future.completeExceptionally(e);
-                }
+                subscriptionFuture.complete(subscriptions.computeIfAbsent(subscriptionName,
+                        name -> new PersistentSubscription(PersistentTopic.this, subscriptionName, cursor)));
             }
 
             @Override
             public void openCursorFailed(ManagedLedgerException exception, Object ctx) {
                 log.warn("[{}] Failed to create subscription for {}", topic, subscriptionName);
-                usageCount.decrementAndGet();
-                future.completeExceptionally(new PersistenceException(exception));
+                subscriptionFuture.completeExceptionally(new PersistenceException(exception));
             }
         }, null);
+        return subscriptionFuture;
+    }
 
-        return future;
+    private CompletableFuture<PersistentSubscription> getNonDurableSubscription(String subscriptionName,
+            MessageId startMessageId) {
+        PersistentSubscription subscription = subscriptions.get(subscriptionName);
+        if (subscription != null) {
+            return CompletableFuture.completedFuture(subscription);
+        }
+
+        // Create a new non-durable cursor only for the first consumer that connects
+        MessageIdImpl msgId = startMessageId != null ? (MessageIdImpl) startMessageId
+                : (MessageIdImpl) MessageId.latest;
+
+        long ledgerId = msgId.getLedgerId();
+        long entryId = msgId.getEntryId();
+        if (msgId instanceof BatchMessageIdImpl && ((BatchMessageIdImpl) msgId).getBatchIndex() >= 0) {
+            // When the start message is relative to a batch, we need to take one step back on the previous message,
+            // because the "batch" might not have been consumed in its entirety.
+            // The client will then be able to discard the first messages in the batch.
+            entryId = msgId.getEntryId() - 1;
+        }
+
+        ManagedCursor cursor;
+        try {
+            cursor = ledger.newNonDurableCursor(new PositionImpl(ledgerId, entryId));
+        } catch (ManagedLedgerException e) {
+            return FutureUtil.failedFuture(new PersistenceException(e));
+        }
+
+        subscription = new PersistentSubscription(this, subscriptionName, cursor);
+        PersistentSubscription existingSubscription = subscriptions.putIfAbsent(subscriptionName, subscription);
+        if (existingSubscription != null) {
+            // Some other consumer has created the subscription in the meantime, the new cursor can be discarded
+            // since it's only living in memory
+            return CompletableFuture.completedFuture(existingSubscription);
+        }
+
+        return CompletableFuture.completedFuture(subscription);
     }
 
     /**
@@ -717,6 +786,42 @@ public class PersistentTopic implements Topic, AddEntryCallback {
         return topic;
     }
 
+    /**
+     * Fold the entries returned by a read operation into the average entry size of the topic.
+     * <p>
+     * Concurrent updates from different dispatchers might occasionally override each other, which is acceptable for an
+     * estimation.
+     */
+    public void updateAverageEntrySize(long totalSize, int numberOfEntries) {
+        if (numberOfEntries == 0) {
+            return;
+        }
+
+        double batchAverage = (double) totalSize / numberOfEntries;
+        double currentAverage = averageEntrySize;
+        if (currentAverage == 0) {
+            averageEntrySize = batchAverage;
+        } else {
+            averageEntrySize = currentAverage + AVERAGE_ENTRY_SIZE_WEIGHT * (batchAverage - currentAverage);
+        }
+    }
+
+    /**
+     * @return the average size of the entries read from this topic, or 0 if no entry was read yet
+     */
+    public double getAverageEntrySize() {
+        return averageEntrySize;
+    }
+
+    @Override
+    public NamespaceLatencyStats getLatencyStats() {
+        return latencyStats;
+    }
+
+    public void setLatencyStats(NamespaceLatencyStats latencyStats) {
+        this.latencyStats = latencyStats;
+    }
+
     public ManagedLedger getManagedLedger() {
         return ledger;
     }
@@ -785,9 +890,12 @@ public class PersistentTopic implements Topic, AddEntryCallback {
             destStatsStream.writePair("inboundConnectedSince", rStat.inboundConnectedSince);
             destStatsStream.writePair("outboundConnection", rStat.outboundConnection);
             destStatsStream.writePair("outboundConnectedSince", rStat.outboundConnectedSince);
+            destStatsStream.writePair("readBatchSize", replicator.getReadBatchSize());
+            destStatsStream.writePair("lastEntriesRead", replicator.getLastEntriesRead());
             destStatsStream.endObject();
 
             nsStats.msgReplBacklog += rStat.replicationBacklog;
+            nsStats.addEntriesRead(replicator.getLastEntriesRead());
 
             if (replStats.isMetricsEnabled()) {
                 String namespaceClusterKey = replStats.getKeyName(namespace, cluster);
@@ -864,6 +972,13 @@ public class PersistentTopic implements Topic, AddEntryCallback {
                 destStatsStream.writePair("unackedMessages", subUnackedMessages);
                 destStatsStream.writePair("type", subscription.getTypeString());
 
+                Dispatcher dispatcher = subscription.getDispatcher();
+                if (dispatcher != null) {
+                    destStatsStream.writePair("readBatchSize", dispatcher.getReadBatchSize());
+                    destStatsStream.writePair("lastEntriesRead", dispatcher.getLastEntriesRead());
+                    nsStats.addEntriesRead(dispatcher.getLastEntriesRead());
+                }
+
                 // Close consumers
                 destStatsStream.endObject();
 
@@ -63,6 +63,13 @@ public class BrokerOperabilityMetrics {
         dMetrics.put("brk_topic_load_rate_s",
                 (1000 * topicLoadStats.topicLoadCounts) / topicLoadStats.elapsedIntervalMs);
 
+        // Time spent by the topic loads waiting for the concurrency limit before starting
+        dMetrics.put("brk_topic_load_queue_time_mean_ms", topicLoadStats.meanTopicLoadQueueMs);
+        dMetrics.put("brk_topic_load_queue_time_median_ms", topicLoadStats.medianTopicLoadQueueMs);
+        dMetrics.put("brk_topic_load_queue_time_95percentile_ms", topicLoadStats.topicLoadQueue95Ms);
+        dMetrics.put("brk_topic_load_queue_time_99_percentile_ms", topicLoadStats.topicLoadQueue99Ms);
+        dMetrics.put("brk_topic_load_queue_time_99_9_percentile_ms", topicLoadStats.topicLoadQueue999Ms);
+
         return dMetrics;
     }
 
@@ -73,4 +80,8 @@ public class BrokerOperabilityMetrics {
     public void recordTopicLoadTimeValue(long topicLoadLatencyMs) {
         topicLoadStats.recordTopicLoadTimeValue(topicLoadLatencyMs);
     }
+
+    public void recordTopicLoadQueueTimeValue(long topicLoadQueueTimeMs) {
+        topicLoadStats.recordTopicLoadQueueTimeValue(topicLoadQueueTimeMs);
+    }
 }
@@ -25,6 +25,7 @@ import com.yahoo.pulsar.broker.PulsarService;
 import com.yahoo.pulsar.broker.stats.metrics.JvmMetrics;
 import com.yahoo.pulsar.broker.stats.metrics.ManagedLedgerCacheMetrics;
 import com.yahoo.pulsar.broker.stats.metrics.ManagedLedgerMetrics;
+import com.yahoo.pulsar.broker.stats.metrics.ZooKeeperCacheMetrics;
 
 public class MetricsGenerator {
     private final PulsarService pulsar;
@@ -47,6 +48,7 @@ public class MetricsGenerator {
         metricsCollection.addAll(jvmMetrics.generate());
         metricsCollection.addAll(new ManagedLedgerCacheMetrics(pulsar).generate());
         metricsCollection.addAll(new ManagedLedgerMetrics(pulsar).generate());
+        metricsCollection.addAll(new ZooKeeperCacheMetrics(pulsar).generate());
         metricsCollection.addAll(pulsar.getBrokerService().getDestinationMetrics());
         metricsCollection.addAll(pulsar.getLoadManager().getLoadBalancingMetrics());
 
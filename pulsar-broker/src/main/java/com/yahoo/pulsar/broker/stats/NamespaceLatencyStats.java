@@ -0,0 +1,91 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.stats;
+
+import java.util.concurrent.TimeUnit;
+
+import com.yahoo.pulsar.utils.StatsOutputStream;
+
+/**
+ * Latency of the stages of the publish and dispatch paths, aggregated for all the topics of a namespace.
+ * <ul>
+ * <li><b>publish</b>: from the reception of a message to the completion of the managed ledger add</li>
+ * <li><b>send_receipt</b>: from the completion of the managed ledger add to the send receipt being written</li>
+ * <li><b>cursor_read</b>: duration of the managed ledger reads issued by the dispatchers</li>
+ * <li><b>dispatch</b>: from the dispatch of a batch of entries to a consumer to the write completion</li>
+ * </ul>
+ */
+public class NamespaceLatencyStats {
+
+    private final StageLatencyStats publish = new StageLatencyStats("publish");
+    private final StageLatencyStats sendReceipt = new StageLatencyStats("send_receipt");
+    private final StageLatencyStats cursorRead = new StageLatencyStats("cursor_read");
+    private final StageLatencyStats dispatch = new StageLatencyStats("dispatch");
+
+    private final StageLatencyStats[] stages = { publish, sendReceipt, cursorRead, dispatch };
+
+    public void recordPublishLatency(long latencyNanos) {
+        publish.recordValue(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSendReceiptLatency(long latencyNanos) {
+        sendReceipt.recordValue(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCursorReadLatency(long latencyNanos) {
+        cursorRead.recordValue(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDispatchLatency(long latencyNanos) {
+        dispatch.recordValue(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void refresh() {
+        for (StageLatencyStats stage : stages) {
+            stage.refresh();
+        }
+    }
+
+    public void writeTo(StatsOutputStream stream) {
+        stream.startObject("latency");
+        for (StageLatencyStats stage : stages) {
+            stage.writeTo(stream);
+        }
+        stream.endObject();
+    }
+
+    public void addTo(Metrics metrics) {
+        for (StageLatencyStats stage : stages) {
+            stage.addTo(metrics);
+        }
+    }
+
+    public StageLatencyStats getPublishLatency() {
+        return publish;
+    }
+
+    public StageLatencyStats getSendReceiptLatency() {
+        return sendReceipt;
+    }
+
+    public StageLatencyStats getCursorReadLatency() {
+        return cursorRead;
+    }
+
+    public StageLatencyStats getDispatchLatency() {
+        return dispatch;
+    }
+}
@@ -36,6 +36,8 @@ public class NamespaceStats {
     public int producerCount;
     public int replicatorCount;
     public int subsCount;
+    public long entriesReadTotal;
+    public int entriesReadCount;
 
     public NamespaceStats() {
         reset();
@@ -53,6 +55,13 @@ public class NamespaceStats {
         this.producerCount = 0;
         this.replicatorCount = 0;
         this.subsCount = 0;
+        this.entriesReadTotal = 0;
+        this.entriesReadCount = 0;
+    }
+
+    public void addEntriesRead(int entriesRead) {
+        this.entriesReadTotal += entriesRead;
+        this.entriesReadCount++;
     }
 
     public Metrics add(String namespace) {
@@ -71,6 +80,10 @@ public class NamespaceStats {
         dMetrics.put("brk_no_of_consumers", consumerCount);
         dMetrics.put("brk_msg_backlog", msgBacklog);
         dMetrics.put("brk_replication_backlog", msgReplBacklog);
+        // Entries actually returned by the last read of each dispatcher, below the adaptive batch size when the byte
+        // budget or the permits capped the read
+        dMetrics.put("brk_avg_read_batch_size",
+                entriesReadCount == 0 ? 0.0 : (double) entriesReadTotal / entriesReadCount);
 
         return dMetrics;
 
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.stats;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.yahoo.pulsar.utils.StatsOutputStream;
+
+/**
+ * Latency distribution of one stage of the message path.
+ * <p>
+ * Values are recorded in microseconds through an HdrHistogram {@link Recorder}, which is wait-free for the writers.
+ * The percentiles, in milliseconds, are computed over the values recorded since the previous call to
+ * {@link #refresh()}.
+ */
+public class StageLatencyStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String name;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 2);
+    private Histogram intervalHistogram = null;
+
+    public long count;
+    public double meanMs;
+    public double medianMs;
+    public double p95Ms;
+    public double p99Ms;
+    public double p999Ms;
+    public double maxMs;
+
+    public StageLatencyStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void recordValue(long latency, TimeUnit unit) {
+        recorder.recordValue(Math.min(Math.max(unit.toMicros(latency), 0), MAX_LATENCY_MICROS));
+    }
+
+    /**
+     * Compute the percentiles over the values recorded during the last interval and start a new interval.
+     */
+    public void refresh() {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+
+        count = intervalHistogram.getTotalCount();
+        meanMs = intervalHistogram.getMean() / 1000.0;
+        medianMs = intervalHistogram.getValueAtPercentile(50) / 1000.0;
+        p95Ms = intervalHistogram.getValueAtPercentile(95) / 1000.0;
+        p99Ms = intervalHistogram.getValueAtPercentile(99) / 1000.0;
+        p999Ms = intervalHistogram.getValueAtPercentile(99.9) / 1000.0;
+        maxMs = intervalHistogram.getMaxValue() / 1000.0;
+    }
+
+    public void writeTo(StatsOutputStream stream) {
+        stream.startObject(name);
+        stream.writePair("count", count);
+        stream.writePair("meanMs", meanMs);
+        stream.writePair("medianMs", medianMs);
+        stream.writePair("95pctMs", p95Ms);
+        stream.writePair("99pctMs", p99Ms);
+        stream.writePair("999pctMs", p999Ms);
+        stream.writePair("maxMs", maxMs);
+        stream.endObject();
+    }
+
+    public void addTo(Metrics metrics) {
+        String prefix = "brk_" + name + "_latency";
+        metrics.put(prefix + "_count", count);
+        metrics.put(prefix + "_mean_ms", meanMs);
+        metrics.put(prefix + "_median_ms", medianMs);
+        metrics.put(prefix + "_95percentile_ms", p95Ms);
+        metrics.put(prefix + "_99percentile_ms", p99Ms);
+        metrics.put(prefix + "_99_9_percentile_ms", p999Ms);
+        metrics.put(prefix + "_max_ms", maxMs);
+    }
+}
@@ -41,8 +41,21 @@ public class TopicLoadStats {
 
     public double elapsedIntervalMs;
 
+    /** Statistics for the time topic loads wait in queue before starting **/
+    public double meanTopicLoadQueueMs;
+
+    public double medianTopicLoadQueueMs;
+
+    public double topicLoadQueue95Ms;
+
+    public double topicLoadQueue99Ms;
+
+    public double topicLoadQueue999Ms;
+
     private Recorder topicLoadTimeRecorder = new Recorder(TimeUnit.MINUTES.toMillis(10), 2);
     private Histogram topicLoadHistogram = null;
+    private Recorder topicLoadQueueTimeRecorder = new Recorder(TimeUnit.MINUTES.toMillis(10), 2);
+    private Histogram topicLoadQueueHistogram = null;
     private double topicLoadRecordStartTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
 
     public void updateStats() {
@@ -58,9 +71,20 @@ public class TopicLoadStats {
         this.topicLoad999Ms = topicLoadHistogram.getValueAtPercentile(99.9);
         this.topicsLoad9999Ms = topicLoadHistogram.getValueAtPercentile(99.99);
         this.topicLoadCounts = topicLoadHistogram.getTotalCount();
+
+        topicLoadQueueHistogram = topicLoadQueueTimeRecorder.getIntervalHistogram(topicLoadQueueHistogram);
+        this.meanTopicLoadQueueMs = topicLoadQueueHistogram.getMean();
+        this.medianTopicLoadQueueMs = topicLoadQueueHistogram.getValueAtPercentile(50);
+        this.topicLoadQueue95Ms = topicLoadQueueHistogram.getValueAtPercentile(95);
+        this.topicLoadQueue99Ms = topicLoadQueueHistogram.getValueAtPercentile(99);
+        this.topicLoadQueue999Ms = topicLoadQueueHistogram.getValueAtPercentile(99.9);
     }
 
     public void recordTopicLoadTimeValue(long topicLoadLatencyMs) {
         topicLoadTimeRecorder.recordValue(topicLoadLatencyMs);
     }
+
+    public void recordTopicLoadQueueTimeValue(long topicLoadQueueTimeMs) {
+        topicLoadQueueTimeRecorder.recordValue(topicLoadQueueTimeMs);
+    }
 }
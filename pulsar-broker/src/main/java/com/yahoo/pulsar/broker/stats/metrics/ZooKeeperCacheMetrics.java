@@ -0,0 +1,61 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.stats.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.yahoo.pulsar.broker.PulsarService;
+import com.yahoo.pulsar.broker.stats.Metrics;
+import com.yahoo.pulsar.zookeeper.ZooKeeperCache;
+import com.yahoo.pulsar.zookeeper.ZooKeeperCacheStats;
+
+/**
+ * Hits, misses and load latency of the local and global ZooKeeper caches.
+ */
+public class ZooKeeperCacheMetrics extends AbstractMetrics {
+
+    public ZooKeeperCacheMetrics(PulsarService pulsar) {
+        super(pulsar);
+    }
+
+    @Override
+    public List<Metrics> generate() {
+        return Lists.newArrayList(generate("local", pulsar.getLocalZkCache()),
+                generate("global", pulsar.getGlobalZkCache()));
+    }
+
+    private Metrics generate(String cacheName, ZooKeeperCache cache) {
+        Map<String, String> dimensionMap = Maps.newHashMap();
+        dimensionMap.put("zk_cache", cacheName);
+        Metrics m = createMetrics(dimensionMap);
+
+        put(m, "data", cache.getDataCacheStats());
+        put(m, "children", cache.getChildrenCacheStats());
+        put(m, "exists", cache.getExistsCacheStats());
+        return m;
+    }
+
+    private static void put(Metrics m, String cacheType, ZooKeeperCacheStats stats) {
+        String prefix = "brk_zk_cache_" + cacheType;
+        m.put(prefix + "_hits", stats.getHits());
+        m.put(prefix + "_misses", stats.getMisses());
+        m.put(prefix + "_loads", stats.getLoads());
+        m.put(prefix + "_load_latency_avg_ms", stats.getAvgLoadLatencyMs());
+    }
+}
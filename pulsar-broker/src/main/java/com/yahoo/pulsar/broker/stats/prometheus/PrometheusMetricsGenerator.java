@@ -0,0 +1,320 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.stats.prometheus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.bookkeeper.mledger.impl.ManagedLedgerImpl;
+
+import com.yahoo.pulsar.broker.PulsarService;
+import com.yahoo.pulsar.broker.service.Producer;
+import com.yahoo.pulsar.broker.service.persistent.PersistentReplicator;
+import com.yahoo.pulsar.broker.service.persistent.PersistentSubscription;
+import com.yahoo.pulsar.broker.service.persistent.PersistentTopic;
+import com.yahoo.pulsar.common.policies.data.ConsumerStats;
+import com.yahoo.pulsar.common.policies.data.PublisherStats;
+import com.yahoo.pulsar.common.policies.data.ReplicatorStats;
+import com.yahoo.pulsar.common.util.collections.ConcurrentOpenHashMap;
+import com.yahoo.pulsar.utils.SimpleTextOutputStream;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Generate the broker metrics in the Prometheus text exposition format.
+ * <p>
+ * The metrics are read straight from the live topic, subscription and managed ledger counters and are formatted into
+ * the provided buffer. The holders used to aggregate the values are reused across invocations, so that a scrape does
+ * not allocate memory in proportion to the number of topics served by the broker.
+ * <p>
+ * The message rates are the ones computed during the last stats update interval.
+ */
+public class PrometheusMetricsGenerator {
+
+    public enum Granularity {
+        /** One series per topic */
+        Topic,
+        /** Topics aggregated per namespace */
+        Namespace,
+        /** Only broker level aggregated values */
+        Broker;
+
+        public static Granularity parse(String value) {
+            for (Granularity g : values()) {
+                if (g.name().equalsIgnoreCase(value)) {
+                    return g;
+                }
+            }
+            throw new IllegalArgumentException("Invalid metrics granularity: " + value);
+        }
+    }
+
+    private static final class Metric {
+        final String name;
+        final String type;
+        final String help;
+        final ToDoubleFunction<AggregatedStats> value;
+
+        Metric(String name, String type, String help, ToDoubleFunction<AggregatedStats> value) {
+            this.name = name;
+            this.type = type;
+            this.help = help;
+            this.value = value;
+        }
+    }
+
+    private static final Metric[] METRICS = {
+            new Metric("pulsar_topics_count", "gauge", "Number of topics", s -> s.topicsCount),
+            new Metric("pulsar_subscriptions_count", "gauge", "Number of subscriptions", s -> s.subscriptionsCount),
+            new Metric("pulsar_producers_count", "gauge", "Number of producers", s -> s.producersCount),
+            new Metric("pulsar_consumers_count", "gauge", "Number of consumers", s -> s.consumersCount),
+            new Metric("pulsar_rate_in", "gauge", "Published messages per second", s -> s.rateIn),
+            new Metric("pulsar_rate_out", "gauge", "Dispatched messages per second", s -> s.rateOut),
+            new Metric("pulsar_throughput_in", "gauge", "Published bytes per second", s -> s.throughputIn),
+            new Metric("pulsar_throughput_out", "gauge", "Dispatched bytes per second", s -> s.throughputOut),
+            new Metric("pulsar_storage_size", "gauge", "Total size of the managed ledgers in bytes",
+                    s -> s.storageSize),
+            new Metric("pulsar_msg_backlog", "gauge", "Number of entries in the subscriptions backlog",
+                    s -> s.msgBacklog),
+            new Metric("pulsar_replication_backlog", "gauge", "Number of entries in the replication backlog",
+                    s -> s.replicationBacklog),
+            new Metric("pulsar_ml_entries_count", "gauge", "Number of entries stored in the managed ledgers",
+                    s -> s.entriesCount),
+            new Metric("pulsar_ml_pending_add_entries", "gauge", "Number of pending add entry operations",
+                    s -> s.pendingAddEntries),
+            new Metric("pulsar_ml_cache_size", "gauge", "Size in bytes of the managed ledgers entry caches",
+                    s -> s.cacheSize) };
+
+    private static class AggregatedStats {
+        String namespace;
+        String topic;
+
+        long topicsCount;
+        long subscriptionsCount;
+        long producersCount;
+        long consumersCount;
+        double rateIn;
+        double rateOut;
+        double throughputIn;
+        double throughputOut;
+        long storageSize;
+        long msgBacklog;
+        long replicationBacklog;
+        long entriesCount;
+        long pendingAddEntries;
+        long cacheSize;
+
+        void reset() {
+            namespace = null;
+            topic = null;
+            topicsCount = 0;
+            subscriptionsCount = 0;
+            producersCount = 0;
+            consumersCount = 0;
+            rateIn = 0;
+            rateOut = 0;
+            throughputIn = 0;
+            throughputOut = 0;
+            storageSize = 0;
+            msgBacklog = 0;
+            replicationBacklog = 0;
+            entriesCount = 0;
+            pendingAddEntries = 0;
+            cacheSize = 0;
+        }
+
+        void add(AggregatedStats other) {
+            topicsCount += other.topicsCount;
+            subscriptionsCount += other.subscriptionsCount;
+            producersCount += other.producersCount;
+            consumersCount += other.consumersCount;
+            rateIn += other.rateIn;
+            rateOut += other.rateOut;
+            throughputIn += other.throughputIn;
+            throughputOut += other.throughputOut;
+            storageSize += other.storageSize;
+            msgBacklog += other.msgBacklog;
+            replicationBacklog += other.replicationBacklog;
+            entriesCount += other.entriesCount;
+            pendingAddEntries += other.pendingAddEntries;
+            cacheSize += other.cacheSize;
+        }
+    }
+
+    private final PulsarService pulsar;
+    private final String cluster;
+
+    // Holders reused across invocations. They are only accessed while holding the generator lock
+    private final List<AggregatedStats> topicStats = new ArrayList<>();
+    private int topicStatsCount = 0;
+    private final List<AggregatedStats> namespaceStats = new ArrayList<>();
+    private int namespaceStatsCount = 0;
+    private final AggregatedStats brokerStats = new AggregatedStats();
+
+    private Granularity granularity;
+    private String currentNamespace;
+    private AggregatedStats currentNamespaceStats;
+    private AggregatedStats currentStats;
+
+    // Pre-allocated visitors, to avoid creating a new lambda for each topic
+    private final BiConsumer<String, ConcurrentOpenHashMap<String, ConcurrentOpenHashMap<String, PersistentTopic>>>
+            namespaceVisitor = this::visitNamespace;
+    private final BiConsumer<String, ConcurrentOpenHashMap<String, PersistentTopic>> bundleVisitor = this::visitBundle;
+    private final BiConsumer<String, PersistentTopic> topicVisitor = this::visitTopic;
+    private final Consumer<Producer> producerVisitor = this::visitProducer;
+    private final BiConsumer<String, PersistentSubscription> subscriptionVisitor = this::visitSubscription;
+    private final Consumer<com.yahoo.pulsar.broker.service.Consumer> consumerVisitor = this::visitConsumer;
+    private final BiConsumer<String, PersistentReplicator> replicatorVisitor = this::visitReplicator;
+
+    public PrometheusMetricsGenerator(PulsarService pulsar) {
+        this.pulsar = pulsar;
+        this.cluster = pulsar.getConfiguration().getClusterName();
+    }
+
+    /**
+     * Write all the metrics into the buffer.
+     *
+     * @param granularity
+     *            the level at which the topic metrics are aggregated
+     * @param buf
+     *            the buffer to write into
+     */
+    public synchronized void generate(Granularity granularity, ByteBuf buf) {
+        this.granularity = granularity;
+        topicStatsCount = 0;
+        namespaceStatsCount = 0;
+        brokerStats.reset();
+
+        try {
+            pulsar.getBrokerService().getMultiLayerTopicMap().forEach(namespaceVisitor);
+        } finally {
+            currentNamespace = null;
+            currentNamespaceStats = null;
+            currentStats = null;
+        }
+
+        SimpleTextOutputStream stream = new SimpleTextOutputStream(buf);
+        for (Metric metric : METRICS) {
+            stream.write("# HELP ").write(metric.name).write(' ').write(metric.help).write('\n');
+            stream.write("# TYPE ").write(metric.name).write(' ').write(metric.type).write('\n');
+
+            switch (granularity) {
+            case Topic:
+                for (int i = 0; i < topicStatsCount; i++) {
+                    writeSample(stream, metric, topicStats.get(i));
+                }
+                break;
+            case Namespace:
+                for (int i = 0; i < namespaceStatsCount; i++) {
+                    writeSample(stream, metric, namespaceStats.get(i));
+                }
+                break;
+            case Broker:
+                writeSample(stream, metric, brokerStats);
+                break;
+            }
+        }
+    }
+
+    private void writeSample(SimpleTextOutputStream stream, Metric metric, AggregatedStats stats) {
+        stream.write(metric.name).write("{cluster=\"").writeEncoded(cluster);
+        if (stats.namespace != null) {
+            stream.write("\",namespace=\"").writeEncoded(stats.namespace);
+        }
+        if (stats.topic != null) {
+            stream.write("\",topic=\"").writeEncoded(stats.topic);
+        }
+        stream.write("\"} ").write(metric.value.applyAsDouble(stats)).write('\n');
+    }
+
+    private void visitNamespace(String namespace,
+            ConcurrentOpenHashMap<String, ConcurrentOpenHashMap<String, PersistentTopic>> bundles) {
+        currentNamespace = namespace;
+        currentNamespaceStats = null;
+        if (granularity == Granularity.Namespace) {
+            currentNamespaceStats = nextStats(namespaceStats, namespaceStatsCount++);
+            currentNamespaceStats.namespace = namespace;
+        }
+
+        bundles.forEach(bundleVisitor);
+    }
+
+    private void visitBundle(String bundle, ConcurrentOpenHashMap<String, PersistentTopic> topics) {
+        topics.forEach(topicVisitor);
+    }
+
+    private void visitTopic(String name, PersistentTopic topic) {
+        currentStats = nextStats(topicStats, topicStatsCount++);
+        currentStats.namespace = currentNamespace;
+        currentStats.topic = name;
+        currentStats.topicsCount = 1;
+
+        topic.getProducers().forEach(producerVisitor);
+        topic.getSubscriptions().forEach(subscriptionVisitor);
+        topic.getReplicators().forEach(replicatorVisitor);
+
+        ManagedLedgerImpl ledger = (ManagedLedgerImpl) topic.getManagedLedger();
+        currentStats.storageSize = ledger.getTotalSize();
+        currentStats.entriesCount = ledger.getNumberOfEntries();
+        currentStats.pendingAddEntries = ledger.getPendingAddEntriesCount();
+        currentStats.cacheSize = ledger.getCacheSize();
+
+        if (currentNamespaceStats != null) {
+            currentNamespaceStats.add(currentStats);
+        }
+        brokerStats.add(currentStats);
+    }
+
+    private void visitProducer(Producer producer) {
+        PublisherStats stats = producer.getStats();
+        currentStats.producersCount++;
+        currentStats.rateIn += stats.msgRateIn;
+        currentStats.throughputIn += stats.msgThroughputIn;
+    }
+
+    private void visitSubscription(String name, PersistentSubscription subscription) {
+        currentStats.subscriptionsCount++;
+        currentStats.msgBacklog += subscription.getNumberOfEntriesInBacklog();
+        subscription.getConsumers().forEach(consumerVisitor);
+    }
+
+    private void visitConsumer(com.yahoo.pulsar.broker.service.Consumer consumer) {
+        ConsumerStats stats = consumer.getStats();
+        currentStats.consumersCount++;
+        currentStats.rateOut += stats.msgRateOut;
+        currentStats.throughputOut += stats.msgThroughputOut;
+    }
+
+    private void visitReplicator(String cluster, PersistentReplicator replicator) {
+        ReplicatorStats stats = replicator.getStats();
+        currentStats.rateOut += stats.msgRateOut;
+        currentStats.throughputOut += stats.msgThroughputOut;
+        currentStats.replicationBacklog += stats.replicationBacklog;
+    }
+
+    private static AggregatedStats nextStats(List<AggregatedStats> pool, int index) {
+        if (index == pool.size()) {
+            pool.add(new AggregatedStats());
+        }
+
+        AggregatedStats stats = pool.get(index);
+        stats.reset();
+        return stats;
+    }
+}
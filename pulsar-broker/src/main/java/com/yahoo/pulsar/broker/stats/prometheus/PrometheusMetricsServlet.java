@@ -0,0 +1,84 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.stats.prometheus;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.yahoo.pulsar.broker.PulsarService;
+import com.yahoo.pulsar.broker.stats.prometheus.PrometheusMetricsGenerator.Granularity;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * Expose the broker metrics in the Prometheus text format.
+ * <p>
+ * The default granularity is taken from the broker configuration and can be overridden with the
+ * <code>granularity</code> query parameter (<code>topic</code>, <code>namespace</code> or <code>broker</code>).
+ */
+public class PrometheusMetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String SERVLET_PATH = "/metrics";
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrometheusMetricsGenerator generator;
+    private final Granularity defaultGranularity;
+
+    public PrometheusMetricsServlet(PulsarService pulsar) {
+        this.generator = new PrometheusMetricsGenerator(pulsar);
+        this.defaultGranularity = Granularity.parse(pulsar.getConfiguration().getPrometheusMetricsGranularity());
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        Granularity granularity;
+        try {
+            String param = request.getParameter("granularity");
+            granularity = param != null ? Granularity.parse(param) : defaultGranularity;
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.heapBuffer();
+        try {
+            generator.generate(granularity, buf);
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(CONTENT_TYPE);
+            response.getOutputStream().write(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes());
+        } catch (Exception e) {
+            log.error("Failed to generate prometheus metrics", e);
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(PrometheusMetricsServlet.class);
+}
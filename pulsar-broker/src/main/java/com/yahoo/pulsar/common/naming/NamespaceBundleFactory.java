@@ -25,7 +25,9 @@ import static java.lang.String.format;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
@@ -180,28 +182,55 @@ public class NamespaceBundleFactory implements ZooKeeperCacheListener<LocalPolic
     public Pair<NamespaceBundles, List<NamespaceBundle>> splitBundles(NamespaceBundle targetBundle, int numBundles)
             throws Exception {
         checkNotNull(targetBundle, "can't split null bundle");
+        checkArgument(numBundles > 0, "number of bundles must be positive");
+        final Range<Long> range = targetBundle.getKeyRange();
+        final long minVal = range.lowerEndpoint();
+        final long segSize = (range.upperEndpoint() - minVal) / numBundles;
+        final long[] splitBoundaries = new long[numBundles - 1];
+        for (int j = 0; j < numBundles - 1; j++) {
+            splitBoundaries[j] = minVal + segSize * (j + 1);
+        }
+        return splitBundles(targetBundle, splitBoundaries);
+    }
+
+    /**
+     * Split the bundle at the given boundaries, which have to be strictly increasing and fall inside the bundle range.
+     * The bundle is split into <code>splitBoundaries.length + 1</code> bundles.
+     *
+     * @param targetBundle
+     * @param splitBoundaries
+     * @return the new bundles of the namespace and the bundles created by the split, or null if the bundle is not part
+     *         of the namespace
+     * @throws Exception
+     */
+    public Pair<NamespaceBundles, List<NamespaceBundle>> splitBundles(NamespaceBundle targetBundle,
+            long[] splitBoundaries) throws Exception {
+        checkNotNull(targetBundle, "can't split null bundle");
         checkNotNull(targetBundle.getNamespaceObject(), "namespace must be present");
+        checkNotNull(splitBoundaries, "split boundaries must be present");
+        final Range<Long> range = targetBundle.getKeyRange();
+        long prevBoundary = range.lowerEndpoint();
+        for (long boundary : splitBoundaries) {
+            checkArgument(boundary > prevBoundary && boundary < range.upperEndpoint(),
+                    "invalid split boundary 0x%08x for bundle %s", boundary, targetBundle);
+            prevBoundary = boundary;
+        }
         NamespaceName nsname = targetBundle.getNamespaceObject();
         NamespaceBundles sourceBundle = bundlesCache.synchronous().get(nsname);
 
         final int lastIndex = sourceBundle.partitions.length - 1;
+        final int numBundles = splitBoundaries.length + 1;
 
-        final long[] partitions = new long[sourceBundle.partitions.length + (numBundles - 1)];
+        final long[] partitions = new long[sourceBundle.partitions.length + splitBoundaries.length];
         int pos = 0;
         int splitPartition = -1;
         for (int i = 0; i < lastIndex; i++) {
-            final Range<Long> range = targetBundle.getKeyRange();
             if (sourceBundle.partitions[i] == range.lowerEndpoint()
                     && (range.upperEndpoint() == sourceBundle.partitions[i + 1])) {
                 splitPartition = i;
-                Long maxVal = sourceBundle.partitions[i + 1];
-                Long minVal = sourceBundle.partitions[i];
-                Long segSize = (maxVal - minVal) / numBundles;
-                partitions[pos++] = minVal;
-                Long curPartition = minVal + segSize;
-                for (int j = 0; j < numBundles - 1; j++) {
-                    partitions[pos++] = curPartition;
-                    curPartition += segSize;
+                partitions[pos++] = sourceBundle.partitions[i];
+                for (long boundary : splitBoundaries) {
+                    partitions[pos++] = boundary;
                 }
             } else {
                 partitions[pos++] = sourceBundle.partitions[i];
@@ -217,6 +246,82 @@ public class NamespaceBundleFactory implements ZooKeeperCacheListener<LocalPolic
         return null;
     }
 
+    /**
+     * Compute the boundaries that split a bundle range in <code>numBundles</code> parts carrying about the same amount
+     * of traffic.
+     * <p>
+     * Topics are mapped on the bundle ranges by their hash code (see {@link #getLongHashCode(String)}), so a boundary
+     * can only be placed between two distinct hash codes. The number of parts is reduced when there are not enough
+     * distinct hash codes in the range. If all the weights are zero, each hash code counts as one.
+     *
+     * @param range
+     *            the key range of the bundle to split
+     * @param hashWeights
+     *            the traffic weight of each topic hash code in the bundle
+     * @param numBundles
+     *            the desired number of bundles
+     * @return the split boundaries, or null if the range can't be split based on the given hash codes
+     */
+    public static long[] getTrafficBalancedSplitBoundaries(Range<Long> range, Map<Long, Double> hashWeights,
+            int numBundles) {
+        final TreeMap<Long, Double> sortedWeights = new TreeMap<>();
+        hashWeights.forEach((hash, weight) -> {
+            if (range.contains(hash)) {
+                sortedWeights.merge(hash, Math.max(0.0, weight), Double::sum);
+            }
+        });
+
+        final int numHashes = sortedWeights.size();
+        final int parts = Math.min(numBundles, numHashes);
+        if (parts < 2) {
+            return null;
+        }
+
+        final long[] hashes = new long[numHashes];
+        // cumulativeWeights[i] is the weight of the first i hash codes
+        final double[] cumulativeWeights = new double[numHashes + 1];
+        double totalWeight = 0;
+        for (Double weight : sortedWeights.values()) {
+            totalWeight += weight;
+        }
+        final boolean countHashes = totalWeight <= 0;
+        int idx = 0;
+        for (Map.Entry<Long, Double> entry : sortedWeights.entrySet()) {
+            hashes[idx] = entry.getKey();
+            cumulativeWeights[idx + 1] = cumulativeWeights[idx] + (countHashes ? 1.0 : entry.getValue());
+            idx++;
+        }
+        totalWeight = cumulativeWeights[numHashes];
+
+        final long[] boundaries = new long[parts - 1];
+        int numBoundaries = 0;
+        int prevCut = 0;
+        for (int k = 1; k < parts; k++) {
+            final double target = totalWeight * k / parts;
+            // Leave at least one hash code for each one of the remaining parts
+            final int maxCut = numHashes - (parts - k);
+            int bestCut = prevCut + 1;
+            for (int cut = prevCut + 1; cut <= maxCut; cut++) {
+                if (Math.abs(cumulativeWeights[cut] - target) < Math.abs(cumulativeWeights[bestCut] - target)) {
+                    bestCut = cut;
+                }
+                if (cumulativeWeights[cut] >= target) {
+                    break;
+                }
+            }
+            prevCut = bestCut;
+
+            // Place the boundary half-way between the two hash codes around the cut
+            final long lower = hashes[bestCut - 1];
+            final long upper = hashes[bestCut];
+            final long boundary = lower + (upper - lower + 1) / 2;
+            if (boundary > range.lowerEndpoint() && boundary < range.upperEndpoint()) {
+                boundaries[numBoundaries++] = boundary;
+            }
+        }
+        return numBoundaries > 0 ? Arrays.copyOf(boundaries, numBoundaries) : null;
+    }
+
     public static void validateFullRange(SortedSet<String> partitions) {
         checkArgument(partitions.first().equals(FIRST_BOUNDARY) && partitions.last().equals(LAST_BOUNDARY));
     }
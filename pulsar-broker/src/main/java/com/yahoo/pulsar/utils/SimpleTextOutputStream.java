@@ -0,0 +1,108 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.utils;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Format strings and numbers into a ByteBuf without any memory allocation.
+ */
+public class SimpleTextOutputStream {
+    private final ByteBuf buffer;
+
+    public SimpleTextOutputStream(ByteBuf buffer) {
+        this.buffer = buffer;
+    }
+
+    public SimpleTextOutputStream write(char c) {
+        buffer.writeByte((byte) c);
+        return this;
+    }
+
+    public SimpleTextOutputStream write(String s) {
+        if (s == null) {
+            return this;
+        }
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            buffer.writeByte((byte) s.charAt(i));
+        }
+
+        return this;
+    }
+
+    /**
+     * Write a string to be used as a label value in the Prometheus text format, escaping backslashes, double quotes
+     * and new lines.
+     */
+    public SimpleTextOutputStream writeEncoded(String s) {
+        if (s == null) {
+            return this;
+        }
+
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c == '\\' || c == '"') {
+                buffer.writeByte((byte) '\\');
+                buffer.writeByte((byte) c);
+            } else if (c == '\n') {
+                buffer.writeByte((byte) '\\');
+                buffer.writeByte((byte) 'n');
+            } else {
+                buffer.writeByte((byte) c);
+            }
+        }
+        return this;
+    }
+
+    public SimpleTextOutputStream write(long n) {
+        NumberFormat.format(this.buffer, n);
+        return this;
+    }
+
+    /**
+     * Write a number with up to 3 decimal digits. Integral values are written without decimal part.
+     */
+    public SimpleTextOutputStream write(double d) {
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+            return write(Double.isNaN(d) ? "NaN" : (d > 0 ? "+Inf" : "-Inf"));
+        }
+
+        long i = (long) d;
+        if (d < 0 && i == 0) {
+            write('-');
+        }
+        write(i);
+
+        long r = Math.abs((long) (1000 * (d - i)));
+        if (r == 0) {
+            return this;
+        }
+
+        write('.');
+        if (r < 100) {
+            write('0');
+        }
+
+        if (r < 10) {
+            write('0');
+        }
+
+        write(r);
+        return this;
+    }
+}
@@ -845,7 +845,7 @@ public class NamespacesTest extends MockedPulsarServiceBaseTest {
         // split bundles
         try {
             namespaces.splitNamespaceBundle(testProperty, testLocalCluster, bundledNsLocal, "0x00000000_0xffffffff",
-                    false);
+                    false, 2, false);
             // verify split bundles
             BundlesData bundlesData = namespaces.getBundlesData(testProperty, testLocalCluster, bundledNsLocal);
             assertNotNull(bundlesData);
@@ -858,6 +858,35 @@ public class NamespacesTest extends MockedPulsarServiceBaseTest {
         }
     }
 
+    @Test
+    public void testSplitBundlesValidation() throws Exception {
+        String bundledNsLocal = "test-bundled-namespace-2";
+        BundlesData bundleData = new BundlesData(Lists.newArrayList("0x00000000", "0x80000000", "0xffffffff"));
+        createBundledTestNamespaces(this.testProperty, this.testLocalCluster, bundledNsLocal, bundleData);
+        int maxBundles = pulsar.getConfiguration().getLoadBalancerNamespaceMaximumBundles();
+
+        // A bundle must be split in at least 2 bundles
+        try {
+            namespaces.splitNamespaceBundle(testProperty, testLocalCluster, bundledNsLocal, "0x00000000_0x80000000",
+                    false, 1, false);
+            fail("should have failed to split in a single bundle");
+        } catch (RestException re) {
+            assertEquals(re.getResponse().getStatus(), Status.PRECONDITION_FAILED.getStatusCode());
+        }
+
+        // The namespace already has 2 bundles: splitting one of them in maxBundles bundles goes over the limit
+        try {
+            namespaces.splitNamespaceBundle(testProperty, testLocalCluster, bundledNsLocal, "0x00000000_0x80000000",
+                    false, maxBundles, false);
+            fail("should have failed to split past the maximum number of bundles");
+        } catch (RestException re) {
+            assertEquals(re.getResponse().getStatus(), Status.PRECONDITION_FAILED.getStatusCode());
+        }
+
+        BundlesData bundlesData = namespaces.getBundlesData(testProperty, testLocalCluster, bundledNsLocal);
+        assertEquals(bundlesData.getBoundaries().size(), 3);
+    }
+
     @Test
     public void testUnloadNamespaceWithBundles() throws Exception {
         URL localWebServiceUrl = new URL(pulsar.getWebServiceAddress());
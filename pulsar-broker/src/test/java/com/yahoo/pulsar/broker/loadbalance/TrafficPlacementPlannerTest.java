@@ -0,0 +1,177 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.loadbalance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.yahoo.pulsar.broker.loadbalance.impl.BundleTrafficHistory;
+import com.yahoo.pulsar.broker.loadbalance.impl.TrafficLoadSimulator;
+import com.yahoo.pulsar.broker.loadbalance.impl.TrafficPlacementPlanner;
+import com.yahoo.pulsar.broker.loadbalance.impl.TrafficPlacementPlanner.BundleMove;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReport;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.NamespaceBundleStats;
+
+public class TrafficPlacementPlannerTest {
+
+    private static Map<String, Double> bundles(double... traffic) {
+        Map<String, Double> bundles = Maps.newHashMap();
+        for (int i = 0; i < traffic.length; i++) {
+            bundles.put("bundle-" + (int) traffic[i] + "-" + i, traffic[i]);
+        }
+        return bundles;
+    }
+
+    @Test
+    public void testBalancedBrokers() {
+        Map<String, Map<String, Double>> placement = Maps.newHashMap();
+        placement.put("broker-1", bundles(50, 50));
+        placement.put("broker-2", bundles(60, 50));
+        placement.put("broker-3", bundles(90));
+
+        TrafficPlacementPlanner planner = new TrafficPlacementPlanner(20, 5);
+        assertTrue(planner.plan(placement, Collections.emptySet()).isEmpty());
+    }
+
+    @Test
+    public void testMinimalMoves() {
+        Map<String, Map<String, Double>> placement = Maps.newHashMap();
+        placement.put("broker-1", bundles(50, 40, 30, 20, 10));
+        placement.put("broker-2", bundles(10));
+        placement.put("broker-3", bundles(20));
+
+        TrafficPlacementPlanner planner = new TrafficPlacementPlanner(20, 5);
+        List<BundleMove> moves = planner.plan(placement, Collections.emptySet());
+
+        assertEquals(moves.size(), 2);
+        assertEquals(moves.get(0).getSourceBroker(), "broker-1");
+        assertEquals(moves.get(0).getTargetBroker(), "broker-2");
+        assertEquals(moves.get(0).getTraffic(), 50.0);
+        assertEquals(moves.get(1).getSourceBroker(), "broker-1");
+        assertEquals(moves.get(1).getTargetBroker(), "broker-3");
+        assertEquals(moves.get(1).getTraffic(), 40.0);
+
+        // The input placement is left untouched
+        assertEquals(placement.get("broker-1").size(), 5);
+    }
+
+    @Test
+    public void testPinnedBundlesAreNotMoved() {
+        Map<String, Map<String, Double>> placement = Maps.newHashMap();
+        placement.put("broker-1", bundles(50, 40, 30, 20, 10));
+        placement.put("broker-2", bundles(10));
+        placement.put("broker-3", bundles(20));
+
+        TrafficPlacementPlanner planner = new TrafficPlacementPlanner(20, 5);
+        List<BundleMove> moves = planner.plan(placement, Sets.newHashSet("bundle-50-0"));
+
+        assertFalse(moves.isEmpty());
+        for (BundleMove move : moves) {
+            assertFalse(move.getBundle().equals("bundle-50-0"));
+        }
+    }
+
+    @Test
+    public void testSingleHotBundleIsNotMoved() {
+        Map<String, Map<String, Double>> placement = Maps.newHashMap();
+        placement.put("broker-1", bundles(100));
+        placement.put("broker-2", bundles());
+
+        // Moving the bundle would only move the hot spot
+        TrafficPlacementPlanner planner = new TrafficPlacementPlanner(20, 5);
+        assertTrue(planner.plan(placement, Collections.emptySet()).isEmpty());
+    }
+
+    @Test
+    public void testMaxMoves() {
+        Map<String, Map<String, Double>> placement = Maps.newHashMap();
+        placement.put("broker-1", bundles(10, 10, 10, 10, 10, 10, 10, 10));
+        placement.put("broker-2", bundles());
+
+        TrafficPlacementPlanner planner = new TrafficPlacementPlanner(20, 3);
+        assertEquals(planner.plan(placement, Collections.emptySet()).size(), 3);
+
+        planner = new TrafficPlacementPlanner(20, 10);
+        assertEquals(planner.plan(placement, Collections.emptySet()).size(), 4);
+    }
+
+    @Test
+    public void testTrafficHistory() {
+        BundleTrafficHistory history = new BundleTrafficHistory(2, 10);
+        NamespaceBundleStats stats = new NamespaceBundleStats();
+
+        for (int throughput : new int[] { 10, 20, 30 }) {
+            stats.msgThroughputIn = throughput;
+            stats.msgRateOut = 1;
+            history.addSample("bundle-1", stats);
+        }
+
+        // Average of the last 2 samples, plus the weighted message rate
+        assertEquals(history.getTraffic("bundle-1"), 35.0);
+        assertEquals(history.getTraffic("bundle-2"), 0.0);
+
+        history.retainAll(Sets.newHashSet("bundle-2"));
+        assertFalse(history.contains("bundle-1"));
+    }
+
+    @Test
+    public void testSimulation() {
+        List<LoadReport> reports = Lists.newArrayList();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            long timestamp = now + TimeUnit.MINUTES.toMillis(i);
+
+            LoadReport hotBroker = new LoadReport();
+            hotBroker.setName("broker-1");
+            hotBroker.setTimestamp(timestamp);
+            Map<String, NamespaceBundleStats> bundleStats = Maps.newHashMap();
+            for (int j = 0; j < 4; j++) {
+                NamespaceBundleStats stats = new NamespaceBundleStats();
+                stats.msgThroughputIn = 100;
+                bundleStats.put("prop/use/ns/bundle-" + j, stats);
+            }
+            hotBroker.setBundleStats(bundleStats);
+            reports.add(hotBroker);
+
+            LoadReport idleBroker = new LoadReport();
+            idleBroker.setName("broker-2");
+            idleBroker.setTimestamp(timestamp);
+            idleBroker.setBundleStats(Maps.newHashMap());
+            reports.add(idleBroker);
+        }
+
+        TrafficLoadSimulator simulator = new TrafficLoadSimulator(3, 0, 20, 5, TimeUnit.MINUTES.toMillis(2),
+                TimeUnit.MINUTES.toMillis(30));
+        TrafficLoadSimulator.Result result = simulator.replay(reports);
+
+        assertEquals(result.getRounds(), 4);
+        assertEquals(result.getMoves(), 2);
+        assertEquals(result.getPeakRecordedImbalance(), 2.0);
+        assertEquals(result.getAverageRecordedImbalance(), 2.0);
+        assertTrue(result.getAverageSimulatedImbalance() < result.getAverageRecordedImbalance());
+    }
+}
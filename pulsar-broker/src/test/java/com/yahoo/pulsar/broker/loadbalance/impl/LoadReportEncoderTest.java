@@ -0,0 +1,105 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.loadbalance.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.zookeeper.MockZooKeeper;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Maps;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReport;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReportCodec;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReportCodec.Delta;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReportCodec.Snapshot;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.NamespaceBundleStats;
+
+public class LoadReportEncoderTest {
+
+    private static final String SNAPSHOT_PATH = "/loadbalance/bundle-stats/broker-1:8080";
+
+    private static LoadReport report(Map<String, NamespaceBundleStats> bundleStats) {
+        LoadReport report = new LoadReport("http://broker-1:8080", null, "pulsar://broker-1:6650", null);
+        report.setName("broker-1:8080");
+        report.setTimestamp(System.currentTimeMillis());
+        report.setBundleStats(bundleStats);
+        return report;
+    }
+
+    private static Map<String, NamespaceBundleStats> bundles(int count, double msgRate) {
+        Map<String, NamespaceBundleStats> bundles = Maps.newHashMap();
+        for (int i = 0; i < count; i++) {
+            NamespaceBundleStats stats = new NamespaceBundleStats();
+            stats.msgRateIn = msgRate;
+            stats.msgThroughputIn = msgRate * 1024;
+            stats.topics = 1;
+            bundles.put(String.format("prop/cluster/ns/0x%08x_0x%08x", i * 16, (i + 1) * 16), stats);
+        }
+        return bundles;
+    }
+
+    private static LoadReport decode(MockZooKeeper zk, byte[] content) throws Exception {
+        Delta delta = LoadReportCodec.decodeReport(content);
+        Snapshot snapshot = LoadReportCodec.decodeSnapshot(zk.getData(SNAPSHOT_PATH, false, null));
+        return LoadReportCodec.merge(delta, snapshot);
+    }
+
+    @Test
+    public void testDeltaUpdates() throws Exception {
+        MockZooKeeper zk = MockZooKeeper.newInstance();
+        LoadReportEncoder encoder = new LoadReportEncoder(zk, SNAPSHOT_PATH, 10, TimeUnit.MINUTES.toMillis(15));
+
+        // First report writes the snapshot
+        Map<String, NamespaceBundleStats> bundles = bundles(100, 100);
+        byte[] content = encoder.encode(report(bundles));
+        long snapshotId = LoadReportCodec.decodeReport(content).getSnapshotId();
+        assertEquals(encoder.getLastChangedBundles(), 0);
+        assertEquals(decode(zk, content).getBundleStats().size(), 100);
+
+        // Small variations are not published
+        bundles.values().forEach(stats -> stats.msgRateIn = 105);
+        content = encoder.encode(report(bundles));
+        assertEquals(encoder.getLastChangedBundles(), 0);
+        assertTrue(encoder.getLastReportSize() < encoder.getLastSnapshotSize() / 10);
+
+        // Only the changed bundles are carried by the report
+        String hotBundle = bundles.keySet().iterator().next();
+        bundles.get(hotBundle).msgRateIn = 1000;
+        bundles.remove(bundles.keySet().stream().filter(b -> !b.equals(hotBundle)).findFirst().get());
+        content = encoder.encode(report(bundles));
+        assertEquals(encoder.getLastChangedBundles(), 2);
+        assertEquals(LoadReportCodec.decodeReport(content).getSnapshotId(), snapshotId);
+
+        LoadReport report = decode(zk, content);
+        assertEquals(report.getBundleStats().size(), 99);
+        assertEquals(report.getBundleStats().get(hotBundle).msgRateIn, 1000.0);
+
+        // When most of the bundles changed, a new snapshot is written
+        bundles.values().forEach(stats -> stats.msgRateIn = 500);
+        content = encoder.encode(report(bundles));
+        assertNotEquals(LoadReportCodec.decodeReport(content).getSnapshotId(), snapshotId);
+        assertEquals(encoder.getLastChangedBundles(), 0);
+        assertEquals(decode(zk, content).getBundleStats().get(hotBundle).msgRateIn, 500.0);
+
+        encoder.deleteSnapshot();
+        assertEquals(zk.exists(SNAPSHOT_PATH, false), null);
+    }
+}
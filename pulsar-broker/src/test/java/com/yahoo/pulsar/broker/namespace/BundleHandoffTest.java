@@ -0,0 +1,157 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.namespace;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.bookkeeper.test.PortManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.yahoo.pulsar.broker.PulsarService;
+import com.yahoo.pulsar.broker.ServiceConfiguration;
+import com.yahoo.pulsar.broker.auth.MockedPulsarServiceBaseTest;
+import com.yahoo.pulsar.broker.service.persistent.PersistentTopic;
+import com.yahoo.pulsar.client.api.Consumer;
+import com.yahoo.pulsar.client.api.Message;
+import com.yahoo.pulsar.client.api.Producer;
+import com.yahoo.pulsar.common.naming.DestinationName;
+import com.yahoo.pulsar.common.naming.NamespaceBundle;
+import com.yahoo.pulsar.common.policies.data.ClusterData;
+import com.yahoo.pulsar.common.policies.data.PropertyAdmin;
+
+public class BundleHandoffTest extends MockedPulsarServiceBaseTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BundleHandoffTest.class);
+
+    private final int SECONDARY_BROKER_PORT = PortManager.nextFreePort();
+    private final int SECONDARY_BROKER_WEBSERVICE_PORT = PortManager.nextFreePort();
+
+    private PulsarService otherPulsar;
+
+    @BeforeMethod
+    @Override
+    protected void setup() throws Exception {
+        conf.setLoadBalancerBundleHandoffEnabled(true);
+        super.internalSetup();
+
+        ServiceConfiguration otherconfig = new ServiceConfiguration();
+        otherconfig.setBrokerServicePort(SECONDARY_BROKER_PORT);
+        otherconfig.setWebServicePort(SECONDARY_BROKER_WEBSERVICE_PORT);
+        otherconfig.setClusterName("test");
+        otherconfig.setAdvertisedAddress("localhost");
+        otherconfig.setLoadBalancerBundleHandoffEnabled(true);
+        otherPulsar = startBroker(otherconfig);
+
+        admin.clusters().createCluster("test", new ClusterData("http://127.0.0.1:" + BROKER_WEBSERVICE_PORT));
+        admin.properties().createProperty("prop",
+                new PropertyAdmin(Lists.newArrayList("appid1"), Sets.newHashSet("test")));
+        admin.namespaces().createNamespace("prop/test/ns1", 1);
+    }
+
+    @AfterMethod
+    @Override
+    protected void cleanup() throws Exception {
+        otherPulsar.close();
+        super.internalCleanup();
+    }
+
+    @Test
+    public void testBundleHandoff() throws Exception {
+        final int numTopics = 10;
+        List<String> topics = Lists.newArrayList();
+        List<Producer> producers = Lists.newArrayList();
+        for (int i = 0; i < numTopics; i++) {
+            String topic = "persistent://prop/test/ns1/handoff-" + i;
+            topics.add(topic);
+            Producer producer = pulsarClient.createProducer(topic);
+            producer.send(("msg-" + i).getBytes());
+            producers.add(producer);
+        }
+
+        Consumer consumer = pulsarClient.subscribe(topics.get(0), "sub");
+        producers.get(0).send("msg-acked".getBytes());
+        Message msg = consumer.receive(5, TimeUnit.SECONDS);
+        assertEquals(new String(msg.getData()), "msg-acked");
+        consumer.acknowledge(msg);
+
+        NamespaceBundle bundle = pulsar.getNamespaceService().getBundle(DestinationName.get(topics.get(0)));
+        String ownerUrl = pulsar.getNamespaceService().getOwner(bundle).get().getNativeUrl();
+        PulsarService oldOwner = ownerUrl.equals(pulsar.getBrokerServiceUrl()) ? pulsar : otherPulsar;
+        PulsarService newOwner = oldOwner == pulsar ? otherPulsar : pulsar;
+
+        // Wait for the ack to be processed by the current owner
+        PersistentTopic oldTopic = (PersistentTopic) oldOwner.getBrokerService().getTopicReference(topics.get(0));
+        for (int i = 0; i < 50 && oldTopic.getPersistentSubscription("sub").getNumberOfEntriesInBacklog() > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(oldTopic.getPersistentSubscription("sub").getNumberOfEntriesInBacklog(), 0);
+
+        long handoffStartTime = System.nanoTime();
+        oldOwner.getNamespaceService().handoffNamespaceBundle(bundle, newOwner.getWebServiceAddress());
+        long handoffTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - handoffStartTime);
+
+        // The new owner already owns the bundle and serves the topics before the clients reconnect
+        assertNull(oldOwner.getNamespaceService().getOwnershipCache().getOwnedBundle(bundle));
+        assertNotNull(newOwner.getNamespaceService().getOwnershipCache().getOwnedBundle(bundle));
+        for (String topic : topics) {
+            assertNull(oldOwner.getBrokerService().getTopicReference(topic));
+            assertNotNull(newOwner.getBrokerService().getTopicReference(topic));
+        }
+
+        // The subscription position was handed over
+        PersistentTopic newTopic = (PersistentTopic) newOwner.getBrokerService().getTopicReference(topics.get(0));
+        assertEquals(newTopic.getPersistentSubscription("sub").getNumberOfEntriesInBacklog(), 0);
+
+        // Measure for how long each topic was unavailable to its producer
+        List<CompletableFuture<Long>> unavailability = Lists.newArrayList();
+        for (int i = 0; i < numTopics; i++) {
+            unavailability.add(producers.get(i).sendAsync(("after-handoff-" + i).getBytes())
+                    .thenApply(msgId -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - handoffStartTime)));
+        }
+        long maxUnavailabilityMs = 0;
+        for (int i = 0; i < numTopics; i++) {
+            long unavailabilityMs = unavailability.get(i).get(30, TimeUnit.SECONDS);
+            log.info("Topic {} was unavailable for {} ms", topics.get(i), unavailabilityMs);
+            maxUnavailabilityMs = Math.max(maxUnavailabilityMs, unavailabilityMs);
+        }
+        log.info("Handoff of {} topics took {} ms, max unavailability {} ms", numTopics, handoffTimeMs,
+                maxUnavailabilityMs);
+        assertTrue(maxUnavailabilityMs < 10000);
+
+        // The consumer resumes from the handed over position
+        msg = consumer.receive(5, TimeUnit.SECONDS);
+        assertNotNull(msg);
+        assertEquals(new String(msg.getData()), "after-handoff-0");
+
+        consumer.close();
+        for (Producer producer : producers) {
+            producer.close();
+        }
+    }
+}
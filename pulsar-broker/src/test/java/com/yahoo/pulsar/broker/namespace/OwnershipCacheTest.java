@@ -46,6 +46,7 @@ import com.yahoo.pulsar.broker.service.BrokerService;
 import com.yahoo.pulsar.common.naming.NamespaceBundle;
 import com.yahoo.pulsar.common.naming.NamespaceBundleFactory;
 import com.yahoo.pulsar.common.naming.NamespaceName;
+import com.yahoo.pulsar.common.util.ObjectMapperFactory;
 import com.yahoo.pulsar.zookeeper.LocalZooKeeperCache;
 import com.yahoo.pulsar.zookeeper.ZooKeeperCache;
 
@@ -250,6 +251,45 @@ public class OwnershipCacheTest {
         assertTrue(cache.getOwnedBundles().size() == 1);
     }
 
+    @Test
+    public void testOwnershipIndex() throws Exception {
+        OwnershipIndex index = new OwnershipIndex(zkCache);
+        NamespaceBundle bundle = bundleFactory.getFullBundle(new NamespaceName("pulsar/test/ns-8"));
+        String path = ServiceUnitZkUtils.path(bundle);
+
+        // case 1: the first lookup starts watching the namespace
+        assertFalse(index.getOwner(bundle).isPresent());
+
+        // case 2: the owner is picked up by the children watch
+        NamespaceEphemeralData otherOwner = new NamespaceEphemeralData("pulsar://otherhost:8881",
+                "pulsar://otherhost:8884", "http://otherhost:8080", "https://otherhost:4443", false);
+        ServiceUnitZkUtils.acquireNameSpace(zkCache.getZooKeeper(), path, otherOwner);
+        for (int i = 0; i < 50 && !index.getOwner(bundle).isPresent(); i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(index.getOwner(bundle).get().getNativeUrl(), "pulsar://otherhost:8881");
+        assertFalse(index.getOwner(bundle).get().isDisabled());
+        assertEquals(index.size(), 1);
+
+        // case 3: the owner disables the bundle before unloading it
+        NamespaceEphemeralData disabledOwner = new NamespaceEphemeralData("pulsar://otherhost:8881",
+                "pulsar://otherhost:8884", "http://otherhost:8080", "https://otherhost:4443", true);
+        zkCache.getZooKeeper().setData(path, ObjectMapperFactory.getThreadLocal().writeValueAsBytes(disabledOwner),
+                -1);
+        for (int i = 0; i < 50 && !index.getOwner(bundle).get().isDisabled(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(index.getOwner(bundle).get().isDisabled());
+
+        // case 4: the bundle is released
+        zkCache.getZooKeeper().delete(path, -1);
+        for (int i = 0; i < 50 && index.getOwner(bundle).isPresent(); i++) {
+            Thread.sleep(100);
+        }
+        assertFalse(index.getOwner(bundle).isPresent());
+        assertEquals(index.size(), 0);
+    }
+
     @Test
     public void testRemoveOwnership() throws Exception {
         OwnershipCache cache = new OwnershipCache(this.pulsar, bundleFactory);
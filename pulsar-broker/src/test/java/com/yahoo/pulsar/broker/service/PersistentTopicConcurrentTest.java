@@ -115,7 +115,7 @@ public class PersistentTopicConcurrentTest extends MockedBookKeeperTestCase {
                 .setSubType(PulsarApi.CommandSubscribe.SubType.Exclusive).build();
 
         Future<Consumer> f1 = topic.subscribe(serverCnx, cmd.getSubscription(), cmd.getConsumerId(), cmd.getSubType(),
-                cmd.getConsumerName());
+                cmd.getConsumerName(), true, null);
         f1.get();
 
         final CyclicBarrier barrier = new CyclicBarrier(2);
@@ -173,7 +173,7 @@ public class PersistentTopicConcurrentTest extends MockedBookKeeperTestCase {
                 .setSubType(PulsarApi.CommandSubscribe.SubType.Exclusive).build();
 
         Future<Consumer> f1 = topic.subscribe(serverCnx, cmd.getSubscription(), cmd.getConsumerId(), cmd.getSubType(),
-                cmd.getConsumerName());
+                cmd.getConsumerName(), true, null);
         f1.get();
 
         final CyclicBarrier barrier = new CyclicBarrier(2);
@@ -235,7 +235,7 @@ public class PersistentTopicConcurrentTest extends MockedBookKeeperTestCase {
                 .setSubType(PulsarApi.CommandSubscribe.SubType.Exclusive).build();
 
         Future<Consumer> f1 = topic.subscribe(serverCnx, cmd.getSubscription(), cmd.getConsumerId(), cmd.getSubType(),
-                cmd.getConsumerName());
+                cmd.getConsumerName(), true, null);
         f1.get();
 
         final CyclicBarrier barrier = new CyclicBarrier(2);
@@ -293,7 +293,7 @@ public class PersistentTopicConcurrentTest extends MockedBookKeeperTestCase {
                 .setSubType(PulsarApi.CommandSubscribe.SubType.Exclusive).build();
 
         Future<Consumer> f1 = topic.subscribe(serverCnx, cmd.getSubscription(), cmd.getConsumerId(), cmd.getSubType(),
-                cmd.getConsumerName());
+                cmd.getConsumerName(), true, null);
         f1.get();
 
         final CyclicBarrier barrier = new CyclicBarrier(2);
@@ -333,12 +333,12 @@ public class PersistentTopicTest {
 
         // 1. simple subscribe
         Future<Consumer> f1 = topic.subscribe(serverCnx, cmd.getSubscription(), cmd.getConsumerId(), cmd.getSubType(),
-                cmd.getConsumerName());
+                cmd.getConsumerName(), true, null);
         f1.get();
 
         // 2. duplicate subscribe
         Future<Consumer> f2 = topic.subscribe(serverCnx, cmd.getSubscription(), cmd.getConsumerId(), cmd.getSubType(),
-                cmd.getConsumerName());
+                cmd.getConsumerName(), true, null);
 
         try {
             f2.get();
@@ -358,7 +358,7 @@ public class PersistentTopicTest {
     @Test
     public void testAddRemoveConsumer() throws Exception {
         PersistentTopic topic = new PersistentTopic(successTopicName, ledgerMock, brokerService);
-        PersistentSubscription sub = new PersistentSubscription(topic, cursorMock);
+        PersistentSubscription sub = new PersistentSubscription(topic, "sub-1", cursorMock);
 
         // 1. simple add consumer
         Consumer consumer = new Consumer(sub, SubType.Exclusive, 1 /* consumer id */, "Cons1"/* consumer name */,
@@ -390,7 +390,7 @@ public class PersistentTopicTest {
     @Test
     public void testUbsubscribeRaceConditions() throws Exception {
         PersistentTopic topic = new PersistentTopic(successTopicName, ledgerMock, brokerService);
-        PersistentSubscription sub = new PersistentSubscription(topic, cursorMock);
+        PersistentSubscription sub = new PersistentSubscription(topic, "sub-1", cursorMock);
         Consumer consumer1 = new Consumer(sub, SubType.Exclusive, 1 /* consumer id */, "Cons1"/* consumer name */,
                 50000, serverCnx, "myrole-1");
         sub.addConsumer(consumer1);
@@ -443,7 +443,7 @@ public class PersistentTopicTest {
                 .setSubscription(successSubName).setRequestId(1).setSubType(SubType.Exclusive).build();
 
         Future<Consumer> f1 = topic.subscribe(serverCnx, cmd.getSubscription(), cmd.getConsumerId(), cmd.getSubType(),
-                cmd.getConsumerName());
+                cmd.getConsumerName(), true, null);
         f1.get();
 
         assertTrue(topic.delete().isCompletedExceptionally());
@@ -458,7 +458,7 @@ public class PersistentTopicTest {
                 .setSubscription(successSubName).setRequestId(1).setSubType(SubType.Exclusive).build();
 
         Future<Consumer> f1 = topic.subscribe(serverCnx, cmd.getSubscription(), cmd.getConsumerId(), cmd.getSubType(),
-                cmd.getConsumerName());
+                cmd.getConsumerName(), true, null);
         f1.get();
 
         final CyclicBarrier barrier = new CyclicBarrier(2);
@@ -512,7 +512,7 @@ public class PersistentTopicTest {
                 .setSubscription(successSubName).setRequestId(1).setSubType(SubType.Exclusive).build();
 
         Future<Consumer> f1 = topic.subscribe(serverCnx, cmd.getSubscription(), cmd.getConsumerId(), cmd.getSubType(),
-                cmd.getConsumerName());
+                cmd.getConsumerName(), true, null);
         f1.get();
 
         final CyclicBarrier barrier = new CyclicBarrier(2);
@@ -598,7 +598,7 @@ public class PersistentTopicTest {
                 .setSubscription(successSubName).setRequestId(1).setSubType(SubType.Exclusive).build();
 
         Future<Consumer> f = topic.subscribe(serverCnx, cmd.getSubscription(), cmd.getConsumerId(), cmd.getSubType(),
-                cmd.getConsumerName());
+                cmd.getConsumerName(), true, null);
 
         try {
             f.get();
@@ -616,6 +616,7 @@ public class PersistentTopicTest {
 
         doReturn(new ArrayList<Object>()).when(ledgerMock).getCursors();
         doReturn("mockCursor").when(cursorMock).getName();
+        doReturn(true).when(cursorMock).isDurable();
         // doNothing().when(cursorMock).asyncClose(new CloseCallback() {
         doAnswer(new Answer() {
             @Override
@@ -709,7 +710,7 @@ public class PersistentTopicTest {
 
         // 1. Subscribe with non partition topic
         Future<Consumer> f1 = topic1.subscribe(serverCnx, cmd1.getSubscription(), cmd1.getConsumerId(),
-                cmd1.getSubType(), cmd1.getConsumerName());
+                cmd1.getSubType(), cmd1.getConsumerName(), true, null);
         f1.get();
 
         // 2. Subscribe with partition topic
@@ -720,7 +721,7 @@ public class PersistentTopicTest {
                 .setSubType(SubType.Failover).build();
 
         Future<Consumer> f2 = topic2.subscribe(serverCnx, cmd2.getSubscription(), cmd2.getConsumerId(),
-                cmd2.getSubType(), cmd2.getConsumerName());
+                cmd2.getSubType(), cmd2.getConsumerName(), true, null);
         f2.get();
 
         // 3. Subscribe and create second consumer
@@ -729,7 +730,7 @@ public class PersistentTopicTest {
                 .setSubType(SubType.Failover).build();
 
         Future<Consumer> f3 = topic2.subscribe(serverCnx, cmd3.getSubscription(), cmd3.getConsumerId(),
-                cmd3.getSubType(), cmd3.getConsumerName());
+                cmd3.getSubType(), cmd3.getConsumerName(), true, null);
         f3.get();
 
         assertEquals(
@@ -749,7 +750,7 @@ public class PersistentTopicTest {
                 .setSubType(SubType.Failover).build();
 
         Future<Consumer> f4 = topic2.subscribe(serverCnx, cmd4.getSubscription(), cmd4.getConsumerId(),
-                cmd4.getSubType(), cmd4.getConsumerName());
+                cmd4.getSubType(), cmd4.getConsumerName(), true, null);
         f4.get();
 
         assertEquals(
@@ -774,7 +775,7 @@ public class PersistentTopicTest {
                 .setSubType(SubType.Exclusive).build();
 
         Future<Consumer> f5 = topic2.subscribe(serverCnx, cmd5.getSubscription(), cmd5.getConsumerId(),
-                cmd5.getSubType(), cmd5.getConsumerName());
+                cmd5.getSubType(), cmd5.getConsumerName(), true, null);
 
         try {
             f5.get();
@@ -790,7 +791,7 @@ public class PersistentTopicTest {
                 .setSubType(SubType.Exclusive).build();
 
         Future<Consumer> f6 = topic2.subscribe(serverCnx, cmd6.getSubscription(), cmd6.getConsumerId(),
-                cmd6.getSubType(), cmd6.getConsumerName());
+                cmd6.getSubType(), cmd6.getConsumerName(), true, null);
         f6.get();
 
         // 7. unsubscribe exclusive sub
@@ -1217,6 +1217,7 @@ public class ServerCnxTest {
         }).when(cursorMock).asyncClose(any(CloseCallback.class), anyObject());
 
         doReturn(successSubName).when(cursorMock).getName();
+        doReturn(true).when(cursorMock).isDurable();
     }
 
     private static final Logger log = LoggerFactory.getLogger(ServerCnxTest.class);
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.service;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+@Test
+public class TopicLoadSchedulerTest {
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        TopicLoadScheduler scheduler = new TopicLoadScheduler(2, Runnable::run);
+        List<String> started = Lists.newArrayList();
+        List<CompletableFuture<String>> loads = Lists.newArrayList();
+
+        List<CompletableFuture<String>> results = Lists.newArrayList();
+        for (int i = 0; i < 4; i++) {
+            String topic = "t-" + i;
+            CompletableFuture<String> load = new CompletableFuture<>();
+            loads.add(load);
+            results.add(scheduler.schedule("prop/cluster/ns", () -> {
+                started.add(topic);
+                return load;
+            }));
+        }
+
+        assertEquals(started, Lists.newArrayList("t-0", "t-1"));
+        assertEquals(scheduler.getActiveLoads(), 2);
+        assertEquals(scheduler.getPendingLoads(), 2);
+
+        // A failed load releases its slot as well
+        loads.get(0).completeExceptionally(new RuntimeException("failed"));
+        assertTrue(results.get(0).isCompletedExceptionally());
+        assertEquals(started, Lists.newArrayList("t-0", "t-1", "t-2"));
+
+        loads.get(1).complete("t-1");
+        assertEquals(results.get(1).get(), "t-1");
+        assertEquals(started, Lists.newArrayList("t-0", "t-1", "t-2", "t-3"));
+        assertEquals(scheduler.getActiveLoads(), 2);
+        assertEquals(scheduler.getPendingLoads(), 0);
+
+        loads.get(2).complete("t-2");
+        loads.get(3).complete("t-3");
+        assertEquals(scheduler.getActiveLoads(), 0);
+    }
+
+    @Test
+    public void testTaskFailingToStart() throws Exception {
+        TopicLoadScheduler scheduler = new TopicLoadScheduler(1, Runnable::run);
+
+        CompletableFuture<String> result = scheduler.schedule("prop/cluster/ns", () -> {
+            throw new IllegalStateException("failed");
+        });
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(scheduler.getActiveLoads(), 0);
+    }
+
+    @Test
+    public void testFairnessAcrossNamespaces() throws Exception {
+        TopicLoadScheduler scheduler = new TopicLoadScheduler(1, Runnable::run);
+        List<String> started = Lists.newArrayList();
+        CompletableFuture<String> blockingLoad = new CompletableFuture<>();
+
+        scheduler.schedule("prop/cluster/blocking", () -> blockingLoad);
+
+        // A namespace with many topics is queued before the other ones
+        for (int i = 0; i < 3; i++) {
+            String topic = "ns1-" + i;
+            scheduler.schedule("prop/cluster/ns1", () -> {
+                started.add(topic);
+                return CompletableFuture.completedFuture(topic);
+            });
+        }
+        for (String ns : new String[] { "ns2", "ns3" }) {
+            String topic = ns + "-0";
+            scheduler.schedule("prop/cluster/" + ns, () -> {
+                started.add(topic);
+                return CompletableFuture.completedFuture(topic);
+            });
+        }
+        assertEquals(scheduler.getPendingLoads(), 5);
+
+        blockingLoad.complete("blocking");
+
+        assertEquals(started, Lists.newArrayList("ns1-0", "ns2-0", "ns3-0", "ns1-1", "ns1-2"));
+        assertEquals(scheduler.getActiveLoads(), 0);
+        assertEquals(scheduler.getPendingLoads(), 0);
+    }
+}
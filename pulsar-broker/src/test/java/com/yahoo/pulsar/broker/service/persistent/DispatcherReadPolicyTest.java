@@ -0,0 +1,115 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.service.persistent;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+
+import org.apache.bookkeeper.mledger.Entry;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.yahoo.pulsar.broker.stats.NamespaceLatencyStats;
+
+public class DispatcherReadPolicyTest {
+
+    private PersistentTopic topic;
+
+    @BeforeMethod
+    public void setup() {
+        topic = mock(PersistentTopic.class);
+        doReturn(0.0).when(topic).getAverageEntrySize();
+        doReturn(new NamespaceLatencyStats()).when(topic).getLatencyStats();
+    }
+
+    private static List<Entry> entries(int count, int size) {
+        List<Entry> entries = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            Entry entry = mock(Entry.class);
+            doReturn(size).when(entry).getLength();
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    @Test
+    public void testLimitedByPermits() {
+        DispatcherReadPolicy policy = new DispatcherReadPolicy(topic, 100, 5 * 1024 * 1024, 10000);
+        assertEquals(policy.getEntriesToRead(1000), 100);
+        assertEquals(policy.getEntriesToRead(10), 10);
+        assertEquals(policy.getEntriesToRead(0), 1);
+    }
+
+    @Test
+    public void testLimitedByByteBudget() {
+        DispatcherReadPolicy policy = new DispatcherReadPolicy(topic, 100, 1024 * 1024, 10000);
+
+        // 100 KB entries: only 10 of them fit in a 1 MB read
+        doReturn(100.0 * 1024).when(topic).getAverageEntrySize();
+        assertEquals(policy.getEntriesToRead(1000), 10);
+
+        // Entries bigger than the budget are still read one at a time
+        doReturn(10.0 * 1024 * 1024).when(topic).getAverageEntrySize();
+        assertEquals(policy.getEntriesToRead(1000), 1);
+
+        // Small entries are capped by the max batch size
+        doReturn(100.0).when(topic).getAverageEntrySize();
+        assertEquals(policy.getEntriesToRead(1000), 100);
+    }
+
+    @Test
+    public void testFailureAndRecovery() {
+        DispatcherReadPolicy policy = new DispatcherReadPolicy(topic, 100, 5 * 1024 * 1024, 10000);
+
+        policy.readFailed();
+        assertEquals(policy.getReadBatchSize(), 1);
+        assertEquals(policy.getEntriesToRead(1000), 1);
+
+        policy.readCompleted(entries(1, 100));
+        verify(topic).updateAverageEntrySize(100, 1);
+        assertEquals(policy.getReadBatchSize(), 2);
+        assertEquals(policy.getLastEntriesRead(), 1);
+
+        for (int i = 0; i < 10; i++) {
+            policy.getEntriesToRead(1000);
+            policy.readCompleted(entries(policy.getReadBatchSize(), 100));
+        }
+        assertEquals(policy.getReadBatchSize(), 100);
+    }
+
+    @Test
+    public void testShrinkOnSlowReads() throws Exception {
+        DispatcherReadPolicy policy = new DispatcherReadPolicy(topic, 100, 5 * 1024 * 1024, 1);
+
+        // A full batch that took longer than the threshold halves the batch size
+        assertEquals(policy.getEntriesToRead(1000), 100);
+        Thread.sleep(10);
+        policy.readCompleted(entries(100, 100));
+        assertEquals(policy.getReadBatchSize(), 50);
+
+        // A partial batch means the read has reached the end of the topic, the latency is not relevant
+        assertEquals(policy.getEntriesToRead(1000), 50);
+        Thread.sleep(10);
+        policy.readCompleted(entries(5, 100));
+        assertEquals(policy.getReadBatchSize(), 100);
+        assertEquals(policy.getLastEntriesRead(), 5);
+    }
+}
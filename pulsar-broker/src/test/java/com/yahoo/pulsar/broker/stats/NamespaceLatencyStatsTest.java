@@ -0,0 +1,65 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.stats;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class NamespaceLatencyStatsTest {
+
+    @Test
+    public void testPercentiles() {
+        NamespaceLatencyStats stats = new NamespaceLatencyStats();
+
+        for (int i = 1; i <= 1000; i++) {
+            stats.recordPublishLatency(TimeUnit.MICROSECONDS.toNanos(i * 10));
+        }
+        stats.recordDispatchLatency(TimeUnit.MILLISECONDS.toNanos(5));
+
+        stats.refresh();
+
+        StageLatencyStats publish = stats.getPublishLatency();
+        assertEquals(publish.count, 1000);
+        assertEquals(publish.medianMs, 5.0, 0.1);
+        assertEquals(publish.p99Ms, 9.9, 0.1);
+        assertEquals(publish.maxMs, 10.0, 0.1);
+
+        assertEquals(stats.getDispatchLatency().count, 1);
+        assertEquals(stats.getDispatchLatency().maxMs, 5.0, 0.1);
+        assertEquals(stats.getCursorReadLatency().count, 0);
+
+        // A new interval starts after each refresh
+        stats.refresh();
+        assertEquals(stats.getPublishLatency().count, 0);
+    }
+
+    @Test
+    public void testOutOfRangeValues() {
+        NamespaceLatencyStats stats = new NamespaceLatencyStats();
+
+        // Values bigger than the max trackable latency are capped instead of failing
+        stats.recordCursorReadLatency(TimeUnit.HOURS.toNanos(1));
+        stats.recordCursorReadLatency(-1);
+        stats.refresh();
+
+        assertEquals(stats.getCursorReadLatency().count, 2);
+        assertTrue(stats.getCursorReadLatency().maxMs >= TimeUnit.MINUTES.toMillis(1) * 0.99);
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.broker.stats;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.TreeMap;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.yahoo.pulsar.broker.service.BrokerTestBase;
+import com.yahoo.pulsar.broker.stats.prometheus.PrometheusMetricsGenerator;
+import com.yahoo.pulsar.broker.stats.prometheus.PrometheusMetricsGenerator.Granularity;
+import com.yahoo.pulsar.client.api.Consumer;
+import com.yahoo.pulsar.client.api.Producer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class PrometheusMetricsTest extends BrokerTestBase {
+
+    private static final int NUM_TOPICS = 20;
+
+    private final List<Producer> producers = Lists.newArrayList();
+    private final List<Consumer> consumers = Lists.newArrayList();
+
+    @BeforeClass
+    @Override
+    protected void setup() throws Exception {
+        super.baseSetup();
+
+        for (int i = 0; i < NUM_TOPICS; i++) {
+            String topic = "persistent://prop/use/ns-abc/prometheus-" + i;
+            producers.add(pulsarClient.createProducer(topic));
+            consumers.add(pulsarClient.subscribe(topic, "sub"));
+        }
+    }
+
+    @AfterClass
+    @Override
+    protected void cleanup() throws Exception {
+        for (Producer producer : producers) {
+            producer.close();
+        }
+        for (Consumer consumer : consumers) {
+            consumer.close();
+        }
+        super.internalCleanup();
+    }
+
+    private static Map<String, String> parseSamples(String text) {
+        Map<String, String> samples = new TreeMap<>();
+        for (String line : text.split("\n")) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int idx = line.lastIndexOf(' ');
+            samples.put(line.substring(0, idx), line.substring(idx + 1));
+        }
+        return samples;
+    }
+
+    private String generate(Granularity granularity) {
+        PrometheusMetricsGenerator generator = new PrometheusMetricsGenerator(pulsar);
+        ByteBuf buf = Unpooled.buffer();
+        generator.generate(granularity, buf);
+        return buf.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testTopicGranularity() throws Exception {
+        Map<String, String> samples = parseSamples(generate(Granularity.Topic));
+
+        for (int i = 0; i < NUM_TOPICS; i++) {
+            String labels = "{cluster=\"test\",namespace=\"prop/use/ns-abc\","
+                    + "topic=\"persistent://prop/use/ns-abc/prometheus-" + i + "\"}";
+            assertEquals(samples.get("pulsar_producers_count" + labels), "1");
+            assertEquals(samples.get("pulsar_consumers_count" + labels), "1");
+            assertEquals(samples.get("pulsar_subscriptions_count" + labels), "1");
+        }
+    }
+
+    @Test
+    public void testAggregatedGranularity() throws Exception {
+        Map<String, String> samples = parseSamples(generate(Granularity.Namespace));
+        assertEquals(samples.get("pulsar_topics_count{cluster=\"test\",namespace=\"prop/use/ns-abc\"}"),
+                Integer.toString(NUM_TOPICS));
+        samples.keySet().forEach(key -> assertFalse(key.contains("topic=")));
+
+        samples = parseSamples(generate(Granularity.Broker));
+        assertEquals(samples.get("pulsar_producers_count{cluster=\"test\"}"), Integer.toString(NUM_TOPICS));
+        samples.keySet().forEach(key -> assertFalse(key.contains("namespace=")));
+    }
+
+    @Test
+    public void testMetricsEndpoint() throws Exception {
+        String text;
+        try (Scanner s = new Scanner(new URL(brokerUrl, "/metrics?granularity=topic").openStream(), "UTF-8")) {
+            text = s.useDelimiter("\\A").next();
+        }
+
+        assertTrue(text.contains("# TYPE pulsar_rate_in gauge"));
+        assertTrue(text.contains("topic=\"persistent://prop/use/ns-abc/prometheus-0\""));
+    }
+
+    /**
+     * Once the generator holders are allocated, producing the metrics should not allocate memory in proportion to the
+     * number of topics.
+     */
+    @Test
+    public void testNoAllocationPerTopic() throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        PrometheusMetricsGenerator generator = new PrometheusMetricsGenerator(pulsar);
+        ByteBuf buf = Unpooled.buffer(1024 * 1024);
+
+        // Warm-up
+        for (int i = 0; i < 100; i++) {
+            buf.clear();
+            generator.generate(Granularity.Topic, buf);
+        }
+
+        final int iterations = 100;
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            buf.clear();
+            generator.generate(Granularity.Topic, buf);
+        }
+        long allocatedPerIteration = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / iterations;
+
+        assertTrue(allocatedPerIteration < 1024, "Allocated " + allocatedPerIteration + " bytes per generation");
+    }
+}
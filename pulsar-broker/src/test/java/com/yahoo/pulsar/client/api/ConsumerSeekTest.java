@@ -0,0 +1,178 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.api;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+public class ConsumerSeekTest extends ProducerConsumerBase {
+    private static final Logger log = LoggerFactory.getLogger(ConsumerSeekTest.class);
+
+    @BeforeMethod
+    @Override
+    protected void setup() throws Exception {
+        super.internalSetup();
+        super.producerBaseSetup();
+    }
+
+    @AfterMethod
+    @Override
+    protected void cleanup() throws Exception {
+        super.internalCleanup();
+    }
+
+    @Test
+    public void testSeekByMessageId() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+        final String topic = "persistent://my-property/use/my-ns/seek-topic1";
+
+        Consumer consumer = pulsarClient.subscribe(topic, "my-sub", new ConsumerConfiguration());
+        Producer producer = pulsarClient.createProducer(topic);
+
+        List<MessageId> messageIds = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            messageIds.add(producer.send(("my-message-" + i).getBytes()));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+
+        // Go back on the same connection: the next message is the one we have seeked to
+        consumer.seek(messageIds.get(3));
+        for (int i = 3; i < 10; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+
+        assertNull(consumer.receive(100, TimeUnit.MILLISECONDS));
+
+        consumer.close();
+        producer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test
+    public void testSeekDiscardsReceiverQueue() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+        final String topic = "persistent://my-property/use/my-ns/seek-topic2";
+
+        Consumer consumer = pulsarClient.subscribe(topic, "my-sub", new ConsumerConfiguration());
+        Producer producer = pulsarClient.createProducer(topic);
+
+        List<MessageId> messageIds = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            messageIds.add(producer.send(("my-message-" + i).getBytes()));
+        }
+
+        // Only consume the first message, the others are still sitting in the receiver queue
+        Message msg = consumer.receive(5, TimeUnit.SECONDS);
+        assertEquals(new String(msg.getData()), "my-message-0");
+
+        consumer.seek(messageIds.get(8));
+        for (int i = 8; i < 10; i++) {
+            msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+
+        consumer.seek(MessageId.earliest);
+        for (int i = 0; i < 10; i++) {
+            msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+
+        consumer.close();
+        producer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test
+    public void testSeekToLatest() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+        final String topic = "persistent://my-property/use/my-ns/seek-topic4";
+
+        Consumer consumer = pulsarClient.subscribe(topic, "my-sub", new ConsumerConfiguration());
+        Producer producer = pulsarClient.createProducer(topic);
+
+        for (int i = 0; i < 10; i++) {
+            producer.send(("my-message-" + i).getBytes());
+        }
+
+        Message msg = consumer.receive(5, TimeUnit.SECONDS);
+        assertEquals(new String(msg.getData()), "my-message-0");
+
+        // All the messages already published are skipped, including the ones in the receiver queue
+        consumer.seek(MessageId.latest);
+        assertNull(consumer.receive(100, TimeUnit.MILLISECONDS));
+
+        producer.send("my-message-10".getBytes());
+        msg = consumer.receive(5, TimeUnit.SECONDS);
+        assertEquals(new String(msg.getData()), "my-message-10");
+        assertNull(consumer.receive(100, TimeUnit.MILLISECONDS));
+
+        consumer.close();
+        producer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test
+    public void testSeekByTimestamp() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+        final String topic = "persistent://my-property/use/my-ns/seek-topic3";
+
+        Consumer consumer = pulsarClient.subscribe(topic, "my-sub", new ConsumerConfiguration());
+        Producer producer = pulsarClient.createProducer(topic);
+
+        for (int i = 0; i < 5; i++) {
+            producer.send(("my-message-" + i).getBytes());
+        }
+
+        Thread.sleep(10);
+        long timestamp = System.currentTimeMillis();
+        Thread.sleep(10);
+
+        for (int i = 5; i < 10; i++) {
+            producer.send(("my-message-" + i).getBytes());
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            consumer.acknowledge(msg);
+        }
+
+        consumer.seek(timestamp);
+        for (int i = 5; i < 10; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+
+        consumer.close();
+        producer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+}
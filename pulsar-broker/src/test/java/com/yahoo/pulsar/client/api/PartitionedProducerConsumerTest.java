@@ -19,12 +19,16 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,9 +37,13 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.yahoo.pulsar.client.api.ProducerConfiguration.MessageRoutingMode;
+import com.yahoo.pulsar.client.impl.MessageIdImpl;
+import com.yahoo.pulsar.client.impl.PartitionedConsumerImpl;
 import com.yahoo.pulsar.client.impl.PartitionedProducerImpl;
+import com.yahoo.pulsar.client.util.FutureUtil;
 import com.yahoo.pulsar.common.naming.DestinationName;
 
 public class PartitionedProducerConsumerTest extends ProducerConsumerBase {
@@ -140,6 +148,370 @@ public class PartitionedProducerConsumerTest extends ProducerConsumerBase {
         log.info("-- Exiting {} test --", methodName);
     }
 
+    @Test(timeOut = 30000)
+    public void testStickyPartitionProducer() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        int numPartitions = 4;
+        int batchSize = 10;
+        DestinationName dn = DestinationName.get("persistent://my-property/use/my-ns/my-partitionedtopic7");
+
+        admin.persistentTopics().createPartitionedTopic(dn.toString(), numPartitions);
+
+        Consumer[] consumers = new Consumer[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            consumers[i] = pulsarClient.subscribe(dn.getPartition(i).toString(), "my-sticky-subscriber");
+        }
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        producerConf.setMessageRoutingMode(MessageRoutingMode.StickyPartition);
+        producerConf.setBatchingEnabled(true);
+        producerConf.setBatchingMaxMessages(batchSize);
+        // Only full batches are closed out during the test
+        producerConf.setBatchingMaxPublishDelay(1, TimeUnit.MINUTES);
+        Producer producer = pulsarClient.createProducer(dn.toString(), producerConf);
+
+        // Each round fills exactly one batch, so the next round is routed to the next partition
+        int numRounds = 2;
+        for (int round = 0; round < numRounds; round++) {
+            List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+            for (int i = 0; i < batchSize; i++) {
+                futures.add(producer.sendAsync(("my-message-" + round + "-" + i).getBytes()));
+            }
+            FutureUtil.waitForAll(futures).get();
+        }
+
+        List<Integer> usedPartitions = Lists.newArrayList();
+        for (int i = 0; i < numPartitions; i++) {
+            int received = 0;
+            Message msg;
+            while ((msg = consumers[i].receive(500, TimeUnit.MILLISECONDS)) != null) {
+                consumers[i].acknowledge(msg);
+                received++;
+            }
+            if (received > 0) {
+                assertEquals(received, batchSize);
+                usedPartitions.add(i);
+            }
+        }
+
+        assertEquals(usedPartitions.size(), numRounds);
+        int first = usedPartitions.get(0);
+        int second = usedPartitions.get(1);
+        assertTrue(second == first + 1 || (first == 0 && second == numPartitions - 1));
+
+        producer.close();
+        for (Consumer consumer : consumers) {
+            consumer.unsubscribe();
+            consumer.close();
+        }
+        admin.persistentTopics().deletePartitionedTopic(dn.toString());
+
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test(timeOut = 30000)
+    public void testLazyStartPartitionedProducer() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        int numPartitions = 4;
+        DestinationName dn = DestinationName.get("persistent://my-property/use/my-ns/my-partitionedtopic9");
+
+        admin.persistentTopics().createPartitionedTopic(dn.toString(), numPartitions);
+        Consumer consumer = pulsarClient.subscribe(dn.toString(), "my-lazy-subscriber");
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        producerConf.setMessageRoutingMode(MessageRoutingMode.RoundRobinPartition);
+        producerConf.setLazyStartPartitionedProducers(true);
+        producerConf.setPartitionProducerIdleTimeout(1, TimeUnit.SECONDS);
+        Producer producer = pulsarClient.createProducer(dn.toString(), producerConf);
+
+        // No partition producer is created until a message is routed to it
+        for (int i = 0; i < numPartitions; i++) {
+            assertEquals(admin.persistentTopics().getStats(dn.getPartition(i).toString()).publishers.size(), 0);
+        }
+
+        // The messages are buffered while the partition producers connect
+        List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+        for (int i = 0; i < 2 * numPartitions; i++) {
+            futures.add(producer.sendAsync(("my-message-" + i).getBytes()));
+        }
+        FutureUtil.waitForAll(futures).get();
+
+        for (int i = 0; i < numPartitions; i++) {
+            assertEquals(admin.persistentTopics().getStats(dn.getPartition(i).toString()).publishers.size(), 1);
+        }
+
+        Set<String> received = Sets.newHashSet();
+        for (int i = 0; i < 2 * numPartitions; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(msg);
+            received.add(new String(msg.getData()));
+            consumer.acknowledge(msg);
+        }
+        assertEquals(received.size(), 2 * numPartitions);
+
+        // The idle partition producers get closed
+        for (int i = 0; i < numPartitions; i++) {
+            String partition = dn.getPartition(i).toString();
+            for (int retry = 0; retry < 50 && !admin.persistentTopics().getStats(partition).publishers.isEmpty();
+                    retry++) {
+                Thread.sleep(100);
+            }
+            assertEquals(admin.persistentTopics().getStats(partition).publishers.size(), 0);
+        }
+
+        // and are created again on demand
+        producer.send("my-message-again".getBytes());
+        Message msg = consumer.receive(5, TimeUnit.SECONDS);
+        assertEquals(new String(msg.getData()), "my-message-again");
+        consumer.acknowledge(msg);
+
+        producer.close();
+        consumer.unsubscribe();
+        consumer.close();
+        admin.persistentTopics().deletePartitionedTopic(dn.toString());
+
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test(timeOut = 30000)
+    public void testListenerPerPartition() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        final int numPartitions = 4;
+        final int numKeys = 8;
+        final int numMessagesPerKey = 50;
+        DestinationName dn = DestinationName.get("persistent://my-property/use/my-ns/my-partitionedtopic8");
+
+        admin.persistentTopics().createPartitionedTopic(dn.toString(), numPartitions);
+
+        // One listener thread per partition, so that the partitions can be processed in parallel
+        ClientConfiguration clientConf = new ClientConfiguration();
+        clientConf.setListenerThreads(numPartitions);
+        PulsarClient client = PulsarClient.create(brokerUrl.toString(), clientConf);
+
+        // The messages of a partition have to be processed one at a time and in order, while different partitions
+        // overlap
+        final Map<Integer, Integer> lastReceived = new ConcurrentHashMap<>();
+        final Map<Integer, AtomicInteger> inFlightPerPartition = new ConcurrentHashMap<>();
+        final AtomicInteger outOfOrder = new AtomicInteger();
+        final AtomicInteger overlapWithinPartition = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(numKeys * numMessagesPerKey);
+        ConsumerConfiguration conf = new ConsumerConfiguration();
+        conf.setListenerPerPartition(true);
+        conf.setMessageListener((consumer, msg) -> {
+            int partition = ((MessageIdImpl) msg.getMessageId()).getPartitionIndex();
+            AtomicInteger partitionInFlight = inFlightPerPartition.computeIfAbsent(partition,
+                    p -> new AtomicInteger());
+            if (partitionInFlight.incrementAndGet() > 1) {
+                overlapWithinPartition.incrementAndGet();
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+            int sendOrder = Integer.parseInt(new String(msg.getData()));
+            Integer previous = lastReceived.put(partition, sendOrder);
+            if (previous != null && sendOrder <= previous) {
+                outOfOrder.incrementAndGet();
+            }
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            inFlight.decrementAndGet();
+            partitionInFlight.decrementAndGet();
+            consumer.acknowledgeAsync(msg);
+            latch.countDown();
+        });
+        Consumer consumer = client.subscribe(dn.toString(), "my-partitioned-subscriber", conf);
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        producerConf.setMessageRoutingMode(MessageRoutingMode.RoundRobinPartition);
+        Producer producer = client.createProducer(dn.toString(), producerConf);
+
+        // The messages of a key go to the same partition, and are numbered in send order
+        List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+        int sent = 0;
+        for (int i = 0; i < numMessagesPerKey; i++) {
+            for (int k = 0; k < numKeys; k++) {
+                futures.add(producer.sendAsync(MessageBuilder.create().setKey("key-" + k)
+                        .setContent(Integer.toString(sent++).getBytes()).build()));
+            }
+        }
+        FutureUtil.waitForAll(futures).get();
+
+        assertTrue(latch.await(20, TimeUnit.SECONDS));
+        assertEquals(outOfOrder.get(), 0);
+        assertEquals(overlapWithinPartition.get(), 0);
+        assertTrue(maxInFlight.get() > 1, "Partitions were not processed in parallel");
+        assertEquals(lastReceived.size(), numPartitions);
+
+        producer.close();
+        consumer.unsubscribe();
+        consumer.close();
+        client.close();
+        admin.persistentTopics().deletePartitionedTopic(dn.toString());
+
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test
+    public void testZeroCopyPayload() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        final int numPartitions = 4;
+        final int numMessages = 20;
+        DestinationName dn = DestinationName.get("persistent://my-property/use/my-ns/my-partitionedtopic10");
+
+        admin.persistentTopics().createPartitionedTopic(dn.toString(), numPartitions);
+
+        // The partition consumers inherit the zero-copy mode
+        ConsumerConfiguration conf = new ConsumerConfiguration();
+        conf.setZeroCopyPayload(true);
+        Consumer consumer = pulsarClient.subscribe(dn.toString(), "my-partitioned-subscriber", conf);
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        producerConf.setMessageRoutingMode(MessageRoutingMode.RoundRobinPartition);
+        Producer producer = pulsarClient.createProducer(dn.toString(), producerConf);
+        for (int i = 0; i < numMessages; i++) {
+            producer.send(("my-message-" + i).getBytes());
+        }
+
+        List<Message> messages = Lists.newArrayList();
+        Set<String> messageSet = Sets.newHashSet();
+        for (int i = 0; i < numMessages; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(msg, "Message should not be null");
+            // Without zero-copy, the payload would have been copied into a heap buffer
+            assertTrue(msg.getByteBuffer().isDirect());
+            assertTrue(messageSet.add(new String(msg.getData())));
+            messages.add(msg);
+        }
+        Assert.assertFalse(((PartitionedConsumerImpl) consumer).isRetainedPayloadsEmpty());
+
+        for (Message msg : messages) {
+            consumer.acknowledge(msg);
+        }
+        assertTrue(((PartitionedConsumerImpl) consumer).isRetainedPayloadsEmpty());
+
+        producer.close();
+        consumer.unsubscribe();
+        consumer.close();
+        admin.persistentTopics().deletePartitionedTopic(dn.toString());
+
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test
+    public void testZeroCopyPayloadRedelivery() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        final int numPartitions = 4;
+        final int numMessages = 40;
+        DestinationName dn = DestinationName.get("persistent://my-property/use/my-ns/my-partitionedtopic11");
+
+        admin.persistentTopics().createPartitionedTopic(dn.toString(), numPartitions);
+
+        ConsumerConfiguration conf = new ConsumerConfiguration();
+        conf.setZeroCopyPayload(true);
+        conf.setReceiverQueueSize(4);
+        Consumer consumer = pulsarClient.subscribe(dn.toString(), "my-partitioned-subscriber", conf);
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        producerConf.setMessageRoutingMode(MessageRoutingMode.RoundRobinPartition);
+        Producer producer = pulsarClient.createProducer(dn.toString(), producerConf);
+        Set<String> expected = Sets.newHashSet();
+        for (int i = 0; i < numMessages; i++) {
+            String message = "my-message-" + i;
+            producer.send(message.getBytes());
+            expected.add(message);
+        }
+
+        // Let the queues of the partitions and of the partitioned consumer fill up, then give back everything while
+        // messages backed by the released buffers are still queued
+        Message msg = consumer.receive(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(msg, "Message should not be null");
+        Thread.sleep(1000);
+        consumer.redeliverUnacknowledgedMessages();
+
+        // Every message read afterwards must still have its own content
+        Set<String> received = Sets.newHashSet();
+        while (received.size() < numMessages) {
+            msg = consumer.receive(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(msg, "Message should not be null");
+            String content = new String(msg.getData());
+            assertTrue(expected.contains(content), "Unexpected content " + content);
+            received.add(content);
+            consumer.acknowledge(msg);
+        }
+        assertEquals(received, expected);
+
+        producer.close();
+        consumer.unsubscribe();
+        consumer.close();
+        admin.persistentTopics().deletePartitionedTopic(dn.toString());
+
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test
+    public void testBatchReceive() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        final int numPartitions = 4;
+        final int numMessages = 100;
+        DestinationName dn = DestinationName.get("persistent://my-property/use/my-ns/my-partitionedtopic12");
+
+        admin.persistentTopics().createPartitionedTopic(dn.toString(), numPartitions);
+
+        Consumer consumer = pulsarClient.subscribe(dn.toString(), "my-partitioned-subscriber");
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        producerConf.setMessageRoutingMode(MessageRoutingMode.RoundRobinPartition);
+        Producer producer = pulsarClient.createProducer(dn.toString(), producerConf);
+        List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+        for (int i = 0; i < numMessages; i++) {
+            futures.add(producer.sendAsync(("my-message-" + i).getBytes()));
+        }
+        FutureUtil.waitForAll(futures).get();
+
+        // The batches gather the messages of all the partitions, and are acknowledged to each partition in bulk
+        Set<String> received = Sets.newHashSet();
+        Messages messages = consumer.batchReceiveAsync(30, Long.MAX_VALUE, 5, TimeUnit.SECONDS).get();
+        assertTrue(messages.size() > 0 && messages.size() <= 30);
+        for (Message msg : messages) {
+            assertTrue(received.add(new String(msg.getData())));
+        }
+        consumer.acknowledgeAsync(messages).get();
+
+        while (received.size() < numMessages) {
+            messages = consumer.batchReceive(30, Long.MAX_VALUE, 5, TimeUnit.SECONDS);
+            assertTrue(messages.size() > 0 && messages.size() <= 30);
+            for (Message msg : messages) {
+                assertTrue(received.add(new String(msg.getData())));
+            }
+            consumer.acknowledge(messages);
+        }
+
+        // Nothing left, and nothing redelivered once the partitions got the acks
+        messages = consumer.batchReceive(10, Long.MAX_VALUE, 100, TimeUnit.MILLISECONDS);
+        assertEquals(messages.size(), 0);
+        consumer.redeliverUnacknowledgedMessages();
+        messages = consumer.batchReceive(10, Long.MAX_VALUE, 500, TimeUnit.MILLISECONDS);
+        assertEquals(messages.size(), 0);
+
+        producer.close();
+        consumer.unsubscribe();
+        consumer.close();
+        admin.persistentTopics().deletePartitionedTopic(dn.toString());
+
+        log.info("-- Exiting {} test --", methodName);
+    }
+
     @Test
     public void testKeyBasedProducer() throws Exception {
         log.info("-- Starting {} test --", methodName);
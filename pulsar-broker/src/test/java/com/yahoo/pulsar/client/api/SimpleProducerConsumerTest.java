@@ -27,7 +27,10 @@ import static org.testng.Assert.fail;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
@@ -53,6 +56,7 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.yahoo.pulsar.broker.service.persistent.PersistentTopic;
 import com.yahoo.pulsar.client.impl.ConsumerImpl;
@@ -1714,4 +1718,335 @@ public class SimpleProducerConsumerTest extends ProducerConsumerBase {
         }
     }
 
+    /**
+     * Verifies that messages published concurrently from several threads on the same producer are all persisted and
+     * that the publishing order of each thread is preserved.
+     */
+    @Test(dataProvider = "batch", timeOut = 30000)
+    public void testConcurrentSendOrdering(int batchMessageDelayMs) throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        final String topic = "persistent://my-property/use/my-ns/my-topic-concurrent-send";
+        final int numThreads = 8;
+        final int numMessagesPerThread = 100;
+
+        Consumer consumer = pulsarClient.subscribe(topic, "my-subscriber-name");
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        if (batchMessageDelayMs != 0) {
+            producerConf.setBatchingEnabled(true);
+            producerConf.setBatchingMaxPublishDelay(batchMessageDelayMs, TimeUnit.MILLISECONDS);
+            producerConf.setBatchingMaxMessages(5);
+        }
+        Producer producer = pulsarClient.createProducer(topic, producerConf);
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CyclicBarrier barrier = new CyclicBarrier(numThreads);
+        List<Future<List<CompletableFuture<MessageId>>>> results = Lists.newArrayList();
+        for (int t = 0; t < numThreads; t++) {
+            final int thread = t;
+            results.add(executor.submit(() -> {
+                barrier.await();
+                List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+                for (int i = 0; i < numMessagesPerThread; i++) {
+                    futures.add(producer.sendAsync((thread + "-" + i).getBytes()));
+                }
+                return futures;
+            }));
+        }
+
+        for (Future<List<CompletableFuture<MessageId>>> result : results) {
+            FutureUtil.waitForAll(result.get()).get();
+        }
+        executor.shutdown();
+
+        int[] lastReceived = new int[numThreads];
+        Arrays.fill(lastReceived, -1);
+        for (int i = 0; i < numThreads * numMessagesPerThread; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertTrue(msg != null);
+            String[] parts = new String(msg.getData()).split("-");
+            int thread = Integer.parseInt(parts[0]);
+            int index = Integer.parseInt(parts[1]);
+            assertEquals(index, lastReceived[thread] + 1);
+            lastReceived[thread] = index;
+            consumer.acknowledge(msg);
+        }
+
+        producer.close();
+        consumer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test(timeOut = 30000)
+    public void testKeyBasedBatching() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        final String topic = "persistent://my-property/use/my-ns/my-topic-key-based-batching";
+        final int numKeys = 5;
+        final int numMessagesPerKey = 50;
+        final int burstSize = 5;
+
+        Consumer consumer = pulsarClient.subscribe(topic, "my-subscriber-name");
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        producerConf.setBatchingEnabled(true);
+        producerConf.setBatchingMode(ProducerConfiguration.BatchingMode.KeyBased);
+        producerConf.setBatchingMaxPublishDelay(10, TimeUnit.MILLISECONDS);
+        producerConf.setBatchingMaxMessages(10);
+        // Fewer open batches than keys, so that least recently used batches get flushed early
+        producerConf.setBatchingMaxKeys(3);
+        Producer producer = pulsarClient.createProducer(topic, producerConf);
+
+        // Send bursts of messages of each key in turn, numbering the messages in send order
+        List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+        int sent = 0;
+        for (int i = 0; i < numMessagesPerKey; i += burstSize) {
+            for (int k = 0; k < numKeys; k++) {
+                for (int j = i; j < i + burstSize; j++) {
+                    Message msg = MessageBuilder.create().setKey("key-" + k)
+                            .setContent((k + "-" + j + "-" + sent++).getBytes()).build();
+                    futures.add(producer.sendAsync(msg));
+                }
+            }
+        }
+        FutureUtil.waitForAll(futures).get();
+
+        int[] lastReceived = new int[numKeys];
+        Arrays.fill(lastReceived, -1);
+        // Keys of the messages received for each entry, and number of messages in each entry
+        Map<String, Set<String>> keysPerEntry = Maps.newHashMap();
+        Map<String, Integer> messagesPerEntry = Maps.newHashMap();
+        // Send order of the first message of each entry, in the order the entries were persisted
+        Map<String, Integer> firstSentPerEntry = Maps.newLinkedHashMap();
+        for (int i = 0; i < numKeys * numMessagesPerKey; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertTrue(msg != null);
+            String[] parts = new String(msg.getData()).split("-");
+            int key = Integer.parseInt(parts[0]);
+            int index = Integer.parseInt(parts[1]);
+            int sendOrder = Integer.parseInt(parts[2]);
+            assertEquals(msg.getKey(), "key-" + key);
+            assertEquals(index, lastReceived[key] + 1);
+            lastReceived[key] = index;
+
+            MessageIdImpl msgId = (MessageIdImpl) msg.getMessageId();
+            String entry = msgId.getLedgerId() + ":" + msgId.getEntryId();
+            keysPerEntry.computeIfAbsent(entry, e -> Sets.newHashSet()).add(msg.getKey());
+            messagesPerEntry.merge(entry, 1, Integer::sum);
+            firstSentPerEntry.merge(entry, sendOrder, Math::min);
+            consumer.acknowledge(msg);
+        }
+
+        // The batches were sent in the order of their first message, as the sequence ids require
+        int previousFirstSent = -1;
+        for (int firstSent : firstSentPerEntry.values()) {
+            assertTrue(firstSent > previousFirstSent, "Entries out of send order: " + firstSentPerEntry);
+            previousFirstSent = firstSent;
+        }
+
+        // Messages with different keys are never batched together, while the messages of a key are batched
+        keysPerEntry.forEach((entry, keys) -> assertEquals(keys.size(), 1, "Keys " + keys + " in entry " + entry));
+        assertTrue(messagesPerEntry.values().stream().anyMatch(count -> count > 1));
+
+        producer.close();
+        consumer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test(dataProvider = "batch")
+    public void testZeroCopyPayload(int batchMessageDelayMs) throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        final String topic = "persistent://my-property/use/my-ns/my-topic-zero-copy";
+        final int numMessages = 50;
+
+        ConsumerConfiguration conf = new ConsumerConfiguration();
+        conf.setZeroCopyPayload(true);
+        Consumer consumer = pulsarClient.subscribe(topic, "my-subscriber-name", conf);
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        if (batchMessageDelayMs != 0) {
+            producerConf.setBatchingEnabled(true);
+            producerConf.setBatchingMaxPublishDelay(batchMessageDelayMs, TimeUnit.MILLISECONDS);
+            producerConf.setBatchingMaxMessages(5);
+        }
+        Producer producer = pulsarClient.createProducer(topic, producerConf);
+        List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+        for (int i = 0; i < numMessages; i++) {
+            futures.add(producer.sendAsync(("my-message-" + i).getBytes()));
+        }
+        FutureUtil.waitForAll(futures).get();
+
+        // Messages stay readable until they're acknowledged, even after receiving the following ones
+        List<Message> messages = Lists.newArrayList();
+        for (int i = 0; i < numMessages; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertTrue(msg != null);
+            messages.add(msg);
+        }
+        assertFalse(((ConsumerImpl) consumer).isRetainedPayloadsEmpty());
+
+        for (int i = 0; i < numMessages; i++) {
+            Message msg = messages.get(i);
+            ByteBuffer buffer = msg.getByteBuffer();
+            assertTrue(buffer.isReadOnly());
+            byte[] data = new byte[buffer.remaining()];
+            buffer.get(data);
+            assertEquals(new String(data), "my-message-" + i);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+            consumer.acknowledge(msg);
+        }
+        assertTrue(((ConsumerImpl) consumer).isRetainedPayloadsEmpty());
+
+        producer.close();
+        consumer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test(dataProvider = "batch")
+    public void testZeroCopyPayloadRedelivery(int batchMessageDelayMs) throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        final String topic = "persistent://my-property/use/my-ns/my-topic-zero-copy-redelivery";
+        final int numMessages = 20;
+
+        ConsumerConfiguration conf = new ConsumerConfiguration();
+        conf.setZeroCopyPayload(true);
+        conf.setReceiverQueueSize(numMessages);
+        Consumer consumer = pulsarClient.subscribe(topic, "my-subscriber-name", conf);
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        if (batchMessageDelayMs != 0) {
+            producerConf.setBatchingEnabled(true);
+            producerConf.setBatchingMaxPublishDelay(batchMessageDelayMs, TimeUnit.MILLISECONDS);
+            producerConf.setBatchingMaxMessages(5);
+        }
+        Producer producer = pulsarClient.createProducer(topic, producerConf);
+        List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+        for (int i = 0; i < numMessages; i++) {
+            futures.add(producer.sendAsync(("my-message-" + i).getBytes()));
+        }
+        FutureUtil.waitForAll(futures).get();
+
+        // Receive half of the messages, leaving the others in the receiver queue, and get all of them redelivered
+        for (int i = 0; i < numMessages / 2; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+        for (int i = 0; i < 50 && ((ConsumerImpl) consumer).numMessagesInQueue() < numMessages / 2; i++) {
+            Thread.sleep(100);
+        }
+        consumer.redeliverUnacknowledgedMessages();
+
+        for (int i = 0; i < numMessages; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+            consumer.acknowledge(msg);
+        }
+        // The buffers of the first delivery were released when the messages were given back
+        assertTrue(((ConsumerImpl) consumer).isRetainedPayloadsEmpty());
+
+        producer.close();
+        consumer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test
+    public void testZeroCopyPayloadNegativeAck() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        final String topic = "persistent://my-property/use/my-ns/my-topic-zero-copy-nack";
+        final int numMessages = 10;
+
+        ConsumerConfiguration conf = new ConsumerConfiguration();
+        conf.setZeroCopyPayload(true);
+        conf.setSubscriptionType(SubscriptionType.Shared);
+        conf.setNegativeAckRedeliveryDelay(100, TimeUnit.MILLISECONDS);
+        Consumer consumer = pulsarClient.subscribe(topic, "my-subscriber-name", conf);
+
+        Producer producer = pulsarClient.createProducer(topic);
+        for (int i = 0; i < numMessages; i++) {
+            producer.send(("my-message-" + i).getBytes());
+        }
+
+        Set<String> received = Sets.newHashSet();
+        for (int i = 0; i < numMessages; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertTrue(msg != null);
+            consumer.negativeAcknowledge(msg);
+        }
+
+        for (int i = 0; i < numMessages; i++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertTrue(msg != null);
+            received.add(new String(msg.getData()));
+            consumer.acknowledge(msg);
+        }
+        assertEquals(received.size(), numMessages);
+        assertTrue(((ConsumerImpl) consumer).isRetainedPayloadsEmpty());
+
+        producer.close();
+        consumer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test(dataProvider = "batch")
+    public void testBatchReceive(int batchMessageDelayMs) throws Exception {
+        log.info("-- Starting {} test --", methodName);
+
+        final String topic = "persistent://my-property/use/my-ns/my-topic-batch-receive";
+        final int numMessages = 100;
+
+        Consumer consumer = pulsarClient.subscribe(topic, "my-subscriber-name");
+
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        if (batchMessageDelayMs != 0) {
+            producerConf.setBatchingEnabled(true);
+            producerConf.setBatchingMaxPublishDelay(batchMessageDelayMs, TimeUnit.MILLISECONDS);
+            producerConf.setBatchingMaxMessages(5);
+        }
+        Producer producer = pulsarClient.createProducer(topic, producerConf);
+        List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+        for (int i = 0; i < numMessages; i++) {
+            futures.add(producer.sendAsync(("my-message-" + i).getBytes()));
+        }
+        FutureUtil.waitForAll(futures).get();
+
+        // The byte limit stops the batch after the message that reached it
+        Messages messages = consumer.batchReceive(10, 1, 5, TimeUnit.SECONDS);
+        assertEquals(messages.size(), 1);
+        int received = 0;
+        for (Message msg : messages) {
+            assertEquals(new String(msg.getData()), "my-message-" + received++);
+        }
+        consumer.acknowledge(messages);
+
+        messages = consumer.batchReceiveAsync(30, Long.MAX_VALUE, 5, TimeUnit.SECONDS).get();
+        assertTrue(messages.size() > 0 && messages.size() <= 30);
+        for (Message msg : messages) {
+            assertEquals(new String(msg.getData()), "my-message-" + received++);
+        }
+        consumer.acknowledgeAsync(messages).get();
+
+        while (received < numMessages) {
+            messages = consumer.batchReceive(30, Long.MAX_VALUE, 5, TimeUnit.SECONDS);
+            assertTrue(messages.size() > 0 && messages.size() <= 30);
+            long sizeInBytes = 0;
+            for (Message msg : messages) {
+                assertEquals(new String(msg.getData()), "my-message-" + received++);
+                sizeInBytes += msg.getData().length;
+            }
+            assertEquals(messages.getSizeInBytes(), sizeInBytes);
+            consumer.acknowledge(messages);
+        }
+
+        // Nothing left: the batch is empty once the timeout elapses
+        messages = consumer.batchReceive(10, Long.MAX_VALUE, 100, TimeUnit.MILLISECONDS);
+        assertEquals(messages.size(), 0);
+
+        producer.close();
+        consumer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
 }
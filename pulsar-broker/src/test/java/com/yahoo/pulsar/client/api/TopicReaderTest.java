@@ -0,0 +1,169 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.api;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.yahoo.pulsar.broker.service.persistent.PersistentTopic;
+
+public class TopicReaderTest extends ProducerConsumerBase {
+    private static final Logger log = LoggerFactory.getLogger(TopicReaderTest.class);
+
+    @BeforeMethod
+    @Override
+    protected void setup() throws Exception {
+        super.internalSetup();
+        super.producerBaseSetup();
+    }
+
+    @AfterMethod
+    @Override
+    protected void cleanup() throws Exception {
+        super.internalCleanup();
+    }
+
+    @Test
+    public void testReadFromEarliest() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+        final String topic = "persistent://my-property/use/my-ns/reader-topic1";
+
+        Producer producer = pulsarClient.createProducer(topic);
+        for (int i = 0; i < 10; i++) {
+            producer.send(("my-message-" + i).getBytes());
+        }
+
+        Reader reader = pulsarClient.createReader(topic, MessageId.earliest, new ReaderConfiguration());
+        for (int i = 0; i < 10; i++) {
+            Message msg = reader.readNext(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+        assertNull(reader.readNext(100, TimeUnit.MILLISECONDS));
+
+        // The non-durable subscription is not left behind on the topic
+        reader.close();
+        PersistentTopic topicRef = (PersistentTopic) pulsar.getBrokerService().getTopicReference(topic);
+        assertEquals(topicRef.getSubscriptions().size(), 0);
+
+        producer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test
+    public void testReadFromLatest() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+        final String topic = "persistent://my-property/use/my-ns/reader-topic2";
+
+        Producer producer = pulsarClient.createProducer(topic);
+        for (int i = 0; i < 5; i++) {
+            producer.send(("my-message-" + i).getBytes());
+        }
+
+        // Messages published before the reader is created are not returned
+        Reader reader = pulsarClient.createReader(topic, MessageId.latest, new ReaderConfiguration());
+        assertNull(reader.readNext(100, TimeUnit.MILLISECONDS));
+
+        for (int i = 5; i < 10; i++) {
+            producer.send(("my-message-" + i).getBytes());
+        }
+
+        for (int i = 5; i < 10; i++) {
+            Message msg = reader.readNext(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+        assertNull(reader.readNext(100, TimeUnit.MILLISECONDS));
+
+        reader.close();
+        producer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test
+    public void testReadFromMessageId() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+        final String topic = "persistent://my-property/use/my-ns/reader-topic3";
+
+        Producer producer = pulsarClient.createProducer(topic);
+        List<MessageId> messageIds = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            messageIds.add(producer.send(("my-message-" + i).getBytes()));
+        }
+
+        // The first message returned is the one following the start message id
+        Reader reader = pulsarClient.createReader(topic, messageIds.get(4), new ReaderConfiguration());
+        for (int i = 5; i < 10; i++) {
+            Message msg = reader.readNext(5, TimeUnit.SECONDS);
+            assertEquals(msg.getMessageId(), messageIds.get(i));
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+        assertNull(reader.readNext(100, TimeUnit.MILLISECONDS));
+
+        reader.close();
+        producer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+
+    @Test
+    public void testReaderReconnect() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+        final String topic = "persistent://my-property/use/my-ns/reader-topic4";
+
+        Producer producer = pulsarClient.createProducer(topic);
+        for (int i = 0; i < 10; i++) {
+            producer.send(("my-message-" + i).getBytes());
+        }
+
+        ReaderConfiguration conf = new ReaderConfiguration();
+        conf.setReceiverQueueSize(2);
+        Reader reader = pulsarClient.createReader(topic, MessageId.earliest, conf);
+        for (int i = 0; i < 5; i++) {
+            Message msg = reader.readNext(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+
+        // Unload the topic: the reader reconnects and resumes after the last message it has returned, with no
+        // duplicates and no gaps, even though its position was never persisted
+        PersistentTopic topicRef = (PersistentTopic) pulsar.getBrokerService().getTopicReference(topic);
+        assertNotNull(topicRef);
+        topicRef.close().get();
+
+        for (int i = 5; i < 10; i++) {
+            Message msg = reader.readNext(5, TimeUnit.SECONDS);
+            assertEquals(new String(msg.getData()), "my-message-" + i);
+        }
+
+        // Messages published after the reconnection are read as well
+        producer.send("my-message-10".getBytes());
+        Message msg = reader.readNext(5, TimeUnit.SECONDS);
+        assertEquals(new String(msg.getData()), "my-message-10");
+        assertNull(reader.readNext(100, TimeUnit.MILLISECONDS));
+
+        reader.close();
+        producer.close();
+        log.info("-- Exiting {} test --", methodName);
+    }
+}
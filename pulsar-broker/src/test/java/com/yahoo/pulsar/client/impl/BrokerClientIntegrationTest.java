@@ -20,9 +20,11 @@ import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 import java.lang.reflect.Field;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,8 +33,11 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.yahoo.pulsar.broker.namespace.OwnershipCache;
+import com.yahoo.pulsar.client.api.ClientConfiguration;
 import com.yahoo.pulsar.client.api.ConsumerConfiguration;
+import com.yahoo.pulsar.client.api.Producer;
 import com.yahoo.pulsar.client.api.ProducerConfiguration;
+import com.yahoo.pulsar.client.api.PulsarClient;
 import com.yahoo.pulsar.client.api.ProducerConsumerBase;
 import com.yahoo.pulsar.client.impl.HandlerBase.State;
 import com.yahoo.pulsar.common.naming.DestinationName;
@@ -200,5 +205,63 @@ public class BrokerClientIntegrationTest extends ProducerConsumerBase {
         
     }
 
-    
+    /**
+     * Verifies producers are spread over the least loaded connections when multiple connections per broker are allowed
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testLeastLoadedConnectionSelection() throws Exception {
+        ClientConfiguration clientConf = new ClientConfiguration();
+        clientConf.setConnectionsPerBroker(2);
+        PulsarClientImpl client = (PulsarClientImpl) PulsarClient.create(brokerUrl.toString(), clientConf);
+
+        Producer[] producers = new Producer[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = client.createProducer("persistent://my-property/use/my-ns/least-loaded-" + i);
+        }
+
+        List<ConnectionStats> stats = client.getConnectionStats();
+        assertEquals(stats.size(), 2);
+        for (ConnectionStats cnxStats : stats) {
+            assertEquals(cnxStats.getNumProducers(), 2);
+            assertEquals(cnxStats.getNumConsumers(), 0);
+            assertTrue(cnxStats.isWritable());
+        }
+
+        for (Producer producer : producers) {
+            producer.close();
+        }
+        client.close();
+    }
+
+    /**
+     * Verifies producers created at the same time, like the producers of the partitions of a topic, are spread evenly
+     * over the connections, while the connections are still being established
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testLeastLoadedConnectionSelectionOnConcurrentCreation() throws Exception {
+        final String topic = "persistent://my-property/use/my-ns/least-loaded-partitioned";
+        final int numPartitions = 8;
+        admin.persistentTopics().createPartitionedTopic(topic, numPartitions);
+
+        ClientConfiguration clientConf = new ClientConfiguration();
+        clientConf.setConnectionsPerBroker(2);
+        PulsarClientImpl client = (PulsarClientImpl) PulsarClient.create(brokerUrl.toString(), clientConf);
+
+        // The partition producers are all created at once
+        Producer producer = client.createProducer(topic);
+
+        List<ConnectionStats> stats = client.getConnectionStats();
+        assertEquals(stats.size(), 2);
+        for (ConnectionStats cnxStats : stats) {
+            assertEquals(cnxStats.getNumProducers(), numPartitions / 2);
+        }
+
+        producer.close();
+        client.close();
+        admin.persistentTopics().deletePartitionedTopic(topic);
+    }
 }
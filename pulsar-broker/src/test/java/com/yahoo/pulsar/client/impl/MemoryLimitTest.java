@@ -0,0 +1,211 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.yahoo.pulsar.client.api.ClientConfiguration;
+import com.yahoo.pulsar.client.api.Consumer;
+import com.yahoo.pulsar.client.api.ConsumerConfiguration;
+import com.yahoo.pulsar.client.api.Message;
+import com.yahoo.pulsar.client.api.MessageId;
+import com.yahoo.pulsar.client.api.Producer;
+import com.yahoo.pulsar.client.api.ProducerConfiguration;
+import com.yahoo.pulsar.client.api.ProducerConsumerBase;
+import com.yahoo.pulsar.client.api.PulsarClient;
+import com.yahoo.pulsar.client.api.PulsarClientException;
+
+public class MemoryLimitTest extends ProducerConsumerBase {
+
+    private static final int memoryLimit = 1024;
+    private static final int messageSize = 400;
+
+    private PulsarClient limitedClient;
+
+    @BeforeMethod
+    @Override
+    protected void setup() throws Exception {
+        super.internalSetup();
+        producerBaseSetup();
+
+        ClientConfiguration clientConf = new ClientConfiguration();
+        clientConf.setMemoryLimitBytes(memoryLimit);
+        limitedClient = PulsarClient.create(brokerUrl.toString(), clientConf);
+    }
+
+    @AfterMethod
+    @Override
+    protected void cleanup() throws Exception {
+        limitedClient.close();
+        super.internalCleanup();
+    }
+
+    private ProducerConfiguration newBatchingProducerConf(boolean blockIfQueueFull) {
+        // Keep the messages pending in the batch, so that they hold their memory
+        ProducerConfiguration producerConf = new ProducerConfiguration();
+        producerConf.setBlockIfQueueFull(blockIfQueueFull);
+        producerConf.setBatchingEnabled(true);
+        producerConf.setBatchingMaxPublishDelay(1, TimeUnit.SECONDS);
+        producerConf.setBatchingMaxMessages(100);
+        return producerConf;
+    }
+
+    @Test(timeOut = 30000)
+    public void testProducerFailsWhenMemoryLimitReached() throws Exception {
+        final String topic = "persistent://my-property/use/my-ns/memory-limit-fail";
+        Producer producer = limitedClient.createProducer(topic, newBatchingProducerConf(false));
+
+        CompletableFuture<MessageId> first = producer.sendAsync(new byte[messageSize]);
+        CompletableFuture<MessageId> second = producer.sendAsync(new byte[messageSize]);
+        try {
+            producer.sendAsync(new byte[messageSize]).get();
+            fail("Send should have failed since the client memory limit was reached");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof PulsarClientException.ProducerQueueIsFullError);
+        }
+
+        // The memory is given back once the pending messages are published
+        first.get();
+        second.get();
+        MemoryLimitController memoryLimitController = ((PulsarClientImpl) limitedClient).getMemoryLimitController();
+        for (int i = 0; i < 50 && memoryLimitController.currentUsage() > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(memoryLimitController.currentUsage(), 0);
+        producer.sendAsync(new byte[messageSize]).get();
+
+        producer.close();
+    }
+
+    @Test(timeOut = 30000)
+    public void testProducerBlocksWhenMemoryLimitReached() throws Exception {
+        final String topic = "persistent://my-property/use/my-ns/memory-limit-block";
+        Producer producer = limitedClient.createProducer(topic, newBatchingProducerConf(true));
+
+        CompletableFuture<MessageId> first = producer.sendAsync(new byte[messageSize]);
+        CompletableFuture<MessageId> second = producer.sendAsync(new byte[messageSize]);
+
+        CountDownLatch sent = new CountDownLatch(1);
+        new Thread(() -> {
+            producer.sendAsync(new byte[messageSize]);
+            sent.countDown();
+        }).start();
+
+        // The third send blocks until the batch holding the first two messages is published
+        assertFalse(sent.await(200, TimeUnit.MILLISECONDS));
+        assertFalse(first.isDone());
+        assertTrue(sent.await(10, TimeUnit.SECONDS));
+        assertTrue(first.isDone() && second.isDone());
+
+        producer.close();
+    }
+
+    @Test(timeOut = 30000)
+    public void testConsumerHoldsBackPermits() throws Exception {
+        final String topic = "persistent://my-property/use/my-ns/memory-limit-consumer";
+        final int receiverQueueSize = 20;
+        final int numMessages = 50;
+
+        ConsumerConfiguration conf = new ConsumerConfiguration();
+        conf.setReceiverQueueSize(receiverQueueSize);
+        ConsumerImpl consumer = (ConsumerImpl) limitedClient.subscribe(topic, "my-subscriber-name", conf);
+
+        // Produce from the unlimited client, so that only the consumer uses the memory of the limited one
+        Producer producer = pulsarClient.createProducer(topic);
+        for (int i = 0; i < numMessages; i++) {
+            producer.send(new byte[messageSize]);
+        }
+
+        // The broker pushes a full receiver queue, which goes above the memory limit
+        for (int i = 0; i < 50 && consumer.numMessagesInQueue() < receiverQueueSize; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(consumer.numMessagesInQueue(), receiverQueueSize);
+
+        // Processing messages doesn't grant new permits while the memory limit is still reached
+        int received = 0;
+        for (; received < receiverQueueSize - 3; received++) {
+            consumer.receive();
+        }
+        Thread.sleep(200);
+        assertEquals(consumer.numMessagesInQueue(), 3);
+        assertEquals(consumer.getAvailablePermits(), receiverQueueSize - 3);
+
+        // Once the memory is released, the held back permits are sent and all the messages are received
+        for (; received < numMessages; received++) {
+            Message msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertTrue(msg != null);
+        }
+
+        producer.close();
+        consumer.close();
+    }
+
+    @Test(timeOut = 30000)
+    public void testProduceFromListener() throws Exception {
+        final String inputTopic = "persistent://my-property/use/my-ns/memory-limit-listener-in";
+        final String outputTopic = "persistent://my-property/use/my-ns/memory-limit-listener-out";
+        final int numMessages = 50;
+
+        Producer outputProducer = limitedClient.createProducer(outputTopic, newBatchingProducerConf(true));
+        AtomicInteger failedSends = new AtomicInteger();
+        CountDownLatch processed = new CountDownLatch(numMessages);
+        ConsumerConfiguration conf = new ConsumerConfiguration();
+        conf.setMessageListener((consumer, msg) -> {
+            // A blocking send would wait for the memory held by the messages this thread is yet to process
+            outputProducer.sendAsync(msg.getData()).exceptionally(e -> {
+                if (e instanceof PulsarClientException.ProducerQueueIsFullError) {
+                    failedSends.incrementAndGet();
+                }
+                return null;
+            });
+            consumer.acknowledgeAsync(msg);
+            processed.countDown();
+        });
+        Consumer consumer = limitedClient.subscribe(inputTopic, "my-subscriber-name", conf);
+
+        Producer producer = pulsarClient.createProducer(inputTopic);
+        List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+        for (int i = 0; i < numMessages; i++) {
+            futures.add(producer.sendAsync(new byte[messageSize]));
+        }
+        for (CompletableFuture<MessageId> future : futures) {
+            future.get();
+        }
+
+        assertTrue(processed.await(10, TimeUnit.SECONDS));
+        assertTrue(failedSends.get() > 0);
+
+        producer.close();
+        outputProducer.close();
+        consumer.close();
+    }
+}
@@ -16,6 +16,9 @@
 package com.yahoo.pulsar.client.impl;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 import java.util.concurrent.TimeUnit;
 
@@ -25,6 +28,7 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.Lists;
 import com.yahoo.pulsar.broker.service.BrokerTestBase;
 import com.yahoo.pulsar.client.api.Consumer;
 import com.yahoo.pulsar.client.api.ConsumerConfiguration;
@@ -110,7 +114,7 @@ public class PerMessageUnAcknowledgedRedeliveryTest extends BrokerTestBase {
         assertEquals(received, 5);
 
         // 7. Simulate ackTimeout
-        ((ConsumerImpl) consumer).getUnAckedMessageTracker().toggle();
+        ((ConsumerImpl) consumer).getUnAckedMessageTracker().expireAll();
 
         // 8. producer publish more messages
         for (int i = 0; i < totalMessages / 3; i++) {
@@ -142,10 +146,128 @@ public class PerMessageUnAcknowledgedRedeliveryTest extends BrokerTestBase {
             consumer.acknowledge(message);
             message = consumer.receive(100, TimeUnit.MILLISECONDS);
         }
-        assertEquals(redelivered, 5);
+        assertEquals(redelivered, 10);
         size = ((ConsumerImpl) consumer).getUnAckedMessageTracker().size();
         log.info(key + " Unacked Message Tracker size is " + size);
-        assertEquals(size, 5);
+        assertEquals(size, 0);
+    }
+
+    @Test(timeOut = testTimeout)
+    public void testSharedNegativeAcknowledge() throws Exception {
+        String key = "testSharedNegativeAcknowledge";
+        final String topicName = "persistent://prop/use/ns-abc/topic-" + key;
+        final String subscriptionName = "my-ex-subscription-" + key;
+        final String messagePredicate = "my-message-" + key + "-";
+        final int totalMessages = 5;
+        final long redeliveryDelayMillis = 500;
+
+        // 1. producer connect
+        Producer producer = pulsarClient.createProducer(topicName);
+
+        // 2. Create consumer, without ack timeout
+        ConsumerConfiguration conf = new ConsumerConfiguration();
+        conf.setReceiverQueueSize(50);
+        conf.setSubscriptionType(SubscriptionType.Shared);
+        conf.setNegativeAckRedeliveryDelay(redeliveryDelayMillis, TimeUnit.MILLISECONDS);
+        conf.setMaxNegativeAckRedeliveryDelay(4 * redeliveryDelayMillis, TimeUnit.MILLISECONDS);
+        Consumer consumer = pulsarClient.subscribe(topicName, subscriptionName, conf);
+
+        // 3. producer publish messages
+        for (int i = 0; i < totalMessages; i++) {
+            String message = messagePredicate + i;
+            log.info("Producer produced: " + message);
+            producer.send(message.getBytes());
+        }
+
+        // 4. Receiver receives the messages and negatively acks them, twice
+        long lastNegativeAck = 0;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            long previousNegativeAck = lastNegativeAck;
+            for (int i = 0; i < totalMessages; i++) {
+                Message message = consumer.receive(5, TimeUnit.SECONDS);
+                assertNotNull(message);
+                log.info("Consumer received : " + new String(message.getData()));
+                lastNegativeAck = System.nanoTime();
+                consumer.negativeAcknowledge(message);
+            }
+            if (attempt > 0) {
+                long elapsed = lastNegativeAck - previousNegativeAck;
+                assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(redeliveryDelayMillis));
+            }
+        }
+
+        // 5. Receiver receives the redelivered messages, after twice the delay, and acks them
+        for (int i = 0; i < totalMessages; i++) {
+            Message message = consumer.receive(5, TimeUnit.SECONDS);
+            assertNotNull(message);
+            log.info("Consumer received : " + new String(message.getData()));
+            consumer.acknowledge(message);
+        }
+        assertTrue(System.nanoTime() - lastNegativeAck >= TimeUnit.MILLISECONDS.toNanos(2 * redeliveryDelayMillis));
+
+        // 6. Nothing else is redelivered
+        assertNull(consumer.receive(3 * redeliveryDelayMillis, TimeUnit.MILLISECONDS));
+        consumer.close();
+    }
+
+    @Test(timeOut = testTimeout)
+    public void testSharedNegativeAcknowledgeAckedByOtherConsumer() throws Exception {
+        String key = "testSharedNegativeAcknowledgeAckedByOtherConsumer";
+        final String topicName = "persistent://prop/use/ns-abc/topic-" + key;
+        final String subscriptionName = "my-ex-subscription-" + key;
+        final String messagePredicate = "my-message-" + key + "-";
+        final int totalMessages = 5;
+        final long redeliveryDelayMillis = 100;
+
+        // 1. producer connect
+        Producer producer = pulsarClient.createProducer(topicName);
+
+        // 2. Create the consumer that negatively acks, and a second consumer on the same subscription
+        ConsumerConfiguration conf = new ConsumerConfiguration();
+        conf.setReceiverQueueSize(50);
+        conf.setSubscriptionType(SubscriptionType.Shared);
+        conf.setNegativeAckRedeliveryDelay(redeliveryDelayMillis, TimeUnit.MILLISECONDS);
+        conf.setMaxNegativeAckRedeliveryDelay(2 * redeliveryDelayMillis, TimeUnit.MILLISECONDS);
+        Consumer consumer1 = pulsarClient.subscribe(topicName, subscriptionName, conf);
+
+        // 3. producer publish messages
+        for (int i = 0; i < totalMessages; i++) {
+            String message = messagePredicate + i;
+            log.info("Producer produced: " + message);
+            producer.send(message.getBytes());
+        }
+
+        // 4. The first consumer receives the messages and negatively acks them
+        for (int i = 0; i < totalMessages; i++) {
+            Message message = consumer1.receive(5, TimeUnit.SECONDS);
+            assertNotNull(message);
+            consumer1.negativeAcknowledge(message);
+        }
+        NegativeAcksTracker tracker = ((ConsumerImpl) consumer1).getNegativeAcksTracker();
+        assertEquals(tracker.size(), totalMessages);
+        Consumer consumer2 = pulsarClient.subscribe(topicName, subscriptionName, conf);
+
+        // 5. The redelivered messages are acked by whichever consumer gets them
+        int acked = 0;
+        while (acked < totalMessages) {
+            for (Consumer consumer : Lists.newArrayList(consumer1, consumer2)) {
+                Message message = consumer.receive(100, TimeUnit.MILLISECONDS);
+                if (message != null) {
+                    consumer.acknowledge(message);
+                    ++acked;
+                }
+            }
+        }
+
+        // 6. The messages acked by the second consumer are forgotten by the first one after the maximum delay
+        for (int i = 0; i < 50 && tracker.size() > 0; i++) {
+            Thread.sleep(redeliveryDelayMillis);
+        }
+        assertEquals(tracker.size(), 0);
+
+        consumer1.close();
+        consumer2.close();
+        producer.close();
     }
 
     @Test(timeOut = testTimeout)
@@ -207,7 +329,7 @@ public class PerMessageUnAcknowledgedRedeliveryTest extends BrokerTestBase {
         assertEquals(received, 5);
 
         // 7. Simulate ackTimeout
-        ((ConsumerImpl) consumer).getUnAckedMessageTracker().toggle();
+        ((ConsumerImpl) consumer).getUnAckedMessageTracker().expireAll();
 
         // 8. producer publish more messages
         for (int i = 0; i < totalMessages / 3; i++) {
@@ -304,7 +426,7 @@ public class PerMessageUnAcknowledgedRedeliveryTest extends BrokerTestBase {
         assertEquals(received, 5);
 
         // 7. Simulate ackTimeout
-        ((ConsumerImpl) consumer).getUnAckedMessageTracker().toggle();
+        ((ConsumerImpl) consumer).getUnAckedMessageTracker().expireAll();
 
         // 8. producer publish more messages
         for (int i = 0; i < totalMessages / 3; i++) {
@@ -411,7 +533,7 @@ public class PerMessageUnAcknowledgedRedeliveryTest extends BrokerTestBase {
         assertEquals(received, 5);
 
         // 7. Simulate ackTimeout
-        ((PartitionedConsumerImpl) consumer).getConsumers().forEach(c -> c.getUnAckedMessageTracker().toggle());
+        ((PartitionedConsumerImpl) consumer).getConsumers().forEach(c -> c.getUnAckedMessageTracker().expireAll());
 
         // 8. producer publish more messages
         for (int i = 0; i < totalMessages / 3; i++) {
@@ -443,9 +565,9 @@ public class PerMessageUnAcknowledgedRedeliveryTest extends BrokerTestBase {
             consumer.acknowledge(message);
             message = consumer.receive(100, TimeUnit.MILLISECONDS);
         }
-        assertEquals(redelivered, 5);
+        assertEquals(redelivered, 10);
         size =  getUnackedMessagesCountInPartitionedConsumer(consumer);
         log.info(key + " Unacked Message Tracker size is " + size);
-        assertEquals(size, 5);
+        assertEquals(size, 0);
     }
 }
@@ -17,13 +17,16 @@ package com.yahoo.pulsar.common.naming;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.concurrent.CompletableFuture;
 
@@ -219,6 +222,83 @@ public class NamespaceBundlesTest {
 
     }
 
+    @Test
+    public void testSplitBundleAtBoundaries() throws Exception {
+        NamespaceName nsname = new NamespaceName("pulsar/global/ns1");
+        NamespaceBundles bundles = factory.getBundles(nsname);
+        NamespaceBundle bundle = bundles.getFullBundle();
+
+        long[] boundaries = new long[] { 0x10000000L, 0x20000000L, 0xc0000000L };
+        Pair<NamespaceBundles, List<NamespaceBundle>> splitBundles = factory.splitBundles(bundle, boundaries);
+        assertNotNull(splitBundles);
+        assertEquals(splitBundles.getRight().size(), 4);
+        validateSplitBundlesRange(bundle, splitBundles.getRight());
+        assertEquals(splitBundles.getRight().get(0).getBundleRange(), "0x00000000_0x10000000");
+        assertEquals(splitBundles.getRight().get(1).getBundleRange(), "0x10000000_0x20000000");
+        assertEquals(splitBundles.getRight().get(2).getBundleRange(), "0x20000000_0xc0000000");
+        assertEquals(splitBundles.getRight().get(3).getBundleRange(), "0xc0000000_0xffffffff");
+
+        try {
+            factory.splitBundles(bundle, new long[] { 0x20000000L, 0x10000000L });
+            fail("Should fail with unsorted boundaries");
+        } catch (IllegalArgumentException e) {
+            // OK, expected
+        }
+
+        try {
+            factory.splitBundles(bundle, new long[] { 0x00000000L });
+            fail("Should fail with a boundary outside of the bundle");
+        } catch (IllegalArgumentException e) {
+            // OK, expected
+        }
+    }
+
+    @Test
+    public void testTrafficBalancedSplitBoundaries() throws Exception {
+        Range<Long> range = Range.range(0x00000000L, BoundType.CLOSED, 0x80000000L, BoundType.OPEN);
+
+        // One hot topic at the beginning of the range and 3 cold ones: the hot topic gets a bundle on its own
+        Map<Long, Double> weights = new HashMap<>();
+        weights.put(0x00001000L, 100.0);
+        weights.put(0x40000000L, 1.0);
+        weights.put(0x50000000L, 1.0);
+        weights.put(0x60000000L, 1.0);
+        long[] boundaries = NamespaceBundleFactory.getTrafficBalancedSplitBoundaries(range, weights, 2);
+        assertEquals(boundaries.length, 1);
+        assertTrue(boundaries[0] > 0x00001000L && boundaries[0] <= 0x40000000L);
+
+        // Even traffic: the boundaries fall between the topics and each bundle gets the same number of topics
+        weights.clear();
+        for (int i = 0; i < 8; i++) {
+            weights.put(0x08000000L * i + 1, 10.0);
+        }
+        boundaries = NamespaceBundleFactory.getTrafficBalancedSplitBoundaries(range, weights, 4);
+        assertEquals(boundaries.length, 3);
+        for (int i = 0; i < 3; i++) {
+            long lower = 0x08000000L * (2 * i + 1) + 1;
+            long upper = 0x08000000L * (2 * i + 2) + 1;
+            assertTrue(boundaries[i] > lower && boundaries[i] <= upper);
+        }
+
+        // No traffic: topics are counted instead
+        weights.replaceAll((hash, weight) -> 0.0);
+        boundaries = NamespaceBundleFactory.getTrafficBalancedSplitBoundaries(range, weights, 2);
+        assertEquals(boundaries.length, 1);
+        assertTrue(boundaries[0] > 0x18000001L && boundaries[0] <= 0x20000001L);
+
+        // Can't split in more bundles than the number of distinct hash codes
+        weights.clear();
+        weights.put(0x10000000L, 5.0);
+        weights.put(0x20000000L, 5.0);
+        weights.put(0x90000000L, 5.0); // outside of the range
+        boundaries = NamespaceBundleFactory.getTrafficBalancedSplitBoundaries(range, weights, 4);
+        assertEquals(boundaries.length, 1);
+        assertTrue(boundaries[0] > 0x10000000L && boundaries[0] <= 0x20000000L);
+
+        weights.remove(0x20000000L);
+        assertNull(NamespaceBundleFactory.getTrafficBalancedSplitBoundaries(range, weights, 2));
+    }
+
     private void validateSplitBundlesRange(NamespaceBundle fullBundle, List<NamespaceBundle> splitBundles) {
         assertNotNull(fullBundle);
         assertNotNull(splitBundles);
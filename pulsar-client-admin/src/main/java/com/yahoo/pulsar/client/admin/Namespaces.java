@@ -700,6 +700,52 @@ public interface Namespaces {
      */
     void splitNamespaceBundle(String namespace, String bundle) throws PulsarAdminException;
 
+    /**
+     * Split namespace bundle into multiple bundles
+     * <p>
+     * When balanceByTraffic is set, the split boundaries are chosen so that the traffic of the topics currently served
+     * in the bundle is evenly shared between the new bundles, instead of splitting the hash range in equal parts.
+     *
+     * @param namespace
+     * @bundle range of bundle to split
+     * @param numBundles
+     *            number of bundles to split the bundle into
+     * @param balanceByTraffic
+     *            whether to place the split boundaries based on the traffic of the topics
+     * @throws PulsarAdminException
+     *             Unexpected error
+     */
+    void splitNamespaceBundle(String namespace, String bundle, int numBundles, boolean balanceByTraffic)
+            throws PulsarAdminException;
+
+    /**
+     * Ask a broker to get ready to take over a namespace bundle that is going to be unloaded by its current owner
+     * <p>
+     * This is used by brokers to hand off a bundle to its new owner.
+     *
+     * @param namespace
+     * @bundle range of bundle to take over
+     * @throws PulsarAdminException
+     *             Unexpected error
+     */
+    void prepareNamespaceBundleHandoff(String namespace, String bundle) throws PulsarAdminException;
+
+    /**
+     * Ask a broker to take over a namespace bundle that was just unloaded by its previous owner, loading the given
+     * topics
+     * <p>
+     * This is used by brokers to hand off a bundle to its new owner.
+     *
+     * @param namespace
+     * @bundle range of bundle to take over
+     * @param topics
+     *            topics that were served by the previous owner
+     * @throws PulsarAdminException
+     *             Unexpected error
+     */
+    void completeNamespaceBundleHandoff(String namespace, String bundle, List<String> topics)
+            throws PulsarAdminException;
+
     /**
      * Clear backlog for all destinations on a namespace
      *
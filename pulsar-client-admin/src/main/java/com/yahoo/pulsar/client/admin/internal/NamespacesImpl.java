@@ -350,6 +350,45 @@ public class NamespacesImpl extends BaseResource implements Namespaces {
         }
     }
 
+    @Override
+    public void splitNamespaceBundle(String namespace, String bundle, int numBundles, boolean balanceByTraffic)
+            throws PulsarAdminException {
+        try {
+            NamespaceName ns = new NamespaceName(namespace);
+            request(namespaces.path(ns.getProperty()).path(ns.getCluster()).path(ns.getLocalName()).path(bundle)
+                    .path("split").queryParam("numBundles", numBundles)
+                    .queryParam("balanceByTraffic", balanceByTraffic))
+                            .put(Entity.entity("", MediaType.APPLICATION_JSON), ErrorData.class);
+        } catch (Exception e) {
+            throw getApiException(e);
+        }
+    }
+
+    @Override
+    public void prepareNamespaceBundleHandoff(String namespace, String bundle) throws PulsarAdminException {
+        try {
+            NamespaceName ns = new NamespaceName(namespace);
+            request(namespaces.path(ns.getProperty()).path(ns.getCluster()).path(ns.getLocalName()).path(bundle)
+                    .path("handoff").path("prepare")).put(Entity.entity("", MediaType.APPLICATION_JSON),
+                            ErrorData.class);
+        } catch (Exception e) {
+            throw getApiException(e);
+        }
+    }
+
+    @Override
+    public void completeNamespaceBundleHandoff(String namespace, String bundle, List<String> topics)
+            throws PulsarAdminException {
+        try {
+            NamespaceName ns = new NamespaceName(namespace);
+            request(namespaces.path(ns.getProperty()).path(ns.getCluster()).path(ns.getLocalName()).path(bundle)
+                    .path("handoff").path("complete")).post(Entity.entity(topics, MediaType.APPLICATION_JSON),
+                            ErrorData.class);
+        } catch (Exception e) {
+            throw getApiException(e);
+        }
+    }
+
     @Override
     public void clearNamespaceBacklog(String namespace) throws PulsarAdminException {
         try {
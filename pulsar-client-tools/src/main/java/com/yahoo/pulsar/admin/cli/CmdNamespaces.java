@@ -282,10 +282,21 @@ public class CmdNamespaces extends CmdBase {
         @Parameter(names = { "--bundle", "-b" }, description = "{start-boundary}_{end-boundary}\n", required = true)
         private String bundle;
 
+        @Parameter(names = { "--num-bundles", "-n" }, description = "number of bundles to split the bundle into\n")
+        private int numBundles = 2;
+
+        @Parameter(names = { "--balance-by-traffic",
+                "-t" }, description = "place the split boundaries based on the traffic of the topics\n")
+        private boolean balanceByTraffic = false;
+
         @Override
         void run() throws PulsarAdminException {
             String namespace = validateNamespace(params);
-            admin.namespaces().splitNamespaceBundle(namespace, bundle);
+            if (numBundles == 2 && !balanceByTraffic) {
+                admin.namespaces().splitNamespaceBundle(namespace, bundle);
+            } else {
+                admin.namespaces().splitNamespaceBundle(namespace, bundle, numBundles, balanceByTraffic);
+            }
         }
     }
 
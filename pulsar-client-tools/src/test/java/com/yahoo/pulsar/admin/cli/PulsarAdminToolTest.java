@@ -201,6 +201,9 @@ public class PulsarAdminToolTest {
         namespaces.run(split("split-bundle myprop/clust/ns1 -b 0x00000000_0xffffffff"));
         verify(mockNamespaces).splitNamespaceBundle("myprop/clust/ns1", "0x00000000_0xffffffff");
 
+        namespaces.run(split("split-bundle myprop/clust/ns1 -b 0x00000000_0xffffffff -n 4 -t"));
+        verify(mockNamespaces).splitNamespaceBundle("myprop/clust/ns1", "0x00000000_0xffffffff", 4, true);
+
         namespaces.run(split("get-backlog-quotas myprop/clust/ns1"));
         verify(mockNamespaces).getBacklogQuotaMap("myprop/clust/ns1");
 
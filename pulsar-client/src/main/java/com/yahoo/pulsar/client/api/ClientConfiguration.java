@@ -42,6 +42,7 @@ public class ClientConfiguration implements Serializable {
     private int numIoThreads = 1;
     private int numListenerThreads = 1;
     private int connectionsPerBroker = 1;
+    private long memoryLimitBytes = 0;
 
     private boolean useTcpNoDelay = true;
 
@@ -218,6 +219,34 @@ public class ClientConfiguration implements Serializable {
         this.connectionsPerBroker = connectionsPerBroker;
     }
 
+    /**
+     * @return the max amount of memory that the client can use for pending messages
+     */
+    public long getMemoryLimitBytes() {
+        return memoryLimitBytes;
+    }
+
+    /**
+     * Set the max amount of memory, in bytes, that the client can use across all its producers and consumers to hold
+     * messages that are pending to be sent or waiting in the consumers receiver queues <i>(default: 0, no limit)</i>
+     * <p>
+     * When the limit is reached, producers will either block or fail the send operations, depending on the
+     * <code>blockIfQueueFull</code> setting, while consumers will stop asking the broker for more messages until the
+     * application has processed some of the messages already received.
+     * <p>
+     * Sends issued from a {@link MessageListener} never block on the memory limit, even with
+     * <code>blockIfQueueFull</code>, since the listener thread would then wait for memory that only gets released once
+     * it processes the next messages. These sends fail with a
+     * {@link PulsarClientException.ProducerQueueIsFullError} when the limit is reached instead.
+     *
+     * @param memoryLimitBytes
+     *            the memory limit in bytes, or 0 to disable the limit
+     */
+    public void setMemoryLimitBytes(long memoryLimitBytes) {
+        checkArgument(memoryLimitBytes >= 0);
+        this.memoryLimitBytes = memoryLimitBytes;
+    }
+
     /**
      * @return whether TCP no-delay should be set on the connections
      */
@@ -23,5 +23,11 @@ public enum CompressionType {
     LZ4,
 
     /** Compress with ZLib */
-    ZLIB
+    ZLIB,
+
+    /** Compress with Zstandard. Better compression than ZLib at a much higher speed. The level is configurable */
+    ZSTD,
+
+    /** Compress with Snappy. Similar speed and compression ratio as LZ4 */
+    SNAPPY
 }
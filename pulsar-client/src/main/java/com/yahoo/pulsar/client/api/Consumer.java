@@ -101,6 +101,46 @@ public interface Consumer extends Closeable {
      */
     Message receive(int timeout, TimeUnit unit) throws PulsarClientException;
 
+    /**
+     * Receive a batch of messages
+     * <p>
+     * Retrieves messages until either the maximum number of messages or the maximum size of the batch is reached, or
+     * the specified wait time elapses. The messages already available are retrieved in bulk. The batch stops growing
+     * once its size reaches {@code maxBytes}, so the last message can make it exceed {@code maxBytes}.
+     *
+     * @param maxMessages
+     *            the maximum number of messages in the batch
+     * @param maxBytes
+     *            the maximum total size of the payloads in the batch
+     * @param timeout
+     *            0 or less means that only the messages already available are retrieved
+     * @param unit
+     * @return the received {@link Messages}, possibly empty if no message was available before the timeout
+     * @throws PulsarClientException.AlreadyClosedException
+     *             if the consumer was already closed
+     * @throws PulsarClientException.InvalidConfigurationException
+     *             if a message listener was defined in the configuration or the receiver queue size is 0
+     */
+    Messages batchReceive(int maxMessages, long maxBytes, int timeout, TimeUnit unit) throws PulsarClientException;
+
+    /**
+     * Receive a batch of messages asynchronously
+     * <p>
+     * Same as {@link #batchReceive(int, long, int, TimeUnit)}, without blocking the calling thread. The future is
+     * completed right away if enough messages are already available, otherwise with the messages received so far when
+     * the timeout elapses.
+     *
+     * @param maxMessages
+     *            the maximum number of messages in the batch
+     * @param maxBytes
+     *            the maximum total size of the payloads in the batch
+     * @param timeout
+     *            0 or less means that only the messages already available are retrieved
+     * @param unit
+     * @return {@link CompletableFuture}<{@link Messages}> will be completed with the received batch
+     */
+    CompletableFuture<Messages> batchReceiveAsync(int maxMessages, long maxBytes, int timeout, TimeUnit unit);
+
     /**
      * Acknowledge the consumption of a single message
      *
@@ -121,6 +161,16 @@ public interface Consumer extends Closeable {
      */
     void acknowledge(MessageId messageId) throws PulsarClientException;
 
+    /**
+     * Acknowledge the consumption of all the messages of a batch
+     *
+     * @param messages
+     *            The {@code Messages} to be acknowledged
+     * @throws PulsarClientException.AlreadyClosedException
+     *             if the consumer was already closed
+     */
+    void acknowledge(Messages messages) throws PulsarClientException;
+
     /**
      * Acknowledge the reception of all the messages in the stream up to (and including) the provided message.
      *
@@ -173,6 +223,15 @@ public interface Consumer extends Closeable {
      */
     CompletableFuture<Void> acknowledgeAsync(MessageId messageId);
 
+    /**
+     * Asynchronously acknowledge the consumption of all the messages of a batch
+     *
+     * @param messages
+     *            The {@code Messages} to be acknowledged
+     * @return a future that can be used to track the completion of the operation
+     */
+    CompletableFuture<Void> acknowledgeAsync(Messages messages);
+
     /**
      * Asynchronously Acknowledge the reception of all the messages in the stream up to (and including) the provided
      * message.
@@ -197,6 +256,32 @@ public interface Consumer extends Closeable {
      */
     CompletableFuture<Void> acknowledgeCumulativeAsync(MessageId messageId);
 
+    /**
+     * Acknowledge the failure to process a single message.
+     * <p>
+     * The message is redelivered after a delay, which doubles each time the same message is negatively acknowledged
+     * (see {@link ConsumerConfiguration#setNegativeAckRedeliveryDelay(long, TimeUnit)}). It is not subject to the ack
+     * timeout in the meantime.
+     * <p>
+     * On a batch message, the whole batch is redelivered. Unless the subscription type is Shared, all the
+     * unacknowledged messages are redelivered, as with {@link #redeliverUnacknowledgedMessages()}.
+     * <p>
+     * This call is not blocking.
+     *
+     * @param message
+     *            The {@code Message} that could not be processed
+     */
+    void negativeAcknowledge(Message message);
+
+    /**
+     * Acknowledge the failure to process a single message.
+     *
+     * @param messageId
+     *            The {@code MessageId} of the message that could not be processed
+     * @see #negativeAcknowledge(Message)
+     */
+    void negativeAcknowledge(MessageId messageId);
+
     /**
      * Get statistics for the consumer
      * 
@@ -231,4 +316,50 @@ public interface Consumer extends Closeable {
      * breaks, the messages are redelivered after reconnect.
      */
     void redeliverUnacknowledgedMessages();
+
+    /**
+     * Reset the subscription associated with this consumer to a specific message id.
+     * <p>
+     * The message id can either be a specific message or represent the first or last messages in the topic.
+     * <p>
+     * <ul>
+     * <li><code>MessageId.earliest</code> : Reset the subscription on the earliest message available in the topic
+     * <li><code>MessageId.latest</code> : Reset the subscription on the latest message in the topic
+     * </ul>
+     * <p>
+     * The messages already in the receiver queue are discarded and the delivery resumes, on the same connection,
+     * from the given message. Note: this operation can only be done on non-partitioned topics.
+     *
+     * @param messageId
+     *            the message id where to reposition the subscription
+     */
+    void seek(MessageId messageId) throws PulsarClientException;
+
+    /**
+     * Reset the subscription associated with this consumer to a specific message publish time.
+     *
+     * @param timestamp
+     *            the message publish time where to reposition the subscription
+     */
+    void seek(long timestamp) throws PulsarClientException;
+
+    /**
+     * Reset the subscription associated with this consumer to a specific message id.
+     *
+     * @param messageId
+     *            the message id where to reposition the subscription
+     * @return a future to track the completion of the seek operation
+     * @see #seek(MessageId)
+     */
+    CompletableFuture<Void> seekAsync(MessageId messageId);
+
+    /**
+     * Reset the subscription associated with this consumer to a specific message publish time.
+     *
+     * @param timestamp
+     *            the message publish time where to reposition the subscription
+     * @return a future to track the completion of the seek operation
+     * @see #seek(long)
+     */
+    CompletableFuture<Void> seekAsync(long timestamp);
 }
@@ -47,6 +47,18 @@ public class ConsumerConfiguration implements Serializable {
 
     private long ackTimeoutMillis = 0;
 
+    private long tickDurationMillis = 100;
+
+    private long negativeAckRedeliveryDelayMillis = TimeUnit.SECONDS.toMillis(1);
+
+    private long maxNegativeAckRedeliveryDelayMillis = TimeUnit.MINUTES.toMillis(1);
+
+    private boolean zeroCopyPayload = false;
+
+    private boolean listenerPerPartition = false;
+
+    private boolean autoScaledReceiverQueueSize = false;
+
     /**
      * @return the configured timeout in milliseconds for unacked messages.
      */
@@ -72,6 +84,85 @@ public class ConsumerConfiguration implements Serializable {
         return this;
     }
 
+    /**
+     * @return the configured granularity of the redelivery of the unacknowledged messages, in milliseconds
+     */
+    public long getTickDurationMillis() {
+        return tickDurationMillis;
+    }
+
+    /**
+     * Set the granularity of the redelivery of the unacknowledged messages <i>(default: 100 ms)</i>.
+     * <p>
+     * The messages that reach their ack timeout, or the end of their negative acknowledgement delay, are redelivered
+     * at most one tick after their deadline. All the messages expiring within the same tick are redelivered with a
+     * single request to the broker. A shorter tick makes the redelivery more precise, at the cost of more frequent
+     * checks.
+     *
+     * @param tickDuration
+     *            the duration of a tick
+     * @param timeUnit
+     *            unit in which the duration is provided.
+     * @return {@link ConsumerConfiguration}
+     */
+    public ConsumerConfiguration setTickDuration(long tickDuration, TimeUnit timeUnit) {
+        long tickDurationMillis = timeUnit.toMillis(tickDuration);
+        checkArgument(tickDurationMillis > 0, "Tick duration should be at least 1 ms");
+        this.tickDurationMillis = tickDurationMillis;
+        return this;
+    }
+
+    /**
+     * @return the configured delay before redelivering a negatively acknowledged message, in milliseconds
+     */
+    public long getNegativeAckRedeliveryDelayMillis() {
+        return negativeAckRedeliveryDelayMillis;
+    }
+
+    /**
+     * Set the delay before redelivering a message that was negatively acknowledged <i>(default: 1 s)</i>.
+     * <p>
+     * The delay doubles each time the same message is negatively acknowledged again, up to
+     * {@link #setMaxNegativeAckRedeliveryDelay(long, TimeUnit)}.
+     *
+     * @param redeliveryDelay
+     *            the delay before the first redelivery
+     * @param timeUnit
+     *            unit in which the delay is provided.
+     * @return {@link ConsumerConfiguration}
+     * @see Consumer#negativeAcknowledge(Message)
+     */
+    public ConsumerConfiguration setNegativeAckRedeliveryDelay(long redeliveryDelay, TimeUnit timeUnit) {
+        long redeliveryDelayMillis = timeUnit.toMillis(redeliveryDelay);
+        checkArgument(redeliveryDelayMillis > 0, "Redelivery delay should be at least 1 ms");
+        this.negativeAckRedeliveryDelayMillis = redeliveryDelayMillis;
+        return this;
+    }
+
+    /**
+     * @return the configured maximum delay before redelivering a negatively acknowledged message, in milliseconds
+     */
+    public long getMaxNegativeAckRedeliveryDelayMillis() {
+        return maxNegativeAckRedeliveryDelayMillis;
+    }
+
+    /**
+     * Set the maximum delay before redelivering a message that was negatively acknowledged several times <i>(default:
+     * 1 min)</i>.
+     *
+     * @param maxRedeliveryDelay
+     *            the maximum redelivery delay
+     * @param timeUnit
+     *            unit in which the delay is provided.
+     * @return {@link ConsumerConfiguration}
+     */
+    public ConsumerConfiguration setMaxNegativeAckRedeliveryDelay(long maxRedeliveryDelay, TimeUnit timeUnit) {
+        long maxRedeliveryDelayMillis = timeUnit.toMillis(maxRedeliveryDelay);
+        checkArgument(maxRedeliveryDelayMillis > 0, "Redelivery delay should be at least 1 ms");
+        this.maxNegativeAckRedeliveryDelayMillis = maxRedeliveryDelayMillis;
+        return this;
+    }
+
     /**
      * @return the configured subscription type
      */
@@ -115,6 +206,32 @@ public class ConsumerConfiguration implements Serializable {
         return this;
     }
 
+    /**
+     * @return whether the {@link MessageListener} is invoked for each partition of a partitioned topic independently
+     */
+    public boolean isListenerPerPartition() {
+        return listenerPerPartition;
+    }
+
+    /**
+     * Invoke the {@link MessageListener} for each partition independently, on a partitioned topic <i>(default:
+     * false)</i>.
+     * <p>
+     * By default, the messages of all the partitions are merged into a single queue and the listener processes them
+     * one at a time. When enabled, each partition delivers its messages straight to the listener, in order, on its own
+     * thread out of the client listener pool (see {@link ClientConfiguration#setListenerThreads(int)}). Different
+     * partitions are then processed in parallel, so the listener needs to be thread-safe.
+     * <p>
+     * This has no effect on non-partitioned topics or when no listener is set.
+     *
+     * @param listenerPerPartition
+     *            whether to process the partitions in parallel
+     */
+    public ConsumerConfiguration setListenerPerPartition(boolean listenerPerPartition) {
+        this.listenerPerPartition = listenerPerPartition;
+        return this;
+    }
+
     /**
      * @return the configure receiver queue size value
      */
@@ -154,6 +271,32 @@ public class ConsumerConfiguration implements Serializable {
         return this;
     }
 
+    /**
+     * @return whether the receiver queue size is adjusted to the consumption rate
+     */
+    public boolean isAutoScaledReceiverQueueSize() {
+        return autoScaledReceiverQueueSize;
+    }
+
+    /**
+     * Adjust the receiver queue size to the rate at which the application processes the messages <i>(default:
+     * false)</i>.
+     * <p>
+     * When enabled, the consumer starts with a small queue and sizes it, between 1 and the configured
+     * {@link #setReceiverQueueSize(int) receiver queue size}, so that it just holds the messages needed to keep the
+     * application busy during a round trip to the broker. Fast consumers won't stall waiting for messages, while slow
+     * consumers on a shared subscription won't prefetch messages that other consumers could process.
+     * <p>
+     * It has no effect when the receiver queue size is 0 or 1.
+     *
+     * @param autoScaledReceiverQueueSize
+     *            whether to adjust the receiver queue size to the consumption rate
+     */
+    public ConsumerConfiguration setAutoScaledReceiverQueueSize(boolean autoScaledReceiverQueueSize) {
+        this.autoScaledReceiverQueueSize = autoScaledReceiverQueueSize;
+        return this;
+    }
+
     /**
      * @return the consumer name
      */
@@ -171,4 +314,31 @@ public class ConsumerConfiguration implements Serializable {
         this.consumerName = consumerName;
         return this;
     }
+
+    /**
+     * @return whether the received messages retain the buffer they were read into instead of a copy of their payload
+     */
+    public boolean isZeroCopyPayload() {
+        return zeroCopyPayload;
+    }
+
+    /**
+     * Avoid copying the payload of the received messages <i>(default: false)</i>.
+     * <p>
+     * By default, each received message gets its own heap copy of the payload. When enabled, the messages are instead
+     * backed by the (pooled, direct) buffer they were read from the connection into, which is retained until the
+     * message is acknowledged, until it is given back for redelivery (after an ack timeout, a negative acknowledgment,
+     * {@link Consumer#redeliverUnacknowledgedMessages()}, a seek or a reconnection) or until the consumer is closed.
+     * The payload should then be accessed through {@link Message#getByteBuffer()} and it must not be used after the
+     * message was acknowledged or redelivered.
+     * <p>
+     * The messages of a batch share a single buffer, which is released once all of them are acknowledged.
+     *
+     * @param zeroCopyPayload
+     *            whether to retain the received buffers instead of copying the payloads
+     */
+    public ConsumerConfiguration setZeroCopyPayload(boolean zeroCopyPayload) {
+        this.zeroCopyPayload = zeroCopyPayload;
+        return this;
+    }
 }
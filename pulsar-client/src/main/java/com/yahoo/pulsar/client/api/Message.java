@@ -15,6 +15,7 @@
  */
 package com.yahoo.pulsar.client.api;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 /**
@@ -59,6 +60,17 @@ public interface Message {
      */
     byte[] getData();
 
+    /**
+     * Get a read-only view of the content of the message, without copying it.
+     * <p>
+     * When the message was received with {@link ConsumerConfiguration#setZeroCopyPayload(boolean)}, the view is backed
+     * by the buffer the message was received into and it's only valid until the message is acknowledged or the
+     * consumer is closed.
+     *
+     * @return a read-only buffer with the message payload
+     */
+    ByteBuffer getByteBuffer();
+
     /**
      * Get the unique message ID associated with this message.
      *
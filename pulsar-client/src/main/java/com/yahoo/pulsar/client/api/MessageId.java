@@ -44,4 +44,14 @@ public interface MessageId {
     public static MessageId fromByteArray(byte[] data) throws IOException {
         return MessageIdImpl.fromByteArray(data);
     }
+
+    /**
+     * MessageId that represents the oldest message available in the topic
+     */
+    public static final MessageId earliest = new MessageIdImpl(-1, -1, -1);
+
+    /**
+     * MessageId that represents the next message published in the topic
+     */
+    public static final MessageId latest = new MessageIdImpl(Long.MAX_VALUE, Long.MAX_VALUE, -1);
 }
@@ -0,0 +1,35 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.api;
+
+/**
+ * A batch of messages, as returned by {@link Consumer#batchReceive(int, long, int, java.util.concurrent.TimeUnit)}.
+ * <p>
+ * The messages are iterated in the order they were received. The whole batch can be acknowledged at once with
+ * {@link Consumer#acknowledge(Messages)}.
+ */
+public interface Messages extends Iterable<Message> {
+
+    /**
+     * @return the number of messages in the batch
+     */
+    int size();
+
+    /**
+     * @return the total size of the payloads of the messages in the batch, in bytes
+     */
+    long getSizeInBytes();
+}
@@ -24,6 +24,9 @@ import java.util.concurrent.TimeUnit;
 import com.google.common.base.Objects;
 import com.yahoo.pulsar.client.impl.RoundRobinPartitionMessageRouterImpl;
 import com.yahoo.pulsar.client.impl.SinglePartitionMessageRouterImpl;
+import com.yahoo.pulsar.client.impl.StickyPartitionMessageRouterImpl;
+import com.yahoo.pulsar.common.api.PulsarDecoder;
+import com.yahoo.pulsar.common.compression.CompressionCodecZstd;
 
 /**
  * Producer's configuration
@@ -42,12 +45,22 @@ public class ProducerConfiguration implements Serializable {
     private MessageRouter customMessageRouter = null;
     private long batchingMaxPublishDelayMs = 10;
     private int batchingMaxMessages = 1000;
+    private long batchingMaxBytes = 128 * 1024;
+    private BatchingMode batchingMode = BatchingMode.Default;
+    private int batchingMaxKeys = 100;
     private boolean batchingEnabled = false; // disabled by default
+    private boolean lazyStartPartitionedProducers = false;
+    private long partitionProducerIdleTimeoutMs = 0;
 
     private CompressionType compressionType = CompressionType.NONE;
+    private int zstdCompressionLevel = CompressionCodecZstd.DEFAULT_COMPRESSION_LEVEL;
+
+    public enum BatchingMode {
+        Default, KeyBased
+    }
 
     public enum MessageRoutingMode {
-        SinglePartition, RoundRobinPartition, CustomPartition
+        SinglePartition, RoundRobinPartition, CustomPartition, StickyPartition
     }
 
     /**
@@ -148,6 +161,8 @@ public class ProducerConfiguration implements Serializable {
      * <ul>
      * <li><code>CompressionType.LZ4</code></li>
      * <li><code>CompressionType.ZLIB</code></li>
+     * <li><code>CompressionType.ZSTD</code></li>
+     * <li><code>CompressionType.SNAPPY</code></li>
      * </ul>
      *
      * @param compressionType
@@ -169,6 +184,29 @@ public class ProducerConfiguration implements Serializable {
         return compressionType;
     }
 
+    /**
+     * Set the compression level used when the compression type is <code>CompressionType.ZSTD</code>.
+     * <p>
+     * Levels go from 1 (fastest) to 22 (highest compression ratio). Default is 3, which compresses better than ZLib at
+     * a speed close to LZ4. Consumers don't need to know the level used by the producer.
+     *
+     * @param zstdCompressionLevel
+     * @return
+     */
+    public ProducerConfiguration setZstdCompressionLevel(int zstdCompressionLevel) {
+        checkArgument(zstdCompressionLevel >= 1 && zstdCompressionLevel <= 22,
+                "zstd compression level must be between 1 and 22");
+        this.zstdCompressionLevel = zstdCompressionLevel;
+        return this;
+    }
+
+    /**
+     * @return the compression level used with <code>CompressionType.ZSTD</code>
+     */
+    public int getZstdCompressionLevel() {
+        return zstdCompressionLevel;
+    }
+
     /**
      * Set a custom message routing policy by passing an implementation of MessageRouter
      *
@@ -198,6 +236,11 @@ public class ProducerConfiguration implements Serializable {
         case RoundRobinPartition:
             messageRouter = new RoundRobinPartitionMessageRouterImpl(numPartitions);
             break;
+        case StickyPartition:
+            // Without batching, there are no batch boundaries to stick to
+            messageRouter = batchingEnabled ? new StickyPartitionMessageRouterImpl(numPartitions)
+                    : new RoundRobinPartitionMessageRouterImpl(numPartitions);
+            break;
         case SinglePartition:
         default:
             messageRouter = new SinglePartitionMessageRouterImpl(numPartitions);
@@ -292,6 +335,130 @@ public class ProducerConfiguration implements Serializable {
         return this;
     }
 
+    /**
+     *
+     * @return the maximum size in bytes of the messages payload in a batch.
+     */
+    public long getBatchingMaxBytes() {
+        return batchingMaxBytes;
+    }
+
+    /**
+     * Set the maximum size of the messages payload in a batch. <i>default: 128 KB</i> A batch is sent as soon as it
+     * reaches this size, even if the batch delay or the maximum number of messages have not been reached. The size of
+     * a batch cannot exceed the maximum message size accepted by the broker.
+     *
+     * @param batchingMaxBytes
+     *            maximum number of bytes in a batch
+     * @return
+     */
+    public ProducerConfiguration setBatchingMaxBytes(long batchingMaxBytes) {
+        checkArgument(batchingMaxBytes > 0);
+        checkArgument(batchingMaxBytes <= PulsarDecoder.MaxMessageSize,
+                "batch size cannot exceed the maximum message size of %s bytes", PulsarDecoder.MaxMessageSize);
+        this.batchingMaxBytes = batchingMaxBytes;
+        return this;
+    }
+
+    /**
+     *
+     * @return the batching mode
+     * @see ProducerConfiguration#setBatchingMode(BatchingMode)
+     */
+    public BatchingMode getBatchingMode() {
+        return batchingMode;
+    }
+
+    /**
+     * Set how messages are grouped in batches when batching is enabled. <i>default: Default</i>
+     * <p>
+     * With {@link BatchingMode#Default}, all the messages are added to the same batch. With
+     * {@link BatchingMode#KeyBased}, the producer keeps a separate open batch for each message key, so that every batch
+     * only contains messages with the same key. The number of open batches is bounded by
+     * {@link #setBatchingMaxKeys(int)}.
+     *
+     * @param batchingMode
+     *            the batching mode
+     * @return
+     */
+    public ProducerConfiguration setBatchingMode(BatchingMode batchingMode) {
+        checkNotNull(batchingMode);
+        this.batchingMode = batchingMode;
+        return this;
+    }
+
+    /**
+     *
+     * @return the maximum number of keys with an open batch, when using key based batching
+     */
+    public int getBatchingMaxKeys() {
+        return batchingMaxKeys;
+    }
+
+    /**
+     * Set the maximum number of keys with an open batch, when using key based batching. <i>default: 100</i> When a
+     * message comes with a new key and the limit is reached, the batch of the least recently used key is sent.
+     *
+     * @param batchingMaxKeys
+     *            maximum number of open batches
+     * @return
+     */
+    public ProducerConfiguration setBatchingMaxKeys(int batchingMaxKeys) {
+        checkArgument(batchingMaxKeys > 0);
+        this.batchingMaxKeys = batchingMaxKeys;
+        return this;
+    }
+
+    /**
+     * @return whether the producers of the individual partitions are only created when they are needed
+     */
+    public boolean isLazyStartPartitionedProducers() {
+        return lazyStartPartitionedProducers;
+    }
+
+    /**
+     * Create the producer of each partition only when the first message is routed to it <i>(default: false)</i>
+     * <p>
+     * By default, the producer of a partitioned topic connects to all the partitions when it's created, which can take
+     * a long time for topics with many partitions. With lazy start, the partitioned producer is ready right away and
+     * the messages routed to a partition are buffered while its producer is connecting.
+     * <p>
+     * Since the connection to a partition is only attempted when the first message is sent, any error creating the
+     * producer is reported by the send operations rather than on the producer creation.
+     *
+     * @param lazyStartPartitionedProducers
+     *            whether to create the partition producers on demand
+     */
+    public ProducerConfiguration setLazyStartPartitionedProducers(boolean lazyStartPartitionedProducers) {
+        this.lazyStartPartitionedProducers = lazyStartPartitionedProducers;
+        return this;
+    }
+
+    /**
+     * @return the idle time in ms after which the producer of a partition is closed
+     */
+    public long getPartitionProducerIdleTimeoutMs() {
+        return partitionProducerIdleTimeoutMs;
+    }
+
+    /**
+     * Set the idle time after which the producer of a partition is closed <i>(default: 0, never)</i>
+     * <p>
+     * Only applies with {@link #setLazyStartPartitionedProducers(boolean) lazy start}: the producer of a partition
+     * that did not get any message for this long, and has no pending messages, is closed and will be created again when
+     * a new message is routed to the partition.
+     *
+     * @param idleTimeout
+     *            the idle timeout, or 0 to keep the partition producers open
+     * @param unit
+     *            the time unit of the {@code idleTimeout}
+     */
+    public ProducerConfiguration setPartitionProducerIdleTimeout(long idleTimeout, TimeUnit unit) {
+        checkArgument(idleTimeout >= 0);
+        this.partitionProducerIdleTimeoutMs = unit.toMillis(idleTimeout);
+        return this;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof ProducerConfiguration) {
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.api;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Reader can be used to scan through all the messages currently available in a topic.
+ * <p>
+ * Unlike a {@link Consumer}, a Reader doesn't need to acknowledge messages and its position is not persisted on the
+ * broker: it's up to the application to remember the {@link MessageId} of the last message it has processed.
+ */
+public interface Reader extends Closeable {
+
+    /**
+     * @return the topic from which this reader is reading from
+     */
+    String getTopic();
+
+    /**
+     * Read the next message in the topic
+     *
+     * @return the next message
+     * @throws PulsarClientException
+     */
+    Message readNext() throws PulsarClientException;
+
+    /**
+     * Read the next message in the topic waiting for a maximum of timeout time units. Returns null if no message is
+     * received in that time.
+     *
+     * @return the next message(Could be null if none received in time)
+     * @throws PulsarClientException
+     */
+    Message readNext(int timeout, TimeUnit unit) throws PulsarClientException;
+
+    /**
+     * Read asynchronously the next message in the topic
+     *
+     * @return a future that will yield a message when it's available
+     */
+    CompletableFuture<Message> readNextAsync();
+
+    /**
+     * Close the reader and stop the broker to push more messages
+     */
+    @Override
+    void close() throws PulsarClientException;
+
+    /**
+     * Asynchronously close the reader and stop the broker to push more messages
+     *
+     * @return a future that can be used to track the completion of the operation
+     */
+    CompletableFuture<Void> closeAsync();
+}
@@ -27,7 +27,6 @@ import com.yahoo.pulsar.common.api.PulsarDecoder;
 import com.yahoo.pulsar.common.api.Commands;
 import com.yahoo.pulsar.common.api.proto.PulsarApi;
 import com.yahoo.pulsar.common.compression.CompressionCodec;
-import com.yahoo.pulsar.common.compression.CompressionCodecProvider;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
@@ -43,8 +42,11 @@ class BatchMessageContainer {
     private final CompressionCodec compressor;
     private final String topicName;
     private final String producerName;
+    // when set, all the messages in the batch share the same key, which is then set on the batch metadata
+    private final boolean keyBased;
 
     final int maxNumMessagesInBatch;
+    final long maxBatchSizeBytes;
 
     PulsarApi.MessageMetadata.Builder messageMetadata = PulsarApi.MessageMetadata.newBuilder();
     int numMessagesInBatch = 0;
@@ -56,23 +58,30 @@ class BatchMessageContainer {
     // keep track of callbacks for individual messages being published in a batch
     SendCallback firstCallback;
 
-    protected static final long MAX_MESSAGE_BATCH_SIZE_BYTES = 128 * 1024;
+    protected static final long INITIAL_BATCH_BUFFER_SIZE_BYTES = 128 * 1024;
 
-    BatchMessageContainer(int maxNumMessagesInBatch, PulsarApi.CompressionType compressionType, String topicName,
+    BatchMessageContainer(int maxNumMessagesInBatch, long maxBatchSizeBytes, boolean keyBased,
+            PulsarApi.CompressionType compressionType, CompressionCodec compressor, String topicName,
             String producerName) {
         this.maxNumMessagesInBatch = maxNumMessagesInBatch;
+        this.maxBatchSizeBytes = maxBatchSizeBytes;
+        this.keyBased = keyBased;
         this.compressionType = compressionType;
-        this.compressor = CompressionCodecProvider.getCompressionCodec(compressionType);
+        this.compressor = compressor;
         this.topicName = topicName;
         this.producerName = producerName;
     }
 
     boolean hasSpaceInBatch(MessageImpl msg) {
         int messageSize = msg.getDataBuffer().readableBytes();
-        return ((messageSize + currentBatchSizeBytes) <= MAX_MESSAGE_BATCH_SIZE_BYTES
+        return ((messageSize + currentBatchSizeBytes) <= maxBatchSizeBytes
                 && numMessagesInBatch < maxNumMessagesInBatch);
     }
 
+    boolean isFull() {
+        return numMessagesInBatch >= maxNumMessagesInBatch || currentBatchSizeBytes >= maxBatchSizeBytes;
+    }
+
     void add(MessageImpl msg, SendCallback callback) {
 
         if (log.isDebugEnabled()) {
@@ -84,8 +93,12 @@ class BatchMessageContainer {
             // some properties are common amongst the different messages in the batch, hence we just pick it up from
             // the first message
             sequenceId = Commands.initBatchMessageMetadata(messageMetadata, msg.getMessageBuilder());
+            if (keyBased && msg.hasKey()) {
+                messageMetadata.setPartitionKey(msg.getKey());
+            }
             this.firstCallback = callback;
-            batchedMessageMetadataAndPayload = PooledByteBufAllocator.DEFAULT.buffer((int) MAX_MESSAGE_BATCH_SIZE_BYTES,
+            batchedMessageMetadataAndPayload = PooledByteBufAllocator.DEFAULT.buffer(
+                    (int) Math.min(maxBatchSizeBytes, INITIAL_BATCH_BUFFER_SIZE_BYTES),
                     (int) (PulsarDecoder.MaxMessageSize));
         }
 
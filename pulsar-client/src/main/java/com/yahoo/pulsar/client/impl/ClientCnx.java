@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import java.net.SocketAddress;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +44,7 @@ import com.yahoo.pulsar.common.util.collections.ConcurrentLongHashMap;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.util.concurrent.Promise;
 
 public class ClientCnx extends PulsarHandler {
@@ -53,6 +55,8 @@ public class ClientCnx extends PulsarHandler {
     private final ConcurrentLongHashMap<CompletableFuture<String>> pendingRequests = new ConcurrentLongHashMap<>(16, 1);
     private final ConcurrentLongHashMap<ProducerImpl> producers = new ConcurrentLongHashMap<>(16, 1);
     private final ConcurrentLongHashMap<ConsumerImpl> consumers = new ConcurrentLongHashMap<>(16, 1);
+    // Producers and consumers the pool assigned to this connection, and that are not registered yet
+    private final AtomicInteger pendingHandlers = new AtomicInteger();
 
     private final CompletableFuture<Void> connectionFuture = new CompletableFuture<Void>();
 
@@ -285,10 +289,25 @@ public class ClientCnx extends PulsarHandler {
 
     void registerConsumer(final long consumerId, final ConsumerImpl consumer) {
         consumers.put(consumerId, consumer);
+        handlerRegistered();
     }
 
     void registerProducer(final long producerId, final ProducerImpl producer) {
         producers.put(producerId, producer);
+        handlerRegistered();
+    }
+
+    /**
+     * Account for producers or consumers that were assigned this connection, until they get registered
+     */
+    void addPendingHandlers(int count) {
+        pendingHandlers.addAndGet(count);
+    }
+
+    private void handlerRegistered() {
+        // The handlers that did not go through the pool selection, e.g. with a single connection per broker, were not
+        // accounted as pending
+        pendingHandlers.updateAndGet(pending -> pending > 0 ? pending - 1 : 0);
     }
 
     void removeProducer(final long producerId) {
@@ -299,6 +318,30 @@ public class ClientCnx extends PulsarHandler {
         consumers.remove(consumerId);
     }
 
+    /**
+     * @return the number of producers and consumers using this connection, or about to use it
+     */
+    int getNumberOfHandlers() {
+        return (int) (producers.size() + consumers.size()) + pendingHandlers.get();
+    }
+
+    /**
+     * @return the number of bytes written on the connection and not yet flushed to the socket
+     */
+    long getPendingWriteBytes() {
+        ChannelOutboundBuffer outboundBuffer = ctx.channel().unsafe().outboundBuffer();
+        return outboundBuffer != null ? outboundBuffer.totalPendingWriteBytes() : 0;
+    }
+
+    boolean isWritable() {
+        return ctx.channel().isWritable();
+    }
+
+    ConnectionStats getStats() {
+        return new ConnectionStats(String.valueOf(ctx.channel().remoteAddress()), producers.size(), consumers.size(),
+                pendingRequests.size(), getPendingWriteBytes(), isWritable());
+    }
+
     private PulsarClientException getPulsarClientException(CommandError error) {
         switch (error.getError()) {
         case AuthenticationError:
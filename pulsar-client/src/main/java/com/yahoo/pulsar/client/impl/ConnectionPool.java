@@ -20,15 +20,18 @@ import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.security.cert.X509Certificate;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.SystemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Lists;
 import com.yahoo.pulsar.client.api.AuthenticationDataProvider;
 import com.yahoo.pulsar.client.api.ClientConfiguration;
 import com.yahoo.pulsar.client.api.PulsarClientException;
@@ -115,10 +118,103 @@ public class ConnectionPool implements Closeable {
             return createConnection(address, -1);
         }
 
-        final int randomKey = Math.abs(random.nextInt()) % maxConnectionsPerHosts;
+        ConcurrentMap<Integer, CompletableFuture<ClientCnx>> connections = pool.computeIfAbsent(address,
+                a -> new ConcurrentHashMap<>());
+        if (maxConnectionsPerHosts == 1) {
+            return connections.computeIfAbsent(0, k -> createConnection(address, 0));
+        }
+
+        final int connectionKey = selectConnectionKey(connections);
+        CompletableFuture<ClientCnx> cnxFuture = connections.computeIfAbsent(connectionKey,
+                k -> createConnection(address, connectionKey));
+
+        // Account for the new producer or consumer right away, so that the next selections take it into account even
+        // before it gets registered on the connection
+        ClientCnx cnx = getIfConnected(cnxFuture);
+        if (cnx != null) {
+            cnx.addPendingHandlers(1);
+        } else {
+            ((PooledConnectionFuture) cnxFuture).pendingHandlers.incrementAndGet();
+        }
+        return cnxFuture;
+    }
+
+    /**
+     * Pick the connection to use for a new producer or consumer: a free slot, until all the connections to the broker
+     * are opened, and then the least loaded connection. Ties are broken randomly.
+     */
+    private int selectConnectionKey(ConcurrentMap<Integer, CompletableFuture<ClientCnx>> connections) {
+        final int start = random.nextInt(maxConnectionsPerHosts);
+        int selectedKey = -1;
+        CompletableFuture<ClientCnx> selectedFuture = null;
+
+        for (int i = 0; i < maxConnectionsPerHosts; i++) {
+            int key = (start + i) % maxConnectionsPerHosts;
+            CompletableFuture<ClientCnx> cnxFuture = connections.get(key);
+            if (cnxFuture == null) {
+                return key;
+            }
+
+            if (selectedFuture == null || compareLoad(cnxFuture, selectedFuture) < 0) {
+                selectedKey = key;
+                selectedFuture = cnxFuture;
+            }
+        }
+
+        return selectedKey;
+    }
 
-        return pool.computeIfAbsent(address, a -> new ConcurrentHashMap<>()) //
-                .computeIfAbsent(randomKey, k -> createConnection(address, randomKey));
+    /**
+     * Connections whose outbound buffer is above the high water mark come last, then the connections are ordered by
+     * number of producers and consumers, including the ones that are being assigned to them. On a tie, the
+     * established connections come first, ordered by number of bytes waiting to be flushed
+     */
+    private static int compareLoad(CompletableFuture<ClientCnx> cnxFuture1, CompletableFuture<ClientCnx> cnxFuture2) {
+        ClientCnx cnx1 = getIfConnected(cnxFuture1);
+        ClientCnx cnx2 = getIfConnected(cnxFuture2);
+
+        boolean writable1 = cnx1 == null || cnx1.isWritable();
+        if (writable1 != (cnx2 == null || cnx2.isWritable())) {
+            return writable1 ? -1 : 1;
+        }
+
+        int cmp = Integer.compare(getNumberOfHandlers(cnxFuture1, cnx1), getNumberOfHandlers(cnxFuture2, cnx2));
+        if (cmp != 0) {
+            return cmp;
+        }
+
+        if (cnx1 == null || cnx2 == null) {
+            return cnx1 != null ? -1 : (cnx2 != null ? 1 : 0);
+        }
+        return Long.compare(cnx1.getPendingWriteBytes(), cnx2.getPendingWriteBytes());
+    }
+
+    private static ClientCnx getIfConnected(CompletableFuture<ClientCnx> cnxFuture) {
+        return cnxFuture.isDone() && !cnxFuture.isCompletedExceptionally() ? cnxFuture.getNow(null) : null;
+    }
+
+    private static int getNumberOfHandlers(CompletableFuture<ClientCnx> cnxFuture, ClientCnx cnx) {
+        return cnx != null ? cnx.getNumberOfHandlers() : ((PooledConnectionFuture) cnxFuture).pendingHandlers.get();
+    }
+
+    /**
+     * A connection being established, along with the number of producers and consumers that are waiting for it
+     */
+    private static class PooledConnectionFuture extends CompletableFuture<ClientCnx> {
+        final AtomicInteger pendingHandlers = new AtomicInteger();
+    }
+
+    /**
+     * @return the statistics of the established connections in the pool
+     */
+    List<ConnectionStats> getConnectionStats() {
+        List<ConnectionStats> stats = Lists.newArrayList();
+        pool.values().forEach(connections -> connections.values().forEach(cnxFuture -> {
+            if (cnxFuture.isDone() && !cnxFuture.isCompletedExceptionally()) {
+                stats.add(cnxFuture.getNow(null).getStats());
+            }
+        }));
+        return stats;
     }
 
     private CompletableFuture<ClientCnx> createConnection(InetSocketAddress address, int connectionKey) {
@@ -126,7 +222,7 @@ public class ConnectionPool implements Closeable {
             log.debug("Connection for {} not found in cache", address);
         }
 
-        final CompletableFuture<ClientCnx> cnxFuture = new CompletableFuture<ClientCnx>();
+        final PooledConnectionFuture cnxFuture = new PooledConnectionFuture();
 
         // Trigger async connect to broker
         bootstrap.connect(address).addListener((ChannelFuture future) -> {
@@ -150,6 +246,8 @@ public class ConnectionPool implements Closeable {
                 if (log.isDebugEnabled()) {
                     log.debug("[{}] Connection handshake completed", cnx.channel());
                 }
+                // The producers and consumers waiting for the connection register on it as soon as it is completed
+                cnx.addPendingHandlers(cnxFuture.pendingHandlers.getAndSet(0));
                 cnxFuture.complete(cnx);
             }).exceptionally(exception -> {
                 log.warn("[{}] Connection handshake failed: {}", cnx.channel(), exception.getMessage());
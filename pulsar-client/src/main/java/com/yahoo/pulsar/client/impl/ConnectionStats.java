@@ -0,0 +1,77 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.impl;
+
+/**
+ * Point in time statistics of a connection to a broker.
+ */
+public class ConnectionStats {
+    private final String remoteAddress;
+    private final long numProducers;
+    private final long numConsumers;
+    private final long numPendingRequests;
+    private final long pendingWriteBytes;
+    private final boolean writable;
+
+    ConnectionStats(String remoteAddress, long numProducers, long numConsumers, long numPendingRequests,
+            long pendingWriteBytes, boolean writable) {
+        this.remoteAddress = remoteAddress;
+        this.numProducers = numProducers;
+        this.numConsumers = numConsumers;
+        this.numPendingRequests = numPendingRequests;
+        this.pendingWriteBytes = pendingWriteBytes;
+        this.writable = writable;
+    }
+
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public long getNumProducers() {
+        return numProducers;
+    }
+
+    public long getNumConsumers() {
+        return numConsumers;
+    }
+
+    /**
+     * @return the number of requests, like producer or consumer creations, waiting for a response from the broker
+     */
+    public long getNumPendingRequests() {
+        return numPendingRequests;
+    }
+
+    /**
+     * @return the number of bytes written on the connection and not yet flushed to the socket
+     */
+    public long getPendingWriteBytes() {
+        return pendingWriteBytes;
+    }
+
+    /**
+     * @return whether the connection can take more writes without queueing up above the channel high water mark
+     */
+    public boolean isWritable() {
+        return writable;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: producers=%d consumers=%d pending-requests=%d pending-write-bytes=%d writable=%s",
+                remoteAddress, numProducers, numConsumers, numPendingRequests, pendingWriteBytes, writable);
+    }
+}
@@ -15,6 +15,9 @@
  */
 package com.yahoo.pulsar.client.impl;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
@@ -27,6 +30,7 @@ import java.util.concurrent.TimeUnit;
 import com.yahoo.pulsar.client.api.*;
 import org.apache.commons.codec.digest.DigestUtils;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
 import com.yahoo.pulsar.client.util.FutureUtil;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandAck.AckType;
@@ -145,6 +149,143 @@ public abstract class ConsumerBase extends HandlerBase implements Consumer {
 
     abstract protected Message internalReceive(int timeout, TimeUnit unit) throws PulsarClientException;
 
+    @Override
+    public Messages batchReceive(int maxMessages, long maxBytes, int timeout, TimeUnit unit)
+            throws PulsarClientException {
+        checkArgument(maxMessages > 0 && maxBytes > 0, "The batch limits need to be greater than 0");
+        if (conf.getReceiverQueueSize() == 0) {
+            throw new PulsarClientException.InvalidConfigurationException(
+                    "Can't use batch receive, if the queue size is 0");
+        }
+        if (listener != null) {
+            throw new PulsarClientException.InvalidConfigurationException(
+                    "Cannot use receive() when a listener has been set");
+        }
+
+        switch (state.get()) {
+        case Ready:
+        case Connecting:
+            break; // Ok
+        case Closing:
+        case Closed:
+            throw new PulsarClientException.AlreadyClosedException("Consumer already closed");
+        case Failed:
+        case Uninitialized:
+            throw new PulsarClientException.NotConnectedException();
+        }
+
+        MessagesImpl messages = new MessagesImpl();
+        List<Message> drained = Lists.newArrayList();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            while (true) {
+                drainIncomingMessages(drained, maxMessages - messages.size(), maxBytes - messages.getSizeInBytes());
+                if (!drained.isEmpty()) {
+                    messages.addAll(drained);
+                    // Give back the permits right away, for the broker to keep pushing while we wait for more
+                    messagesProcessed(drained);
+                    drained.clear();
+                }
+
+                long remainingNanos = deadline - System.nanoTime();
+                if (messages.isFull(maxMessages, maxBytes) || remainingNanos <= 0) {
+                    return messages;
+                }
+
+                Message message = incomingMessages.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                if (message == null) {
+                    return messages;
+                }
+                drained.add(message);
+                messages.add(message);
+                messagesProcessed(drained);
+                drained.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (messages.size() > 0) {
+                // The messages were already dequeued, hand them over rather than waiting for their redelivery
+                return messages;
+            }
+            throw new PulsarClientException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Messages> batchReceiveAsync(int maxMessages, long maxBytes, int timeout,
+            TimeUnit unit) {
+        if (maxMessages <= 0 || maxBytes <= 0) {
+            return FutureUtil.failedFuture(new IllegalArgumentException("The batch limits need to be greater than 0"));
+        }
+        if (conf.getReceiverQueueSize() == 0) {
+            return FutureUtil.failedFuture(new PulsarClientException.InvalidConfigurationException(
+                    "Can't use batch receive, if the queue size is 0"));
+        }
+        if (listener != null) {
+            return FutureUtil.failedFuture(new PulsarClientException.InvalidConfigurationException(
+                    "Cannot use receive() when a listener has been set"));
+        }
+
+        switch (state.get()) {
+        case Ready:
+        case Connecting:
+            break; // Ok
+        case Closing:
+        case Closed:
+            return FutureUtil
+                    .failedFuture(new PulsarClientException.AlreadyClosedException("Consumer already closed"));
+        case Failed:
+        case Uninitialized:
+            return FutureUtil.failedFuture(new PulsarClientException.NotConnectedException());
+        }
+
+        CompletableFuture<Messages> result = new CompletableFuture<>();
+        MessagesImpl messages = new MessagesImpl();
+        List<Message> drained = Lists.newArrayList();
+        drainIncomingMessages(drained, maxMessages, maxBytes);
+        messages.addAll(drained);
+        messagesProcessed(drained);
+
+        if (messages.isFull(maxMessages, maxBytes) || timeout <= 0) {
+            result.complete(messages);
+        } else {
+            // Collect the messages that arrived in the meantime once the timeout elapses
+            client.timer().newTimeout(t -> listenerExecutor.execute(() -> {
+                List<Message> lateMessages = Lists.newArrayList();
+                drainIncomingMessages(lateMessages, maxMessages - messages.size(),
+                        maxBytes - messages.getSizeInBytes());
+                messages.addAll(lateMessages);
+                messagesProcessed(lateMessages);
+                result.complete(messages);
+            }), timeout, unit);
+        }
+        return result;
+    }
+
+    /**
+     * Dequeues in bulk at most {@code maxMessages} messages, stopping once their total size reaches {@code maxBytes}.
+     */
+    protected void drainIncomingMessages(Collection<Message> drained, int maxMessages, long maxBytes) {
+        if (incomingMessages instanceof GrowableArrayBlockingQueue) {
+            // Single acquisition of the queue lock
+            ((GrowableArrayBlockingQueue<Message>) incomingMessages).drainTo(drained, maxMessages,
+                    MessagesImpl::getPayloadSize, maxBytes);
+        } else {
+            long drainedBytes = 0;
+            Message message;
+            while (drained.size() < maxMessages && drainedBytes < maxBytes
+                    && (message = incomingMessages.poll()) != null) {
+                drained.add(message);
+                drainedBytes += MessagesImpl.getPayloadSize(message);
+            }
+        }
+    }
+
+    /**
+     * Called after a batch of messages was dequeued from the incoming queue to be handed over to the application.
+     */
+    abstract protected void messagesProcessed(List<Message> messages);
+
     @Override
     public void acknowledge(Message message) throws PulsarClientException {
         try {
@@ -230,8 +371,39 @@ public abstract class ConsumerBase extends HandlerBase implements Consumer {
         return doAcknowledge(messageId, AckType.Cumulative);
     }
 
+    @Override
+    public void acknowledge(Messages messages) throws PulsarClientException {
+        try {
+            acknowledgeAsync(messages).get();
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof PulsarClientException) {
+                throw (PulsarClientException) t;
+            } else {
+                throw new PulsarClientException(t);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PulsarClientException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> acknowledgeAsync(Messages messages) {
+        List<CompletableFuture<Void>> futures = Lists.newArrayListWithCapacity(messages.size());
+        for (Message message : messages) {
+            futures.add(acknowledgeAsync(message));
+        }
+        return FutureUtil.waitForAll(futures);
+    }
+
     abstract protected CompletableFuture<Void> doAcknowledge(MessageId messageId, AckType ackType);
 
+    @Override
+    public void negativeAcknowledge(Message message) {
+        negativeAcknowledge(message.getMessageId());
+    }
+
     @Override
     public void unsubscribe() throws PulsarClientException {
         try {
@@ -252,6 +424,40 @@ public abstract class ConsumerBase extends HandlerBase implements Consumer {
     @Override
     abstract public CompletableFuture<Void> unsubscribeAsync();
 
+    @Override
+    public void seek(MessageId messageId) throws PulsarClientException {
+        try {
+            seekAsync(messageId).get();
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof PulsarClientException) {
+                throw (PulsarClientException) t;
+            } else {
+                throw new PulsarClientException(t);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PulsarClientException(e);
+        }
+    }
+
+    @Override
+    public void seek(long timestamp) throws PulsarClientException {
+        try {
+            seekAsync(timestamp).get();
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof PulsarClientException) {
+                throw (PulsarClientException) t;
+            } else {
+                throw new PulsarClientException(t);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PulsarClientException(e);
+        }
+    }
+
     @Override
     public void close() throws PulsarClientException {
         try {
@@ -20,19 +20,23 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.String.format;
 
 import java.io.IOException;
-import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +44,7 @@ import com.yahoo.pulsar.client.api.Consumer;
 import com.yahoo.pulsar.client.api.ConsumerConfiguration;
 import com.yahoo.pulsar.client.api.Message;
 import com.yahoo.pulsar.client.api.MessageId;
+import com.yahoo.pulsar.client.api.Messages;
 import com.yahoo.pulsar.client.api.PulsarClientException;
 import com.yahoo.pulsar.client.api.SubscriptionType;
 import com.yahoo.pulsar.client.util.FutureUtil;
@@ -54,8 +59,10 @@ import com.yahoo.pulsar.common.api.proto.PulsarApi.MessageMetadata;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.ProtocolVersion;
 import com.yahoo.pulsar.common.compression.CompressionCodec;
 import com.yahoo.pulsar.common.compression.CompressionCodecProvider;
+import com.yahoo.pulsar.common.util.collections.ConcurrentLongPairBitSetMap;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
 import io.netty.util.Timeout;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
@@ -76,6 +83,13 @@ public class ConsumerImpl extends ConsumerBase {
     private final int partitionIndex;
 
     private final int receiverQueueRefillThreshold;
+    // Adjusts the receiver queue size to the consumption rate. Null when the receiver queue size is fixed
+    private final ReceiverQueueAutoScaler autoScaler;
+
+    // Client memory budget, that accounts for the messages in the receiver queue. Null when there is no limit
+    private final MemoryLimitController memoryLimitController;
+    // Whether the permits are being held back until the client memory usage goes under the limit
+    private final AtomicBoolean waitingForMemory = new AtomicBoolean();
     private final CompressionCodecProvider codecProvider;
 
     private volatile boolean waitingOnReceiveForZeroQueueSize = false;
@@ -85,10 +99,31 @@ public class ConsumerImpl extends ConsumerBase {
     private final ReadWriteLock zeroQueueLock;
 
     private final UnAckedMessageTracker unAckedMessageTracker;
-    private final ConcurrentSkipListMap<MessageIdImpl, BitSet> batchMessageAckTracker;
+    private final NegativeAcksTracker negativeAcksTracker;
+    // Messages still to be acknowledged in each batch, by (ledgerId, entryId)
+    private final ConcurrentLongPairBitSetMap batchMessageAckTracker;
+    // In zero-copy mode, the buffers the messages of each entry are backed by. A buffer is released when the entry is
+    // acknowledged, when its messages are dropped from the queue or given back for redelivery, or when the consumer is
+    // closed. Access is synchronized on the map itself
+    private final TreeMap<MessageIdImpl, List<ByteBuf>> retainedPayloads;
+    // The partitioned consumer this consumer hands its messages over to, if any
+    private volatile PartitionedConsumerImpl partitionedConsumer;
 
     private final ConsumerStats stats;
 
+    private final SubscriptionMode subscriptionMode;
+    private volatile MessageIdImpl startMessageId;
+    private volatile MessageIdImpl lastDequeuedMessage;
+
+    enum SubscriptionMode {
+        // Make the subscription to be backed by a durable cursor that will retain messages and persist the current
+        // position
+        Durable,
+
+        // Lightweight subscription mode that doesn't have a durable cursor associated
+        NonDurable
+    }
+
     ConsumerImpl(PulsarClientImpl client, String topic, String subscription, ConsumerConfiguration conf,
             ExecutorService listenerExecutor, CompletableFuture<Consumer> subscribeFuture) {
         this(client, topic, subscription, conf, listenerExecutor, -1, subscribeFuture);
@@ -96,14 +131,28 @@ public class ConsumerImpl extends ConsumerBase {
 
     ConsumerImpl(PulsarClientImpl client, String topic, String subscription, ConsumerConfiguration conf,
             ExecutorService listenerExecutor, int partitionIndex, CompletableFuture<Consumer> subscribeFuture) {
+        this(client, topic, subscription, conf, listenerExecutor, partitionIndex, subscribeFuture,
+                SubscriptionMode.Durable, null);
+    }
+
+    ConsumerImpl(PulsarClientImpl client, String topic, String subscription, ConsumerConfiguration conf,
+            ExecutorService listenerExecutor, int partitionIndex, CompletableFuture<Consumer> subscribeFuture,
+            SubscriptionMode subscriptionMode, MessageId startMessageId) {
         super(client, topic, subscription, conf, listenerExecutor, subscribeFuture, true /* use growable queue */);
         this.consumerId = client.newConsumerId();
+        this.subscriptionMode = subscriptionMode;
+        this.startMessageId = (MessageIdImpl) startMessageId;
         this.availablePermits = new AtomicInteger(0);
         this.subscribeTimeout = System.currentTimeMillis() + client.getConfiguration().getOperationTimeoutMs();
         this.partitionIndex = partitionIndex;
         this.receiverQueueRefillThreshold = conf.getReceiverQueueSize() / 2;
+        this.autoScaler = conf.isAutoScaledReceiverQueueSize() && conf.getReceiverQueueSize() > 1
+                ? new ReceiverQueueAutoScaler(1, conf.getReceiverQueueSize(), System.nanoTime()) : null;
+        this.memoryLimitController = client.getMemoryLimitController().isMemoryLimited()
+                && conf.getReceiverQueueSize() != 0 ? client.getMemoryLimitController() : null;
         this.codecProvider = new CompressionCodecProvider();
-        batchMessageAckTracker = new ConcurrentSkipListMap<>();
+        batchMessageAckTracker = new ConcurrentLongPairBitSetMap();
+        retainedPayloads = conf.isZeroCopyPayload() ? new TreeMap<>() : null;
         if (client.getConfiguration().getStatsIntervalSeconds() > 0) {
             stats = new ConsumerStats(client, conf, this);
         } else {
@@ -117,10 +166,14 @@ public class ConsumerImpl extends ConsumerBase {
         }
 
         if (conf.getAckTimeoutMillis() != 0) {
-            this.unAckedMessageTracker = new UnAckedMessageTracker(client, this, conf.getAckTimeoutMillis());
+            this.unAckedMessageTracker = new UnAckedMessageTracker(client, this, conf.getAckTimeoutMillis(),
+                    conf.getTickDurationMillis());
         } else {
             this.unAckedMessageTracker = UnAckedMessageTracker.UNACKED_MESSAGE_TRACKER_DISABLED;
         }
+        this.negativeAcksTracker = new NegativeAcksTracker(this, client.timer(),
+                conf.getNegativeAckRedeliveryDelayMillis(), conf.getMaxNegativeAckRedeliveryDelayMillis(),
+                conf.getTickDurationMillis());
 
         grabCnx();
     }
@@ -129,6 +182,10 @@ public class ConsumerImpl extends ConsumerBase {
         return unAckedMessageTracker;
     }
 
+    NegativeAcksTracker getNegativeAcksTracker() {
+        return negativeAcksTracker;
+    }
+
     @Override
     public CompletableFuture<Void> unsubscribeAsync() {
         if (state.get() == State.Closing || state.get() == State.Closed) {
@@ -146,6 +203,8 @@ public class ConsumerImpl extends ConsumerBase {
                 log.info("[{}][{}] Successfully unsubscribed from topic", topic, subscription);
                 batchMessageAckTracker.clear();
                 unAckedMessageTracker.close();
+                negativeAcksTracker.close();
+                releaseAllPayloads();
                 unsubscribeFuture.complete(null);
                 state.set(State.Closed);
             }).exceptionally(e -> {
@@ -238,6 +297,7 @@ public class ConsumerImpl extends ConsumerBase {
                     // latest flow command
                     if (msgCnx == cnx()) {
                         waitingOnReceiveForZeroQueueSize = false;
+                        lastDequeuedMessage = (MessageIdImpl) message.getMessageId();
                         break;
                     }
                 }
@@ -275,20 +335,18 @@ public class ConsumerImpl extends ConsumerBase {
 
     // we may not be able to ack message being acked by client. However messages in prior
     // batch may be ackable
-    private void ackMessagesInEarlierBatch(BatchMessageIdImpl batchMessageId, MessageIdImpl message) {
-        // get entry before this message and ack that message on broker
-        MessageIdImpl lowerKey = batchMessageAckTracker.lowerKey(message);
-        if (lowerKey != null) {
-            NavigableMap<MessageIdImpl, BitSet> entriesUpto = batchMessageAckTracker.headMap(lowerKey, true);
-            for (Object key : entriesUpto.keySet()) {
-                entriesUpto.remove(key);
-            }
-            if (log.isDebugEnabled()) {
-                log.debug("[{}] [{}] ack prior message {} to broker on cumulative ack for message {}", subscription,
-                        consumerId, lowerKey, batchMessageId);
-            }
-            sendAcknowledge(lowerKey, AckType.Cumulative);
-        } else {
+    private void ackMessagesInEarlierBatch(BatchMessageIdImpl batchMessageId) {
+        // remove the entries before this message and ack the last of them on broker
+        int removed = batchMessageAckTracker.removeBefore(batchMessageId.getLedgerId(), batchMessageId.getEntryId(),
+                (ledgerId, entryId) -> {
+                    MessageIdImpl lowerKey = new MessageIdImpl(ledgerId, entryId, getPartitionIndex());
+                    if (log.isDebugEnabled()) {
+                        log.debug("[{}] [{}] ack prior message {} to broker on cumulative ack for message {}",
+                                subscription, consumerId, lowerKey, batchMessageId);
+                    }
+                    sendAcknowledge(lowerKey, AckType.Cumulative);
+                });
+        if (removed == 0) {
             if (log.isDebugEnabled()) {
                 log.debug("[{}] [{}] no messages prior to message {}", subscription, consumerId, batchMessageId);
             }
@@ -296,35 +354,35 @@ public class ConsumerImpl extends ConsumerBase {
     }
 
     boolean markAckForBatchMessage(BatchMessageIdImpl batchMessageId, AckType ackType) {
-        // we keep track of entire batch and so need MessageIdImpl and cannot use BatchMessageIdImpl
-        MessageIdImpl message = new MessageIdImpl(batchMessageId.getLedgerId(), batchMessageId.getEntryId(),
-                batchMessageId.getPartitionIndex());
-        BitSet bitSet = batchMessageAckTracker.get(message);
-        if (bitSet == null) {
+        // we keep track of entire batch and so need its ledgerId and entryId
+        long ledgerId = batchMessageId.getLedgerId();
+        long entryId = batchMessageId.getEntryId();
+        int batchIndex = batchMessageId.getBatchIndex();
+        int batchSize = batchMessageAckTracker.length(ledgerId, entryId);
+        int outstandingAcks;
+        if (batchSize < 0) {
+            outstandingAcks = -1;
+        } else if (ackType == AckType.Individual) {
+            outstandingAcks = batchMessageAckTracker.clear(ledgerId, entryId, batchIndex, batchIndex + 1);
+        } else {
+            outstandingAcks = batchMessageAckTracker.clear(ledgerId, entryId, 0, batchIndex + 1);
+        }
+        if (outstandingAcks < 0) {
             if (log.isDebugEnabled()) {
                 log.debug("[{}] [{}] message not found {} for ack {}", subscription, consumerId, batchMessageId,
                         ackType);
             }
             return true;
         }
-        int batchIndex = batchMessageId.getBatchIndex();
-        int batchSize = bitSet.length();
-        if (ackType == AckType.Individual) {
-            bitSet.clear(batchIndex);
-        } else {
-            // +1 since to argument is exclusive
-            bitSet.clear(0, batchIndex + 1);
-        }
-        // all messages in this batch have been acked
-        if (bitSet.isEmpty()) {
+        // all messages in this batch have been acked, the tracker already dropped the batch
+        if (outstandingAcks == 0) {
             if (log.isDebugEnabled()) {
-                log.debug("[{}] [{}] can ack message to broker {}, acktype {}, cardinality {}, length {}", subscription,
-                        consumerName, batchMessageId, ackType, bitSet.cardinality(), bitSet.length());
+                log.debug("[{}] [{}] can ack message to broker {}, acktype {}, batch size {}", subscription,
+                        consumerName, batchMessageId, ackType, batchSize);
             }
             if (ackType == AckType.Cumulative) {
-                batchMessageAckTracker.keySet().removeIf(m -> (m.compareTo(message) <= 0));
+                batchMessageAckTracker.removeBefore(ledgerId, entryId, null);
             }
-            batchMessageAckTracker.remove(message);
             // increment Acknowledge-msg counter with number of messages in batch only if AckType is Individual.
             // CumulativeAckType is handled while sending ack to broker
             if (ackType == AckType.Individual) {
@@ -334,10 +392,9 @@ public class ConsumerImpl extends ConsumerBase {
         } else {
             // we cannot ack this message to broker. but prior message may be ackable
             if (ackType == AckType.Cumulative) {
-                ackMessagesInEarlierBatch(batchMessageId, message);
+                ackMessagesInEarlierBatch(batchMessageId);
             }
             if (log.isDebugEnabled()) {
-                int outstandingAcks = batchMessageAckTracker.get(message).cardinality();
                 log.debug("[{}] [{}] cannot ack message to broker {}, acktype {}, pending acks - {}", subscription,
                         consumerName, batchMessageId, ackType, outstandingAcks);
             }
@@ -351,18 +408,12 @@ public class ConsumerImpl extends ConsumerBase {
         if (batchMessageAckTracker.isEmpty()) {
             return;
         }
-        MessageIdImpl lowerKey = batchMessageAckTracker.lowerKey(message);
-        if (lowerKey != null) {
-            NavigableMap<MessageIdImpl, BitSet> entriesUpto = batchMessageAckTracker.headMap(lowerKey, true);
-            for (Object key : entriesUpto.keySet()) {
-                entriesUpto.remove(key);
-            }
-            if (log.isDebugEnabled()) {
-                log.debug("[{}] [{}] updated batch ack tracker up to message {} on cumulative ack for message {}",
-                        subscription, consumerId, lowerKey, message);
-            }
-        } else {
-            if (log.isDebugEnabled()) {
+        int removed = batchMessageAckTracker.removeBefore(message.getLedgerId(), message.getEntryId(), null);
+        if (log.isDebugEnabled()) {
+            if (removed > 0) {
+                log.debug("[{}] [{}] updated batch ack tracker, removed {} batches on cumulative ack for message {}",
+                        subscription, consumerId, removed, message);
+            } else {
                 log.debug("[{}] [{}] no messages to clean up prior to message {}", subscription, consumerId, message);
             }
         }
@@ -377,8 +428,41 @@ public class ConsumerImpl extends ConsumerBase {
         return batchMessageAckTracker.isEmpty();
     }
 
+    /**
+     * helper method that returns whether buffers are still retained for received messages, in zero-copy mode
+     *
+     * @return true if all the retained buffers have been released
+     */
+    public boolean isRetainedPayloadsEmpty() {
+        if (retainedPayloads == null) {
+            return true;
+        }
+        synchronized (retainedPayloads) {
+            return retainedPayloads.isEmpty();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> acknowledgeAsync(Messages messages) {
+        List<CompletableFuture<Void>> futures = Lists.newArrayListWithCapacity(messages.size());
+        for (Message message : messages) {
+            futures.add(doAcknowledge(message.getMessageId(), AckType.Individual, false));
+        }
+
+        // Flush all the acks at once
+        ClientCnx cnx = cnx();
+        if (cnx != null) {
+            cnx.ctx().flush();
+        }
+        return FutureUtil.waitForAll(futures);
+    }
+
     @Override
     protected CompletableFuture<Void> doAcknowledge(MessageId messageId, AckType ackType) {
+        return doAcknowledge(messageId, ackType, true);
+    }
+
+    private CompletableFuture<Void> doAcknowledge(MessageId messageId, AckType ackType, boolean flush) {
         checkArgument(messageId instanceof MessageIdImpl);
         if (state.get() != State.Ready && state.get() != State.Connecting) {
             stats.incrementNumAcksFailed();
@@ -394,18 +478,163 @@ public class ConsumerImpl extends ConsumerBase {
                 }
             } else {
                 // other messages in batch are still pending ack.
+                if (ackType == AckType.Cumulative) {
+                    releasePayloads((MessageIdImpl) messageId, ackType, false);
+                }
                 return CompletableFuture.completedFuture(null);
             }
         }
+        releasePayloads((MessageIdImpl) messageId, ackType, true);
         // if we got a cumulative ack on non batch message, check if any earlier batch messages need to be removed
         // from batch message tracker
         if (ackType == AckType.Cumulative && !(messageId instanceof BatchMessageIdImpl)) {
             updateBatchAckTracker((MessageIdImpl) messageId, ackType);
         }
-        return sendAcknowledge(messageId, ackType);
+        return sendAcknowledge(messageId, ackType, flush);
+    }
+
+    @Override
+    public void negativeAcknowledge(MessageId messageId) {
+        MessageIdImpl msgId = (MessageIdImpl) messageId;
+        // The redelivery is per entry, so all the messages of a batch share the same backoff
+        MessageIdImpl entry = new MessageIdImpl(msgId.getLedgerId(), msgId.getEntryId(), msgId.getPartitionIndex());
+        unAckedMessageTracker.remove(entry);
+        negativeAcksTracker.add(entry);
+    }
+
+    /**
+     * Retains the buffer the messages of an entry are backed by, in zero-copy mode.
+     */
+    private void retainPayload(MessageIdData messageId, ByteBuf payload) {
+        MessageIdImpl entry = new MessageIdImpl(messageId.getLedgerId(), messageId.getEntryId(), getPartitionIndex());
+        synchronized (retainedPayloads) {
+            // An entry can be redelivered while the application still holds the messages of the first delivery
+            List<ByteBuf> payloads = retainedPayloads.computeIfAbsent(entry, k -> Lists.newArrayListWithCapacity(1));
+            payloads.add(payload.retain());
+        }
+    }
+
+    /**
+     * Releases the buffers retained for the entry of an acknowledged message and, on cumulative acks, for all the
+     * previous entries.
+     */
+    private void releasePayloads(MessageIdImpl messageId, AckType ackType, boolean inclusive) {
+        if (retainedPayloads == null) {
+            return;
+        }
+
+        MessageIdImpl entry = new MessageIdImpl(messageId.getLedgerId(), messageId.getEntryId(),
+                messageId.getPartitionIndex());
+        List<ByteBuf> released = Lists.newArrayList();
+        synchronized (retainedPayloads) {
+            if (ackType == AckType.Cumulative) {
+                NavigableMap<MessageIdImpl, List<ByteBuf>> entriesUpto = retainedPayloads.headMap(entry, inclusive);
+                entriesUpto.values().forEach(released::addAll);
+                entriesUpto.clear();
+            } else if (inclusive) {
+                List<ByteBuf> payloads = retainedPayloads.remove(entry);
+                if (payloads != null) {
+                    released.addAll(payloads);
+                }
+            }
+        }
+        released.forEach(ByteBuf::release);
+    }
+
+    /**
+     * Releases the buffer retained for a single delivery of an entry, when none of its messages reached the queue.
+     */
+    private void releasePayload(MessageIdData messageId, ByteBuf payload) {
+        MessageIdImpl entry = new MessageIdImpl(messageId.getLedgerId(), messageId.getEntryId(), getPartitionIndex());
+        boolean released = false;
+        synchronized (retainedPayloads) {
+            List<ByteBuf> payloads = retainedPayloads.get(entry);
+            // Compare the identity, since ByteBuf.equals() compares the content
+            if (payloads != null && payloads.removeIf(retained -> retained == payload)) {
+                released = true;
+                if (payloads.isEmpty()) {
+                    retainedPayloads.remove(entry);
+                }
+            }
+        }
+        if (released) {
+            payload.release();
+        }
+    }
+
+    /**
+     * Releases the buffers retained for the entries of messages that were dropped or given back for redelivery.
+     */
+    private void releasePayloads(Collection<MessageIdImpl> messageIds) {
+        if (retainedPayloads == null || messageIds.isEmpty()) {
+            return;
+        }
+
+        List<ByteBuf> released = Lists.newArrayList();
+        synchronized (retainedPayloads) {
+            for (MessageIdImpl messageId : messageIds) {
+                List<ByteBuf> payloads = retainedPayloads.remove(new MessageIdImpl(messageId.getLedgerId(),
+                        messageId.getEntryId(), messageId.getPartitionIndex()));
+                if (payloads != null) {
+                    released.addAll(payloads);
+                }
+            }
+        }
+        released.forEach(ByteBuf::release);
+    }
+
+    /**
+     * Releases the buffers of messages given back for redelivery, after dropping the messages that were already handed
+     * over to the partitioned consumer, since they are backed by these buffers
+     *
+     * @param entries
+     *            the redelivered entries, or null when all the unacknowledged messages are redelivered
+     */
+    private void releaseRedeliveredPayloads(Set<MessageIdImpl> entries) {
+        if (retainedPayloads == null) {
+            return;
+        }
+
+        Runnable release = entries == null ? this::releaseAllPayloads : () -> releasePayloads(entries);
+        PartitionedConsumerImpl parent = partitionedConsumer;
+        if (parent != null) {
+            parent.removeMessages(getPartitionIndex(), entries, release);
+        } else {
+            release.run();
+        }
+    }
+
+    /**
+     * Tells whether the buffer backing the messages of an entry is still retained, i.e. whether they can be read.
+     */
+    boolean isPayloadRetained(MessageIdImpl messageId) {
+        if (retainedPayloads == null) {
+            return true;
+        }
+        synchronized (retainedPayloads) {
+            return retainedPayloads.containsKey(new MessageIdImpl(messageId.getLedgerId(), messageId.getEntryId(),
+                    messageId.getPartitionIndex()));
+        }
+    }
+
+    private void releaseAllPayloads() {
+        if (retainedPayloads == null) {
+            return;
+        }
+
+        List<ByteBuf> released = Lists.newArrayList();
+        synchronized (retainedPayloads) {
+            retainedPayloads.values().forEach(released::addAll);
+            retainedPayloads.clear();
+        }
+        released.forEach(ByteBuf::release);
     }
 
     private CompletableFuture<Void> sendAcknowledge(MessageId messageId, AckType ackType) {
+        return sendAcknowledge(messageId, ackType, true);
+    }
+
+    private CompletableFuture<Void> sendAcknowledge(MessageId messageId, AckType ackType, boolean flush) {
         MessageIdImpl msgId = (MessageIdImpl) messageId;
         final ByteBuf cmd = Commands.newAck(consumerId, msgId.getLedgerId(), msgId.getEntryId(), ackType, null);
 
@@ -413,18 +642,21 @@ public class ConsumerImpl extends ConsumerBase {
         final CompletableFuture<Void> ackFuture = new CompletableFuture<Void>();
 
         if (isConnected()) {
-            cnx().ctx().writeAndFlush(cmd).addListener(new GenericFutureListener<Future<Void>>() {
+            ChannelFuture writeFuture = flush ? cnx().ctx().writeAndFlush(cmd) : cnx().ctx().write(cmd);
+            writeFuture.addListener(new GenericFutureListener<Future<Void>>() {
                 @Override
                 public void operationComplete(Future<Void> future) throws Exception {
                     if (future.isSuccess()) {
                         if (ackType == AckType.Individual) {
                             unAckedMessageTracker.remove(msgId);
+                            negativeAcksTracker.remove(msgId);
                             // increment counter by 1 for non-batch msg
                             if (!(messageId instanceof BatchMessageIdImpl)) {
                                 stats.incrementNumAcksSent(1);
                             }
                         } else if (ackType == AckType.Cumulative) {
                             stats.incrementNumAcksSent(unAckedMessageTracker.removeMessagesTill(msgId));
+                            negativeAcksTracker.removeMessagesTill(msgId);
                         }
                         ackFuture.complete(null);
                     } else {
@@ -450,13 +682,42 @@ public class ConsumerImpl extends ConsumerBase {
         log.info("[{}][{}] Subscribing to topic on cnx {}", topic, subscription, cnx.ctx().channel());
 
         long requestId = client.newRequestId();
+
+        final boolean isDurable = subscriptionMode == SubscriptionMode.Durable;
+        MessageIdData startMessageIdData = null;
+        if (!isDurable) {
+            synchronized (this) {
+                // For non-durable subscriptions the broker doesn't keep track of the position: messages that were
+                // already in the queue will be sent again, so restart right after the last message that the
+                // application has seen
+                clearIncomingMessages();
+                if (lastDequeuedMessage != null) {
+                    startMessageId = lastDequeuedMessage;
+                }
+            }
+
+            if (startMessageId != null) {
+                MessageIdData.Builder builder = MessageIdData.newBuilder();
+                builder.setLedgerId(startMessageId.getLedgerId());
+                builder.setEntryId(startMessageId.getEntryId());
+                if (startMessageId instanceof BatchMessageIdImpl) {
+                    builder.setBatchIndex(((BatchMessageIdImpl) startMessageId).getBatchIndex());
+                }
+                startMessageIdData = builder.build();
+                builder.recycle();
+            }
+        }
+
         cnx.sendRequestWithId(
-                Commands.newSubscribe(topic, subscription, consumerId, requestId, getSubType(), consumerName),
+                Commands.newSubscribe(topic, subscription, consumerId, requestId, getSubType(), consumerName,
+                        isDurable, startMessageIdData),
                 requestId).thenRun(() -> {
                     synchronized (ConsumerImpl.this) {
-                        incomingMessages.clear();
+                        clearIncomingMessages();
                         unAckedMessageTracker.clear();
                         batchMessageAckTracker.clear();
+                        // All the unacknowledged messages are going to be delivered again
+                        releaseRedeliveredPayloads(null);
                         if (changeToReadyState()) {
                             log.info("[{}][{}] Subscribed to topic on {} -- consumer: {}", topic, subscription,
                                     cnx.channel().remoteAddress(), consumerId);
@@ -483,7 +744,7 @@ public class ConsumerImpl extends ConsumerBase {
                     // if the consumer is not partitioned or is re-connected and is partitioned, we send the flow
                     // command to receive messages
                     if (!(firstTimeConnect && partitionIndex > -1) && conf.getReceiverQueueSize() != 0) {
-                        receiveMessages(cnx, conf.getReceiverQueueSize());
+                        sendInitialFlow(cnx);
                     }
                 }).exceptionally((e) -> {
                     cnx.removeConsumer(consumerId);
@@ -513,6 +774,20 @@ public class ConsumerImpl extends ConsumerBase {
                     }
                     return null;
                 });
+
+        if (startMessageIdData != null) {
+            startMessageIdData.recycle();
+        }
+    }
+
+    /**
+     * Send the flow command for the whole receiver queue, when the broker has no permits left for this consumer
+     */
+    void sendInitialFlow(ClientCnx cnx) {
+        if (autoScaler != null) {
+            autoScaler.flowSent(true, System.nanoTime());
+        }
+        receiveMessages(cnx, getCurrentReceiverQueueSize());
     }
 
     /**
@@ -541,6 +816,9 @@ public class ConsumerImpl extends ConsumerBase {
         if (state.get() == State.Closing || state.get() == State.Closed) {
             batchMessageAckTracker.clear();
             unAckedMessageTracker.close();
+            negativeAcksTracker.close();
+            releaseAllPayloads();
+            clearIncomingMessages();
             return CompletableFuture.completedFuture(null);
         }
 
@@ -549,6 +827,9 @@ public class ConsumerImpl extends ConsumerBase {
             state.set(State.Closed);
             batchMessageAckTracker.clear();
             unAckedMessageTracker.close();
+            negativeAcksTracker.close();
+            releaseAllPayloads();
+            clearIncomingMessages();
             client.cleanupConsumer(this);
             return CompletableFuture.completedFuture(null);
         }
@@ -572,6 +853,9 @@ public class ConsumerImpl extends ConsumerBase {
                 state.set(State.Closed);
                 batchMessageAckTracker.clear();
                 unAckedMessageTracker.close();
+                negativeAcksTracker.close();
+                releaseAllPayloads();
+                clearIncomingMessages();
                 closeFuture.complete(null);
                 client.cleanupConsumer(this);
             } else {
@@ -588,6 +872,10 @@ public class ConsumerImpl extends ConsumerBase {
             log.debug("[{}][{}] Received message: {}", topic, subscription, messageId);
         }
 
+        if (autoScaler != null) {
+            autoScaler.messageReceived(System.nanoTime());
+        }
+
         MessageMetadata msgMetadata = null;
         ByteBuf payload = headersAndPayload;
 
@@ -611,10 +899,16 @@ public class ConsumerImpl extends ConsumerBase {
         }
 
         final int numMessages = msgMetadata.getNumMessagesInBatch();
+        int skippedMessages = 0;
+
+        final boolean zeroCopyPayload = retainedPayloads != null;
+        if (zeroCopyPayload) {
+            retainPayload(messageId, uncompressedPayload);
+        }
 
         if (numMessages == 1 && !msgMetadata.hasNumMessagesInBatch()) {
             final MessageImpl message = new MessageImpl(messageId, msgMetadata, uncompressedPayload,
-                    getPartitionIndex(), cnx);
+                    getPartitionIndex(), cnx, zeroCopyPayload);
             uncompressedPayload.release();
             msgMetadata.recycle();
 
@@ -626,7 +920,11 @@ public class ConsumerImpl extends ConsumerBase {
                 unAckedMessageTracker.add((MessageIdImpl) message.getMessageId());
                 boolean asyncReceivedWaiting = !pendingReceives.isEmpty();
                 if ((conf.getReceiverQueueSize() != 0 || waitingOnReceiveForZeroQueueSize) && !asyncReceivedWaiting) {
+                    reserveMemory(message);
                     incomingMessages.add(message);
+                } else if (zeroCopyPayload && !asyncReceivedWaiting) {
+                    // The message was discarded
+                    releasePayload(messageId, uncompressedPayload);
                 }
                 if (asyncReceivedWaiting) {
                     notifyPendingReceivedCallback(message, null);
@@ -650,17 +948,19 @@ public class ConsumerImpl extends ConsumerBase {
                 });
             } else {
                 // handle batch message enqueuing; uncompressed payload has all messages in batch
-                receiveIndividualMessagesFromBatch(msgMetadata, uncompressedPayload, messageId, cnx);
+                skippedMessages = receiveIndividualMessagesFromBatch(msgMetadata, uncompressedPayload, messageId,
+                        cnx);
             }
             uncompressedPayload.release();
             msgMetadata.recycle();
         }
 
         if (listener != null) {
+            final int numMessagesToDeliver = numMessages - skippedMessages;
             // Trigger the notification on the message listener in a separate thread to avoid blocking the networking
             // thread while the message processing happens
             listenerExecutor.execute(() -> {
-                for (int i = 0; i < numMessages; i++) {
+                for (int i = 0; i < numMessagesToDeliver; i++) {
                     Message msg;
                     try {
                         msg = internalReceive();
@@ -697,9 +997,12 @@ public class ConsumerImpl extends ConsumerBase {
                 if (receivedFuture != null) {
                     if (conf.getReceiverQueueSize() == 0) {
                         // return message to receivedCallback
+                        lastDequeuedMessage = (MessageIdImpl) message.getMessageId();
                         receivedFuture.complete(message);
                     } else {
-                        // increase permits for available message-queue
+                        // increase permits for available message-queue. The message is accounted as if it went
+                        // through the queue, since processing it gives back its memory
+                        reserveMemory(message);
                         messageProcessed(message);
                         // return message to receivedCallback
                         listenerExecutor.execute(() -> receivedFuture.complete(message));
@@ -711,21 +1014,26 @@ public class ConsumerImpl extends ConsumerBase {
         }
     }
 
-    void receiveIndividualMessagesFromBatch(MessageMetadata msgMetadata, ByteBuf uncompressedPayload,
+    /**
+     * Enqueue the individual messages contained in a batch
+     *
+     * @return the number of messages in the batch that were skipped and not enqueued
+     */
+    int receiveIndividualMessagesFromBatch(MessageMetadata msgMetadata, ByteBuf uncompressedPayload,
             MessageIdData messageId, ClientCnx cnx) {
         int batchSize = msgMetadata.getNumMessagesInBatch();
 
         // create ack tracker for entry aka batch
-        BitSet bitSet = new BitSet(batchSize);
         MessageIdImpl batchMessage = new MessageIdImpl(messageId.getLedgerId(), messageId.getEntryId(),
                 getPartitionIndex());
-        bitSet.set(0, batchSize);
         if (log.isDebugEnabled()) {
-            log.debug("[{}] [{}] added bit set for message {}, cardinality {}, length {}", subscription, consumerName,
-                    batchMessage, bitSet.cardinality(), bitSet.length());
+            log.debug("[{}] [{}] added bit set for message {}, length {}", subscription, consumerName, batchMessage,
+                    batchSize);
         }
-        batchMessageAckTracker.put(batchMessage, bitSet);
+        batchMessageAckTracker.put(messageId.getLedgerId(), messageId.getEntryId(), batchSize);
         unAckedMessageTracker.add(batchMessage);
+        int skippedMessages = 0;
+        int deliveredMessages = 0;
         try {
             for (int i = 0; i < batchSize; ++i) {
                 if (log.isDebugEnabled()) {
@@ -735,30 +1043,95 @@ public class ConsumerImpl extends ConsumerBase {
                         .newBuilder();
                 ByteBuf singleMessagePayload = Commands.deSerializeSingleMessageInBatch(uncompressedPayload,
                         singleMessageMetadataBuilder, i, batchSize);
+
+                if (isPriorBatchIndex(messageId, i)) {
+                    // The broker restarted the delivery from the beginning of the batch, skip the messages that were
+                    // already seen by the application
+                    if (log.isDebugEnabled()) {
+                        log.debug("[{}] [{}] Ignoring message from before the startMessageId {}", subscription,
+                                consumerName, startMessageId);
+                    }
+                    batchMessageAckTracker.clear(messageId.getLedgerId(), messageId.getEntryId(), i, i + 1);
+                    ++skippedMessages;
+                    singleMessagePayload.release();
+                    singleMessageMetadataBuilder.recycle();
+                    continue;
+                }
+
                 BatchMessageIdImpl batchMessageIdImpl = new BatchMessageIdImpl(messageId.getLedgerId(),
                         messageId.getEntryId(), getPartitionIndex(), i);
                 final MessageImpl message = new MessageImpl(batchMessageIdImpl, msgMetadata,
-                        singleMessageMetadataBuilder.build(), singleMessagePayload, cnx);
+                        singleMessageMetadataBuilder.build(), singleMessagePayload, cnx, retainedPayloads != null);
                 lock.readLock().lock();
                 if (pendingReceives.isEmpty()) {
+                    reserveMemory(message);
                     incomingMessages.add(message);
                 } else {
                     notifyPendingReceivedCallback(message, null);
                 }
                 lock.readLock().unlock();
+                ++deliveredMessages;
                 singleMessagePayload.release();
                 singleMessageMetadataBuilder.recycle();
             }
         } catch (IOException e) {
             //
             log.warn("[{}] [{}] unable to obtain message in batch", subscription, consumerName);
-            batchMessageAckTracker.remove(batchMessage);
+            batchMessageAckTracker.remove(messageId.getLedgerId(), messageId.getEntryId());
             discardCorruptedMessage(messageId, cnx, ValidationError.BatchDeSerializeError);
         }
+
+        if (deliveredMessages == 0 && retainedPayloads != null) {
+            // All the messages were skipped or discarded, so none of them is backed by the retained buffer
+            releasePayload(messageId, uncompressedPayload);
+        }
+
+        if (skippedMessages > 0) {
+            // Give back the permits for the messages that were not pushed to the application
+            increaseAvailablePermits(cnx, skippedMessages);
+        }
+
         if (log.isDebugEnabled()) {
             log.debug("[{}] [{}] enqueued messages in batch. queue size - {}, available queue size - {}", subscription,
                     consumerName, incomingMessages.size(), incomingMessages.remainingCapacity());
         }
+        return skippedMessages;
+    }
+
+    /**
+     * Check whether a message inside a batch comes before the position the non-durable subscription was started from
+     */
+    private boolean isPriorBatchIndex(MessageIdData messageId, int batchIndex) {
+        MessageIdImpl startMessageId = this.startMessageId;
+        if (subscriptionMode != SubscriptionMode.NonDurable || !(startMessageId instanceof BatchMessageIdImpl)) {
+            return false;
+        }
+
+        return messageId.getLedgerId() == startMessageId.getLedgerId()
+                && messageId.getEntryId() == startMessageId.getEntryId()
+                && batchIndex <= ((BatchMessageIdImpl) startMessageId).getBatchIndex();
+    }
+
+    /**
+     * Record the event that a batch of messages has been processed by the application, as a single Flow update.
+     */
+    @Override
+    protected synchronized void messagesProcessed(List<Message> messages) {
+        ClientCnx currentCnx = cnx();
+        int processedMessages = 0;
+        for (Message msg : messages) {
+            releaseMemory(msg);
+            lastDequeuedMessage = (MessageIdImpl) msg.getMessageId();
+            // Skip the messages that belonged to the old queue, cleared after reconnection
+            if (((MessageImpl) msg).getCnx() == currentCnx) {
+                stats.updateNumMsgsReceived(msg);
+                ++processedMessages;
+            }
+        }
+
+        if (processedMessages > 0) {
+            increaseAvailablePermits(currentCnx, processedMessages + resizeReceiverQueue(processedMessages));
+        }
     }
 
     /**
@@ -769,21 +1142,70 @@ public class ConsumerImpl extends ConsumerBase {
     private synchronized void messageProcessed(Message msg) {
         ClientCnx currentCnx = cnx();
         ClientCnx msgCnx = ((MessageImpl) msg).getCnx();
+        lastDequeuedMessage = (MessageIdImpl) msg.getMessageId();
+        releaseMemory(msg);
 
         if (msgCnx != currentCnx) {
             // The processed message did belong to the old queue that was cleared after reconnection.
             return;
         }
 
-        increaseAvailablePermits(currentCnx);
+        increaseAvailablePermits(currentCnx, 1 + resizeReceiverQueue(1));
         stats.updateNumMsgsReceived(msg);
     }
 
+    /**
+     * With an auto-scaled receiver queue, let the window follow the consumption rate. The permits for a bigger window
+     * are handed out with the permits of the processed messages, while the permits of a smaller window are taken back
+     * from them, possibly leaving a negative number of available permits for a while.
+     *
+     * @return the change in the number of permits
+     */
+    private int resizeReceiverQueue(int processedMessages) {
+        if (autoScaler == null) {
+            return 0;
+        }
+
+        int delta = autoScaler.messagesProcessed(processedMessages, incomingMessages.isEmpty(), System.nanoTime());
+        if (delta != 0 && log.isDebugEnabled()) {
+            log.debug("[{}] [{}] Resized receiver queue to {} messages", topic, subscription,
+                    autoScaler.getCurrentSize());
+        }
+        return delta;
+    }
+
+    int getCurrentReceiverQueueSize() {
+        return autoScaler != null ? autoScaler.getCurrentSize() : conf.getReceiverQueueSize();
+    }
+
     private void increaseAvailablePermits(ClientCnx currentCnx) {
-        int available = availablePermits.incrementAndGet();
+        increaseAvailablePermits(currentCnx, 1);
+    }
+
+    private void increaseAvailablePermits(ClientCnx currentCnx, int delta) {
+        int available = availablePermits.addAndGet(delta);
+        int refillThreshold = autoScaler != null ? Math.max(1, autoScaler.getCurrentSize() / 2)
+                : receiverQueueRefillThreshold;
+
+        while (available >= refillThreshold) {
+            if (memoryLimitController != null && memoryLimitController.isMemoryLimitReached()) {
+                // Hold back the permits: the broker will only push more messages once the application has processed
+                // enough of them, or once the other producers and consumers have released their memory
+                if (waitingForMemory.compareAndSet(false, true)) {
+                    memoryLimitController.addResumeListener(() -> {
+                        waitingForMemory.set(false);
+                        increaseAvailablePermits(cnx(), 0);
+                    });
+                }
+                break;
+            }
 
-        while (available >= receiverQueueRefillThreshold) {
             if (availablePermits.compareAndSet(available, 0)) {
+                if (autoScaler != null) {
+                    // Probe the round-trip time when the broker has no more permits to push messages
+                    boolean noPermitsInFlight = autoScaler.getCurrentSize() - incomingMessages.size() - available <= 0;
+                    autoScaler.flowSent(noPermitsInFlight, System.nanoTime());
+                }
                 receiveMessages(currentCnx, available);
                 break;
             } else {
@@ -792,6 +1214,69 @@ public class ConsumerImpl extends ConsumerBase {
         }
     }
 
+    private void reserveMemory(Message message) {
+        if (memoryLimitController != null) {
+            memoryLimitController.forceReserveMemory(((MessageImpl) message).getDataBuffer().readableBytes());
+        }
+    }
+
+    private void releaseMemory(Message message) {
+        if (memoryLimitController != null) {
+            memoryLimitController.releaseMemory(((MessageImpl) message).getDataBuffer().readableBytes());
+        }
+    }
+
+    /**
+     * Discard the messages in the receiver queue and give their memory back to the client
+     *
+     * @return the number of discarded messages
+     */
+    private int clearIncomingMessages() {
+        if (memoryLimitController == null && retainedPayloads == null) {
+            int size = incomingMessages.size();
+            incomingMessages.clear();
+            return size;
+        }
+
+        List<Message> discarded = Lists.newArrayList();
+        incomingMessages.drainTo(discarded);
+        List<MessageIdImpl> discardedIds = Lists.newArrayListWithCapacity(discarded.size());
+        for (Message message : discarded) {
+            releaseMemory(message);
+            discardedIds.add((MessageIdImpl) message.getMessageId());
+        }
+        releasePayloads(discardedIds);
+        return discarded.size();
+    }
+
+    /**
+     * Takes the messages of the given entries out of the receiver queue and gives their memory back to the client
+     *
+     * @return the number of removed messages
+     */
+    private int removeIncomingMessages(Set<MessageIdImpl> entries) {
+        List<Message> queued = Lists.newArrayList();
+        int removed = 0;
+        lock.writeLock().lock();
+        try {
+            // The queue can't be iterated, so put back the messages that are kept in the same order
+            incomingMessages.drainTo(queued);
+            for (Message message : queued) {
+                MessageIdImpl msgId = (MessageIdImpl) message.getMessageId();
+                if (entries.contains(
+                        new MessageIdImpl(msgId.getLedgerId(), msgId.getEntryId(), msgId.getPartitionIndex()))) {
+                    releaseMemory(message);
+                    ++removed;
+                } else {
+                    incomingMessages.add(message);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return removed;
+    }
+
     private ByteBuf uncompressPayloadIfNeeded(MessageIdData messageId, MessageMetadata msgMetadata, ByteBuf payload,
             ClientCnx currentCnx) {
         CompressionType compressionType = msgMetadata.getCompression();
@@ -858,6 +1343,10 @@ public class ConsumerImpl extends ConsumerBase {
         return partitionIndex;
     }
 
+    void setPartitionedConsumer(PartitionedConsumerImpl partitionedConsumer) {
+        this.partitionedConsumer = partitionedConsumer;
+    }
+
     @Override
     public int getAvailablePermits() {
         return availablePermits.get();
@@ -874,11 +1363,12 @@ public class ConsumerImpl extends ConsumerBase {
         if (isConnected() && cnx.getRemoteEndpointProtocolVersion() >= ProtocolVersion.v2.getNumber()) {
             int currentSize = 0;
             synchronized (this) {
-                currentSize = incomingMessages.size();
-                incomingMessages.clear();
+                currentSize = clearIncomingMessages();
                 availablePermits.set(0);
                 unAckedMessageTracker.clear();
+                negativeAcksTracker.clear();
                 batchMessageAckTracker.clear();
+                releaseRedeliveredPayloads(null);
             }
             cnx.ctx().writeAndFlush(Commands.newRedeliverUnacknowledgedMessages(consumerId), cnx.ctx().voidPromise());
             if (currentSize > 0) {
@@ -894,6 +1384,62 @@ public class ConsumerImpl extends ConsumerBase {
         }
     }
 
+    @Override
+    public CompletableFuture<Void> seekAsync(MessageId messageId) {
+        MessageIdImpl msgId = (MessageIdImpl) messageId;
+        return seekAsyncInternal("message id " + messageId,
+                requestId -> Commands.newSeek(consumerId, requestId, msgId.getLedgerId(), msgId.getEntryId()));
+    }
+
+    @Override
+    public CompletableFuture<Void> seekAsync(long timestamp) {
+        return seekAsyncInternal("timestamp " + timestamp,
+                requestId -> Commands.newSeek(consumerId, requestId, timestamp));
+    }
+
+    private CompletableFuture<Void> seekAsyncInternal(String seekBy, Function<Long, ByteBuf> seekCommand) {
+        if (state.get() == State.Closing || state.get() == State.Closed) {
+            return FutureUtil
+                    .failedFuture(new PulsarClientException.AlreadyClosedException("Consumer was already closed"));
+        }
+
+        if (!isConnected()) {
+            return FutureUtil.failedFuture(new PulsarClientException("Not connected to broker"));
+        }
+
+        ClientCnx cnx = cnx();
+        if (cnx.getRemoteEndpointProtocolVersion() < ProtocolVersion.v7.getNumber()) {
+            return FutureUtil.failedFuture(new PulsarClientException("Broker does not support seek operation"));
+        }
+
+        final CompletableFuture<Void> seekFuture = new CompletableFuture<>();
+        long requestId = client.newRequestId();
+        log.info("[{}][{}] Seeking subscription to {}", topic, subscription, seekBy);
+
+        cnx.sendRequestWithId(seekCommand.apply(requestId), requestId).thenRun(() -> {
+            // The broker replies only after all the messages read from the previous position were written on the
+            // connection, so everything that is in the receiver queue at this point has to be discarded
+            int currentSize;
+            synchronized (ConsumerImpl.this) {
+                currentSize = clearIncomingMessages();
+                unAckedMessageTracker.clear();
+                negativeAcksTracker.clear();
+                batchMessageAckTracker.clear();
+                releaseRedeliveredPayloads(null);
+            }
+            if (currentSize > 0) {
+                increaseAvailablePermits(cnx, currentSize);
+            }
+            log.info("[{}][{}] Successfully reset subscription to {}", topic, subscription, seekBy);
+            seekFuture.complete(null);
+        }).exceptionally(e -> {
+            log.error("[{}][{}] Failed to reset subscription: {}", topic, subscription, e.getCause().getMessage());
+            seekFuture.completeExceptionally(e.getCause());
+            return null;
+        });
+        return seekFuture;
+    }
+
     @Override
     public void redeliverUnacknowledgedMessages(List<MessageIdImpl> messageIds) {
         if (conf.getSubscriptionType() != SubscriptionType.Shared) {
@@ -903,6 +1449,18 @@ public class ConsumerImpl extends ConsumerBase {
         }
         ClientCnx cnx = cnx();
         if (isConnected() && cnx.getRemoteEndpointProtocolVersion() >= ProtocolVersion.v2.getNumber()) {
+            if (retainedPayloads != null) {
+                // The buffers of the redelivered entries are given back, so the messages of these entries that are
+                // still in the receiver queue must not reach the application either
+                Set<MessageIdImpl> entries = Sets.newHashSet();
+                messageIds.forEach(msgId -> entries.add(
+                        new MessageIdImpl(msgId.getLedgerId(), msgId.getEntryId(), msgId.getPartitionIndex())));
+                int removed = removeIncomingMessages(entries);
+                releaseRedeliveredPayloads(entries);
+                if (removed > 0) {
+                    increaseAvailablePermits(cnx, removed);
+                }
+            }
             List<List<MessageIdImpl>> batches = Lists.partition(messageIds, MAX_REDELIVER_UNACKNOWLEDGED);
             MessageIdData.Builder builder = MessageIdData.newBuilder();
             batches.forEach(ids -> {
@@ -124,11 +124,13 @@ public class ConsumerStats implements Serializable {
                 if ((currentNumMsgsReceived | currentNumBytesReceived | currentNumReceiveFailed | currentNumAcksSent
                         | currentNumAcksFailed) != 0) {
                     log.info(
-                            "[{}] [{}] [{}] Prefetched messages: {} --- Consume throughput: {} msgs/s --- "
+                            "[{}] [{}] [{}] Prefetched messages: {} --- Client memory usage: {} bytes --- "
+                                    + "Consume throughput: {} msgs/s --- "
                                     + "Throughput received: {} msg/s --- {} Mbit/s --- "
                                     + "Ack sent rate: {} ack/s --- " + "Failed messages: {} --- " + "Failed acks: {}",
                             consumer.getTopic(), consumer.getSubscription(), consumer.consumerName,
-                            consumer.incomingMessages.size(), throughputFormat.format(currentNumMsgsReceived / elapsed),
+                            consumer.incomingMessages.size(), getClientMemoryUsage(),
+                            throughputFormat.format(currentNumMsgsReceived / elapsed),
                             throughputFormat.format(currentNumBytesReceived / elapsed * 8 / 1024 / 1024),
                             throughputFormat.format(currentNumAcksSent / elapsed), currentNumReceiveFailed,
                             currentNumAcksFailed);
@@ -235,5 +237,13 @@ public class ConsumerStats implements Serializable {
         return totalAcksFailed.longValue();
     }
 
+    /**
+     * @return the memory currently used by the client, across all its producers and consumers, to hold the pending
+     *         and the prefetched messages. Only tracked when a client memory limit is configured
+     */
+    public long getClientMemoryUsage() {
+        return pulsarClient != null ? pulsarClient.getMemoryLimitController().currentUsage() : 0;
+    }
+
     private static final Logger log = LoggerFactory.getLogger(ConsumerStats.class);
 }
\ No newline at end of file
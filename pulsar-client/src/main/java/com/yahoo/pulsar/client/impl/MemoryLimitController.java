@@ -0,0 +1,144 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps track of the memory used by all the producers and consumers of a client, to enforce the limit configured with
+ * {@link com.yahoo.pulsar.client.api.ClientConfiguration#setMemoryLimitBytes(long)}.
+ * <p>
+ * A reservation is accepted when it fits within the limit, or when nothing else is reserved, so that a single message
+ * bigger than the limit can still go through. Messages pushed by the broker to the consumers are always accounted,
+ * since they cannot be refused: the consumers will instead stop granting new permits while the limit is reached.
+ */
+class MemoryLimitController {
+
+    private final long memoryLimit;
+    private final AtomicLong currentUsage = new AtomicLong();
+
+    private final ReentrantLock mutex = new ReentrantLock(false);
+    private final Condition condition = mutex.newCondition();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+
+    private final Queue<Runnable> resumeListeners = new ConcurrentLinkedQueue<>();
+
+    MemoryLimitController(long memoryLimitBytes) {
+        this.memoryLimit = memoryLimitBytes;
+    }
+
+    boolean isMemoryLimited() {
+        return memoryLimit > 0;
+    }
+
+    boolean isMemoryLimitReached() {
+        return memoryLimit > 0 && currentUsage.get() >= memoryLimit;
+    }
+
+    /**
+     * Try to reserve memory without blocking
+     *
+     * @return true if the memory was reserved, false if the client is already using all its memory
+     */
+    boolean tryReserveMemory(long size) {
+        while (true) {
+            long current = currentUsage.get();
+            if (memoryLimit > 0 && current > 0 && current + size > memoryLimit) {
+                return false;
+            }
+
+            if (currentUsage.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserve memory, blocking until enough memory is released by the other producers and consumers
+     */
+    void reserveMemory(long size) throws InterruptedException {
+        if (tryReserveMemory(size)) {
+            return;
+        }
+
+        mutex.lock();
+        waitingThreads.incrementAndGet();
+        try {
+            while (!tryReserveMemory(size)) {
+                condition.await();
+            }
+        } finally {
+            waitingThreads.decrementAndGet();
+            mutex.unlock();
+        }
+    }
+
+    /**
+     * Account for memory that is already in use and cannot be refused, like messages pushed by the broker
+     */
+    void forceReserveMemory(long size) {
+        currentUsage.addAndGet(size);
+    }
+
+    void releaseMemory(long size) {
+        long newUsage = currentUsage.addAndGet(-size);
+
+        if (waitingThreads.get() > 0) {
+            mutex.lock();
+            try {
+                condition.signalAll();
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        if (newUsage < memoryLimit && !resumeListeners.isEmpty()) {
+            notifyResumeListeners();
+        }
+    }
+
+    /**
+     * Register a task to be executed once, as soon as the memory usage goes back under the limit
+     */
+    void addResumeListener(Runnable listener) {
+        resumeListeners.add(listener);
+
+        // The memory might have been released before the listener was added
+        if (!isMemoryLimitReached()) {
+            notifyResumeListeners();
+        }
+    }
+
+    long currentUsage() {
+        return currentUsage.get();
+    }
+
+    long memoryLimit() {
+        return memoryLimit;
+    }
+
+    private void notifyResumeListeners() {
+        Runnable listener;
+        while ((listener = resumeListeners.poll()) != null) {
+            listener.run();
+        }
+    }
+}
@@ -60,15 +60,16 @@ public class MessageImpl implements Message {
 
     // Constructor for incoming message
     MessageImpl(MessageIdData messageId, MessageMetadata msgMetadata, ByteBuf payload, int partitionIndex,
-            ClientCnx cnx) {
+            ClientCnx cnx, boolean zeroCopyPayload) {
         this.msgMetadataBuilder = MessageMetadata.newBuilder(msgMetadata);
         this.messageId = new MessageIdImpl(messageId.getLedgerId(), messageId.getEntryId(), partitionIndex);
         this.cnx = cnx;
 
         // Need to make a copy since the passed payload is using a ref-count buffer that we don't know when could
         // release, since the Message is passed to the user. Also, the passed ByteBuf is coming from network and is
-        // backed by a direct buffer which we could not expose as a byte[]
-        this.payload = Unpooled.copiedBuffer(payload);
+        // backed by a direct buffer which we could not expose as a byte[]. In zero-copy mode, the consumer keeps the
+        // buffer retained until the message is acknowledged instead
+        this.payload = zeroCopyPayload ? payload.slice() : Unpooled.copiedBuffer(payload);
 
         if (msgMetadata.getPropertiesCount() > 0) {
             Map<String, String> properties = Maps.newTreeMap();
@@ -83,12 +84,18 @@ public class MessageImpl implements Message {
     }
 
     MessageImpl(BatchMessageIdImpl batchMessageIdImpl, MessageMetadata msgMetadata,
-            PulsarApi.SingleMessageMetadata singleMessageMetadata, ByteBuf payload, ClientCnx cnx) {
+            PulsarApi.SingleMessageMetadata singleMessageMetadata, ByteBuf payload, ClientCnx cnx,
+            boolean zeroCopyPayload) {
         this.msgMetadataBuilder = MessageMetadata.newBuilder(msgMetadata);
         this.messageId = batchMessageIdImpl;
         this.cnx = cnx;
 
-        this.payload = Unpooled.copiedBuffer(payload);
+        this.payload = zeroCopyPayload ? payload.slice() : Unpooled.copiedBuffer(payload);
+
+        if (singleMessageMetadata.hasPartitionKey()) {
+            // Each entry in a batch carries its own key, which takes precedence over the one of the batch
+            msgMetadataBuilder.setPartitionKey(singleMessageMetadata.getPartitionKey());
+        }
 
         if (singleMessageMetadata.getPropertiesCount() > 0) {
             Map<String, String> properties = Maps.newTreeMap();
@@ -155,16 +162,21 @@ public class MessageImpl implements Message {
 
     @Override
     public byte[] getData() {
-        if (payload.arrayOffset() == 0 && payload.capacity() == payload.array().length) {
+        if (payload.hasArray() && payload.arrayOffset() == 0 && payload.capacity() == payload.array().length) {
             return payload.array();
         } else {
-            // Need to copy into a smaller byte array
+            // Need to copy into a smaller byte array (or out of a direct buffer)
             byte[] data = new byte[payload.readableBytes()];
-            payload.readBytes(data);
+            payload.getBytes(payload.readerIndex(), data);
             return data;
         }
     }
 
+    @Override
+    public ByteBuffer getByteBuffer() {
+        return payload.nioBuffer().asReadOnlyBuffer();
+    }
+
     ByteBuf getDataBuffer() {
         return payload;
     }
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.impl;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.yahoo.pulsar.client.api.Message;
+import com.yahoo.pulsar.client.api.Messages;
+
+public class MessagesImpl implements Messages {
+
+    private final List<Message> messages;
+    private long sizeInBytes;
+
+    MessagesImpl() {
+        this.messages = Lists.newArrayList();
+        this.sizeInBytes = 0;
+    }
+
+    void add(Message message) {
+        messages.add(message);
+        sizeInBytes += getPayloadSize(message);
+    }
+
+    void addAll(List<Message> messages) {
+        for (Message message : messages) {
+            add(message);
+        }
+    }
+
+    @Override
+    public int size() {
+        return messages.size();
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    boolean isFull(int maxMessages, long maxBytes) {
+        return messages.size() >= maxMessages || sizeInBytes >= maxBytes;
+    }
+
+    @Override
+    public Iterator<Message> iterator() {
+        return Collections.unmodifiableList(messages).iterator();
+    }
+
+    static long getPayloadSize(Message message) {
+        return ((MessageImpl) message).getDataBuffer().readableBytes();
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.impl;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+
+/**
+ * Tracks the messages that were negatively acknowledged, to request their redelivery once their backoff delay has
+ * elapsed.
+ * <p>
+ * The delay doubles each time the same message gets negatively acknowledged, up to the configured maximum, and is
+ * reset once the message is acknowledged. All the messages whose delay elapsed within the same tick are redelivered
+ * with a single request.
+ * <p>
+ * On a shared subscription, a redelivered message can be dispatched to, and acknowledged by, another consumer. A
+ * message that was not negatively acknowledged again within the maximum delay after its redelivery is thus forgotten.
+ */
+class NegativeAcksTracker implements Closeable {
+
+    private final ConsumerBase consumer;
+    private final Timer timer;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final long tickDurationMillis;
+
+    // Deadline of the messages that are waiting to be redelivered
+    private final ConcurrentMap<MessageIdImpl, Long> pendingRedeliveries = new ConcurrentHashMap<>();
+    // Number of times each message was negatively acknowledged, until it gets acknowledged
+    private final ConcurrentMap<MessageIdImpl, Integer> negativeAcks = new ConcurrentHashMap<>();
+    // Deadline after which the redelivered messages are forgotten, unless they're negatively acknowledged again
+    private final ConcurrentMap<MessageIdImpl, Long> redelivered = new ConcurrentHashMap<>();
+
+    // Only scheduled while there are pending or redelivered messages
+    private Timeout timeout;
+
+    NegativeAcksTracker(ConsumerBase consumer, Timer timer, long minDelayMillis, long maxDelayMillis,
+            long tickDurationMillis) {
+        this.consumer = consumer;
+        this.timer = timer;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(minDelayMillis, maxDelayMillis));
+        this.tickDurationMillis = Math.min(tickDurationMillis, minDelayMillis);
+    }
+
+    void add(MessageIdImpl messageId) {
+        int count = negativeAcks.merge(messageId, 1, Integer::sum);
+        redelivered.remove(messageId);
+        // Clamp before shifting, so that the delay can't overflow
+        int shift = Math.min(count - 1, 30);
+        long delayNanos = minDelayNanos > (maxDelayNanos >> shift) ? maxDelayNanos : minDelayNanos << shift;
+        pendingRedeliveries.put(messageId, System.nanoTime() + delayNanos);
+        scheduleTimeout();
+    }
+
+    private synchronized void scheduleTimeout() {
+        if (timeout == null) {
+            timeout = timer.newTimeout(this::triggerRedelivery, tickDurationMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void triggerRedelivery(Timeout t) {
+        List<MessageIdImpl> messageIds = new ArrayList<>();
+        long now = System.nanoTime();
+        pendingRedeliveries.forEach((messageId, deadline) -> {
+            if (deadline - now <= 0 && pendingRedeliveries.remove(messageId, deadline)) {
+                messageIds.add(messageId);
+            }
+        });
+        redelivered.forEach((messageId, deadline) -> {
+            if (deadline - now <= 0 && redelivered.remove(messageId, deadline)) {
+                negativeAcks.remove(messageId);
+            }
+        });
+        messageIds.forEach(messageId -> redelivered.put(messageId, now + maxDelayNanos));
+
+        synchronized (this) {
+            if (t.isCancelled() || timeout != t) {
+                return;
+            }
+            timeout = pendingRedeliveries.isEmpty() && redelivered.isEmpty() ? null
+                    : timer.newTimeout(this::triggerRedelivery, tickDurationMillis, TimeUnit.MILLISECONDS);
+        }
+
+        if (!messageIds.isEmpty()) {
+            consumer.redeliverUnacknowledgedMessages(messageIds);
+        }
+    }
+
+    /**
+     * Forgets about an acknowledged message.
+     */
+    void remove(MessageIdImpl messageId) {
+        if (!negativeAcks.isEmpty()) {
+            // The messages are tracked per entry
+            MessageIdImpl entry = messageId instanceof BatchMessageIdImpl
+                    ? new MessageIdImpl(messageId.getLedgerId(), messageId.getEntryId(), messageId.getPartitionIndex())
+                    : messageId;
+            negativeAcks.remove(entry);
+            pendingRedeliveries.remove(entry);
+            redelivered.remove(entry);
+        }
+    }
+
+    /**
+     * Forgets about all the messages up to a cumulatively acknowledged message.
+     */
+    void removeMessagesTill(MessageIdImpl msgId) {
+        if (!negativeAcks.isEmpty()) {
+            negativeAcks.keySet().removeIf(m -> isAckedBy(m, msgId));
+            pendingRedeliveries.keySet().removeIf(m -> isAckedBy(m, msgId));
+            redelivered.keySet().removeIf(m -> isAckedBy(m, msgId));
+        }
+    }
+
+    private static boolean isAckedBy(MessageIdImpl m, MessageIdImpl msgId) {
+        return (m.getLedgerId() < msgId.getLedgerId()
+                || (m.getLedgerId() == msgId.getLedgerId() && m.getEntryId() <= msgId.getEntryId()))
+                && m.getPartitionIndex() == msgId.getPartitionIndex();
+    }
+
+    /**
+     * Drops the pending redeliveries, when all the unacknowledged messages are redelivered at once.
+     */
+    void clear() {
+        long forgetAt = System.nanoTime() + maxDelayNanos;
+        pendingRedeliveries.keySet().forEach(messageId -> {
+            if (pendingRedeliveries.remove(messageId) != null) {
+                redelivered.put(messageId, forgetAt);
+            }
+        });
+        if (!redelivered.isEmpty()) {
+            scheduleTimeout();
+        }
+    }
+
+    /**
+     * @return the number of messages whose negative acknowledgments are being counted
+     */
+    int size() {
+        return negativeAcks.size();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (timeout != null) {
+                timeout.cancel();
+                timeout = null;
+            }
+        }
+        pendingRedeliveries.clear();
+        redelivered.clear();
+        negativeAcks.clear();
+    }
+}
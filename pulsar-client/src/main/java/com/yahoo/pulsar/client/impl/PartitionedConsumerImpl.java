@@ -19,6 +19,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -26,15 +28,18 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.yahoo.pulsar.client.api.Consumer;
 import com.yahoo.pulsar.client.api.ConsumerConfiguration;
 import com.yahoo.pulsar.client.api.Message;
 import com.yahoo.pulsar.client.api.MessageId;
+import com.yahoo.pulsar.client.api.Messages;
 import com.yahoo.pulsar.client.api.PulsarClientException;
 import com.yahoo.pulsar.client.util.FutureUtil;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandAck.AckType;
@@ -42,10 +47,15 @@ import com.yahoo.pulsar.common.naming.DestinationName;
 
 public class PartitionedConsumerImpl extends ConsumerBase {
 
+    // How long to wait for space in the queue before letting the redeliveries in
+    private static final long ENQUEUE_WAIT_MILLIS = 10;
+
     private List<ConsumerImpl> consumers;
     private int numPartitions;
     private final ExecutorService internalListenerExecutor;
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // The message being handed over by the consumer of a partition, reset when its entry is given back for redelivery
+    private volatile Message pendingMessage;
     private final ConsumerStats stats;
 
     PartitionedConsumerImpl(PulsarClientImpl client, String topic, String subscription, ConsumerConfiguration conf,
@@ -68,9 +78,13 @@ public class PartitionedConsumerImpl extends ConsumerBase {
         for (int partitionIndex = 0; partitionIndex < numPartitions; partitionIndex++) {
             String partitionName = DestinationName.get(topic).getPartition(partitionIndex).toString();
             // use the same internal listener executor for all the partitions so that when the consumer queue is full
-            // all the partitions get blocked
+            // all the partitions get blocked. With a listener per partition, each partition gets its own ordered lane
+            // out of the listener threads instead
+            ExecutorService partitionListenerExecutor = isListenerPerPartition()
+                    ? client.externalExecutorProvider().getExecutor() : internalListenerExecutor;
             ConsumerImpl consumer = new ConsumerImpl(client, partitionName, subscription, internalConfig,
-                    internalListenerExecutor, partitionIndex, new CompletableFuture<Consumer>());
+                    partitionListenerExecutor, partitionIndex, new CompletableFuture<Consumer>());
+            consumer.setPartitionedConsumer(this);
             consumers.add(consumer);
             consumer.subscribeFuture().handle((cons, subscribeException) -> {
                 if (subscribeException != null) {
@@ -106,7 +120,7 @@ public class PartitionedConsumerImpl extends ConsumerBase {
 
     private void receiveMessages() throws PulsarClientException {
         for (ConsumerImpl consumer : consumers) {
-            consumer.receiveMessages(consumer.cnx(), conf.getReceiverQueueSize());
+            consumer.sendInitialFlow(consumer.cnx());
         }
     }
 
@@ -157,6 +171,31 @@ public class PartitionedConsumerImpl extends ConsumerBase {
         return result;
     }
 
+    @Override
+    protected void messagesProcessed(List<Message> messages) {
+        // No-op: the permits are managed by the consumer of each partition
+    }
+
+    @Override
+    public CompletableFuture<Void> acknowledgeAsync(Messages messages) {
+        if (state.get() != State.Ready) {
+            return FutureUtil.failedFuture(new PulsarClientException("Consumer already closed"));
+        }
+
+        // Hand over the acks to the consumer of each partition in bulk
+        Map<Integer, MessagesImpl> partitionMessages = Maps.newHashMap();
+        for (Message message : messages) {
+            int partitionIndex = ((MessageIdImpl) message.getMessageId()).getPartitionIndex();
+            partitionMessages.computeIfAbsent(partitionIndex, k -> new MessagesImpl()).add(message);
+        }
+
+        List<CompletableFuture<Void>> futures = Lists.newArrayListWithCapacity(partitionMessages.size());
+        partitionMessages.forEach((partitionIndex, msgs) -> {
+            futures.add(consumers.get(partitionIndex).acknowledgeAsync(msgs));
+        });
+        return FutureUtil.waitForAll(futures);
+    }
+
     @Override
     protected CompletableFuture<Void> doAcknowledge(MessageId messageId, AckType ackType) {
         checkArgument(messageId instanceof MessageIdImpl);
@@ -176,6 +215,12 @@ public class PartitionedConsumerImpl extends ConsumerBase {
 
     }
 
+    @Override
+    public void negativeAcknowledge(MessageId messageId) {
+        checkArgument(messageId instanceof MessageIdImpl);
+        consumers.get(((MessageIdImpl) messageId).getPartitionIndex()).negativeAcknowledge(messageId);
+    }
+
     @Override
     public CompletableFuture<Void> unsubscribeAsync() {
         if (state.get() == State.Closing || state.get() == State.Closed) {
@@ -215,6 +260,27 @@ public class PartitionedConsumerImpl extends ConsumerBase {
         return unsubscribeFuture;
     }
 
+    @Override
+    public CompletableFuture<Void> seekAsync(MessageId messageId) {
+        return FutureUtil.failedFuture(
+                new PulsarClientException("Seek by message id is not supported on partitioned topics"));
+    }
+
+    @Override
+    public CompletableFuture<Void> seekAsync(long timestamp) {
+        if (state.get() == State.Closing || state.get() == State.Closed) {
+            return FutureUtil.failedFuture(
+                    new PulsarClientException.AlreadyClosedException("Partitioned Consumer was already closed"));
+        }
+
+        // Each partition has its own position for a given publish time
+        List<CompletableFuture<Void>> futures = Lists.newArrayListWithCapacity(numPartitions);
+        for (ConsumerImpl consumer : consumers) {
+            futures.add(consumer.seekAsync(timestamp));
+        }
+        return FutureUtil.waitForAll(futures);
+    }
+
     @Override
     public CompletableFuture<Void> closeAsync() {
 
@@ -278,40 +344,40 @@ public class PartitionedConsumerImpl extends ConsumerBase {
     }
 
     void messageReceived(Message message) {
-
-        boolean shouldLock = false;
+        /**
+         * this method is thread-safe: as only 1 ConsumerImpl thread calls at a time. The message is only enqueued while
+         * holding the lock, so that it can't slip into the queue after its entry was given back for redelivery and its
+         * zero-copy payload released. Only wait briefly for space in the queue while holding the lock, so that a full
+         * queue doesn't block the redeliveries
+         */
+        pendingMessage = message;
         try {
-            /**
-             * this method is thread-safe: as only 1 ConsumerImpl thread calls at a time. Lock only if incomingMessages
-             * (blocking-queue) is not full: else put(..) will block thread and will hold lock which may create deadlock
-             */
-            shouldLock = !(incomingMessages.remainingCapacity() == 0);
-            if (shouldLock) {
+            while (true) {
                 lock.readLock().lock();
-            }
-            // if asyncReceive is waiting : return message to callback without adding to incomingMessages queue
-            if (!pendingReceives.isEmpty()) {
-                CompletableFuture<Message> receivedFuture = pendingReceives.poll();
-                listenerExecutor.execute(() -> receivedFuture.complete(message));
-                // unlock if it is already locked
-                if (shouldLock) {
-                    lock.readLock().unlock();
-                }
-            } else {
-                // Enqueue the message so that it can be retrieved when application calls receive()
-                // Waits for the queue to have space for the message
-                incomingMessages.put(message);
-                // unlock if it is already locked
-                if (shouldLock) {
+                try {
+                    if (pendingMessage == null || !isPayloadRetained(message)) {
+                        // The entry of the message is going to be delivered again
+                        return;
+                    }
+                    // if asyncReceive is waiting : return message to callback without adding to incomingMessages queue
+                    if (!pendingReceives.isEmpty()) {
+                        CompletableFuture<Message> receivedFuture = pendingReceives.poll();
+                        listenerExecutor.execute(() -> receivedFuture.complete(message));
+                        break;
+                    }
+                    // Enqueue the message so that it can be retrieved when application calls receive()
+                    if (incomingMessages.offer(message, ENQUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } finally {
                     lock.readLock().unlock();
                 }
             }
         } catch (InterruptedException e) {
-            // unlock if it is already locked
-            if (shouldLock) {
-                lock.readLock().unlock();
-            }
             Thread.currentThread().interrupt();
+            return;
+        } finally {
+            pendingMessage = null;
         }
 
         if (listener != null) {
@@ -320,11 +386,15 @@ public class PartitionedConsumerImpl extends ConsumerBase {
             listenerExecutor.execute(() -> {
                 Message msg;
                 try {
-                    msg = internalReceive();
+                    // The message may have been dropped from the queue for redelivery in the meantime
+                    msg = internalReceive(0, TimeUnit.MILLISECONDS);
                 } catch (PulsarClientException e) {
                     log.warn("[{}] [{}] Failed to dequeue the message for listener", topic, subscription, e);
                     return;
                 }
+                if (msg == null) {
+                    return;
+                }
 
                 try {
                     log.debug("[{}][{}] Calling message listener for message {}", topic, subscription, message);
@@ -337,6 +407,44 @@ public class PartitionedConsumerImpl extends ConsumerBase {
         }
     }
 
+    private boolean isPayloadRetained(Message message) {
+        if (!conf.isZeroCopyPayload()) {
+            return true;
+        }
+        MessageIdImpl messageId = (MessageIdImpl) message.getMessageId();
+        return consumers.get(messageId.getPartitionIndex()).isPayloadRetained(messageId);
+    }
+
+    /**
+     * Drops the messages of a partition whose entries are given back for redelivery, and releases their zero-copy
+     * payloads while no message of the partition can be enqueued.
+     *
+     * @param partitionIndex
+     *            the partition the entries belong to
+     * @param entries
+     *            the redelivered entries, or null when all the unacknowledged messages of the partition are redelivered
+     * @param releasePayloads
+     *            releases the buffers retained for the entries
+     */
+    void removeMessages(int partitionIndex, Set<MessageIdImpl> entries, Runnable releasePayloads) {
+        lock.writeLock().lock();
+        try {
+            Predicate<Message> redelivered = message -> {
+                MessageIdImpl messageId = (MessageIdImpl) message.getMessageId();
+                return messageId.getPartitionIndex() == partitionIndex && (entries == null || entries.contains(
+                        new MessageIdImpl(messageId.getLedgerId(), messageId.getEntryId(), partitionIndex)));
+            };
+            incomingMessages.removeIf(redelivered);
+            Message message = pendingMessage;
+            if (message != null && redelivered.test(message)) {
+                pendingMessage = null;
+            }
+            releasePayloads.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     @Override
     String getHandlerName() {
         return subscription;
@@ -345,20 +453,40 @@ public class PartitionedConsumerImpl extends ConsumerBase {
     private ConsumerConfiguration getInternalConsumerConfig() {
         ConsumerConfiguration internalConsumerConfig = new ConsumerConfiguration();
         internalConsumerConfig.setReceiverQueueSize(conf.getReceiverQueueSize());
+        internalConsumerConfig.setAutoScaledReceiverQueueSize(conf.isAutoScaledReceiverQueueSize());
         internalConsumerConfig.setSubscriptionType(conf.getSubscriptionType());
         internalConsumerConfig.setConsumerName(consumerName);
         if (conf.getAckTimeoutMillis() != 0) {
             internalConsumerConfig.setAckTimeout(conf.getAckTimeoutMillis(), TimeUnit.MILLISECONDS);
         }
-        internalConsumerConfig.setMessageListener((consumer, msg) -> {
-            if (msg != null) {
-                messageReceived(msg);
-            }
-        });
+        internalConsumerConfig.setTickDuration(conf.getTickDurationMillis(), TimeUnit.MILLISECONDS);
+        internalConsumerConfig.setNegativeAckRedeliveryDelay(conf.getNegativeAckRedeliveryDelayMillis(),
+                TimeUnit.MILLISECONDS);
+        internalConsumerConfig.setMaxNegativeAckRedeliveryDelay(conf.getMaxNegativeAckRedeliveryDelayMillis(),
+                TimeUnit.MILLISECONDS);
+        internalConsumerConfig.setZeroCopyPayload(conf.isZeroCopyPayload());
+        if (isListenerPerPartition()) {
+            // Deliver the messages straight to the application, bypassing the shared queue
+            internalConsumerConfig.setMessageListener((consumer, msg) -> {
+                if (msg != null) {
+                    listener.received(PartitionedConsumerImpl.this, msg);
+                }
+            });
+        } else {
+            internalConsumerConfig.setMessageListener((consumer, msg) -> {
+                if (msg != null) {
+                    messageReceived(msg);
+                }
+            });
+        }
 
         return internalConsumerConfig;
     }
 
+    private boolean isListenerPerPartition() {
+        return listener != null && conf.isListenerPerPartition();
+    }
+
     @Override
     public void redeliverUnacknowledgedMessages() {
         for (ConsumerImpl c : consumers) {
@@ -394,6 +522,19 @@ public class PartitionedConsumerImpl extends ConsumerBase {
         return state;
     }
 
+    /**
+     * helper method that returns whether all the buffers retained in zero-copy mode have been released
+     *
+     * @return true if all the retained buffers have been released
+     */
+    public boolean isRetainedPayloadsEmpty() {
+        boolean state = true;
+        for (ConsumerImpl consumer : consumers) {
+            state &= consumer.isRetainedPayloadsEmpty();
+        }
+        return state;
+    }
+
     List<ConsumerImpl> getConsumers() {
         return consumers;
     }
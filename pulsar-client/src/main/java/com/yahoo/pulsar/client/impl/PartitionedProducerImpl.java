@@ -18,14 +18,21 @@ package com.yahoo.pulsar.client.impl;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.yahoo.pulsar.client.api.Message;
 import com.yahoo.pulsar.client.api.MessageId;
 import com.yahoo.pulsar.client.api.MessageRouter;
@@ -35,31 +42,71 @@ import com.yahoo.pulsar.client.api.PulsarClientException;
 import com.yahoo.pulsar.client.util.FutureUtil;
 import com.yahoo.pulsar.common.naming.DestinationName;
 
+import io.netty.util.Timeout;
+
 public class PartitionedProducerImpl extends ProducerBase {
 
-    private List<ProducerImpl> producers;
+    // The producers of the partitions that can take messages. With lazy start, the producer of a partition is only
+    // set once it is connected, and it is reset when it gets closed for being idle
+    private final AtomicReferenceArray<ProducerImpl> producers;
     private int numPartitions;
     private MessageRouter routerPolicy;
     private final ProducerStats stats;
 
+    private final boolean lazyStart;
+    // With lazy start: the partition producers being connected, with the messages buffered in the meantime. Guarded by
+    // the partitioned producer mutex
+    private final Map<Integer, PendingPartitionProducer> pendingProducers;
+    // With lazy start: the last time a message was routed to each partition
+    private final AtomicLongArray lastUsedNanos;
+    private final long idleTimeoutNanos;
+    private volatile Timeout idleCheckTimeout = null;
+    // With lazy start: the totals of the partition producers closed for being idle
+    private final ProducerStats closedProducersStats;
+
     public PartitionedProducerImpl(PulsarClientImpl client, String topic, ProducerConfiguration conf, int numPartitions,
             CompletableFuture<Producer> producerCreatedFuture) {
         super(client, topic, conf, producerCreatedFuture);
-        this.producers = Lists.newArrayListWithCapacity(numPartitions);
+        this.producers = new AtomicReferenceArray<>(numPartitions);
         this.numPartitions = numPartitions;
         this.routerPolicy = conf.getMessageRouter(numPartitions);
+        this.lazyStart = conf.isLazyStartPartitionedProducers();
+        this.pendingProducers = lazyStart ? Maps.newHashMap() : null;
+        this.lastUsedNanos = lazyStart ? new AtomicLongArray(numPartitions) : null;
+        this.idleTimeoutNanos = lazyStart ? TimeUnit.MILLISECONDS.toNanos(conf.getPartitionProducerIdleTimeoutMs()) : 0;
         stats = client.getConfiguration().getStatsIntervalSeconds() > 0 ? new ProducerStats() : null;
-        start();
+        closedProducersStats = lazyStart && stats != null ? new ProducerStats() : null;
+        if (lazyStart) {
+            // The partition producers are created when the first message is routed to them
+            state.set(State.Ready);
+            if (idleTimeoutNanos > 0) {
+                scheduleIdleCheck();
+            }
+            producerCreatedFuture().complete(PartitionedProducerImpl.this);
+            log.info("[{}] Created partitioned producer with lazy start", topic);
+        } else {
+            start();
+        }
+    }
+
+    private ProducerImpl createPartitionProducer(int partitionIndex) {
+        String partitionName = DestinationName.get(topic).getPartition(partitionIndex).toString();
+        ProducerImpl producer = new ProducerImpl(client, partitionName, null, conf, new CompletableFuture<Producer>(),
+                partitionIndex);
+        if (routerPolicy instanceof StickyPartitionMessageRouterImpl) {
+            // Move on to the next partition once the batch of the current one is closed out
+            final StickyPartitionMessageRouterImpl stickyRouter = (StickyPartitionMessageRouterImpl) routerPolicy;
+            producer.setBatchCompletedListener(() -> stickyRouter.batchCompleted(partitionIndex));
+        }
+        return producer;
     }
 
     private void start() {
         AtomicReference<Throwable> createFail = new AtomicReference<Throwable>();
         AtomicInteger completed = new AtomicInteger();
         for (int partitionIndex = 0; partitionIndex < numPartitions; partitionIndex++) {
-            String partitionName = DestinationName.get(topic).getPartition(partitionIndex).toString();
-            ProducerImpl producer = new ProducerImpl(client, partitionName, null, conf,
-                    new CompletableFuture<Producer>(), partitionIndex);
-            producers.add(producer);
+            ProducerImpl producer = createPartitionProducer(partitionIndex);
+            producers.set(partitionIndex, producer);
             producer.producerCreatedFuture().handle((prod, createException) -> {
                 if (createException != null) {
                     state.set(State.Failed);
@@ -109,18 +156,208 @@ public class PartitionedProducerImpl extends ProducerBase {
         int partition = routerPolicy.choosePartition(message);
         checkArgument(partition >= 0 && partition < numPartitions,
                 "Illegal partition index chosen by the message routing policy");
+        if (lazyStart) {
+            return sendAsyncLazily(partition, message);
+        }
         return producers.get(partition).sendAsync(message);
     }
 
+    private CompletableFuture<MessageId> sendAsyncLazily(int partition, Message message) {
+        // The last usage is updated before looking up the producer, so that the idle check can tell whether a message
+        // was sent while it was closing the producer
+        lastUsedNanos.set(partition, System.nanoTime());
+        ProducerImpl producer = producers.get(partition);
+        if (producer != null) {
+            return producer.sendAsync(message);
+        }
+
+        PendingPartitionProducer pending;
+        synchronized (this) {
+            producer = producers.get(partition);
+            if (producer != null) {
+                pending = null;
+            } else {
+                if (state.get() == State.Closing || state.get() == State.Closed) {
+                    return FutureUtil
+                            .failedFuture(new PulsarClientException.AlreadyClosedException("Producer already closed"));
+                }
+
+                pending = pendingProducers.get(partition);
+                if (pending == null) {
+                    log.info("[{}] Creating producer for partition {}", topic, partition);
+                    pending = new PendingPartitionProducer(createPartitionProducer(partition));
+                    pendingProducers.put(partition, pending);
+                    final PendingPartitionProducer createdProducer = pending;
+                    pending.producer.producerCreatedFuture().handle((prod, createException) -> {
+                        partitionProducerCreated(partition, createdProducer, createException);
+                        return null;
+                    });
+                }
+            }
+        }
+        if (producer != null) {
+            return producer.sendAsync(message);
+        }
+
+        // The buffered messages are subject to the same limits as the messages queued by the partition producer. The
+        // admission may block, so it happens without holding the mutex
+        CompletableFuture<MessageId> future = new CompletableFuture<>();
+        if (!pending.reserve(message, future)) {
+            return future;
+        }
+
+        synchronized (this) {
+            if (pendingProducers.get(partition) == pending) {
+                // Buffer the message until the partition producer is connected
+                pending.messages.add(message);
+                pending.futures.add(future);
+                return future;
+            }
+        }
+
+        // The partition producer got connected, or failed to connect, in the meantime
+        pending.release(message);
+        return sendAsyncLazily(partition, message);
+    }
+
+    private void partitionProducerCreated(int partition, PendingPartitionProducer pending, Throwable createException) {
+        if (createException != null) {
+            List<CompletableFuture<MessageId>> futures;
+            synchronized (this) {
+                if (pendingProducers.get(partition) != pending) {
+                    // The partitioned producer was closed in the meantime
+                    return;
+                }
+                pendingProducers.remove(partition);
+                futures = pending.futures;
+                pending.releaseAll();
+            }
+            log.warn("[{}] Failed to create producer for partition {}: {}", topic, partition,
+                    createException.getMessage());
+            futures.forEach(future -> future.completeExceptionally(createException));
+            return;
+        }
+
+        // The buffered messages are sent from a separate thread, without holding the mutex, since sending may block
+        // when the producer queue is full
+        try {
+            client.producerFlushExecutor().execute(() -> flushPendingMessages(partition, pending));
+        } catch (RejectedExecutionException e) {
+            // The client is shutting down
+            List<CompletableFuture<MessageId>> futures;
+            synchronized (this) {
+                if (pendingProducers.get(partition) != pending) {
+                    // The partitioned producer was closed in the meantime
+                    return;
+                }
+                pendingProducers.remove(partition);
+                futures = pending.futures;
+                pending.releaseAll();
+            }
+            pending.producer.closeAsync();
+            futures.forEach(future -> future.completeExceptionally(new PulsarClientException(e)));
+        }
+    }
+
+    private void flushPendingMessages(int partition, PendingPartitionProducer pending) {
+        while (true) {
+            List<Message> messages;
+            List<CompletableFuture<MessageId>> futures;
+            synchronized (this) {
+                if (pendingProducers.get(partition) != pending) {
+                    // The partitioned producer was closed in the meantime
+                    return;
+                }
+
+                if (pending.messages.isEmpty()) {
+                    // All the buffered messages were handed over, in order: new messages can go straight to the
+                    // partition producer
+                    pendingProducers.remove(partition);
+                    producers.set(partition, pending.producer);
+                    return;
+                }
+
+                messages = pending.messages;
+                futures = pending.futures;
+                pending.messages = Lists.newArrayList();
+                pending.futures = Lists.newArrayList();
+            }
+
+            for (int i = 0; i < messages.size(); i++) {
+                CompletableFuture<MessageId> future = futures.get(i);
+                // The partition producer takes over the limits of the message
+                pending.release(messages.get(i));
+                pending.producer.sendAsync(messages.get(i)).handle((messageId, ex) -> {
+                    if (ex != null) {
+                        future.completeExceptionally(ex);
+                    } else {
+                        future.complete(messageId);
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private void scheduleIdleCheck() {
+        long periodNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), idleTimeoutNanos / 2);
+        idleCheckTimeout = client.timer().newTimeout(this::closeIdleProducers, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Close the partition producers that did not get any message during the idle timeout
+     */
+    private void closeIdleProducers(Timeout timeout) {
+        if (timeout.isCancelled() || state.get() == State.Closing || state.get() == State.Closed) {
+            return;
+        }
+
+        for (int partition = 0; partition < numPartitions; partition++) {
+            ProducerImpl producer = producers.get(partition);
+            if (producer == null || System.nanoTime() - lastUsedNanos.get(partition) < idleTimeoutNanos
+                    || producer.hasPendingMessages()) {
+                continue;
+            }
+
+            synchronized (this) {
+                if (producers.get(partition) != producer) {
+                    continue;
+                }
+                producers.set(partition, null);
+                if (System.nanoTime() - lastUsedNanos.get(partition) < idleTimeoutNanos) {
+                    // A message was routed to the partition in the meantime
+                    producers.set(partition, producer);
+                    continue;
+                }
+            }
+
+            log.info("[{}] Closing idle producer for partition {}", topic, partition);
+            producer.closeAsync().whenComplete((ok, ex) -> {
+                if (closedProducersStats != null) {
+                    // Keep the totals of the producer once it is closed
+                    closedProducersStats.updateTotalStats(producer.getStats());
+                }
+            });
+        }
+
+        scheduleIdleCheck();
+    }
+
     @Override
     public boolean isConnected() {
-        for (ProducerImpl producer : producers) {
+        for (int i = 0; i < numPartitions; i++) {
+            ProducerImpl producer = producers.get(i);
             // returns false if any of the partition is not connected
-            if (!producer.isConnected()) {
+            if (producer != null && !producer.isConnected()) {
                 return false;
             }
         }
 
+        if (lazyStart) {
+            synchronized (this) {
+                return pendingProducers.isEmpty();
+            }
+        }
         return true;
     }
 
@@ -131,10 +368,44 @@ public class PartitionedProducerImpl extends ProducerBase {
         }
         state.set(State.Closing);
 
+        Timeout timeout = idleCheckTimeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+
+        List<ProducerImpl> partitionProducers = Lists.newArrayListWithCapacity(numPartitions);
+        List<CompletableFuture<MessageId>> bufferedSends = Lists.newArrayList();
+        synchronized (this) {
+            for (int i = 0; i < numPartitions; i++) {
+                ProducerImpl producer = producers.get(i);
+                if (producer != null) {
+                    partitionProducers.add(producer);
+                }
+            }
+            if (lazyStart) {
+                pendingProducers.values().forEach(pending -> {
+                    partitionProducers.add(pending.producer);
+                    bufferedSends.addAll(pending.futures);
+                    pending.releaseAll();
+                });
+                // The flushes still queued find no pending producer and return right away
+                pendingProducers.clear();
+            }
+        }
+        bufferedSends.forEach(future -> future
+                .completeExceptionally(new PulsarClientException.AlreadyClosedException("Producer already closed")));
+
+        if (partitionProducers.isEmpty()) {
+            state.set(State.Closed);
+            log.info("[{}] Closed Partitioned Producer", topic);
+            client.cleanupProducer(this);
+            return CompletableFuture.completedFuture(null);
+        }
+
         AtomicReference<Throwable> closeFail = new AtomicReference<Throwable>();
-        AtomicInteger completed = new AtomicInteger(numPartitions);
+        AtomicInteger completed = new AtomicInteger(partitionProducers.size());
         CompletableFuture<Void> closeFuture = new CompletableFuture<>();
-        for (Producer producer : producers) {
+        for (Producer producer : partitionProducers) {
             if (producer != null) {
                 producer.closeAsync().handle((closed, ex) -> {
                     if (ex != null) {
@@ -169,11 +440,91 @@ public class PartitionedProducerImpl extends ProducerBase {
         }
         stats.reset();
         for (int i = 0; i < numPartitions; i++) {
-            stats.updateCumulativeStats(producers.get(i).getStats());
+            ProducerImpl producer = producers.get(i);
+            if (producer != null) {
+                stats.updateCumulativeStats(producer.getStats());
+            }
+        }
+        if (closedProducersStats != null) {
+            stats.updateTotalStats(closedProducersStats);
         }
         return stats;
     }
 
+    /**
+     * A partition producer that is being connected, with the messages routed to its partition in the meantime
+     */
+    private class PendingPartitionProducer {
+        final ProducerImpl producer;
+        List<Message> messages = Lists.newArrayList();
+        List<CompletableFuture<MessageId>> futures = Lists.newArrayList();
+        // Bounds the buffered messages to the size of the producer queue
+        final Semaphore semaphore = new Semaphore(conf.getMaxPendingMessages());
+
+        PendingPartitionProducer(ProducerImpl producer) {
+            this.producer = producer;
+        }
+
+        /**
+         * Reserve the room for a message in the producer queue and in the client memory budget, as the partition
+         * producer would
+         */
+        boolean reserve(Message message, CompletableFuture<MessageId> future) {
+            MemoryLimitController memoryLimitController = client.getMemoryLimitController();
+            boolean semaphoreAcquired = false;
+            try {
+                if (conf.getBlockIfQueueFull()) {
+                    semaphore.acquire();
+                } else if (!semaphore.tryAcquire()) {
+                    future.completeExceptionally(
+                            new PulsarClientException.ProducerQueueIsFullError("Producer send queue is full"));
+                    return false;
+                }
+                semaphoreAcquired = true;
+
+                if (memoryLimitController.isMemoryLimited()) {
+                    long messageSize = ((MessageImpl) message).getDataBuffer().readableBytes();
+                    if (conf.getBlockIfQueueFull() && !client.isListenerThread()) {
+                        memoryLimitController.reserveMemory(messageSize);
+                    } else if (!memoryLimitController.tryReserveMemory(messageSize)) {
+                        semaphore.release();
+                        future.completeExceptionally(
+                                new PulsarClientException.ProducerQueueIsFullError("Client memory limit reached"));
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (semaphoreAcquired) {
+                    semaphore.release();
+                }
+                future.completeExceptionally(new PulsarClientException(e));
+                return false;
+            }
+
+            return true;
+        }
+
+        void release(Message message) {
+            MemoryLimitController memoryLimitController = client.getMemoryLimitController();
+            if (memoryLimitController.isMemoryLimited()) {
+                memoryLimitController.releaseMemory(((MessageImpl) message).getDataBuffer().readableBytes());
+            }
+            semaphore.release();
+        }
+
+        /**
+         * Release the room of all the buffered messages, once the pending producer was given up. Called with the
+         * partitioned producer mutex held
+         */
+        void releaseAll() {
+            messages.forEach(this::release);
+            messages.clear();
+            // The senders blocked on the admission find the pending producer gone and hand the permit back in turn
+            semaphore.release();
+        }
+    }
+
     private static final Logger log = LoggerFactory.getLogger(PartitionedProducerImpl.class);
 
     @Override
@@ -25,23 +25,32 @@ import java.io.IOException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
 import com.yahoo.pulsar.client.api.CompressionType;
 import com.yahoo.pulsar.client.api.Message;
 import com.yahoo.pulsar.client.api.MessageId;
 import com.yahoo.pulsar.client.api.Producer;
 import com.yahoo.pulsar.client.api.ProducerConfiguration;
+import com.yahoo.pulsar.client.api.ProducerConfiguration.BatchingMode;
 import com.yahoo.pulsar.client.api.PulsarClientException;
 import com.yahoo.pulsar.common.api.Commands;
 import com.yahoo.pulsar.common.api.Commands.ChecksumType;
@@ -68,13 +77,25 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
     @SuppressWarnings("unused")
     private volatile long msgIdGenerator = 0;
 
+    // Messages handed over by the application threads, not yet assigned a sequence id. The queue is drained, holding
+    // the producer mutex, in the connection event loop (or in the sender thread while not connected)
+    private final Queue<OpSendMsg> sendQueue;
+    // Variable is used through the atomic updater
+    @SuppressWarnings("unused")
+    private volatile int drainScheduled = 0;
+
+    // Messages with a sequence id, waiting for the broker receipt. When connected, it is only updated from the
+    // connection event loop
     private final BlockingQueue<OpSendMsg> pendingMessages;
-    private final BlockingQueue<OpSendMsg> pendingCallbacks;
     private final Semaphore semaphore;
     private volatile Timeout sendTimeout = null;
     private long createProducerTimeout;
     private final int maxNumMessagesInBatch;
     private final BatchMessageContainer batchMessageContainer;
+    // With key based batching: the open batch of each key, in least recently used order
+    private final LinkedHashMap<String, BatchMessageContainer> keyedBatchMessageContainers;
+    // Invoked, holding the producer mutex, each time a batch is closed out
+    private volatile Runnable batchCompletedListener = null;
 
     // Globally unique producer name
     private String producerName;
@@ -89,6 +110,8 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
 
     private static final AtomicLongFieldUpdater<ProducerImpl> msgIdGeneratorUpdater = AtomicLongFieldUpdater
             .newUpdater(ProducerImpl.class, "msgIdGenerator");
+    private static final AtomicIntegerFieldUpdater<ProducerImpl> drainScheduledUpdater = AtomicIntegerFieldUpdater
+            .newUpdater(ProducerImpl.class, "drainScheduled");
 
     public ProducerImpl(PulsarClientImpl client, String topic, String producerName, ProducerConfiguration conf,
             CompletableFuture<Producer> producerCreatedFuture, int partitionIndex) {
@@ -96,11 +119,12 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
         this.producerId = client.newProducerId();
         this.producerName = producerName;
         this.partitionIndex = partitionIndex;
+        this.sendQueue = Queues.newConcurrentLinkedQueue();
         this.pendingMessages = Queues.newArrayBlockingQueue(conf.getMaxPendingMessages());
-        this.pendingCallbacks = Queues.newArrayBlockingQueue(conf.getMaxPendingMessages());
-        this.semaphore = new Semaphore(conf.getMaxPendingMessages(), true);
-        this.compressor = CompressionCodecProvider
-                .getCompressionCodec(convertCompressionType(conf.getCompressionType()));
+        // Permits are not handed over in FIFO order: the ordering is given by the send queue
+        this.semaphore = new Semaphore(conf.getMaxPendingMessages(), false);
+        this.compressor = CompressionCodecProvider.getCompressionCodec(
+                convertCompressionType(conf.getCompressionType()), conf.getZstdCompressionLevel());
 
         if (conf.getSendTimeoutMs() > 0) {
             sendTimeout = client.timer().newTimeout(this, conf.getSendTimeoutMs(), TimeUnit.MILLISECONDS);
@@ -109,11 +133,17 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
         this.createProducerTimeout = System.currentTimeMillis() + client.getConfiguration().getOperationTimeoutMs();
         if (conf.getBatchingEnabled()) {
             this.maxNumMessagesInBatch = conf.getBatchingMaxMessages();
-            this.batchMessageContainer = new BatchMessageContainer(maxNumMessagesInBatch,
-                    convertCompressionType(conf.getCompressionType()), topic, producerName);
+            if (conf.getBatchingMode() == BatchingMode.KeyBased) {
+                this.batchMessageContainer = null;
+                this.keyedBatchMessageContainers = new LinkedHashMap<>(16, 0.75f, true);
+            } else {
+                this.batchMessageContainer = newBatchMessageContainer();
+                this.keyedBatchMessageContainers = null;
+            }
         } else {
             this.maxNumMessagesInBatch = 1;
             this.batchMessageContainer = null;
+            this.keyedBatchMessageContainers = null;
         }
         if (client.getConfiguration().getStatsIntervalSeconds() > 0) {
             stats = new ProducerStats(client, conf, this);
@@ -127,10 +157,83 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
         return conf.getBatchingEnabled();
     }
 
+    /**
+     * Registers a listener notified each time a batch is closed out, either because it's full or because the batching
+     * publish delay elapsed. The listener is invoked holding the producer mutex and must not block.
+     */
+    void setBatchCompletedListener(Runnable batchCompletedListener) {
+        this.batchCompletedListener = batchCompletedListener;
+    }
+
+    private BatchMessageContainer newBatchMessageContainer() {
+        return new BatchMessageContainer(maxNumMessagesInBatch, conf.getBatchingMaxBytes(),
+                conf.getBatchingMode() == BatchingMode.KeyBased, convertCompressionType(conf.getCompressionType()),
+                compressor, topic, producerName);
+    }
+
+    /**
+     * Returns the batch the message should be added to. With key based batching, when a new key comes in and the
+     * maximum number of open batches is reached, the batch of the least recently used key is closed out first. This
+     * method should be called from within the ProducerImpl object mutex.
+     */
+    private BatchMessageContainer getBatchMessageContainer(MessageImpl msg) {
+        if (keyedBatchMessageContainers == null) {
+            return batchMessageContainer;
+        }
+
+        String key = msg.hasKey() ? msg.getKey() : "";
+        BatchMessageContainer container = keyedBatchMessageContainers.get(key);
+        if (container == null) {
+            if (keyedBatchMessageContainers.size() >= conf.getBatchingMaxKeys()) {
+                Iterator<BatchMessageContainer> lruContainers = keyedBatchMessageContainers.values().iterator();
+                BatchMessageContainer lruContainer = lruContainers.next();
+                lruContainers.remove();
+                batchMessageAndSendInOrder(lruContainer);
+            }
+            container = newBatchMessageContainer();
+            keyedBatchMessageContainers.put(key, container);
+        }
+        return container;
+    }
+
+    /**
+     * Returns the batches with messages, ordered by the sequence id of their first message. This method should be
+     * called from within the ProducerImpl object mutex.
+     */
+    private List<BatchMessageContainer> getOpenBatchMessageContainers() {
+        if (keyedBatchMessageContainers == null) {
+            if (batchMessageContainer.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(batchMessageContainer);
+        }
+
+        List<BatchMessageContainer> containers = Lists.newArrayList();
+        for (BatchMessageContainer container : keyedBatchMessageContainers.values()) {
+            if (!container.isEmpty()) {
+                containers.add(container);
+            }
+        }
+        containers.sort(Comparator.comparingLong(container -> container.sequenceId));
+        return containers;
+    }
+
     @Override
     public CompletableFuture<MessageId> sendAsync(Message message) {
+        checkArgument(message instanceof MessageImpl);
         CompletableFuture<MessageId> future = new CompletableFuture<>();
 
+        final MemoryLimitController memoryLimitController = client.getMemoryLimitController();
+        if (memoryLimitController.isMemoryLimited()) {
+            final long messageSize = ((MessageImpl) message).getDataBuffer().readableBytes();
+            if (!reserveMemory(memoryLimitController, messageSize, future)) {
+                return future;
+            }
+
+            // Every send operation ends up completing its future, including the messages added to a batch
+            future.whenComplete((msgId, ex) -> memoryLimitController.releaseMemory(messageSize));
+        }
+
         sendAsync(message, new SendCallback() {
             SendCallback nextCallback = null;
             long createdAt = System.nanoTime();
@@ -203,70 +306,186 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
         if (!msg.isReplicated() && msgMetadata.hasProducerName()) {
             callback.sendComplete(new PulsarClientException.InvalidMessageException("Cannot re-use the same message"));
             compressedPayload.release();
+            semaphore.release();
             return;
         }
 
-        try {
-            synchronized (this) {
-                long sequenceId = msgIdGeneratorUpdater.getAndIncrement(this);
-                if (!msgMetadata.hasPublishTime()) {
-                    msgMetadata.setPublishTime(System.currentTimeMillis());
+        if (!msgMetadata.hasPublishTime()) {
+            msgMetadata.setPublishTime(System.currentTimeMillis());
 
-                    checkArgument(!msgMetadata.hasProducerName());
-                    checkArgument(!msgMetadata.hasSequenceId());
+            checkArgument(!msgMetadata.hasProducerName());
+            checkArgument(!msgMetadata.hasSequenceId());
 
-                    msgMetadata.setProducerName(producerName);
+            // The sequence id is assigned when the message is taken out of the send queue
+            msgMetadata.setProducerName(producerName);
+            if (conf.getCompressionType() != CompressionType.NONE) {
+                msgMetadata.setCompression(convertCompressionType(conf.getCompressionType()));
+                msgMetadata.setUncompressedSize(uncompressedSize);
+            }
+        }
+
+        // Hand over the message to the send queue without taking the producer mutex. The batch payload is kept
+        // uncompressed until the batch is closed
+        sendQueue.offer(OpSendMsg.createQueued(msg, compressedPayload, callback));
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled == 0 && drainScheduledUpdater.compareAndSet(this, 0, 1)) {
+            ClientCnx cnx = cnx();
+            if (cnx != null && isConnected()) {
+                try {
+                    cnx.ctx().channel().eventLoop().execute(drainTask);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // The connection event loop is shutting down
+                }
+            }
+
+            // While not connected, the messages are moved to the pending queue from the sender thread, so that the
+            // send timeout covers them
+            drainTask.run();
+        }
+    }
+
+    private final Runnable drainTask = () -> {
+        // Reset the flag before draining, so that any message queued after this point triggers a new drain
+        drainScheduledUpdater.set(this, 0);
+        flushSendQueue(false);
+    };
+
+    /**
+     * Drains the send queue and, if requested, closes out the current batch. When the producer is connected, this has
+     * to happen in the connection event loop: the messages are then written in sequence id order and flushed at once.
+     */
+    private void flushSendQueue(boolean closeBatch) {
+        ClientCnx cnx = cnx();
+        if (cnx != null && isConnected() && !cnx.ctx().channel().eventLoop().inEventLoop()) {
+            cnx.ctx().channel().eventLoop().execute(() -> flushSendQueue(closeBatch));
+            return;
+        }
+
+        synchronized (this) {
+            cnx = cnx();
+            boolean connected = cnx != null && isConnected();
+            if (connected && !cnx.ctx().channel().eventLoop().inEventLoop()) {
+                // The connection got ready in the meantime
+                cnx.ctx().channel().eventLoop().execute(() -> flushSendQueue(closeBatch));
+                return;
+            }
+
+            if (state.get() == State.Closing || state.get() == State.Closed) {
+                failQueuedMessages(new PulsarClientException.AlreadyClosedException("Producer already closed"));
+                return;
+            }
+
+            drainSendQueue();
+            if (closeBatch) {
+                batchMessageAndSend();
+            }
+
+            if (connected) {
+                cnx.ctx().flush();
+            }
+        }
+    }
+
+    /**
+     * Assigns the sequence ids to the queued messages, in queue order, and moves them to the pending messages (through
+     * the batch container when batching is enabled). This method should be called from within the ProducerImpl object
+     * mutex.
+     */
+    private void drainSendQueue() {
+        OpSendMsg queuedOp;
+        while ((queuedOp = sendQueue.poll()) != null) {
+            MessageImpl msg = queuedOp.msg;
+            SendCallback callback = queuedOp.callback;
+            ByteBuf payload = queuedOp.payload;
+            queuedOp.recycle();
+
+            try {
+                MessageMetadata.Builder msgMetadata = msg.getMessageBuilder();
+                long sequenceId = msgIdGeneratorUpdater.getAndIncrement(this);
+                if (!msgMetadata.hasSequenceId()) {
                     msgMetadata.setSequenceId(sequenceId);
-                    if (conf.getCompressionType() != CompressionType.NONE) {
-                        msgMetadata.setCompression(convertCompressionType(conf.getCompressionType()));
-                        msgMetadata.setUncompressedSize(uncompressedSize);
-                    }
                 }
 
                 if (isBatchMessagingEnabled()) {
                     // handle boundary cases where message being added would exceed
                     // batch size and/or max message size
-                    if (batchMessageContainer.hasSpaceInBatch(msg)) {
-                        batchMessageContainer.add(msg, callback);
+                    BatchMessageContainer container = getBatchMessageContainer(msg);
+                    if (container.hasSpaceInBatch(msg)) {
+                        container.add(msg, callback);
                         payload.release();
-                        if (batchMessageContainer.numMessagesInBatch == maxNumMessagesInBatch
-                                || batchMessageContainer.currentBatchSizeBytes >= BatchMessageContainer.MAX_MESSAGE_BATCH_SIZE_BYTES) {
-                            batchMessageAndSend();
+                        if (container.isFull()) {
+                            batchMessageAndSendInOrder(container);
                         }
                     } else {
-                        doBatchSendAndAdd(msg, callback, payload);
+                        doBatchSendAndAdd(container, msg, callback, payload);
                     }
                 } else {
-                    ByteBuf cmd = sendMessage(producerId, sequenceId, 1, msgMetadata.build(), compressedPayload);
+                    ByteBuf cmd = sendMessage(producerId, sequenceId, 1, msgMetadata.build(), payload);
                     msgMetadata.recycle();
 
                     final OpSendMsg op = OpSendMsg.create(msg, cmd, sequenceId, callback);
                     op.setNumMessagesInBatch(1);
                     op.setBatchSizeByte(payload.readableBytes());
-                    pendingMessages.put(op);
-
-                    if (isConnected()) {
-                        // If we do have a connection, the message is sent immediately, otherwise we'll try again once a
-                        // new
-                        // connection is established
-                        cmd.retain();
-                        cnx().ctx().channel().eventLoop().execute(WriteInEventLoopCallback.create(this, cnx(), op));
-                        stats.updateNumMsgsSent(op.numMessagesInBatch, op.batchSizeByte);
-                    } else {
-                        if (log.isDebugEnabled()) {
-                            log.debug("[{}] [{}] Connection is not ready -- sequenceId {}", topic, producerName,
-                                    sequenceId);
-                        }
-                    }
+                    sendOp(op);
                 }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                semaphore.release();
+                callback.sendComplete(new PulsarClientException(ie));
+            } catch (Throwable t) {
+                semaphore.release();
+                callback.sendComplete(new PulsarClientException(t));
             }
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            semaphore.release();
-            callback.sendComplete(new PulsarClientException(ie));
-        } catch (Throwable t) {
+        }
+    }
+
+    /**
+     * Adds the message to the pending queue and writes it on the connection, if there is one. The caller is
+     * responsible for flushing the connection. This method should be called from within the ProducerImpl object mutex.
+     */
+    private void sendOp(OpSendMsg op) throws InterruptedException {
+        pendingMessages.put(op);
+
+        ClientCnx cnx = cnx();
+        if (cnx != null && isConnected()) {
+            // If we do have a connection, the message is sent immediately, otherwise we'll try again once a new
+            // connection is established
+            op.cmd.retain();
+            if (cnx.ctx().channel().eventLoop().inEventLoop()) {
+                cnx.ctx().write(op.cmd, cnx.ctx().voidPromise());
+            } else {
+                cnx.ctx().channel().eventLoop().execute(WriteInEventLoopCallback.create(this, cnx, op));
+            }
+            stats.updateNumMsgsSent(op.numMessagesInBatch, op.batchSizeByte);
+        } else {
+            if (log.isDebugEnabled()) {
+                log.debug("[{}] [{}] Connection is not ready -- sequenceId {}", topic, producerName, op.sequenceId);
+            }
+        }
+    }
+
+    /**
+     * Fails the messages that were not taken out of the send queue yet. This method should be called from within the
+     * ProducerImpl object mutex.
+     */
+    private void failQueuedMessages(PulsarClientException ex) {
+        OpSendMsg op;
+        while ((op = sendQueue.poll()) != null) {
             semaphore.release();
-            callback.sendComplete(new PulsarClientException(t));
+            try {
+                // Need to protect ourselves from any exception being thrown in the future handler from the
+                // application
+                op.callback.sendComplete(ex);
+            } catch (Throwable t) {
+                log.warn("[{}] [{}] Got exception while completing the callback for a queued msg:", topic,
+                        producerName, t);
+            }
+            ReferenceCountUtil.safeRelease(op.payload);
+            op.recycle();
         }
     }
 
@@ -282,13 +501,14 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
         return Commands.newSend(producerId, sequenceId, numMessages, checksumType, msgMetadata, compressedPayload);
     }
 
-    private void doBatchSendAndAdd(MessageImpl msg, SendCallback callback, ByteBuf payload) {
+    private void doBatchSendAndAdd(BatchMessageContainer container, MessageImpl msg, SendCallback callback,
+            ByteBuf payload) {
         if (log.isDebugEnabled()) {
             log.debug("[{}] [{}] Closing out batch to accomodate large message with size {}", topic, producerName,
                     msg.getDataBuffer().readableBytes());
         }
-        batchMessageAndSend();
-        batchMessageContainer.add(msg, callback);
+        batchMessageAndSendInOrder(container);
+        container.add(msg, callback);
         payload.release();
     }
 
@@ -311,6 +531,32 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
         }
     }
 
+    /**
+     * Reserve the memory for a message in the client memory budget, shared with all the other producers and consumers
+     */
+    private boolean reserveMemory(MemoryLimitController memoryLimitController, long messageSize,
+            CompletableFuture<MessageId> future) {
+        try {
+            // The memory held by the received messages is only released as the listener threads process them, so
+            // blocking one of these threads, e.g. from a message listener, could wait forever
+            if (conf.getBlockIfQueueFull() && !client.isListenerThread()) {
+                memoryLimitController.reserveMemory(messageSize);
+            } else if (!memoryLimitController.tryReserveMemory(messageSize)) {
+                stats.incrementSendFailed();
+                future.completeExceptionally(
+                        new PulsarClientException.ProducerQueueIsFullError("Client memory limit reached"));
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stats.incrementSendFailed();
+            future.completeExceptionally(new PulsarClientException(e));
+            return false;
+        }
+
+        return true;
+    }
+
     private boolean canEnqueueRequest(SendCallback callback) {
         try {
             if (conf.getBlockIfQueueFull()) {
@@ -392,6 +638,7 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
                 client.cleanupProducer(this);
                 pendingMessages.forEach(msg -> msg.cmd.release());
                 pendingMessages.clear();
+                failQueuedMessages(new PulsarClientException.AlreadyClosedException("Producer already closed"));
             }
 
             return CompletableFuture.completedFuture(null);
@@ -423,6 +670,7 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
                     state.set(State.Closed);
                     pendingMessages.forEach(msg -> msg.cmd.release());
                     pendingMessages.clear();
+                    failQueuedMessages(new PulsarClientException.AlreadyClosedException("Producer already closed"));
                 }
 
                 closeFuture.complete(null);
@@ -448,8 +696,7 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
     }
 
     void ackReceived(ClientCnx cnx, long sequenceId, long ledgerId, long entryId) {
-        OpSendMsg op = null;
-        boolean callback = false;
+        OpSendMsg op;
         synchronized (this) {
             op = pendingMessages.peek();
             if (op == null) {
@@ -465,39 +712,36 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
                         expectedSequenceId, sequenceId, pendingMessages.size());
                 // Force connection closing so that messages can be retransmitted in a new connection
                 cnx.channel().close();
+                return;
             } else if (sequenceId < expectedSequenceId) {
                 // Ignoring the ack since it's referring to a message that has already timed out.
                 if (log.isDebugEnabled()) {
                     log.debug("[{}] [{}] Got ack for timed out msg {} last-seq: {}", topic, producerName, sequenceId,
                             expectedSequenceId);
                 }
-            } else {
-                // Message was persisted correctly
-                if (log.isDebugEnabled()) {
-                    log.debug("[{}] [{}] Received ack for msg {} ", topic, producerName, sequenceId);
-                }
-                pendingMessages.remove();
-                semaphore.release(op.numMessagesInBatch);
-                callback = true;
-                pendingCallbacks.add(op);
+                return;
             }
-        }
-        if (callback) {
-            op = pendingCallbacks.poll();
-            if (op != null) {
-                op.setMessageId(ledgerId, entryId, partitionIndex);
-                try {
-                    // Need to protect ourselves from any exception being thrown in the future handler from the
-                    // application
-                    op.callback.sendComplete(null);
-                } catch (Throwable t) {
-                    log.warn("[{}] [{}] Got exception while completing the callback for msg {}:", topic, producerName,
-                            sequenceId, t);
-                }
-                ReferenceCountUtil.safeRelease(op.cmd);
-                op.recycle();
+
+            // Message was persisted correctly
+            if (log.isDebugEnabled()) {
+                log.debug("[{}] [{}] Received ack for msg {} ", topic, producerName, sequenceId);
             }
+            pendingMessages.remove();
+            semaphore.release(op.numMessagesInBatch);
         }
+
+        // The operation is no longer reachable from the producer: complete it without holding the mutex
+        op.setMessageId(ledgerId, entryId, partitionIndex);
+        try {
+            // Need to protect ourselves from any exception being thrown in the future handler from the
+            // application
+            op.callback.sendComplete(null);
+        } catch (Throwable t) {
+            log.warn("[{}] [{}] Got exception while completing the callback for msg {}:", topic, producerName,
+                    sequenceId, t);
+        }
+        ReferenceCountUtil.safeRelease(op.cmd);
+        op.recycle();
     }
 
     /**
@@ -599,6 +843,8 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
         MessageImpl msg;
         List<MessageImpl> msgs;
         ByteBuf cmd;
+        // Message payload, while the op is in the send queue
+        ByteBuf payload;
         SendCallback callback;
         long sequenceId;
         long createdAt;
@@ -615,6 +861,15 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
             return op;
         }
 
+        static OpSendMsg createQueued(MessageImpl msg, ByteBuf payload, SendCallback callback) {
+            OpSendMsg op = RECYCLER.get();
+            op.msg = msg;
+            op.payload = payload;
+            op.callback = callback;
+            op.createdAt = System.currentTimeMillis();
+            return op;
+        }
+
         static OpSendMsg create(List<MessageImpl> msgs, ByteBuf cmd, long sequenceId, SendCallback callback) {
             OpSendMsg op = RECYCLER.get();
             op.msgs = msgs;
@@ -629,6 +884,7 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
             msg = null;
             msgs = null;
             cmd = null;
+            payload = null;
             callback = null;
             sequenceId = -1;
             createdAt = -1;
@@ -778,6 +1034,9 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
                         log.debug("[{}] [{}] No pending messages to resend {}", topic, producerName, messagesToResend);
                     }
                     if (changeToReadyState()) {
+                        // Send the messages that were queued while the connection was not ready
+                        drainSendQueue();
+                        cnx.ctx().flush();
                         producerCreatedFuture.complete(ProducerImpl.this);
                         return;
                     } else {
@@ -806,13 +1065,15 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
                     stats.updateNumMsgsSent(op.numMessagesInBatch, op.batchSizeByte);
                 }
 
-                cnx.ctx().flush();
                 if (!changeToReadyState()) {
                     // Producer was closed while reconnecting, close the connection to make sure the broker
                     // drops the producer on its side
+                    cnx.ctx().flush();
                     cnx.channel().close();
                     return;
                 }
+                drainSendQueue();
+                cnx.ctx().flush();
             }
         });
     }
@@ -888,6 +1149,10 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
 
         synchronized (this) {
             OpSendMsg firstMsg = pendingMessages.peek();
+            if (firstMsg == null) {
+                // The messages still in the send queue, e.g. while the producer is not connected, time out as well
+                firstMsg = sendQueue.peek();
+            }
             if (firstMsg == null) {
                 // If there are no pending messages, reset the timeout to the configured value.
                 timeToWaitMs = conf.getSendTimeoutMs();
@@ -899,7 +1164,7 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
                     // The diff is less than or equal to zero, meaning that the message has been timed out.
                     // Set the callback to timeout on every message, then clear the pending queue.
                     log.info("[{}] [{}] Message send timed out. Failing {} messages", topic, producerName,
-                            pendingMessages.size());
+                            pendingMessages.size() + sendQueue.size());
 
                     PulsarClientException te = new PulsarClientException.TimeoutException(
                             "Could not send message to broker within given timeout");
@@ -938,10 +1203,10 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
             });
             semaphore.release(releaseCount.get());
             pendingMessages.clear();
-            pendingCallbacks.clear();
             if (isBatchMessagingEnabled()) {
                 failPendingBatchMessages(ex);
             }
+            failQueuedMessages(ex);
         } else {
             // If we have a connection, we schedule the callback and recycle on the event loop thread to avoid any
             // race condition since we also write the message on the socket from this thread
@@ -958,20 +1223,22 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
      *
      */
     private void failPendingBatchMessages(PulsarClientException ex) {
-        if (batchMessageContainer.isEmpty()) {
-            return;
+        for (BatchMessageContainer container : getOpenBatchMessageContainers()) {
+            int numMessagesInBatch = container.numMessagesInBatch;
+            semaphore.release(numMessagesInBatch);
+            try {
+                // Need to protect ourselves from any exception being thrown in the future handler from the application
+                container.firstCallback.sendComplete(ex);
+            } catch (Throwable t) {
+                log.warn("[{}] [{}] Got exception while completing the callback for msg {}:", topic, producerName,
+                        container.sequenceId, t);
+            }
+            ReferenceCountUtil.safeRelease(container.getBatchedSingleMessageMetadataAndPayload());
+            container.clear();
         }
-        int numMessagesInBatch = batchMessageContainer.numMessagesInBatch;
-        semaphore.release(numMessagesInBatch);
-        try {
-            // Need to protect ourselves from any exception being thrown in the future handler from the application
-            batchMessageContainer.firstCallback.sendComplete(ex);
-        } catch (Throwable t) {
-            log.warn("[{}] [{}] Got exception while completing the callback for msg {}:", topic, producerName,
-                    batchMessageContainer.sequenceId, t);
+        if (keyedBatchMessageContainers != null) {
+            keyedBatchMessageContainers.clear();
         }
-        ReferenceCountUtil.safeRelease(batchMessageContainer.getBatchedSingleMessageMetadataAndPayload());
-        batchMessageContainer.clear();
     }
 
     TimerTask batchMessageAndSendTask = new TimerTask() {
@@ -986,51 +1253,66 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
                         producerName);
             }
             // semaphore acquired when message was enqueued to container
-            synchronized (ProducerImpl.this) {
-                batchMessageAndSend();
-            }
+            flushSendQueue(true);
             // schedule the next batch message task
             client.timer().newTimeout(this, conf.getBatchingMaxPublishDelayMs(), TimeUnit.MILLISECONDS);
         }
     };
 
-    // must acquire semaphore before enqueuing
+    // close out all the open batches, in sequence order. Must hold the producer mutex
     private void batchMessageAndSend() {
+        for (BatchMessageContainer container : getOpenBatchMessageContainers()) {
+            batchMessageAndSend(container);
+        }
+        if (keyedBatchMessageContainers != null) {
+            // Keys are only kept while they have an open batch
+            keyedBatchMessageContainers.clear();
+        }
+    }
+
+    // close out a batch after the open batches of other keys holding older messages, so that the sequence ids reach
+    // the broker in order. Must hold the producer mutex
+    private void batchMessageAndSendInOrder(BatchMessageContainer container) {
+        if (keyedBatchMessageContainers != null && !container.isEmpty()) {
+            for (BatchMessageContainer olderContainer : getOpenBatchMessageContainers()) {
+                if (olderContainer.sequenceId >= container.sequenceId) {
+                    break;
+                }
+                batchMessageAndSend(olderContainer);
+            }
+        }
+        batchMessageAndSend(container);
+    }
+
+    // must acquire semaphore before enqueuing, and hold the producer mutex
+    private void batchMessageAndSend(BatchMessageContainer container) {
         if (log.isDebugEnabled()) {
             log.debug("[{}] [{}] Batching the messages from the batch container with {} messages", topic, producerName,
-                    batchMessageContainer.numMessagesInBatch);
+                    container.numMessagesInBatch);
         }
         OpSendMsg op = null;
         int numMessagesInBatch = 0;
         try {
-            if (!batchMessageContainer.isEmpty()) {
-                numMessagesInBatch = batchMessageContainer.numMessagesInBatch;
-                ByteBuf compressedPayload = batchMessageContainer.getCompressedBatchMetadataAndPayload();
-                long sequenceId = batchMessageContainer.sequenceId;
-                ByteBuf cmd = sendMessage(producerId, sequenceId, batchMessageContainer.numMessagesInBatch,
-                        batchMessageContainer.setBatchAndBuild(), compressedPayload);
+            if (!container.isEmpty()) {
+                numMessagesInBatch = container.numMessagesInBatch;
+                ByteBuf compressedPayload = container.getCompressedBatchMetadataAndPayload();
+                long sequenceId = container.sequenceId;
+                ByteBuf cmd = sendMessage(producerId, sequenceId, container.numMessagesInBatch,
+                        container.setBatchAndBuild(), compressedPayload);
 
-                op = OpSendMsg.create(batchMessageContainer.messages, cmd, sequenceId,
-                        batchMessageContainer.firstCallback);
+                op = OpSendMsg.create(container.messages, cmd, sequenceId,
+                        container.firstCallback);
 
-                op.setNumMessagesInBatch(batchMessageContainer.numMessagesInBatch);
-                op.setBatchSizeByte(batchMessageContainer.currentBatchSizeBytes);
+                op.setNumMessagesInBatch(container.numMessagesInBatch);
+                op.setBatchSizeByte(container.currentBatchSizeBytes);
 
-                batchMessageContainer.clear();
+                container.clear();
 
-                pendingMessages.put(op);
+                sendOp(op);
 
-                if (isConnected()) {
-                    // If we do have a connection, the message is sent immediately, otherwise we'll try again once a new
-                    // connection is established
-                    cmd.retain();
-                    cnx().ctx().channel().eventLoop().execute(WriteInEventLoopCallback.create(this, cnx(), op));
-                    stats.updateNumMsgsSent(numMessagesInBatch, op.batchSizeByte);
-                } else {
-                    if (log.isDebugEnabled()) {
-                        log.debug("[{}] [{}] Connection is not ready -- sequenceId {}", topic, producerName,
-                                sequenceId);
-                    }
+                Runnable listener = batchCompletedListener;
+                if (listener != null) {
+                    listener.run();
                 }
             }
         } catch (InterruptedException ie) {
@@ -1092,6 +1374,13 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
         return pendingMessages.size();
     }
 
+    /**
+     * @return whether some messages are still waiting to be sent or to be acknowledged by the broker
+     */
+    boolean hasPendingMessages() {
+        return semaphore.availablePermits() < conf.getMaxPendingMessages();
+    }
+
     private static DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
 
     private PulsarApi.CompressionType convertCompressionType(CompressionType compressionType) {
@@ -1102,6 +1391,10 @@ public class ProducerImpl extends ProducerBase implements TimerTask {
             return PulsarApi.CompressionType.LZ4;
         case ZLIB:
             return PulsarApi.CompressionType.ZLIB;
+        case ZSTD:
+            return PulsarApi.CompressionType.ZSTD;
+        case SNAPPY:
+            return PulsarApi.CompressionType.SNAPPY;
 
         default:
             throw new RuntimeException("Invalid compression type");
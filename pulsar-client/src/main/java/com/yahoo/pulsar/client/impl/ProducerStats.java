@@ -44,10 +44,12 @@ public class ProducerStats implements Serializable {
     private long statsIntervalSeconds;
     private final LongAdder numMsgsSent;
     private final LongAdder numBytesSent;
+    private final LongAdder numEntriesSent;
     private final LongAdder numSendFailed;
     private final LongAdder numAcksReceived;
     private final LongAdder totalMsgsSent;
     private final LongAdder totalBytesSent;
+    private final LongAdder totalEntriesSent;
     private final LongAdder totalSendFailed;
     private final LongAdder totalAcksReceived;
     private final DecimalFormat dec;
@@ -58,14 +60,17 @@ public class ProducerStats implements Serializable {
     public static final ProducerStats PRODUCER_STATS_DISABLED = new ProducerStatsDisabled();
 
     public ProducerStats() {
-        numMsgsSent = null;
-        numBytesSent = null;
-        numSendFailed = null;
-        numAcksReceived = null;
-        totalMsgsSent = null;
-        totalBytesSent = null;
-        totalSendFailed = null;
-        totalAcksReceived = null;
+        // Only aggregates the stats of other producers
+        numMsgsSent = new LongAdder();
+        numBytesSent = new LongAdder();
+        numEntriesSent = new LongAdder();
+        numSendFailed = new LongAdder();
+        numAcksReceived = new LongAdder();
+        totalMsgsSent = new LongAdder();
+        totalBytesSent = new LongAdder();
+        totalEntriesSent = new LongAdder();
+        totalSendFailed = new LongAdder();
+        totalAcksReceived = new LongAdder();
         dec = null;
         throughputFormat = null;
         ds = null;
@@ -77,10 +82,12 @@ public class ProducerStats implements Serializable {
         this.producer = producer;
         numMsgsSent = new LongAdder();
         numBytesSent = new LongAdder();
+        numEntriesSent = new LongAdder();
         numSendFailed = new LongAdder();
         numAcksReceived = new LongAdder();
         totalMsgsSent = new LongAdder();
         totalBytesSent = new LongAdder();
+        totalEntriesSent = new LongAdder();
         totalSendFailed = new LongAdder();
         totalAcksReceived = new LongAdder();
         ds = DoublesSketch.builder().build(256);
@@ -114,11 +121,13 @@ public class ProducerStats implements Serializable {
 
                 long currentNumMsgsSent = numMsgsSent.sumThenReset();
                 long currentNumBytesSent = numBytesSent.sumThenReset();
+                long currentNumEntriesSent = numEntriesSent.sumThenReset();
                 long currentNumSendFailedMsgs = numSendFailed.sumThenReset();
                 long currentNumAcksReceived = numAcksReceived.sumThenReset();
 
                 totalMsgsSent.add(currentNumMsgsSent);
                 totalBytesSent.add(currentNumBytesSent);
+                totalEntriesSent.add(currentNumEntriesSent);
                 totalSendFailed.add(currentNumSendFailedMsgs);
                 totalAcksReceived.add(currentNumAcksReceived);
 
@@ -138,16 +147,22 @@ public class ProducerStats implements Serializable {
                     }
 
                     log.info(
-                            "[{}] [{}] Pending messages: {} --- Publish throughput: {} msg/s --- {} Mbit/s --- "
+                            "[{}] [{}] Pending messages: {} --- Client memory usage: {} bytes --- "
+                                    + "Publish throughput: {} msg/s --- {} Mbit/s --- "
                                     + "Latency: med: {} ms - 95pct: {} ms - 99pct: {} ms - 99.9pct: {} ms - 99.99pct: {} ms --- "
-                                    + "Ack received rate: {} ack/s --- Failed messages: {}",
+                                    + "Ack received rate: {} ack/s --- Failed messages: {} --- "
+                                    + "Entries: {} entry/s - {} bytes/entry",
                             producer.getTopic(), producer.getProducerName(), producer.getPendingQueueSize(),
+                            getClientMemoryUsage(),
                             throughputFormat.format(currentNumMsgsSent / elapsed),
                             throughputFormat.format(currentNumBytesSent / elapsed / 1024 / 1024 * 8),
                             dec.format(percentileValues[0] / 1000.0), dec.format(percentileValues[1] / 1000.0),
                             dec.format(percentileValues[2] / 1000.0), dec.format(percentileValues[3] / 1000.0),
                             dec.format(percentileValues[4] / 1000.0),
-                            throughputFormat.format(currentNumAcksReceived / elapsed), currentNumSendFailedMsgs);
+                            throughputFormat.format(currentNumAcksReceived / elapsed), currentNumSendFailedMsgs,
+                            throughputFormat.format(currentNumEntriesSent / elapsed),
+                            throughputFormat.format(currentNumEntriesSent > 0
+                                    ? (double) currentNumBytesSent / currentNumEntriesSent : 0));
                 }
 
             } catch (Exception e) {
@@ -170,6 +185,8 @@ public class ProducerStats implements Serializable {
     void updateNumMsgsSent(long numMsgs, long totalMsgsSize) {
         numMsgsSent.add(numMsgs);
         numBytesSent.add(totalMsgsSize);
+        // Each send operation is written as a single entry, whether it carries a batch or not
+        numEntriesSent.increment();
     }
 
     void incrementSendFailed() {
@@ -190,10 +207,12 @@ public class ProducerStats implements Serializable {
     void reset() {
         numMsgsSent.reset();
         numBytesSent.reset();
+        numEntriesSent.reset();
         numSendFailed.reset();
         numAcksReceived.reset();
         totalMsgsSent.reset();
         totalBytesSent.reset();
+        totalEntriesSent.reset();
         totalSendFailed.reset();
         totalAcksReceived.reset();
     }
@@ -201,14 +220,27 @@ public class ProducerStats implements Serializable {
     void updateCumulativeStats(ProducerStats stats) {
         numMsgsSent.add(stats.numMsgsSent.longValue());
         numBytesSent.add(stats.numBytesSent.longValue());
+        numEntriesSent.add(stats.numEntriesSent.longValue());
         numSendFailed.add(stats.numSendFailed.longValue());
         numAcksReceived.add(stats.numAcksReceived.longValue());
         totalMsgsSent.add(stats.numMsgsSent.longValue());
         totalBytesSent.add(stats.numBytesSent.longValue());
+        totalEntriesSent.add(stats.numEntriesSent.longValue());
         totalSendFailed.add(stats.numSendFailed.longValue());
         totalAcksReceived.add(stats.numAcksReceived.longValue());
     }
 
+    /**
+     * Add the totals of a producer, including its ongoing interval, to the totals of these stats
+     */
+    void updateTotalStats(ProducerStats stats) {
+        totalMsgsSent.add(stats.totalMsgsSent.longValue() + stats.numMsgsSent.longValue());
+        totalBytesSent.add(stats.totalBytesSent.longValue() + stats.numBytesSent.longValue());
+        totalEntriesSent.add(stats.totalEntriesSent.longValue() + stats.numEntriesSent.longValue());
+        totalSendFailed.add(stats.totalSendFailed.longValue() + stats.numSendFailed.longValue());
+        totalAcksReceived.add(stats.totalAcksReceived.longValue() + stats.numAcksReceived.longValue());
+    }
+
     public long getNumMsgsSent() {
         return numMsgsSent.longValue();
     }
@@ -217,6 +249,10 @@ public class ProducerStats implements Serializable {
         return numBytesSent.longValue();
     }
 
+    public long getNumEntriesSent() {
+        return numEntriesSent.longValue();
+    }
+
     public long getNumSendFailed() {
         return numSendFailed.longValue();
     }
@@ -233,6 +269,10 @@ public class ProducerStats implements Serializable {
         return totalBytesSent.longValue();
     }
 
+    public long getTotalEntriesSent() {
+        return totalEntriesSent.longValue();
+    }
+
     public long getTotalSendFailed() {
         return totalSendFailed.longValue();
     }
@@ -241,5 +281,13 @@ public class ProducerStats implements Serializable {
         return totalAcksReceived.longValue();
     }
 
+    /**
+     * @return the memory currently used by the client, across all its producers and consumers, to hold the pending
+     *         and the prefetched messages. Only tracked when a client memory limit is configured
+     */
+    public long getClientMemoryUsage() {
+        return pulsarClient != null ? pulsarClient.getMemoryLimitController().currentUsage() : 0;
+    }
+
     private static final Logger log = LoggerFactory.getLogger(ProducerStats.class);
 }
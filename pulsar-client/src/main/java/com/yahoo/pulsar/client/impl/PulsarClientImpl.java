@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -36,10 +37,13 @@ import com.google.common.collect.Maps;
 import com.yahoo.pulsar.client.api.ClientConfiguration;
 import com.yahoo.pulsar.client.api.Consumer;
 import com.yahoo.pulsar.client.api.ConsumerConfiguration;
+import com.yahoo.pulsar.client.api.MessageId;
 import com.yahoo.pulsar.client.api.Producer;
 import com.yahoo.pulsar.client.api.ProducerConfiguration;
 import com.yahoo.pulsar.client.api.PulsarClient;
 import com.yahoo.pulsar.client.api.PulsarClientException;
+import com.yahoo.pulsar.client.api.Reader;
+import com.yahoo.pulsar.client.api.ReaderConfiguration;
 import com.yahoo.pulsar.client.util.ExecutorProvider;
 import com.yahoo.pulsar.client.util.FutureUtil;
 import com.yahoo.pulsar.common.naming.DestinationName;
@@ -61,9 +65,13 @@ public class PulsarClientImpl implements PulsarClient {
     private final LookupService lookup;
     private final PartitionMetadataLookupService partition;
     private final ConnectionPool cnxPool;
+    private final MemoryLimitController memoryLimitController;
     private final Timer timer;
     private final ExecutorProvider externalExecutorProvider;
     private final ExecutorProvider internalExecutorProvider;
+    // Threads handing the messages buffered by the partitioned producers over to the partition producers once they are
+    // connected. Not shared with the listeners, since the handover blocks when the producer queue is full
+    private final ExecutorService producerFlushExecutor;
 
     enum State {
         Open, Closing, Closed
@@ -93,10 +101,12 @@ public class PulsarClientImpl implements PulsarClient {
         lookup = new LookupService(httpClient, conf.isUseTls());
         partition = new PartitionMetadataLookupService(httpClient);
         cnxPool = new ConnectionPool(this, eventLoopGroup);
+        memoryLimitController = new MemoryLimitController(conf.getMemoryLimitBytes());
 
         timer = new HashedWheelTimer(new DefaultThreadFactory("pulsar-timer"), 1, TimeUnit.MILLISECONDS);
         externalExecutorProvider = new ExecutorProvider(conf.getListenerThreads(), "pulsar-external-listener");
         internalExecutorProvider = new ExecutorProvider(conf.getListenerThreads(), "pulsar-internal-listener");
+        producerFlushExecutor = Executors.newCachedThreadPool(new DefaultThreadFactory("pulsar-producer-flush", true));
         producers = Maps.newIdentityHashMap();
         consumers = Maps.newIdentityHashMap();
         state.set(State.Open);
@@ -269,6 +279,81 @@ public class PulsarClientImpl implements PulsarClient {
         return consumerSubscribedFuture;
     }
 
+    @Override
+    public Reader createReader(String topic, MessageId startMessageId, ReaderConfiguration conf)
+            throws PulsarClientException {
+        try {
+            return createReaderAsync(topic, startMessageId, conf).get();
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof PulsarClientException) {
+                throw (PulsarClientException) t;
+            } else {
+                throw new PulsarClientException(t);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PulsarClientException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Reader> createReaderAsync(String topic, MessageId startMessageId,
+            ReaderConfiguration conf) {
+        if (state.get() != State.Open) {
+            return FutureUtil.failedFuture(new PulsarClientException.AlreadyClosedException("Client already closed"));
+        }
+        if (!DestinationName.isValid(topic)) {
+            return FutureUtil.failedFuture(new PulsarClientException.InvalidTopicNameException("Invalid topic name"));
+        }
+        if (startMessageId == null) {
+            return FutureUtil
+                    .failedFuture(new PulsarClientException.InvalidConfigurationException("Invalid startMessageId"));
+        }
+        if (conf == null) {
+            return FutureUtil.failedFuture(
+                    new PulsarClientException.InvalidConfigurationException("Consumer configuration undefined"));
+        }
+
+        CompletableFuture<Reader> readerFuture = new CompletableFuture<>();
+
+        getPartitionedTopicMetadata(topic).thenAccept(metadata -> {
+            if (log.isDebugEnabled()) {
+                log.debug("[{}] Received topic metadata. partitions: {}", topic, metadata.partitions);
+            }
+
+            if (metadata.partitions > 1) {
+                readerFuture.completeExceptionally(
+                        new PulsarClientException("Topic reader cannot be created on a partitioned topic"));
+                return;
+            }
+
+            CompletableFuture<Consumer> consumerSubscribedFuture = new CompletableFuture<>();
+            // gets the next single threaded executor from the list of executors
+            ExecutorService listenerThread = externalExecutorProvider.getExecutor();
+            ReaderImpl reader = new ReaderImpl(PulsarClientImpl.this, topic, startMessageId, conf, listenerThread,
+                    consumerSubscribedFuture);
+
+            synchronized (consumers) {
+                consumers.put(reader.getConsumer(), Boolean.TRUE);
+            }
+
+            consumerSubscribedFuture.thenRun(() -> {
+                readerFuture.complete(reader);
+            }).exceptionally(ex -> {
+                log.warn("[{}] Failed to get create topic reader", topic, ex);
+                readerFuture.completeExceptionally(ex);
+                return null;
+            });
+        }).exceptionally(ex -> {
+            log.warn("[{}] Failed to get partitioned topic metadata", topic, ex);
+            readerFuture.completeExceptionally(ex);
+            return null;
+        });
+
+        return readerFuture;
+    }
+
     @Override
     public void close() throws PulsarClientException {
         try {
@@ -332,6 +417,7 @@ public class PulsarClientImpl implements PulsarClient {
             timer.stop();
             externalExecutorProvider.shutdownNow();
             internalExecutorProvider.shutdownNow();
+            producerFlushExecutor.shutdownNow();
             conf.getAuthentication().close();
         } catch (Throwable t) {
             log.warn("Failed to shutdown Pulsar client", t);
@@ -339,6 +425,13 @@ public class PulsarClientImpl implements PulsarClient {
         }
     }
 
+    /**
+     * @return the statistics of each connection the client has opened to the brokers
+     */
+    public List<ConnectionStats> getConnectionStats() {
+        return cnxPool.getConnectionStats();
+    }
+
     protected CompletableFuture<ClientCnx> getConnection(final String topic) {
         DestinationName destinationName = DestinationName.get(topic);
 
@@ -349,6 +442,10 @@ public class PulsarClientImpl implements PulsarClient {
         return timer;
     }
 
+    MemoryLimitController getMemoryLimitController() {
+        return memoryLimitController;
+    }
+
     ExecutorProvider externalExecutorProvider() {
         return externalExecutorProvider;
     }
@@ -357,6 +454,17 @@ public class PulsarClientImpl implements PulsarClient {
         return internalExecutorProvider;
     }
 
+    ExecutorService producerFlushExecutor() {
+        return producerFlushExecutor;
+    }
+
+    /**
+     * @return whether the calling thread is one of the threads delivering the messages to the consumers
+     */
+    boolean isListenerThread() {
+        return externalExecutorProvider.isExecutorThread() || internalExecutorProvider.isExecutorThread();
+    }
+
     long newProducerId() {
         return producerIdGenerator.getAndIncrement();
     }
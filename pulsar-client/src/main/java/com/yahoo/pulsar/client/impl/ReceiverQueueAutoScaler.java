@@ -0,0 +1,139 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.impl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the permit window of a consumer from the rate at which the application processes the messages and from the
+ * round-trip time to the broker.
+ * <p>
+ * To keep the application busy, there must be enough permits in flight to cover the time it takes for a flow request to
+ * reach the broker and for the messages to come back. Since the permits are only sent back once half of the window has
+ * been consumed, the window targets twice this bandwidth-delay product. The window starts small and doubles whenever
+ * the application drains the queue while the window is the bottleneck; it shrinks back, by at most half at each
+ * evaluation, when the application slows down, so that slow consumers don't hoard messages that other consumers of a
+ * shared subscription could process.
+ * <p>
+ * The round-trip time is the minimum delay, over a sliding period, between a flow request sent when the broker had no
+ * permits left and the next message received, in order to leave out the time spent waiting for new messages to be
+ * published.
+ */
+class ReceiverQueueAutoScaler {
+
+    static final long EVALUATION_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    static final long ROUND_TRIP_EXPIRY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    // Weight of the latest measurement in the moving average of the processing rate
+    private static final double RATE_SMOOTHING = 0.25;
+
+    private final int minSize;
+    private final int maxSize;
+    private volatile int currentSize;
+
+    private long lastEvaluationNanos;
+    private int processedSinceLastEvaluation = 0;
+    private boolean starved = false;
+    // Messages processed per second
+    private double processingRate = -1;
+
+    private long roundTripNanos = 0;
+    private long roundTripSampledAtNanos = 0;
+    // Time at which the pending round-trip probe was sent, or 0 when there is none
+    private volatile long flowSentNanos = 0;
+
+    ReceiverQueueAutoScaler(int minSize, int maxSize, long nowNanos) {
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.currentSize = this.minSize;
+        this.lastEvaluationNanos = nowNanos;
+    }
+
+    int getCurrentSize() {
+        return currentSize;
+    }
+
+    /**
+     * Record a flow request. It is used to probe the round-trip time when the broker has no permits left, since the
+     * next message received is then a reply to this request
+     */
+    void flowSent(boolean noPermitsInFlight, long nowNanos) {
+        if (noPermitsInFlight && flowSentNanos == 0) {
+            flowSentNanos = nowNanos;
+        }
+    }
+
+    void messageReceived(long nowNanos) {
+        if (flowSentNanos == 0) {
+            return;
+        }
+
+        synchronized (this) {
+            if (flowSentNanos != 0) {
+                long sample = Math.max(1, nowNanos - flowSentNanos);
+                flowSentNanos = 0;
+                if (roundTripNanos == 0 || sample <= roundTripNanos
+                        || nowNanos - roundTripSampledAtNanos > ROUND_TRIP_EXPIRY_NANOS) {
+                    roundTripNanos = sample;
+                    roundTripSampledAtNanos = nowNanos;
+                }
+            }
+        }
+    }
+
+    /**
+     * Record the messages processed by the application and periodically resize the window.
+     *
+     * @param numMessages
+     *            the number of messages processed
+     * @param queueEmpty
+     *            whether the receiver queue was left empty, meaning the application is about to wait for messages
+     * @return the change in the window size: the number of permits to add, or to take back if negative
+     */
+    synchronized int messagesProcessed(int numMessages, boolean queueEmpty, long nowNanos) {
+        processedSinceLastEvaluation += numMessages;
+        starved |= queueEmpty;
+
+        long elapsed = nowNanos - lastEvaluationNanos;
+        if (elapsed < EVALUATION_INTERVAL_NANOS) {
+            return 0;
+        }
+
+        double rate = processedSinceLastEvaluation * 1e9 / elapsed;
+        processingRate = processingRate < 0 ? rate : processingRate + RATE_SMOOTHING * (rate - processingRate);
+        processedSinceLastEvaluation = 0;
+        lastEvaluationNanos = nowNanos;
+
+        int size = currentSize;
+        long target = (long) Math.ceil(2 * processingRate * roundTripNanos / 1e9);
+        long newSize;
+        if (starved && (roundTripNanos == 0 || target >= size / 2)) {
+            // The application is waiting on the window: grow quickly
+            newSize = Math.max(target, 2L * size);
+        } else if (roundTripNanos == 0) {
+            newSize = size;
+        } else if (target >= size) {
+            newSize = target;
+        } else {
+            newSize = Math.max(target, size / 2);
+        }
+        starved = false;
+
+        int clamped = (int) Math.max(minSize, Math.min(maxSize, newSize));
+        currentSize = clamped;
+        return clamped - size;
+    }
+}
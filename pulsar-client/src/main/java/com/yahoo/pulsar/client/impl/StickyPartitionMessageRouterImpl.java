@@ -0,0 +1,64 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.impl;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.yahoo.pulsar.client.api.Message;
+import com.yahoo.pulsar.client.api.MessageRouter;
+
+/**
+ * Routes the messages without key to a single partition until the batch on that partition is closed out, either
+ * because it is full or because its publish delay elapsed, and then moves on to the next partition.
+ * <p>
+ * Compared to the plain round robin routing, each partition producer gets full batches instead of 1/N of the traffic,
+ * which results in fewer and bigger entries on the storage.
+ */
+public class StickyPartitionMessageRouterImpl implements MessageRouter {
+
+    private final AtomicInteger partitionIndex;
+    private final int numPartitions;
+
+    public StickyPartitionMessageRouterImpl(int numPartitions) {
+        this.partitionIndex = new AtomicInteger(new Random().nextInt(numPartitions));
+        this.numPartitions = numPartitions;
+    }
+
+    @Override
+    public int choosePartition(Message msg) {
+        // If the message has a key, it supersedes the sticky routing policy
+        if (msg.hasKey()) {
+            return ((msg.getKey().hashCode() & Integer.MAX_VALUE) % numPartitions);
+        }
+
+        return partitionIndex.get();
+    }
+
+    /**
+     * Notifies the router that a batch was closed out on the given partition. If it's the partition messages are
+     * currently routed to, the following messages go to the next partition.
+     * <p>
+     * This is called from within the partition producer mutex, so it must not block.
+     *
+     * @param partition
+     *            the index of the partition whose batch was sent
+     */
+    public void batchCompleted(int partition) {
+        partitionIndex.compareAndSet(partition, (partition + 1) % numPartitions);
+    }
+
+}
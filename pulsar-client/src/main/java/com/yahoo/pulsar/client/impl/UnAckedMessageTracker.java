@@ -19,24 +19,34 @@ import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.yahoo.pulsar.common.util.collections.ConcurrentOpenHashMap;
 import com.yahoo.pulsar.common.util.collections.ConcurrentOpenHashSet;
 
 import io.netty.util.Timeout;
 import io.netty.util.TimerTask;
 
+/**
+ * Tracks the messages that were received and not acknowledged yet, to redeliver them once the ack timeout has elapsed.
+ * <p>
+ * The messages are kept in a timing wheel: a ring of buckets, each one covering a tick of time. A message is added
+ * to the bucket that expires one ack timeout after it was received, so it is redelivered at most one tick after its
+ * own deadline. On every tick, the messages of the expiring bucket are redelivered with a single request.
+ */
 public class UnAckedMessageTracker implements Closeable {
     private static final Logger log = LoggerFactory.getLogger(UnAckedMessageTracker.class);
-    private ConcurrentOpenHashSet<MessageIdImpl> currentSet;
-    private ConcurrentOpenHashSet<MessageIdImpl> oldOpenSet;
-    private final ReentrantReadWriteLock readWriteLock;
-    private final Lock readLock;
-    private final Lock writeLock;
+
+    // Buckets are only allocated once a message is added to them, as the wheel can be large for long ack timeouts
+    private final AtomicReferenceArray<ConcurrentOpenHashSet<MessageIdImpl>> wheel;
+    private final ConcurrentOpenHashMap<MessageIdImpl, ConcurrentOpenHashSet<MessageIdImpl>> messageIdBuckets;
+    private final int ticksPerTimeout;
+    private final long tickDurationMillis;
+    // Index of the bucket that expires on the next tick
+    private volatile int currentBucket = 0;
     private Timeout timeout;
 
     public static final UnAckedMessageTrackerDisabled UNACKED_MESSAGE_TRACKER_DISABLED = new UnAckedMessageTrackerDisabled();
@@ -67,131 +77,127 @@ public class UnAckedMessageTracker implements Closeable {
     }
 
     public UnAckedMessageTracker() {
-        readWriteLock = null;
-        readLock = null;
-        writeLock = null;
+        wheel = null;
+        messageIdBuckets = null;
+        ticksPerTimeout = 0;
+        tickDurationMillis = 0;
     }
 
-    public UnAckedMessageTracker(PulsarClientImpl client, ConsumerBase consumerBase, long ackTimeoutMillis) {
-        currentSet = new ConcurrentOpenHashSet<MessageIdImpl>();
-        oldOpenSet = new ConcurrentOpenHashSet<MessageIdImpl>();
-        readWriteLock = new ReentrantReadWriteLock();
-        readLock = readWriteLock.readLock();
-        writeLock = readWriteLock.writeLock();
-        start(client, consumerBase, ackTimeoutMillis);
+    public UnAckedMessageTracker(PulsarClientImpl client, ConsumerBase consumerBase, long ackTimeoutMillis,
+            long tickDurationMillis) {
+        this.tickDurationMillis = Math.min(tickDurationMillis, ackTimeoutMillis);
+        this.ticksPerTimeout = (int) ((ackTimeoutMillis + this.tickDurationMillis - 1) / this.tickDurationMillis);
+        // The extra bucket is the one being expired, which never receives new messages
+        this.wheel = new AtomicReferenceArray<>(ticksPerTimeout + 1);
+        this.messageIdBuckets = new ConcurrentOpenHashMap<>();
+        start(client, consumerBase);
     }
 
-    public void start(PulsarClientImpl client, ConsumerBase consumerBase, long ackTimeoutMillis) {
-        this.stop();
+    private void start(PulsarClientImpl client, ConsumerBase consumerBase) {
         timeout = client.timer().newTimeout(new TimerTask() {
             @Override
             public void run(Timeout t) throws Exception {
-                if (isAckTimeout()) {
-                    log.warn("[{}] {} messages have timed-out", consumerBase, oldOpenSet.size());
-                    List<MessageIdImpl> messageIds = new ArrayList<>();
-                    oldOpenSet.forEach(messageIds::add);
-                    oldOpenSet.clear();
+                if (t.isCancelled()) {
+                    return;
+                }
+                List<MessageIdImpl> messageIds = expireCurrentBucket();
+                if (!messageIds.isEmpty()) {
+                    log.warn("[{}] {} messages have timed-out", consumerBase, messageIds.size());
                     consumerBase.redeliverUnacknowledgedMessages(messageIds);
                 }
-                toggle();
-                timeout = client.timer().newTimeout(this, ackTimeoutMillis, TimeUnit.MILLISECONDS);
+                timeout = client.timer().newTimeout(this, tickDurationMillis, TimeUnit.MILLISECONDS);
             }
-        }, ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        }, tickDurationMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private List<MessageIdImpl> expireCurrentBucket() {
+        int index = currentBucket;
+        List<MessageIdImpl> messageIds = new ArrayList<>();
+        ConcurrentOpenHashSet<MessageIdImpl> bucket = wheel.get(index);
+        if (bucket != null && !bucket.isEmpty()) {
+            bucket.removeIf(m -> {
+                // Skip the messages that were re-added to a later bucket in the meantime
+                if (messageIdBuckets.remove(m, bucket)) {
+                    messageIds.add(m);
+                }
+                return true;
+            });
+        }
+
+        // New messages now go into the bucket that was just emptied
+        currentBucket = (index + 1) % wheel.length();
+        return messageIds;
     }
 
-    void toggle() {
-        writeLock.lock();
-        try {
-            ConcurrentOpenHashSet<MessageIdImpl> temp = currentSet;
-            currentSet = oldOpenSet;
-            oldOpenSet = temp;
-        } finally {
-            writeLock.unlock();
+    private ConcurrentOpenHashSet<MessageIdImpl> getBucket(int index) {
+        ConcurrentOpenHashSet<MessageIdImpl> bucket = wheel.get(index);
+        if (bucket == null) {
+            wheel.compareAndSet(index, null, new ConcurrentOpenHashSet<>());
+            bucket = wheel.get(index);
         }
+        return bucket;
+    }
+
+    /**
+     * Expires all the messages currently tracked on the next tick, as if their ack timeout had elapsed.
+     */
+    void expireAll() {
+        ConcurrentOpenHashSet<MessageIdImpl> bucket = getBucket(currentBucket);
+        messageIdBuckets.keys().forEach(m -> moveToBucket(m, bucket));
     }
 
     public void clear() {
-        readLock.lock();
-        try {
-            currentSet.clear();
-            oldOpenSet.clear();
-        } finally {
-            readLock.unlock();
+        messageIdBuckets.clear();
+        for (int i = 0; i < wheel.length(); i++) {
+            ConcurrentOpenHashSet<MessageIdImpl> bucket = wheel.get(i);
+            if (bucket != null) {
+                bucket.clear();
+            }
         }
     }
 
     public boolean add(MessageIdImpl m) {
-        readLock.lock();
-        try {
-            oldOpenSet.remove(m);
-            return currentSet.add(m);
-        } finally {
-            readLock.unlock();
-        }
+        return moveToBucket(m, getBucket((currentBucket + ticksPerTimeout) % wheel.length()));
+    }
 
+    private boolean moveToBucket(MessageIdImpl m, ConcurrentOpenHashSet<MessageIdImpl> bucket) {
+        ConcurrentOpenHashSet<MessageIdImpl> previousBucket = messageIdBuckets.put(m, bucket);
+        if (previousBucket != null && previousBucket != bucket) {
+            previousBucket.remove(m);
+        }
+        return bucket.add(m);
     }
 
     boolean isEmpty() {
-        readLock.lock();
-        try {
-            return currentSet.isEmpty() && oldOpenSet.isEmpty();
-        } finally {
-            readLock.unlock();
-        }
+        return messageIdBuckets.isEmpty();
     }
 
     public boolean remove(MessageIdImpl m) {
-        readLock.lock();
-        try {
-            return currentSet.remove(m) || oldOpenSet.remove(m);
-        } finally {
-            readLock.unlock();
-        }
+        ConcurrentOpenHashSet<MessageIdImpl> bucket = messageIdBuckets.remove(m);
+        return bucket != null && bucket.remove(m);
     }
 
     long size() {
-        readLock.lock();
-        try {
-            return currentSet.size() + oldOpenSet.size();
-        } finally {
-            readLock.unlock();
-        }
-    }
-
-    private boolean isAckTimeout() {
-        readLock.lock();
-        try {
-            return !oldOpenSet.isEmpty();
-        } finally {
-            readLock.unlock();
-        }
+        return messageIdBuckets.size();
     }
 
     public int removeMessagesTill(MessageIdImpl msgId) {
-        readLock.lock();
-        try {
-            int currentSetRemovedMsgCount = currentSet.removeIf(m -> ((m.getLedgerId() < msgId.getLedgerId()
+        int removed = 0;
+        for (MessageIdImpl m : messageIdBuckets.keys()) {
+            if ((m.getLedgerId() < msgId.getLedgerId()
                     || (m.getLedgerId() == msgId.getLedgerId() && m.getEntryId() <= msgId.getEntryId()))
-                    && m.getPartitionIndex() == msgId.getPartitionIndex()));
-            int oldSetRemovedMsgCount = oldOpenSet.removeIf(m -> ((m.getLedgerId() < msgId.getLedgerId()
-                    || (m.getLedgerId() == msgId.getLedgerId() && m.getEntryId() <= msgId.getEntryId()))
-                    && m.getPartitionIndex() == msgId.getPartitionIndex()));
-            return currentSetRemovedMsgCount + oldSetRemovedMsgCount;
-        } finally {
-            readLock.unlock();
+                    && m.getPartitionIndex() == msgId.getPartitionIndex() && remove(m)) {
+                ++removed;
+            }
         }
+        return removed;
     }
 
     private void stop() {
-        writeLock.lock();
-        try {
-            if (timeout != null && !timeout.isCancelled()) {
-                timeout.cancel();
-            }
-            this.clear();
-        } finally {
-            writeLock.unlock();
+        if (timeout != null && !timeout.isCancelled()) {
+            timeout.cancel();
         }
+        this.clear();
     }
 
     @Override
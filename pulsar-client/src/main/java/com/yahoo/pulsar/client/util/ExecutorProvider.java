@@ -19,8 +19,11 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.collect.Lists;
@@ -31,14 +34,20 @@ public class ExecutorProvider {
     private final int numThreads;
     private final List<ExecutorService> executors;
     private final AtomicInteger currentThread = new AtomicInteger(0);
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
 
     public ExecutorProvider(int numThreads, String threadNamePrefix) {
         checkArgument(numThreads > 0);
         this.numThreads = numThreads;
         checkNotNull(threadNamePrefix);
         executors = Lists.newArrayListWithCapacity(numThreads);
+        ThreadFactory threadFactory = new DefaultThreadFactory(threadNamePrefix);
         for (int i = 0; i < numThreads; i++) {
-            executors.add(Executors.newSingleThreadExecutor(new DefaultThreadFactory(threadNamePrefix)));
+            executors.add(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = threadFactory.newThread(runnable);
+                threads.add(thread);
+                return thread;
+            }));
         }
     }
 
@@ -46,6 +55,13 @@ public class ExecutorProvider {
         return executors.get((currentThread.getAndIncrement() & Integer.MAX_VALUE) % numThreads);
     }
 
+    /**
+     * @return whether the calling thread is one of the threads of this provider
+     */
+    public boolean isExecutorThread() {
+        return threads.contains(Thread.currentThread());
+    }
+
     public void shutdownNow() {
         executors.forEach(executor -> executor.shutdownNow());
     }
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+public class MemoryLimitControllerTest {
+
+    @Test
+    public void testLimit() throws Exception {
+        MemoryLimitController mlc = new MemoryLimitController(100);
+        assertTrue(mlc.isMemoryLimited());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(mlc.tryReserveMemory(10));
+        }
+        assertEquals(mlc.currentUsage(), 100);
+        assertTrue(mlc.isMemoryLimitReached());
+        assertFalse(mlc.tryReserveMemory(1));
+
+        mlc.releaseMemory(1);
+        assertEquals(mlc.currentUsage(), 99);
+        assertFalse(mlc.isMemoryLimitReached());
+        assertTrue(mlc.tryReserveMemory(1));
+        assertFalse(mlc.tryReserveMemory(1));
+
+        mlc.releaseMemory(100);
+        assertEquals(mlc.currentUsage(), 0);
+    }
+
+    @Test
+    public void testMessageBiggerThanLimit() throws Exception {
+        MemoryLimitController mlc = new MemoryLimitController(100);
+
+        // A single big message is accepted when nothing else is reserved
+        assertTrue(mlc.tryReserveMemory(200));
+        assertFalse(mlc.tryReserveMemory(1));
+        mlc.releaseMemory(200);
+
+        assertTrue(mlc.tryReserveMemory(1));
+        assertFalse(mlc.tryReserveMemory(200));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        MemoryLimitController mlc = new MemoryLimitController(0);
+        assertFalse(mlc.isMemoryLimited());
+
+        assertTrue(mlc.tryReserveMemory(Integer.MAX_VALUE));
+        assertTrue(mlc.tryReserveMemory(Integer.MAX_VALUE));
+        assertFalse(mlc.isMemoryLimitReached());
+    }
+
+    @Test(timeOut = 10000)
+    public void testBlockingReserve() throws Exception {
+        MemoryLimitController mlc = new MemoryLimitController(100);
+        mlc.reserveMemory(100);
+
+        CountDownLatch reserved = new CountDownLatch(1);
+        new Thread(() -> {
+            try {
+                mlc.reserveMemory(50);
+                reserved.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).start();
+
+        assertFalse(reserved.await(100, TimeUnit.MILLISECONDS));
+        mlc.releaseMemory(30);
+        assertFalse(reserved.await(100, TimeUnit.MILLISECONDS));
+        mlc.releaseMemory(30);
+        assertTrue(reserved.await(5, TimeUnit.SECONDS));
+        assertEquals(mlc.currentUsage(), 90);
+    }
+
+    @Test
+    public void testResumeListener() throws Exception {
+        MemoryLimitController mlc = new MemoryLimitController(100);
+        AtomicInteger resumed = new AtomicInteger();
+
+        // Messages pushed by the broker are accounted even above the limit
+        mlc.forceReserveMemory(150);
+        assertTrue(mlc.isMemoryLimitReached());
+        mlc.addResumeListener(resumed::incrementAndGet);
+        assertEquals(resumed.get(), 0);
+
+        mlc.releaseMemory(50);
+        assertEquals(resumed.get(), 0);
+        mlc.releaseMemory(1);
+        assertEquals(resumed.get(), 1);
+
+        // Listeners are only invoked once
+        mlc.releaseMemory(10);
+        assertEquals(resumed.get(), 1);
+
+        // Listeners added when the memory is available are invoked right away
+        mlc.addResumeListener(resumed::incrementAndGet);
+        assertEquals(resumed.get(), 2);
+    }
+}
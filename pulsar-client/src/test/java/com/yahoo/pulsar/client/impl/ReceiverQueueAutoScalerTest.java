@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.client.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class ReceiverQueueAutoScalerTest {
+
+    private static final long INTERVAL = ReceiverQueueAutoScaler.EVALUATION_INTERVAL_NANOS;
+
+    @Test
+    public void testGrowWhenStarved() {
+        long now = System.nanoTime();
+        ReceiverQueueAutoScaler scaler = new ReceiverQueueAutoScaler(1, 1000, now);
+        assertEquals(scaler.getCurrentSize(), 1);
+
+        // Resize only happens once per evaluation interval
+        assertEquals(scaler.messagesProcessed(1, true, now + 1), 0);
+
+        int expectedSize = 1;
+        for (int i = 0; i < 9; i++) {
+            now += INTERVAL;
+            assertEquals(scaler.messagesProcessed(expectedSize, true, now), expectedSize);
+            expectedSize *= 2;
+            assertEquals(scaler.getCurrentSize(), expectedSize);
+        }
+
+        // Capped to the configured receiver queue size
+        now += INTERVAL;
+        assertEquals(scaler.messagesProcessed(expectedSize, true, now), 1000 - expectedSize);
+        assertEquals(scaler.getCurrentSize(), 1000);
+    }
+
+    @Test
+    public void testSizeFollowsRateAndRoundTrip() {
+        long now = System.nanoTime();
+        ReceiverQueueAutoScaler scaler = new ReceiverQueueAutoScaler(1, 1000, now);
+
+        // 10 ms round trip
+        scaler.flowSent(true, now);
+        now += TimeUnit.MILLISECONDS.toNanos(10);
+        scaler.messageReceived(now);
+
+        // 10K msg/s: the window covers twice the messages processed during a round trip
+        now += INTERVAL - TimeUnit.MILLISECONDS.toNanos(10);
+        scaler.messagesProcessed(1000, false, now);
+        assertEquals(scaler.getCurrentSize(), 200);
+
+        // A longer round trip does not replace the minimum
+        scaler.flowSent(true, now);
+        scaler.messageReceived(now + TimeUnit.MILLISECONDS.toNanos(50));
+        now += INTERVAL;
+        scaler.messagesProcessed(1000, false, now);
+        assertEquals(scaler.getCurrentSize(), 200);
+
+        // A flow sent while permits are still in flight is not a probe
+        scaler.flowSent(false, now);
+        scaler.messageReceived(now + 1);
+        now += INTERVAL;
+        scaler.messagesProcessed(1000, false, now);
+        assertEquals(scaler.getCurrentSize(), 200);
+    }
+
+    @Test
+    public void testShrinkWhenSlow() {
+        long now = System.nanoTime();
+        ReceiverQueueAutoScaler scaler = new ReceiverQueueAutoScaler(1, 1000, now);
+        scaler.flowSent(true, now);
+        scaler.messageReceived(now + TimeUnit.MILLISECONDS.toNanos(10));
+
+        // The application keeps up with the broker and drains the whole window at each round trip
+        for (int i = 0; i < 12; i++) {
+            now += INTERVAL;
+            scaler.messagesProcessed(10 * scaler.getCurrentSize(), true, now);
+        }
+        assertEquals(scaler.getCurrentSize(), 1000);
+
+        // The application slows down to 10 msg/s: the window shrinks, by at most half at each evaluation
+        int size = scaler.getCurrentSize();
+        for (int i = 0; i < 50; i++) {
+            now += INTERVAL;
+            int delta = scaler.messagesProcessed(1, false, now);
+            assertTrue(delta <= 0);
+            assertTrue(-delta <= size / 2);
+            size = scaler.getCurrentSize();
+        }
+        assertEquals(size, 1);
+
+        // Never below the minimum
+        now += INTERVAL;
+        assertEquals(scaler.messagesProcessed(0, false, now), 0);
+        assertEquals(scaler.getCurrentSize(), 1);
+    }
+}
@@ -40,6 +40,7 @@ import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandPong;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandProducer;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandProducerSuccess;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandRedeliverUnacknowledgedMessages;
+import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSend;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSendError;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSendReceipt;
@@ -277,6 +278,12 @@ public class Commands {
 
     public static ByteBuf newSubscribe(String topic, String subscription, long consumerId, long requestId,
             SubType subType, String consumerName) {
+        return newSubscribe(topic, subscription, consumerId, requestId, subType, consumerName, true /* isDurable */,
+                null /* startMessageId */);
+    }
+
+    public static ByteBuf newSubscribe(String topic, String subscription, long consumerId, long requestId,
+            SubType subType, String consumerName, boolean isDurable, MessageIdData startMessageId) {
         CommandSubscribe.Builder subscribeBuilder = CommandSubscribe.newBuilder();
         subscribeBuilder.setTopic(topic);
         subscribeBuilder.setSubscription(subscription);
@@ -284,6 +291,11 @@ public class Commands {
         subscribeBuilder.setConsumerId(consumerId);
         subscribeBuilder.setConsumerName(consumerName);
         subscribeBuilder.setRequestId(requestId);
+        subscribeBuilder.setDurable(isDurable);
+        if (startMessageId != null) {
+            subscribeBuilder.setStartMessageId(startMessageId);
+        }
+
         CommandSubscribe subscribe = subscribeBuilder.build();
         ByteBuf res = serializeWithSize(BaseCommand.newBuilder().setType(Type.SUBSCRIBE).setSubscribe(subscribe));
         subscribeBuilder.recycle();
@@ -302,6 +314,39 @@ public class Commands {
         return res;
     }
 
+    public static ByteBuf newSeek(long consumerId, long requestId, long ledgerId, long entryId) {
+        CommandSeek.Builder seekBuilder = CommandSeek.newBuilder();
+        seekBuilder.setConsumerId(consumerId);
+        seekBuilder.setRequestId(requestId);
+
+        MessageIdData.Builder messageIdBuilder = MessageIdData.newBuilder();
+        messageIdBuilder.setLedgerId(ledgerId);
+        messageIdBuilder.setEntryId(entryId);
+        MessageIdData messageId = messageIdBuilder.build();
+        seekBuilder.setMessageId(messageId);
+
+        CommandSeek seek = seekBuilder.build();
+        ByteBuf res = serializeWithSize(BaseCommand.newBuilder().setType(Type.SEEK).setSeek(seek));
+        messageId.recycle();
+        messageIdBuilder.recycle();
+        seekBuilder.recycle();
+        seek.recycle();
+        return res;
+    }
+
+    public static ByteBuf newSeek(long consumerId, long requestId, long timestamp) {
+        CommandSeek.Builder seekBuilder = CommandSeek.newBuilder();
+        seekBuilder.setConsumerId(consumerId);
+        seekBuilder.setRequestId(requestId);
+        seekBuilder.setMessagePublishTime(timestamp);
+
+        CommandSeek seek = seekBuilder.build();
+        ByteBuf res = serializeWithSize(BaseCommand.newBuilder().setType(Type.SEEK).setSeek(seek));
+        seekBuilder.recycle();
+        seek.recycle();
+        return res;
+    }
+
     public static ByteBuf newCloseConsumer(long consumerId, long requestId) {
         CommandCloseConsumer.Builder closeConsumerBuilder = CommandCloseConsumer.newBuilder();
         closeConsumerBuilder.setConsumerId(consumerId);
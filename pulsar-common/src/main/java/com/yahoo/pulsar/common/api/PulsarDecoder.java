@@ -34,6 +34,7 @@ import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandPong;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandProducer;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandProducerSuccess;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandRedeliverUnacknowledgedMessages;
+import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSend;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSendError;
 import com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSendReceipt;
@@ -195,6 +196,12 @@ public abstract class PulsarDecoder extends ChannelInboundHandlerAdapter {
                 handleRedeliverUnacknowledged(cmd.getRedeliverUnacknowledgedMessages());
                 cmd.getRedeliverUnacknowledgedMessages().recycle();
                 break;
+
+            case SEEK:
+                checkArgument(cmd.hasSeek());
+                handleSeek(cmd.getSeek());
+                cmd.getSeek().recycle();
+                break;
             }
 
         } finally {
@@ -260,6 +267,10 @@ public abstract class PulsarDecoder extends ChannelInboundHandlerAdapter {
         throw new UnsupportedOperationException();
     }
 
+    protected void handleSeek(CommandSeek seek) {
+        throw new UnsupportedOperationException();
+    }
+
     protected void handleSuccess(CommandSuccess success) {
         throw new UnsupportedOperationException();
     }
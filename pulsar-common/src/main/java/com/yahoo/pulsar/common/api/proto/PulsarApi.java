@@ -13,11 +13,15 @@ public final class PulsarApi {
     NONE(0, 0),
     LZ4(1, 1),
     ZLIB(2, 2),
+    ZSTD(3, 3),
+    SNAPPY(4, 4),
     ;
     
     public static final int NONE_VALUE = 0;
     public static final int LZ4_VALUE = 1;
     public static final int ZLIB_VALUE = 2;
+    public static final int ZSTD_VALUE = 3;
+    public static final int SNAPPY_VALUE = 4;
     
     
     public final int getNumber() { return value; }
@@ -27,6 +31,8 @@ public final class PulsarApi {
         case 0: return NONE;
         case 1: return LZ4;
         case 2: return ZLIB;
+        case 3: return ZSTD;
+        case 4: return SNAPPY;
         default: return null;
       }
     }
@@ -170,6 +176,7 @@ public final class PulsarApi {
     v4(4, 4),
     v5(5, 5),
     v6(6, 6),
+    v7(7, 7),
     ;
     
     public static final int v0_VALUE = 0;
@@ -179,6 +186,7 @@ public final class PulsarApi {
     public static final int v4_VALUE = 4;
     public static final int v5_VALUE = 5;
     public static final int v6_VALUE = 6;
+    public static final int v7_VALUE = 7;
     
     
     public final int getNumber() { return value; }
@@ -192,6 +200,7 @@ public final class PulsarApi {
         case 4: return v4;
         case 5: return v5;
         case 6: return v6;
+        case 7: return v7;
         default: return null;
       }
     }
@@ -3991,6 +4000,14 @@ public final class PulsarApi {
     // optional string consumer_name = 6;
     boolean hasConsumerName();
     String getConsumerName();
+    
+    // optional bool durable = 7 [default = true];
+    boolean hasDurable();
+    boolean getDurable();
+    
+    // optional .com.yahoo.pulsar.common.api.proto.MessageIdData start_message_id = 8;
+    boolean hasStartMessageId();
+    com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData getStartMessageId();
   }
   public static final class CommandSubscribe extends
       com.google.protobuf.GeneratedMessageLite
@@ -4197,6 +4214,26 @@ public final class PulsarApi {
       }
     }
     
+    // optional bool durable = 7 [default = true];
+    public static final int DURABLE_FIELD_NUMBER = 7;
+    private boolean durable_;
+    public boolean hasDurable() {
+      return ((bitField0_ & 0x00000040) == 0x00000040);
+    }
+    public boolean getDurable() {
+      return durable_;
+    }
+    
+    // optional .com.yahoo.pulsar.common.api.proto.MessageIdData start_message_id = 8;
+    public static final int START_MESSAGE_ID_FIELD_NUMBER = 8;
+    private com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData startMessageId_;
+    public boolean hasStartMessageId() {
+      return ((bitField0_ & 0x00000080) == 0x00000080);
+    }
+    public com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData getStartMessageId() {
+      return startMessageId_;
+    }
+    
     private void initFields() {
       topic_ = "";
       subscription_ = "";
@@ -4204,6 +4241,8 @@ public final class PulsarApi {
       consumerId_ = 0L;
       requestId_ = 0L;
       consumerName_ = "";
+      durable_ = true;
+      startMessageId_ = com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.getDefaultInstance();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -4230,6 +4269,12 @@ public final class PulsarApi {
         memoizedIsInitialized = 0;
         return false;
       }
+      if (hasStartMessageId()) {
+        if (!getStartMessageId().isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
       memoizedIsInitialized = 1;
       return true;
     }
@@ -4260,6 +4305,12 @@ public final class PulsarApi {
       if (((bitField0_ & 0x00000020) == 0x00000020)) {
         output.writeBytes(6, getConsumerNameBytes());
       }
+      if (((bitField0_ & 0x00000040) == 0x00000040)) {
+        output.writeBool(7, durable_);
+      }
+      if (((bitField0_ & 0x00000080) == 0x00000080)) {
+        output.writeMessage(8, startMessageId_);
+      }
     }
     
     private int memoizedSerializedSize = -1;
@@ -4292,6 +4343,14 @@ public final class PulsarApi {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(6, getConsumerNameBytes());
       }
+      if (((bitField0_ & 0x00000040) == 0x00000040)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(7, durable_);
+      }
+      if (((bitField0_ & 0x00000080) == 0x00000080)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(8, startMessageId_);
+      }
       memoizedSerializedSize = size;
       return size;
     }
@@ -4417,6 +4476,10 @@ public final class PulsarApi {
         bitField0_ = (bitField0_ & ~0x00000010);
         consumerName_ = "";
         bitField0_ = (bitField0_ & ~0x00000020);
+        durable_ = true;
+        bitField0_ = (bitField0_ & ~0x00000040);
+        startMessageId_ = com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.getDefaultInstance();
+        bitField0_ = (bitField0_ & ~0x00000080);
         return this;
       }
       
@@ -4474,6 +4537,14 @@ public final class PulsarApi {
           to_bitField0_ |= 0x00000020;
         }
         result.consumerName_ = consumerName_;
+        if (((from_bitField0_ & 0x00000040) == 0x00000040)) {
+          to_bitField0_ |= 0x00000040;
+        }
+        result.durable_ = durable_;
+        if (((from_bitField0_ & 0x00000080) == 0x00000080)) {
+          to_bitField0_ |= 0x00000080;
+        }
+        result.startMessageId_ = startMessageId_;
         result.bitField0_ = to_bitField0_;
         return result;
       }
@@ -4498,6 +4569,12 @@ public final class PulsarApi {
         if (other.hasConsumerName()) {
           setConsumerName(other.getConsumerName());
         }
+        if (other.hasDurable()) {
+          setDurable(other.getDurable());
+        }
+        if (other.hasStartMessageId()) {
+          mergeStartMessageId(other.getStartMessageId());
+        }
         return this;
       }
       
@@ -4522,6 +4599,12 @@ public final class PulsarApi {
           
           return false;
         }
+        if (hasStartMessageId()) {
+          if (!getStartMessageId().isInitialized()) {
+            
+            return false;
+          }
+        }
         return true;
       }
       
@@ -4581,6 +4664,21 @@ public final class PulsarApi {
               consumerName_ = input.readBytes();
               break;
             }
+            case 56: {
+              bitField0_ |= 0x00000040;
+              durable_ = input.readBool();
+              break;
+            }
+            case 66: {
+              com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.Builder subBuilder = com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.newBuilder();
+              if (hasStartMessageId()) {
+                subBuilder.mergeFrom(getStartMessageId());
+              }
+              input.readMessage(subBuilder, extensionRegistry);
+              setStartMessageId(subBuilder.buildPartial());
+              subBuilder.recycle();
+              break;
+            }
           }
         }
       }
@@ -4761,6 +4859,70 @@ public final class PulsarApi {
         
       }
       
+      // optional bool durable = 7 [default = true];
+      private boolean durable_ = true;
+      public boolean hasDurable() {
+        return ((bitField0_ & 0x00000040) == 0x00000040);
+      }
+      public boolean getDurable() {
+        return durable_;
+      }
+      public Builder setDurable(boolean value) {
+        bitField0_ |= 0x00000040;
+        durable_ = value;
+        
+        return this;
+      }
+      public Builder clearDurable() {
+        bitField0_ = (bitField0_ & ~0x00000040);
+        durable_ = true;
+        
+        return this;
+      }
+      
+      // optional .com.yahoo.pulsar.common.api.proto.MessageIdData start_message_id = 8;
+      private com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData startMessageId_ = com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.getDefaultInstance();
+      public boolean hasStartMessageId() {
+        return ((bitField0_ & 0x00000080) == 0x00000080);
+      }
+      public com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData getStartMessageId() {
+        return startMessageId_;
+      }
+      public Builder setStartMessageId(com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        startMessageId_ = value;
+        
+        bitField0_ |= 0x00000080;
+        return this;
+      }
+      public Builder setStartMessageId(
+          com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.Builder builderForValue) {
+        startMessageId_ = builderForValue.build();
+        
+        bitField0_ |= 0x00000080;
+        return this;
+      }
+      public Builder mergeStartMessageId(com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData value) {
+        if (((bitField0_ & 0x00000080) == 0x00000080) &&
+            startMessageId_ != com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.getDefaultInstance()) {
+          startMessageId_ =
+            com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.newBuilder(startMessageId_).mergeFrom(value).buildPartial();
+        } else {
+          startMessageId_ = value;
+        }
+        
+        bitField0_ |= 0x00000080;
+        return this;
+      }
+      public Builder clearStartMessageId() {
+        startMessageId_ = com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.getDefaultInstance();
+        
+        bitField0_ = (bitField0_ & ~0x00000080);
+        return this;
+      }
+      
       // @@protoc_insertion_point(builder_scope:com.yahoo.pulsar.common.api.proto.CommandSubscribe)
     }
     
@@ -10006,25 +10168,37 @@ public final class PulsarApi {
     // @@protoc_insertion_point(class_scope:com.yahoo.pulsar.common.api.proto.CommandRedeliverUnacknowledgedMessages)
   }
   
-  public interface CommandSuccessOrBuilder
+  public interface CommandSeekOrBuilder
       extends com.google.protobuf.MessageLiteOrBuilder {
     
-    // required uint64 request_id = 1;
+    // required uint64 consumer_id = 1;
+    boolean hasConsumerId();
+    long getConsumerId();
+    
+    // required uint64 request_id = 2;
     boolean hasRequestId();
     long getRequestId();
+    
+    // optional .com.yahoo.pulsar.common.api.proto.MessageIdData message_id = 3;
+    boolean hasMessageId();
+    com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData getMessageId();
+    
+    // optional uint64 message_publish_time = 4;
+    boolean hasMessagePublishTime();
+    long getMessagePublishTime();
   }
-  public static final class CommandSuccess extends
+  public static final class CommandSeek extends
       com.google.protobuf.GeneratedMessageLite
-      implements CommandSuccessOrBuilder, com.yahoo.pulsar.common.util.protobuf.ByteBufCodedOutputStream.ByteBufGeneratedMessage  {
-    // Use CommandSuccess.newBuilder() to construct.
+      implements CommandSeekOrBuilder, com.yahoo.pulsar.common.util.protobuf.ByteBufCodedOutputStream.ByteBufGeneratedMessage  {
+    // Use CommandSeek.newBuilder() to construct.
     private io.netty.util.Recycler.Handle handle;
-    private CommandSuccess(io.netty.util.Recycler.Handle handle) {
+    private CommandSeek(io.netty.util.Recycler.Handle handle) {
       this.handle = handle;
     }
     
-     private static final io.netty.util.Recycler<CommandSuccess> RECYCLER = new io.netty.util.Recycler<CommandSuccess>() {
-            protected CommandSuccess newObject(Handle handle) {
-              return new CommandSuccess(handle);
+     private static final io.netty.util.Recycler<CommandSeek> RECYCLER = new io.netty.util.Recycler<CommandSeek>() {
+            protected CommandSeek newObject(Handle handle) {
+              return new CommandSeek(handle);
             }
           };
         
@@ -10036,40 +10210,83 @@ public final class PulsarApi {
             if (handle != null) { RECYCLER.recycle(this, handle); }
         }
          
-    private CommandSuccess(boolean noInit) {}
+    private CommandSeek(boolean noInit) {}
     
-    private static final CommandSuccess defaultInstance;
-    public static CommandSuccess getDefaultInstance() {
+    private static final CommandSeek defaultInstance;
+    public static CommandSeek getDefaultInstance() {
       return defaultInstance;
     }
     
-    public CommandSuccess getDefaultInstanceForType() {
+    public CommandSeek getDefaultInstanceForType() {
       return defaultInstance;
     }
     
     private int bitField0_;
-    // required uint64 request_id = 1;
-    public static final int REQUEST_ID_FIELD_NUMBER = 1;
+    // required uint64 consumer_id = 1;
+    public static final int CONSUMER_ID_FIELD_NUMBER = 1;
+    private long consumerId_;
+    public boolean hasConsumerId() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    public long getConsumerId() {
+      return consumerId_;
+    }
+    
+    // required uint64 request_id = 2;
+    public static final int REQUEST_ID_FIELD_NUMBER = 2;
     private long requestId_;
     public boolean hasRequestId() {
-      return ((bitField0_ & 0x00000001) == 0x00000001);
+      return ((bitField0_ & 0x00000002) == 0x00000002);
     }
     public long getRequestId() {
       return requestId_;
     }
     
+    // optional .com.yahoo.pulsar.common.api.proto.MessageIdData message_id = 3;
+    public static final int MESSAGE_ID_FIELD_NUMBER = 3;
+    private com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData messageId_;
+    public boolean hasMessageId() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    public com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData getMessageId() {
+      return messageId_;
+    }
+    
+    // optional uint64 message_publish_time = 4;
+    public static final int MESSAGE_PUBLISH_TIME_FIELD_NUMBER = 4;
+    private long messagePublishTime_;
+    public boolean hasMessagePublishTime() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    public long getMessagePublishTime() {
+      return messagePublishTime_;
+    }
+    
     private void initFields() {
+      consumerId_ = 0L;
       requestId_ = 0L;
+      messageId_ = com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.getDefaultInstance();
+      messagePublishTime_ = 0L;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
       if (isInitialized != -1) return isInitialized == 1;
       
+      if (!hasConsumerId()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
       if (!hasRequestId()) {
         memoizedIsInitialized = 0;
         return false;
       }
+      if (hasMessageId()) {
+        if (!getMessageId().isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
       memoizedIsInitialized = 1;
       return true;
     }
@@ -10083,7 +10300,16 @@ public final class PulsarApi {
                         throws java.io.IOException {
       getSerializedSize();
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
-        output.writeUInt64(1, requestId_);
+        output.writeUInt64(1, consumerId_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeUInt64(2, requestId_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeMessage(3, messageId_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeUInt64(4, messagePublishTime_);
       }
     }
     
@@ -10095,7 +10321,19 @@ public final class PulsarApi {
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeUInt64Size(1, requestId_);
+          .computeUInt64Size(1, consumerId_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt64Size(2, requestId_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(3, messageId_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt64Size(4, messagePublishTime_);
       }
       memoizedSerializedSize = size;
       return size;
@@ -10108,40 +10346,40 @@ public final class PulsarApi {
       return super.writeReplace();
     }
     
-    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
          throw new RuntimeException("Disabled");
     }
-    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
          throw new RuntimeException("Disabled");
     }
-    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(byte[] data)
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return newBuilder().mergeFrom(data).buildParsed();
     }
-    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return newBuilder().mergeFrom(data, extensionRegistry)
                .buildParsed();
     }
-    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(java.io.InputStream input)
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek parseFrom(java.io.InputStream input)
         throws java.io.IOException {
       return newBuilder().mergeFrom(input).buildParsed();
     }
-    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return newBuilder().mergeFrom(input, extensionRegistry)
                .buildParsed();
     }
-    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseDelimitedFrom(java.io.InputStream input)
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
       Builder builder = newBuilder();
       if (builder.mergeDelimitedFrom(input)) {
@@ -10150,7 +10388,7 @@ public final class PulsarApi {
         return null;
       }
     }
-    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseDelimitedFrom(
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
@@ -10161,12 +10399,12 @@ public final class PulsarApi {
         return null;
       }
     }
-    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
       return newBuilder().mergeFrom(input).buildParsed();
     }
-    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
@@ -10176,16 +10414,16 @@ public final class PulsarApi {
     
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
-    public static Builder newBuilder(com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess prototype) {
+    public static Builder newBuilder(com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
     
     public static final class Builder extends
         com.google.protobuf.GeneratedMessageLite.Builder<
-          com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess, Builder>
-        implements com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccessOrBuilder, com.yahoo.pulsar.common.util.protobuf.ByteBufCodedInputStream.ByteBufMessageBuilder  {
-      // Construct using com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess.newBuilder()
+          com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek, Builder>
+        implements com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeekOrBuilder, com.yahoo.pulsar.common.util.protobuf.ByteBufCodedInputStream.ByteBufMessageBuilder  {
+      // Construct using com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.newBuilder()
       private final io.netty.util.Recycler.Handle handle;
       private Builder(io.netty.util.Recycler.Handle handle) {
         this.handle = handle;
@@ -10210,8 +10448,14 @@ public final class PulsarApi {
       
       public Builder clear() {
         super.clear();
-        requestId_ = 0L;
+        consumerId_ = 0L;
         bitField0_ = (bitField0_ & ~0x00000001);
+        requestId_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        messageId_ = com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.getDefaultInstance();
+        bitField0_ = (bitField0_ & ~0x00000004);
+        messagePublishTime_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000008);
         return this;
       }
       
@@ -10219,21 +10463,21 @@ public final class PulsarApi {
         return create().mergeFrom(buildPartial());
       }
       
-      public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess getDefaultInstanceForType() {
-        return com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess.getDefaultInstance();
+      public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek getDefaultInstanceForType() {
+        return com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.getDefaultInstance();
       }
       
-      public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess build() {
-        com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess result = buildPartial();
+      public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek build() {
+        com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek result = buildPartial();
         if (!result.isInitialized()) {
           throw newUninitializedMessageException(result);
         }
         return result;
       }
       
-      private com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess buildParsed()
+      private com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek buildParsed()
           throws com.google.protobuf.InvalidProtocolBufferException {
-        com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess result = buildPartial();
+        com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek result = buildPartial();
         if (!result.isInitialized()) {
           throw newUninitializedMessageException(
             result).asInvalidProtocolBufferException();
@@ -10241,31 +10485,62 @@ public final class PulsarApi {
         return result;
       }
       
-      public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess buildPartial() {
-        com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess result = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess.RECYCLER.get();
+      public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek buildPartial() {
+        com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek result = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.RECYCLER.get();
         int from_bitField0_ = bitField0_;
         int to_bitField0_ = 0;
         if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
           to_bitField0_ |= 0x00000001;
         }
+        result.consumerId_ = consumerId_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
         result.requestId_ = requestId_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.messageId_ = messageId_;
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        result.messagePublishTime_ = messagePublishTime_;
         result.bitField0_ = to_bitField0_;
         return result;
       }
       
-      public Builder mergeFrom(com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess other) {
-        if (other == com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess.getDefaultInstance()) return this;
+      public Builder mergeFrom(com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek other) {
+        if (other == com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.getDefaultInstance()) return this;
+        if (other.hasConsumerId()) {
+          setConsumerId(other.getConsumerId());
+        }
         if (other.hasRequestId()) {
           setRequestId(other.getRequestId());
         }
+        if (other.hasMessageId()) {
+          mergeMessageId(other.getMessageId());
+        }
+        if (other.hasMessagePublishTime()) {
+          setMessagePublishTime(other.getMessagePublishTime());
+        }
         return this;
       }
       
       public final boolean isInitialized() {
+        if (!hasConsumerId()) {
+          
+          return false;
+        }
         if (!hasRequestId()) {
           
           return false;
         }
+        if (hasMessageId()) {
+          if (!getMessageId().isInitialized()) {
+            
+            return false;
+          }
+        }
         return true;
       }
       
@@ -10293,19 +10568,452 @@ public final class PulsarApi {
             }
             case 8: {
               bitField0_ |= 0x00000001;
+              consumerId_ = input.readUInt64();
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000002;
               requestId_ = input.readUInt64();
               break;
             }
+            case 26: {
+              com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.Builder subBuilder = com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.newBuilder();
+              if (hasMessageId()) {
+                subBuilder.mergeFrom(getMessageId());
+              }
+              input.readMessage(subBuilder, extensionRegistry);
+              setMessageId(subBuilder.buildPartial());
+              subBuilder.recycle();
+              break;
+            }
+            case 32: {
+              bitField0_ |= 0x00000008;
+              messagePublishTime_ = input.readUInt64();
+              break;
+            }
           }
         }
       }
       
       private int bitField0_;
       
-      // required uint64 request_id = 1;
-      private long requestId_ ;
-      public boolean hasRequestId() {
-        return ((bitField0_ & 0x00000001) == 0x00000001);
+      // required uint64 consumer_id = 1;
+      private long consumerId_ ;
+      public boolean hasConsumerId() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      public long getConsumerId() {
+        return consumerId_;
+      }
+      public Builder setConsumerId(long value) {
+        bitField0_ |= 0x00000001;
+        consumerId_ = value;
+        
+        return this;
+      }
+      public Builder clearConsumerId() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        consumerId_ = 0L;
+        
+        return this;
+      }
+      
+      // required uint64 request_id = 2;
+      private long requestId_ ;
+      public boolean hasRequestId() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      public long getRequestId() {
+        return requestId_;
+      }
+      public Builder setRequestId(long value) {
+        bitField0_ |= 0x00000002;
+        requestId_ = value;
+        
+        return this;
+      }
+      public Builder clearRequestId() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        requestId_ = 0L;
+        
+        return this;
+      }
+      
+      // optional .com.yahoo.pulsar.common.api.proto.MessageIdData message_id = 3;
+      private com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData messageId_ = com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.getDefaultInstance();
+      public boolean hasMessageId() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      public com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData getMessageId() {
+        return messageId_;
+      }
+      public Builder setMessageId(com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        messageId_ = value;
+        
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      public Builder setMessageId(
+          com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.Builder builderForValue) {
+        messageId_ = builderForValue.build();
+        
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      public Builder mergeMessageId(com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData value) {
+        if (((bitField0_ & 0x00000004) == 0x00000004) &&
+            messageId_ != com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.getDefaultInstance()) {
+          messageId_ =
+            com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.newBuilder(messageId_).mergeFrom(value).buildPartial();
+        } else {
+          messageId_ = value;
+        }
+        
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      public Builder clearMessageId() {
+        messageId_ = com.yahoo.pulsar.common.api.proto.PulsarApi.MessageIdData.getDefaultInstance();
+        
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+      
+      // optional uint64 message_publish_time = 4;
+      private long messagePublishTime_ ;
+      public boolean hasMessagePublishTime() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      public long getMessagePublishTime() {
+        return messagePublishTime_;
+      }
+      public Builder setMessagePublishTime(long value) {
+        bitField0_ |= 0x00000008;
+        messagePublishTime_ = value;
+        
+        return this;
+      }
+      public Builder clearMessagePublishTime() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        messagePublishTime_ = 0L;
+        
+        return this;
+      }
+      
+      // @@protoc_insertion_point(builder_scope:com.yahoo.pulsar.common.api.proto.CommandSeek)
+    }
+    
+    static {
+      defaultInstance = new CommandSeek(true);
+      defaultInstance.initFields();
+    }
+    
+    // @@protoc_insertion_point(class_scope:com.yahoo.pulsar.common.api.proto.CommandSeek)
+  }
+  
+  public interface CommandSuccessOrBuilder
+      extends com.google.protobuf.MessageLiteOrBuilder {
+    
+    // required uint64 request_id = 1;
+    boolean hasRequestId();
+    long getRequestId();
+  }
+  public static final class CommandSuccess extends
+      com.google.protobuf.GeneratedMessageLite
+      implements CommandSuccessOrBuilder, com.yahoo.pulsar.common.util.protobuf.ByteBufCodedOutputStream.ByteBufGeneratedMessage  {
+    // Use CommandSuccess.newBuilder() to construct.
+    private io.netty.util.Recycler.Handle handle;
+    private CommandSuccess(io.netty.util.Recycler.Handle handle) {
+      this.handle = handle;
+    }
+    
+     private static final io.netty.util.Recycler<CommandSuccess> RECYCLER = new io.netty.util.Recycler<CommandSuccess>() {
+            protected CommandSuccess newObject(Handle handle) {
+              return new CommandSuccess(handle);
+            }
+          };
+        
+        public void recycle() {
+            this.initFields();
+            this.memoizedIsInitialized = -1;
+            this.bitField0_ = 0;
+            this.memoizedSerializedSize = -1;
+            if (handle != null) { RECYCLER.recycle(this, handle); }
+        }
+         
+    private CommandSuccess(boolean noInit) {}
+    
+    private static final CommandSuccess defaultInstance;
+    public static CommandSuccess getDefaultInstance() {
+      return defaultInstance;
+    }
+    
+    public CommandSuccess getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+    
+    private int bitField0_;
+    // required uint64 request_id = 1;
+    public static final int REQUEST_ID_FIELD_NUMBER = 1;
+    private long requestId_;
+    public boolean hasRequestId() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    public long getRequestId() {
+      return requestId_;
+    }
+    
+    private void initFields() {
+      requestId_ = 0L;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized != -1) return isInitialized == 1;
+      
+      if (!hasRequestId()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+    
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+        throw new RuntimeException("Cannot use CodedOutputStream");
+    }
+    
+    public void writeTo(com.yahoo.pulsar.common.util.protobuf.ByteBufCodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeUInt64(1, requestId_);
+      }
+    }
+    
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+    
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt64Size(1, requestId_);
+      }
+      memoizedSerializedSize = size;
+      return size;
+    }
+    
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+    
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+         throw new RuntimeException("Disabled");
+    }
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+         throw new RuntimeException("Disabled");
+    }
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return newBuilder().mergeFrom(data).buildParsed();
+    }
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return newBuilder().mergeFrom(data, extensionRegistry)
+               .buildParsed();
+    }
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input).buildParsed();
+    }
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input, extensionRegistry)
+               .buildParsed();
+    }
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      Builder builder = newBuilder();
+      if (builder.mergeDelimitedFrom(input)) {
+        return builder.buildParsed();
+      } else {
+        return null;
+      }
+    }
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      Builder builder = newBuilder();
+      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
+        return builder.buildParsed();
+      } else {
+        return null;
+      }
+    }
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input).buildParsed();
+    }
+    public static com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input, extensionRegistry)
+               .buildParsed();
+    }
+    
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+    
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessageLite.Builder<
+          com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess, Builder>
+        implements com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccessOrBuilder, com.yahoo.pulsar.common.util.protobuf.ByteBufCodedInputStream.ByteBufMessageBuilder  {
+      // Construct using com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess.newBuilder()
+      private final io.netty.util.Recycler.Handle handle;
+      private Builder(io.netty.util.Recycler.Handle handle) {
+        this.handle = handle;
+        maybeForceBuilderInitialization();
+      }
+      private final static io.netty.util.Recycler<Builder> RECYCLER = new io.netty.util.Recycler<Builder>() {
+         protected Builder newObject(io.netty.util.Recycler.Handle handle) {
+               return new Builder(handle);
+             }
+            };
+      
+       public void recycle() {
+                clear();
+                if (handle != null) {RECYCLER.recycle(this, handle);}
+            }
+      
+      private void maybeForceBuilderInitialization() {
+      }
+      private static Builder create() {
+        return RECYCLER.get();
+      }
+      
+      public Builder clear() {
+        super.clear();
+        requestId_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+      
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+      
+      public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess getDefaultInstanceForType() {
+        return com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess.getDefaultInstance();
+      }
+      
+      public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess build() {
+        com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+      
+      private com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess buildParsed()
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(
+            result).asInvalidProtocolBufferException();
+        }
+        return result;
+      }
+      
+      public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess buildPartial() {
+        com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess result = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess.RECYCLER.get();
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.requestId_ = requestId_;
+        result.bitField0_ = to_bitField0_;
+        return result;
+      }
+      
+      public Builder mergeFrom(com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess other) {
+        if (other == com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSuccess.getDefaultInstance()) return this;
+        if (other.hasRequestId()) {
+          setRequestId(other.getRequestId());
+        }
+        return this;
+      }
+      
+      public final boolean isInitialized() {
+        if (!hasRequestId()) {
+          
+          return false;
+        }
+        return true;
+      }
+      
+      public Builder mergeFrom(com.google.protobuf.CodedInputStream input,
+                              com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+                              throws java.io.IOException {
+         throw new java.io.IOException("Merge from CodedInputStream is disabled");
+                              }
+      public Builder mergeFrom(
+          com.yahoo.pulsar.common.util.protobuf.ByteBufCodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        while (true) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              
+              return this;
+            default: {
+              if (!input.skipField(tag)) {
+                
+                return this;
+              }
+              break;
+            }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              requestId_ = input.readUInt64();
+              break;
+            }
+          }
+        }
+      }
+      
+      private int bitField0_;
+      
+      // required uint64 request_id = 1;
+      private long requestId_ ;
+      public boolean hasRequestId() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
       }
       public long getRequestId() {
         return requestId_;
@@ -11862,6 +12570,10 @@ public final class PulsarApi {
     // optional .com.yahoo.pulsar.common.api.proto.CommandRedeliverUnacknowledgedMessages redeliverUnacknowledgedMessages = 20;
     boolean hasRedeliverUnacknowledgedMessages();
     com.yahoo.pulsar.common.api.proto.PulsarApi.CommandRedeliverUnacknowledgedMessages getRedeliverUnacknowledgedMessages();
+    
+    // optional .com.yahoo.pulsar.common.api.proto.CommandSeek seek = 21;
+    boolean hasSeek();
+    com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek getSeek();
   }
   public static final class BaseCommand extends
       com.google.protobuf.GeneratedMessageLite
@@ -11918,6 +12630,7 @@ public final class PulsarApi {
       PING(16, 18),
       PONG(17, 19),
       REDELIVER_UNACKNOWLEDGED_MESSAGES(18, 20),
+      SEEK(19, 21),
       ;
       
       public static final int CONNECT_VALUE = 2;
@@ -11939,6 +12652,7 @@ public final class PulsarApi {
       public static final int PING_VALUE = 18;
       public static final int PONG_VALUE = 19;
       public static final int REDELIVER_UNACKNOWLEDGED_MESSAGES_VALUE = 20;
+      public static final int SEEK_VALUE = 21;
       
       
       public final int getNumber() { return value; }
@@ -11964,6 +12678,7 @@ public final class PulsarApi {
           case 18: return PING;
           case 19: return PONG;
           case 20: return REDELIVER_UNACKNOWLEDGED_MESSAGES;
+          case 21: return SEEK;
           default: return null;
         }
       }
@@ -12190,6 +12905,16 @@ public final class PulsarApi {
       return redeliverUnacknowledgedMessages_;
     }
     
+    // optional .com.yahoo.pulsar.common.api.proto.CommandSeek seek = 21;
+    public static final int SEEK_FIELD_NUMBER = 21;
+    private com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek seek_;
+    public boolean hasSeek() {
+      return ((bitField0_ & 0x00100000) == 0x00100000);
+    }
+    public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek getSeek() {
+      return seek_;
+    }
+    
     private void initFields() {
       type_ = com.yahoo.pulsar.common.api.proto.PulsarApi.BaseCommand.Type.CONNECT;
       connect_ = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandConnect.getDefaultInstance();
@@ -12211,6 +12936,7 @@ public final class PulsarApi {
       ping_ = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandPing.getDefaultInstance();
       pong_ = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandPong.getDefaultInstance();
       redeliverUnacknowledgedMessages_ = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandRedeliverUnacknowledgedMessages.getDefaultInstance();
+      seek_ = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.getDefaultInstance();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -12323,6 +13049,12 @@ public final class PulsarApi {
           return false;
         }
       }
+      if (hasSeek()) {
+        if (!getSeek().isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
       memoizedIsInitialized = 1;
       return true;
     }
@@ -12395,6 +13127,9 @@ public final class PulsarApi {
       if (((bitField0_ & 0x00080000) == 0x00080000)) {
         output.writeMessage(20, redeliverUnacknowledgedMessages_);
       }
+      if (((bitField0_ & 0x00100000) == 0x00100000)) {
+        output.writeMessage(21, seek_);
+      }
     }
     
     private int memoizedSerializedSize = -1;
@@ -12483,6 +13218,10 @@ public final class PulsarApi {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(20, redeliverUnacknowledgedMessages_);
       }
+      if (((bitField0_ & 0x00100000) == 0x00100000)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(21, seek_);
+      }
       memoizedSerializedSize = size;
       return size;
     }
@@ -12636,6 +13375,8 @@ public final class PulsarApi {
         bitField0_ = (bitField0_ & ~0x00040000);
         redeliverUnacknowledgedMessages_ = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandRedeliverUnacknowledgedMessages.getDefaultInstance();
         bitField0_ = (bitField0_ & ~0x00080000);
+        seek_ = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.getDefaultInstance();
+        bitField0_ = (bitField0_ & ~0x00100000);
         return this;
       }
       
@@ -12749,6 +13490,10 @@ public final class PulsarApi {
           to_bitField0_ |= 0x00080000;
         }
         result.redeliverUnacknowledgedMessages_ = redeliverUnacknowledgedMessages_;
+        if (((from_bitField0_ & 0x00100000) == 0x00100000)) {
+          to_bitField0_ |= 0x00100000;
+        }
+        result.seek_ = seek_;
         result.bitField0_ = to_bitField0_;
         return result;
       }
@@ -12815,6 +13560,9 @@ public final class PulsarApi {
         if (other.hasRedeliverUnacknowledgedMessages()) {
           mergeRedeliverUnacknowledgedMessages(other.getRedeliverUnacknowledgedMessages());
         }
+        if (other.hasSeek()) {
+          mergeSeek(other.getSeek());
+        }
         return this;
       }
       
@@ -12925,6 +13673,12 @@ public final class PulsarApi {
             return false;
           }
         }
+        if (hasSeek()) {
+          if (!getSeek().isInitialized()) {
+            
+            return false;
+          }
+        }
         return true;
       }
       
@@ -13149,6 +13903,16 @@ public final class PulsarApi {
               subBuilder.recycle();
               break;
             }
+            case 170: {
+              com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.Builder subBuilder = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.newBuilder();
+              if (hasSeek()) {
+                subBuilder.mergeFrom(getSeek());
+              }
+              input.readMessage(subBuilder, extensionRegistry);
+              setSeek(subBuilder.buildPartial());
+              subBuilder.recycle();
+              break;
+            }
           }
         }
       }
@@ -13996,6 +14760,49 @@ public final class PulsarApi {
         return this;
       }
       
+      // optional .com.yahoo.pulsar.common.api.proto.CommandSeek seek = 21;
+      private com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek seek_ = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.getDefaultInstance();
+      public boolean hasSeek() {
+        return ((bitField0_ & 0x00100000) == 0x00100000);
+      }
+      public com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek getSeek() {
+        return seek_;
+      }
+      public Builder setSeek(com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        seek_ = value;
+        
+        bitField0_ |= 0x00100000;
+        return this;
+      }
+      public Builder setSeek(
+          com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.Builder builderForValue) {
+        seek_ = builderForValue.build();
+        
+        bitField0_ |= 0x00100000;
+        return this;
+      }
+      public Builder mergeSeek(com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek value) {
+        if (((bitField0_ & 0x00100000) == 0x00100000) &&
+            seek_ != com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.getDefaultInstance()) {
+          seek_ =
+            com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.newBuilder(seek_).mergeFrom(value).buildPartial();
+        } else {
+          seek_ = value;
+        }
+        
+        bitField0_ |= 0x00100000;
+        return this;
+      }
+      public Builder clearSeek() {
+        seek_ = com.yahoo.pulsar.common.api.proto.PulsarApi.CommandSeek.getDefaultInstance();
+        
+        bitField0_ = (bitField0_ & ~0x00100000);
+        return this;
+      }
+      
       // @@protoc_insertion_point(builder_scope:com.yahoo.pulsar.common.api.proto.BaseCommand)
     }
     
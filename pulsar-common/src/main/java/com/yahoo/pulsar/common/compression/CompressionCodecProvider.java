@@ -29,6 +29,8 @@ public class CompressionCodecProvider {
         codecs.put(CompressionType.NONE, CompressionCodecNone.class);
         codecs.put(CompressionType.LZ4, CompressionCodecLZ4.class);
         codecs.put(CompressionType.ZLIB, CompressionCodecZLib.class);
+        codecs.put(CompressionType.ZSTD, CompressionCodecZstd.class);
+        codecs.put(CompressionType.SNAPPY, CompressionCodecSnappy.class);
     }
 
     public static CompressionCodec getCompressionCodec(CompressionType type) {
@@ -44,6 +46,18 @@ public class CompressionCodecProvider {
         }
     }
 
+    /**
+     * Get a codec for the given type, using the specified compression level with the codecs that support it (ZSTD).
+     * The level is ignored by the other codecs.
+     */
+    public static CompressionCodec getCompressionCodec(CompressionType type, int compressionLevel) {
+        if (type == CompressionType.ZSTD) {
+            return new CompressionCodecZstd(compressionLevel);
+        }
+
+        return getCompressionCodec(type);
+    }
+
     private final EnumMap<CompressionType, CompressionCodec> codecInstances;
 
     public CompressionCodecProvider() {
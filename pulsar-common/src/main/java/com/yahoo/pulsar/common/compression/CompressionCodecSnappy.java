@@ -0,0 +1,86 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.common.compression;
+
+import static com.yahoo.pulsar.common.compression.CompressionCodecZstd.toDirectBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.xerial.snappy.Snappy;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * Snappy Compression
+ * <p>
+ * Like the Zstandard codec, it uses the direct buffers API of the native library to avoid copies on the Java heap.
+ */
+public class CompressionCodecSnappy implements CompressionCodec {
+
+    @Override
+    public ByteBuf encode(ByteBuf source) {
+        int uncompressedLength = source.readableBytes();
+        int maxLength = Snappy.maxCompressedLength(uncompressedLength);
+
+        ByteBuf directSource = toDirectBuffer(source);
+        ByteBuf target = PooledByteBufAllocator.DEFAULT.directBuffer(maxLength, maxLength);
+        try {
+            ByteBuffer sourceNio = directSource.nioBuffer(directSource.readerIndex(), uncompressedLength);
+            ByteBuffer targetNio = target.nioBuffer(0, maxLength);
+
+            int compressedLength = Snappy.compress(sourceNio, targetNio);
+            target.writerIndex(compressedLength);
+            return target;
+        } catch (IOException e) {
+            target.release();
+            throw new RuntimeException(e);
+        } finally {
+            if (directSource != source) {
+                directSource.release();
+            }
+        }
+    }
+
+    @Override
+    public ByteBuf decode(ByteBuf encoded, int uncompressedLength) throws IOException {
+        ByteBuf directEncoded = toDirectBuffer(encoded);
+        ByteBuf uncompressed = PooledByteBufAllocator.DEFAULT.directBuffer(uncompressedLength, uncompressedLength);
+        try {
+            ByteBuffer encodedNio = directEncoded.nioBuffer(directEncoded.readerIndex(), directEncoded.readableBytes());
+            ByteBuffer uncompressedNio = uncompressed.nioBuffer(0, uncompressedLength);
+
+            // Snappy writes as many bytes as the size recorded in the compressed data, make sure it fits the buffer
+            int length = Snappy.uncompressedLength(encodedNio);
+            if (length != uncompressedLength) {
+                throw new IOException(
+                        "Invalid snappy uncompressed size " + length + ", expected " + uncompressedLength);
+            }
+
+            Snappy.uncompress(encodedNio, uncompressedNio);
+            uncompressed.writerIndex(uncompressedLength);
+            return uncompressed;
+        } catch (IOException e) {
+            uncompressed.release();
+            throw e;
+        } finally {
+            if (directEncoded != encoded) {
+                directEncoded.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.common.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.github.luben.zstd.Zstd;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * Zstandard Compression
+ * <p>
+ * The native library works directly on the memory of direct buffers, so that neither the payload nor the compressed
+ * data is copied on the Java heap.
+ */
+public class CompressionCodecZstd implements CompressionCodec {
+
+    public static final int DEFAULT_COMPRESSION_LEVEL = 3;
+
+    private final int compressionLevel;
+
+    public CompressionCodecZstd() {
+        this(DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    public CompressionCodecZstd(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public ByteBuf encode(ByteBuf source) {
+        int uncompressedLength = source.readableBytes();
+        int maxLength = (int) Zstd.compressBound(uncompressedLength);
+
+        ByteBuf directSource = toDirectBuffer(source);
+        ByteBuf target = PooledByteBufAllocator.DEFAULT.directBuffer(maxLength, maxLength);
+        try {
+            ByteBuffer sourceNio = directSource.nioBuffer(directSource.readerIndex(), uncompressedLength);
+            ByteBuffer targetNio = target.nioBuffer(0, maxLength);
+
+            long compressedLength = Zstd.compressDirectByteBuffer(targetNio, targetNio.position(), maxLength,
+                    sourceNio, sourceNio.position(), uncompressedLength, compressionLevel);
+            if (Zstd.isError(compressedLength)) {
+                target.release();
+                throw new RuntimeException("Failed to compress with zstd: " + Zstd.getErrorName(compressedLength));
+            }
+
+            target.writerIndex((int) compressedLength);
+            return target;
+        } finally {
+            if (directSource != source) {
+                directSource.release();
+            }
+        }
+    }
+
+    @Override
+    public ByteBuf decode(ByteBuf encoded, int uncompressedLength) throws IOException {
+        ByteBuf directEncoded = toDirectBuffer(encoded);
+        ByteBuf uncompressed = PooledByteBufAllocator.DEFAULT.directBuffer(uncompressedLength, uncompressedLength);
+        try {
+            ByteBuffer encodedNio = directEncoded.nioBuffer(directEncoded.readerIndex(), directEncoded.readableBytes());
+            ByteBuffer uncompressedNio = uncompressed.nioBuffer(0, uncompressedLength);
+
+            long length = Zstd.decompressDirectByteBuffer(uncompressedNio, uncompressedNio.position(),
+                    uncompressedLength, encodedNio, encodedNio.position(), encodedNio.remaining());
+            if (Zstd.isError(length) || length != uncompressedLength) {
+                uncompressed.release();
+                throw new IOException("Failed to decompress with zstd: "
+                        + (Zstd.isError(length) ? Zstd.getErrorName(length) : "unexpected size " + length));
+            }
+
+            uncompressed.writerIndex(uncompressedLength);
+            return uncompressed;
+        } finally {
+            if (directEncoded != encoded) {
+                directEncoded.release();
+            }
+        }
+    }
+
+    /**
+     * Heap and composite buffers are copied into a single direct buffer, which is the only memory the native library
+     * can access
+     */
+    static ByteBuf toDirectBuffer(ByteBuf buffer) {
+        if (buffer.isDirect() && buffer.nioBufferCount() == 1) {
+            return buffer;
+        }
+
+        int length = buffer.readableBytes();
+        ByteBuf direct = PooledByteBufAllocator.DEFAULT.directBuffer(length, length);
+        direct.writeBytes(buffer, buffer.readerIndex(), length);
+        return direct;
+    }
+}
@@ -0,0 +1,469 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.common.policies.data.loadbalancer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Compact binary encoding of the {@link LoadReport} stored by each broker in ZooKeeper.
+ * <p>
+ * The bundle stats are the bulk of a load report and most of them barely change between two updates, so they are
+ * split in two parts:
+ * <ul>
+ * <li>a snapshot, holding the stats of all the bundles, which is re-written only when it gets too far from the
+ * current stats
+ * <li>the report itself, which carries the broker information and resource usage, plus only the bundles that were
+ * added, changed or removed since the snapshot it refers to
+ * </ul>
+ * Bundle names are encoded as an index in a table of namespaces followed by the 2 boundaries of the hash range, and
+ * the rates are stored as floats.
+ * <p>
+ * Binary content always starts with a magic sequence that can't start a JSON document, so that readers can keep
+ * accepting the JSON reports written by brokers where the binary encoding is not enabled.
+ */
+public class LoadReportCodec {
+
+    private static final byte MAGIC_0 = (byte) 0xfe;
+    private static final byte MAGIC_1 = (byte) 0x4c;
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_REPORT = 1;
+    private static final byte TYPE_SNAPSHOT = 2;
+
+    /**
+     * Load report decoded from the binary format. Until it is merged with its snapshot, the bundle stats of the report
+     * only contain the bundles changed since the snapshot.
+     */
+    public static class Delta {
+        private final LoadReport report;
+        private final long snapshotId;
+        private final Set<String> removedBundles;
+        private volatile boolean isComplete;
+
+        Delta(LoadReport report, long snapshotId, Set<String> removedBundles) {
+            this.report = report;
+            this.snapshotId = snapshotId;
+            this.removedBundles = removedBundles;
+            this.isComplete = false;
+        }
+
+        /**
+         * Wrap a report that already contains the stats of all the bundles (eg: decoded from JSON).
+         */
+        public Delta(LoadReport report) {
+            this.report = report;
+            this.snapshotId = -1;
+            this.removedBundles = Collections.emptySet();
+            this.isComplete = true;
+        }
+
+        public LoadReport getReport() {
+            return report;
+        }
+
+        public long getSnapshotId() {
+            return snapshotId;
+        }
+
+        public Set<String> getRemovedBundles() {
+            return removedBundles;
+        }
+
+        /**
+         * @return whether the report holds the stats of all the bundles
+         */
+        public boolean isComplete() {
+            return isComplete;
+        }
+    }
+
+    /**
+     * Stats of all the bundles of a broker, referenced by the load reports through its id.
+     */
+    public static class Snapshot {
+        private final long id;
+        private final Map<String, NamespaceBundleStats> bundleStats;
+
+        public Snapshot(long id, Map<String, NamespaceBundleStats> bundleStats) {
+            this.id = id;
+            this.bundleStats = bundleStats;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Map<String, NamespaceBundleStats> getBundleStats() {
+            return bundleStats;
+        }
+    }
+
+    public static boolean isBinary(byte[] content) {
+        return content != null && content.length >= 2 && content[0] == MAGIC_0 && content[1] == MAGIC_1;
+    }
+
+    /**
+     * Encode a load report.
+     *
+     * @param report
+     *            the report; its bundle stats are ignored
+     * @param snapshotId
+     *            id of the snapshot the changes are relative to
+     * @param changedBundles
+     *            stats of the bundles that differ from the snapshot
+     * @param removedBundles
+     *            bundles that are in the snapshot but not owned anymore
+     */
+    public static byte[] encodeReport(LoadReport report, long snapshotId,
+            Map<String, NamespaceBundleStats> changedBundles, Collection<String> removedBundles) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + 32 * changedBundles.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeHeader(out, TYPE_REPORT);
+        out.writeLong(snapshotId);
+
+        writeString(out, report.getName());
+        writeString(out, report.getWebServiceUrl());
+        writeString(out, report.getWebServiceUrlTls());
+        writeString(out, report.getPulsarServiceUrl());
+        writeString(out, report.getPulsarServieUrlTls());
+        out.writeBoolean(report.isUnderLoaded());
+        out.writeBoolean(report.isOverLoaded());
+        out.writeLong(report.getTimestamp());
+
+        SystemResourceUsage usage = report.getSystemResourceUsage();
+        out.writeBoolean(usage != null);
+        if (usage != null) {
+            writeUsage(out, usage.bandwidthIn);
+            writeUsage(out, usage.bandwidthOut);
+            writeUsage(out, usage.cpu);
+            writeUsage(out, usage.memory);
+            writeUsage(out, usage.directMemory);
+        }
+
+        NamespaceTable namespaces = new NamespaceTable();
+        changedBundles.keySet().forEach(namespaces::add);
+        removedBundles.forEach(namespaces::add);
+        namespaces.write(out);
+
+        writeVarLong(out, changedBundles.size());
+        for (Map.Entry<String, NamespaceBundleStats> e : changedBundles.entrySet()) {
+            writeBundleName(out, namespaces, e.getKey());
+            writeStats(out, e.getValue());
+        }
+        writeVarLong(out, removedBundles.size());
+        for (String bundle : removedBundles) {
+            writeBundleName(out, namespaces, bundle);
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public static Delta decodeReport(byte[] content) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+        readHeader(in, TYPE_REPORT);
+        long snapshotId = in.readLong();
+
+        String name = readString(in);
+        String webServiceUrl = readString(in);
+        String webServiceUrlTls = readString(in);
+        String pulsarServiceUrl = readString(in);
+        String pulsarServiceUrlTls = readString(in);
+        LoadReport report = new LoadReport(webServiceUrl, webServiceUrlTls, pulsarServiceUrl, pulsarServiceUrlTls);
+        report.setName(name);
+        report.setUnderLoaded(in.readBoolean());
+        report.setOverLoaded(in.readBoolean());
+        report.setTimestamp(in.readLong());
+
+        if (in.readBoolean()) {
+            SystemResourceUsage usage = new SystemResourceUsage();
+            usage.bandwidthIn = readUsage(in);
+            usage.bandwidthOut = readUsage(in);
+            usage.cpu = readUsage(in);
+            usage.memory = readUsage(in);
+            usage.directMemory = readUsage(in);
+            report.setSystemResourceUsage(usage);
+        }
+
+        List<String> namespaces = readNamespaceTable(in);
+        int changedCount = (int) readVarLong(in);
+        Map<String, NamespaceBundleStats> changedBundles = Maps.newHashMapWithExpectedSize(changedCount);
+        for (int i = 0; i < changedCount; i++) {
+            String bundle = readBundleName(in, namespaces);
+            changedBundles.put(bundle, readStats(in));
+        }
+        report.setBundleStats(changedBundles);
+
+        int removedCount = (int) readVarLong(in);
+        Set<String> removedBundles = removedCount == 0 ? Collections.emptySet()
+                : Sets.newHashSetWithExpectedSize(removedCount);
+        for (int i = 0; i < removedCount; i++) {
+            removedBundles.add(readBundleName(in, namespaces));
+        }
+        return new Delta(report, snapshotId, removedBundles);
+    }
+
+    public static byte[] encodeSnapshot(Snapshot snapshot) throws IOException {
+        Map<String, NamespaceBundleStats> bundleStats = snapshot.getBundleStats();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 32 * bundleStats.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeHeader(out, TYPE_SNAPSHOT);
+        out.writeLong(snapshot.getId());
+
+        NamespaceTable namespaces = new NamespaceTable();
+        bundleStats.keySet().forEach(namespaces::add);
+        namespaces.write(out);
+
+        writeVarLong(out, bundleStats.size());
+        for (Map.Entry<String, NamespaceBundleStats> e : bundleStats.entrySet()) {
+            writeBundleName(out, namespaces, e.getKey());
+            writeStats(out, e.getValue());
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public static Snapshot decodeSnapshot(byte[] content) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+        readHeader(in, TYPE_SNAPSHOT);
+        long id = in.readLong();
+
+        List<String> namespaces = readNamespaceTable(in);
+        int count = (int) readVarLong(in);
+        Map<String, NamespaceBundleStats> bundleStats = Maps.newHashMapWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            String bundle = readBundleName(in, namespaces);
+            bundleStats.put(bundle, readStats(in));
+        }
+        return new Snapshot(id, bundleStats);
+    }
+
+    /**
+     * Rebuild the full load report by applying the changes carried by the report on top of the snapshot. The report
+     * held by the delta is updated in place, so merging an already complete delta is a no-op.
+     */
+    public static LoadReport merge(Delta delta, Snapshot snapshot) {
+        synchronized (delta) {
+            if (delta.isComplete()) {
+                return delta.getReport();
+            }
+            if (snapshot == null || delta.getSnapshotId() != snapshot.getId()) {
+                throw new IllegalArgumentException(String.format("Report refers to snapshot %d, got snapshot %s",
+                        delta.getSnapshotId(), snapshot != null ? snapshot.getId() : null));
+            }
+            // The decoded report owns its bundle stats map, fill it with the unchanged bundles of the snapshot
+            Map<String, NamespaceBundleStats> bundleStats = delta.getReport().getBundleStats();
+            Set<String> removedBundles = delta.getRemovedBundles();
+            snapshot.getBundleStats().forEach((bundle, stats) -> {
+                if (!removedBundles.contains(bundle)) {
+                    bundleStats.putIfAbsent(bundle, stats);
+                }
+            });
+            delta.isComplete = true;
+            return delta.getReport();
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, byte type) throws IOException {
+        out.writeByte(MAGIC_0);
+        out.writeByte(MAGIC_1);
+        out.writeByte(VERSION);
+        out.writeByte(type);
+    }
+
+    private static void readHeader(DataInputStream in, byte expectedType) throws IOException {
+        if (in.readByte() != MAGIC_0 || in.readByte() != MAGIC_1) {
+            throw new IOException("Not a binary load report");
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported load report encoding version " + version);
+        }
+        byte type = in.readByte();
+        if (type != expectedType) {
+            throw new IOException("Unexpected load report content type " + type);
+        }
+    }
+
+    private static void writeUsage(DataOutputStream out, ResourceUsage usage) throws IOException {
+        out.writeDouble(usage != null ? usage.usage : -1);
+        out.writeDouble(usage != null ? usage.limit : -1);
+    }
+
+    private static ResourceUsage readUsage(DataInputStream in) throws IOException {
+        double usage = in.readDouble();
+        double limit = in.readDouble();
+        return new ResourceUsage(usage, limit);
+    }
+
+    private static void writeStats(DataOutputStream out, NamespaceBundleStats stats) throws IOException {
+        out.writeFloat((float) stats.msgRateIn);
+        out.writeFloat((float) stats.msgThroughputIn);
+        out.writeFloat((float) stats.msgRateOut);
+        out.writeFloat((float) stats.msgThroughputOut);
+        writeVarLong(out, stats.consumerCount);
+        writeVarLong(out, stats.producerCount);
+        writeVarLong(out, stats.topics);
+        writeVarLong(out, stats.cacheSize);
+    }
+
+    private static NamespaceBundleStats readStats(DataInputStream in) throws IOException {
+        NamespaceBundleStats stats = new NamespaceBundleStats();
+        stats.msgRateIn = in.readFloat();
+        stats.msgThroughputIn = in.readFloat();
+        stats.msgRateOut = in.readFloat();
+        stats.msgThroughputOut = in.readFloat();
+        stats.consumerCount = (int) readVarLong(in);
+        stats.producerCount = (int) readVarLong(in);
+        stats.topics = readVarLong(in);
+        stats.cacheSize = readVarLong(in);
+        return stats;
+    }
+
+    /**
+     * Table of the namespaces of a set of bundles, so that each namespace name is written only once.
+     */
+    private static class NamespaceTable {
+        private final Map<String, Integer> indexes = Maps.newHashMap();
+        private final List<String> namespaces = Lists.newArrayList();
+
+        void add(String bundle) {
+            String namespace = getNamespace(bundle);
+            if (!indexes.containsKey(namespace)) {
+                indexes.put(namespace, namespaces.size());
+                namespaces.add(namespace);
+            }
+        }
+
+        int indexOf(String bundle) {
+            return indexes.get(getNamespace(bundle));
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeVarLong(out, namespaces.size());
+            for (String namespace : namespaces) {
+                out.writeUTF(namespace);
+            }
+        }
+    }
+
+    private static List<String> readNamespaceTable(DataInputStream in) throws IOException {
+        int count = (int) readVarLong(in);
+        List<String> namespaces = Lists.newArrayListWithCapacity(count);
+        for (int i = 0; i < count; i++) {
+            namespaces.add(in.readUTF());
+        }
+        return namespaces;
+    }
+
+    private static String getNamespace(String bundle) {
+        int pos = bundle.lastIndexOf('/');
+        return pos != -1 ? bundle.substring(0, pos) : "";
+    }
+
+    // The bundle range format is 0x00000000_0xffffffff
+    private static final int RANGE_LENGTH = 21;
+
+    private static boolean isHashRange(String range) {
+        if (range.length() != RANGE_LENGTH || !range.startsWith("0x") || range.charAt(10) != '_'
+                || !range.startsWith("0x", 11)) {
+            return false;
+        }
+        for (int i = 0; i < RANGE_LENGTH; i++) {
+            if (i == 0 || i == 1 || i == 10 || i == 11 || i == 12) {
+                continue;
+            }
+            char c = range.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+                // Only the lower case form can be re-generated on decoding
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeBundleName(DataOutputStream out, NamespaceTable namespaces, String bundle)
+            throws IOException {
+        String range = bundle.substring(bundle.lastIndexOf('/') + 1);
+        boolean isHashRange = isHashRange(range);
+        writeVarLong(out, ((long) namespaces.indexOf(bundle) << 1) | (isHashRange ? 0 : 1));
+        if (isHashRange) {
+            out.writeInt((int) Long.parseLong(range.substring(2, 10), 16));
+            out.writeInt((int) Long.parseLong(range.substring(13), 16));
+        } else {
+            out.writeUTF(range);
+        }
+    }
+
+    private static String readBundleName(DataInputStream in, List<String> namespaces) throws IOException {
+        long value = readVarLong(in);
+        String namespace = namespaces.get((int) (value >>> 1));
+        String range;
+        if ((value & 1) == 0) {
+            long lower = in.readInt() & 0xffffffffL;
+            long upper = in.readInt() & 0xffffffffL;
+            range = String.format("0x%08x_0x%08x", lower, upper);
+        } else {
+            range = in.readUTF();
+        }
+        return namespace.isEmpty() ? range : namespace + '/' + range;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+}
@@ -0,0 +1,359 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.common.util.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Map from a pair of longs to a fixed-size bit set, sorted by key.
+ *
+ * Provides similar methods as a ConcurrentSkipListMap<Pair<long,long>,BitSet> with the differences:
+ * <ol>
+ * <li>No boxing/unboxing of the keys and no node allocations: the keys are stored in parallel arrays, sorted by key
+ * <li>The words of all the bit sets are stored back to back in a single array
+ * <li>Entries whose bits are all cleared are removed
+ * <li>Removing all the entries before a key is cheap when the keys are mostly added in increasing order
+ * </ol>
+ *
+ * All the methods are synchronized.
+ */
+public class ConcurrentLongPairBitSetMap {
+
+    private static final int DefaultExpectedItems = 16;
+
+    /**
+     * Receives the key of an entry.
+     */
+    public interface LongPairConsumer {
+        void accept(long first, long second);
+    }
+
+    // The entries in [head, tail) are sorted by key. A removed entry is left in place, with no bits set, until it
+    // either gets to the head or the arrays are compacted
+    private long[] firsts;
+    private long[] seconds;
+    private int[] wordOffsets;
+    private int[] sizes;
+    private int[] cardinalities;
+    private int head = 0;
+    private int tail = 0;
+    private int count = 0;
+
+    private long[] words;
+    private int wordsTail = 0;
+
+    public ConcurrentLongPairBitSetMap() {
+        this(DefaultExpectedItems);
+    }
+
+    public ConcurrentLongPairBitSetMap(int expectedItems) {
+        checkArgument(expectedItems > 0);
+        firsts = new long[expectedItems];
+        seconds = new long[expectedItems];
+        wordOffsets = new int[expectedItems];
+        sizes = new int[expectedItems];
+        cardinalities = new int[expectedItems];
+        words = new long[expectedItems];
+    }
+
+    public synchronized long size() {
+        return count;
+    }
+
+    public synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Adds a bit set of {@code numBits} bits, all set, replacing the existing bit set of the key if any.
+     */
+    public synchronized void put(long first, long second, int numBits) {
+        checkArgument(numBits > 0);
+        int numWords = wordsFor(numBits);
+        if (tail == firsts.length || wordsTail + numWords > words.length) {
+            compact(1, numWords);
+        }
+
+        int index = search(first, second);
+        if (index < 0) {
+            index = -(index + 1);
+            if (index < tail) {
+                int length = tail - index;
+                System.arraycopy(firsts, index, firsts, index + 1, length);
+                System.arraycopy(seconds, index, seconds, index + 1, length);
+                System.arraycopy(wordOffsets, index, wordOffsets, index + 1, length);
+                System.arraycopy(sizes, index, sizes, index + 1, length);
+                System.arraycopy(cardinalities, index, cardinalities, index + 1, length);
+            }
+            ++tail;
+            firsts[index] = first;
+            seconds[index] = second;
+            sizes[index] = 0;
+            cardinalities[index] = 0;
+        }
+
+        if (cardinalities[index] == 0) {
+            ++count;
+        }
+        // The words of an existing bit set are reused if they are enough
+        if (sizes[index] == 0 || wordsFor(sizes[index]) < numWords) {
+            wordOffsets[index] = wordsTail;
+            wordsTail += numWords;
+        }
+        sizes[index] = numBits;
+        cardinalities[index] = numBits;
+
+        int offset = wordOffsets[index];
+        for (int i = 0; i < numWords - 1; i++) {
+            words[offset + i] = -1L;
+        }
+        int lastBits = numBits & 63;
+        words[offset + numWords - 1] = lastBits == 0 ? -1L : (1L << lastBits) - 1;
+    }
+
+    /**
+     * Clears the bits from {@code fromIndex} (inclusive) to {@code toIndex} (exclusive) in the bit set of a key. The
+     * entry is removed once all its bits are cleared.
+     *
+     * @return the number of bits still set, or -1 if the key is not present
+     */
+    public synchronized int clear(long first, long second, int fromIndex, int toIndex) {
+        int index = search(first, second);
+        if (index < 0 || cardinalities[index] == 0) {
+            return -1;
+        }
+
+        int offset = wordOffsets[index];
+        int cardinality = cardinalities[index];
+        int bit = Math.max(fromIndex, 0);
+        toIndex = Math.min(toIndex, sizes[index]);
+        if (toIndex == bit + 1) {
+            // Single bit, on individual acks
+            int wordIndex = offset + (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words[wordIndex] & mask) != 0) {
+                words[wordIndex] &= ~mask;
+                --cardinality;
+            }
+        } else {
+            while (bit < toIndex) {
+                int end = Math.min(toIndex, (bit | 63) + 1);
+                long mask = end - bit == 64 ? -1L : ((1L << (end - bit)) - 1) << bit;
+                int wordIndex = offset + (bit >>> 6);
+                cardinality -= Long.bitCount(words[wordIndex] & mask);
+                words[wordIndex] &= ~mask;
+                bit = end;
+            }
+        }
+
+        cardinalities[index] = cardinality;
+        if (cardinality == 0) {
+            removeAt(index);
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return the number of bits still set in the bit set of a key, or -1 if the key is not present
+     */
+    public synchronized int cardinality(long first, long second) {
+        int index = search(first, second);
+        return index < 0 || cardinalities[index] == 0 ? -1 : cardinalities[index];
+    }
+
+    /**
+     * @return the number of bits of the bit set of a key, as it was added, or -1 if the key is not present
+     */
+    public synchronized int length(long first, long second) {
+        int index = search(first, second);
+        return index < 0 || cardinalities[index] == 0 ? -1 : sizes[index];
+    }
+
+    public synchronized boolean remove(long first, long second) {
+        int index = search(first, second);
+        if (index < 0 || cardinalities[index] == 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Removes all the entries whose key is lower than the given key.
+     *
+     * @param lastRemovedKey
+     *            if not null, receives the highest removed key, after the removal
+     * @return the number of removed entries
+     */
+    public int removeBefore(long first, long second, LongPairConsumer lastRemovedKey) {
+        int removed = 0;
+        long lastFirst = 0;
+        long lastSecond = 0;
+
+        synchronized (this) {
+            int index = search(first, second);
+            if (index < 0) {
+                index = -(index + 1);
+            }
+
+            for (int i = head; i < index; i++) {
+                if (cardinalities[i] != 0) {
+                    ++removed;
+                    lastFirst = firsts[i];
+                    lastSecond = seconds[i];
+                    cardinalities[i] = 0;
+                }
+            }
+
+            if (removed > 0) {
+                count -= removed;
+                head = Math.max(head, index);
+                trimHead();
+            }
+        }
+
+        if (removed > 0 && lastRemovedKey != null) {
+            lastRemovedKey.accept(lastFirst, lastSecond);
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        head = 0;
+        tail = 0;
+        count = 0;
+        wordsTail = 0;
+    }
+
+    private void removeAt(int index) {
+        cardinalities[index] = 0;
+        --count;
+        if (index == head) {
+            trimHead();
+        }
+    }
+
+    private void trimHead() {
+        if (count == 0) {
+            clear();
+            return;
+        }
+        while (cardinalities[head] == 0) {
+            ++head;
+        }
+    }
+
+    /**
+     * Moves the entries to the beginning of the arrays, dropping the removed ones, and grows the arrays if needed to
+     * fit the extra entries and words.
+     */
+    private void compact(int extraEntries, int extraWords) {
+        int liveWords = 0;
+        for (int i = head; i < tail; i++) {
+            if (cardinalities[i] != 0) {
+                liveWords += wordsFor(sizes[i]);
+            }
+        }
+
+        int capacity = firsts.length;
+        while (count + extraEntries > capacity / 2) {
+            capacity *= 2;
+        }
+        int wordsCapacity = words.length;
+        while (liveWords + extraWords > wordsCapacity / 2) {
+            wordsCapacity *= 2;
+        }
+
+        long[] newFirsts = new long[capacity];
+        long[] newSeconds = new long[capacity];
+        int[] newWordOffsets = new int[capacity];
+        int[] newSizes = new int[capacity];
+        int[] newCardinalities = new int[capacity];
+        long[] newWords = new long[wordsCapacity];
+
+        int newTail = 0;
+        int newWordsTail = 0;
+        for (int i = head; i < tail; i++) {
+            if (cardinalities[i] == 0) {
+                continue;
+            }
+            int numWords = wordsFor(sizes[i]);
+            System.arraycopy(words, wordOffsets[i], newWords, newWordsTail, numWords);
+            newFirsts[newTail] = firsts[i];
+            newSeconds[newTail] = seconds[i];
+            newWordOffsets[newTail] = newWordsTail;
+            newSizes[newTail] = sizes[i];
+            newCardinalities[newTail] = cardinalities[i];
+            ++newTail;
+            newWordsTail += numWords;
+        }
+
+        firsts = newFirsts;
+        seconds = newSeconds;
+        wordOffsets = newWordOffsets;
+        sizes = newSizes;
+        cardinalities = newCardinalities;
+        words = newWords;
+        head = 0;
+        tail = newTail;
+        wordsTail = newWordsTail;
+    }
+
+    /**
+     * Binary search of a key in [head, tail), including the removed entries.
+     *
+     * @return the index of the key, or (-(insertion point) - 1) if the key is not there
+     */
+    private int search(long first, long second) {
+        if (tail == head) {
+            return -(tail + 1);
+        }
+
+        // Most lookups are for the oldest entries, being acknowledged, or the latest ones, being added
+        int cmp = compare(firsts[head], seconds[head], first, second);
+        if (cmp >= 0) {
+            return cmp == 0 ? head : -(head + 1);
+        }
+        cmp = compare(firsts[tail - 1], seconds[tail - 1], first, second);
+        if (cmp <= 0) {
+            return cmp == 0 ? tail - 1 : -(tail + 1);
+        }
+
+        int low = head + 1;
+        int high = tail - 2;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            cmp = compare(firsts[mid], seconds[mid], first, second);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int compare(long first1, long second1, long first2, long second2) {
+        int cmp = Long.compare(first1, first2);
+        return cmp != 0 ? cmp : Long.compare(second1, second2);
+    }
+
+    private static int wordsFor(int numBits) {
+        return (numBits + 63) >>> 6;
+    }
+}
@@ -24,6 +24,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
 
 import io.netty.util.internal.MathUtil;
 
@@ -246,6 +247,43 @@ public class GrowableArrayBlockingQueue<T> extends AbstractQueue<T> implements B
         }
     }
 
+    /**
+     * Removes at most the given number of items and adds them to the given collection, stopping as soon as the total
+     * weight of the drained items reaches {@code maxWeight}. The last drained item can make the total weight exceed
+     * {@code maxWeight}.
+     *
+     * @return the number of drained items
+     */
+    public int drainTo(Collection<? super T> c, int maxElements, ToLongFunction<? super T> weigher, long maxWeight) {
+        headLock.lock();
+
+        try {
+            int drainedItems = 0;
+            long drainedWeight = 0;
+            int size = this.size.get();
+
+            while (size > 0 && drainedItems < maxElements && drainedWeight < maxWeight) {
+                T item = data[headIndex.value];
+                data[headIndex.value] = null;
+                c.add(item);
+                drainedWeight += weigher.applyAsLong(item);
+
+                headIndex.value = (headIndex.value + 1) & (data.length - 1);
+                --size;
+                ++drainedItems;
+            }
+
+            if (this.size.addAndGet(-drainedItems) > 0) {
+                // There are still entries to consume
+                isNotEmpty.signal();
+            }
+
+            return drainedItems;
+        } finally {
+            headLock.unlock();
+        }
+    }
+
     @Override
     public void clear() {
         headLock.lock();
@@ -187,6 +187,17 @@ public class ByteBufCodedOutputStream {
         writeRawVarint32(value);
     }
 
+    /** Write a {@code bool} field, including tag, to the stream. */
+    public void writeBool(final int fieldNumber, final boolean value) throws IOException {
+        writeTag(fieldNumber, WireFormat.WIRETYPE_VARINT);
+        writeBoolNoTag(value);
+    }
+
+    /** Write a {@code bool} field to the stream. */
+    public void writeBoolNoTag(final boolean value) throws IOException {
+        writeRawByte(value ? 1 : 0);
+    }
+
     public void writeSFixed64(final int fieldNumber, long value) throws IOException {
         writeTag(fieldNumber, WireFormat.WIRETYPE_FIXED64);
         writeSFixed64NoTag(value);
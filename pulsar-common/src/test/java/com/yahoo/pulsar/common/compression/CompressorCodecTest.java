@@ -35,7 +35,8 @@ public class CompressorCodecTest {
 
     @DataProvider(name = "codec")
     public Object[][] codecProvider() {
-        return new Object[][] { { CompressionType.NONE }, { CompressionType.LZ4 }, { CompressionType.ZLIB }, };
+        return new Object[][] { { CompressionType.NONE }, { CompressionType.LZ4 }, { CompressionType.ZLIB },
+                { CompressionType.ZSTD }, { CompressionType.SNAPPY }, };
     }
 
     @Test(dataProvider = "codec")
@@ -103,6 +104,47 @@ public class CompressorCodecTest {
         }
     }
 
+    @Test(dataProvider = "codec")
+    void testHeapAndCompositeInput(CompressionType type) throws IOException {
+        CompressionCodec codec = CompressionCodecProvider.getCompressionCodec(type);
+        byte[] data = text.getBytes();
+        int half = data.length / 2;
+
+        ByteBuf heap = Unpooled.wrappedBuffer(data);
+        ByteBuf composite = Unpooled.wrappedBuffer(Unpooled.wrappedBuffer(data, 0, half),
+                Unpooled.wrappedBuffer(data, half, data.length - half));
+
+        for (ByteBuf raw : new ByteBuf[] { heap, composite }) {
+            ByteBuf compressed = codec.encode(raw);
+            assertEquals(raw.readableBytes(), data.length);
+
+            // Decode from a heap copy as well
+            ByteBuf uncompressed = codec.decode(Unpooled.copiedBuffer(compressed), data.length);
+            assertEquals(uncompressed, Unpooled.wrappedBuffer(data));
+
+            compressed.release();
+            uncompressed.release();
+        }
+    }
+
+    @Test
+    void testZstdCompressionLevel() throws IOException {
+        byte[] data = text.getBytes();
+        ByteBuf raw = Unpooled.wrappedBuffer(data);
+
+        for (int level : new int[] { 1, 3, 9, 22 }) {
+            CompressionCodec codec = CompressionCodecProvider.getCompressionCodec(CompressionType.ZSTD, level);
+            ByteBuf compressed = codec.encode(raw);
+
+            // The level is not needed to decompress
+            ByteBuf uncompressed = new CompressionCodecZstd().decode(compressed, data.length);
+            assertEquals(uncompressed, raw);
+
+            compressed.release();
+            uncompressed.release();
+        }
+    }
+
     @Test(dataProvider = "codec")
     void testCodecProvider(CompressionType type) throws IOException {
         CompressionCodecProvider provider = new CompressionCodecProvider();
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.common.policies.data.loadbalancer;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReportCodec.Delta;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReportCodec.Snapshot;
+import com.yahoo.pulsar.common.util.ObjectMapperFactory;
+
+public class LoadReportCodecTest {
+
+    private static NamespaceBundleStats stats(double msgRate, int topics) {
+        NamespaceBundleStats stats = new NamespaceBundleStats();
+        stats.msgRateIn = msgRate;
+        stats.msgThroughputIn = msgRate * 1024;
+        stats.msgRateOut = msgRate * 2;
+        stats.msgThroughputOut = msgRate * 2048;
+        stats.producerCount = topics;
+        stats.consumerCount = topics * 2;
+        stats.topics = topics;
+        stats.cacheSize = 1 << 20;
+        return stats;
+    }
+
+    private static Map<String, NamespaceBundleStats> bundles(int count) {
+        Map<String, NamespaceBundleStats> bundles = Maps.newHashMap();
+        long step = 0x100000000L / count;
+        for (int i = 0; i < count; i++) {
+            String range = String.format("0x%08x_0x%08x", i * step, i == count - 1 ? 0xffffffffL : (i + 1) * step);
+            bundles.put("prop/cluster/ns-" + (i % 10) + "/" + range, stats(i, i % 100));
+        }
+        return bundles;
+    }
+
+    private static LoadReport report() {
+        LoadReport report = new LoadReport("http://broker-1:8080", null, "pulsar://broker-1:6650", null);
+        report.setName("broker-1:8080");
+        report.setTimestamp(12345);
+        report.setOverLoaded(true);
+        SystemResourceUsage usage = new SystemResourceUsage();
+        usage.cpu = new ResourceUsage(50, 100);
+        usage.memory = new ResourceUsage(1024, 4096);
+        report.setSystemResourceUsage(usage);
+        return report;
+    }
+
+    @Test
+    public void testReportAndSnapshot() throws Exception {
+        Map<String, NamespaceBundleStats> snapshotBundles = bundles(100);
+        Snapshot snapshot = LoadReportCodec.decodeSnapshot(LoadReportCodec.encodeSnapshot(new Snapshot(7,
+                snapshotBundles)));
+        assertEquals(snapshot.getId(), 7);
+        assertEquals(snapshot.getBundleStats().size(), 100);
+
+        String changedBundle = snapshotBundles.keySet().iterator().next();
+        String removedBundle = Lists.newArrayList(snapshotBundles.keySet()).get(1);
+        Map<String, NamespaceBundleStats> changedBundles = Maps.newHashMap();
+        changedBundles.put(changedBundle, stats(500, 3));
+        changedBundles.put("prop/cluster/other-ns/custom-range", stats(1, 1));
+
+        byte[] content = LoadReportCodec.encodeReport(report(), 7, changedBundles,
+                Collections.singleton(removedBundle));
+        assertTrue(LoadReportCodec.isBinary(content));
+
+        Delta delta = LoadReportCodec.decodeReport(content);
+        assertFalse(delta.isComplete());
+        assertEquals(delta.getSnapshotId(), 7);
+        assertEquals(delta.getReport().getBundleStats().size(), 2);
+
+        LoadReport report = LoadReportCodec.merge(delta, snapshot);
+        assertTrue(delta.isComplete());
+        assertEquals(report.getName(), "broker-1:8080");
+        assertEquals(report.getWebServiceUrl(), "http://broker-1:8080");
+        assertEquals(report.getWebServiceUrlTls(), null);
+        assertEquals(report.getPulsarServiceUrl(), "pulsar://broker-1:6650");
+        assertEquals(report.getTimestamp(), 12345);
+        assertTrue(report.isOverLoaded());
+        assertFalse(report.isUnderLoaded());
+        assertEquals(report.getSystemResourceUsage().cpu.usage, 50.0);
+        assertEquals(report.getSystemResourceUsage().memory.limit, 4096.0);
+
+        Map<String, NamespaceBundleStats> bundleStats = report.getBundleStats();
+        assertEquals(bundleStats.size(), 100);
+        assertFalse(bundleStats.containsKey(removedBundle));
+        assertEquals(bundleStats.get(changedBundle).msgRateIn, 500.0);
+        assertEquals(bundleStats.get(changedBundle).topics, 3);
+        assertEquals(bundleStats.get("prop/cluster/other-ns/custom-range").consumerCount, 2);
+        for (Map.Entry<String, NamespaceBundleStats> e : snapshotBundles.entrySet()) {
+            if (!e.getKey().equals(changedBundle) && !e.getKey().equals(removedBundle)) {
+                assertEquals(bundleStats.get(e.getKey()).msgThroughputOut, e.getValue().msgThroughputOut);
+                assertEquals(bundleStats.get(e.getKey()).cacheSize, e.getValue().cacheSize);
+            }
+        }
+
+        // Merging again is a no-op
+        assertEquals(LoadReportCodec.merge(delta, null), report);
+    }
+
+    @Test
+    public void testSnapshotMismatch() throws Exception {
+        byte[] content = LoadReportCodec.encodeReport(report(), 7, Collections.emptyMap(), Collections.emptySet());
+        Delta delta = LoadReportCodec.decodeReport(content);
+        try {
+            LoadReportCodec.merge(delta, new Snapshot(6, Maps.newHashMap()));
+            fail("Should have failed");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        assertFalse(delta.isComplete());
+    }
+
+    @Test
+    public void testEncodedSize() throws Exception {
+        LoadReport report = report();
+        report.setBundleStats(bundles(1000));
+        byte[] json = ObjectMapperFactory.getThreadLocal().writeValueAsBytes(report);
+        assertFalse(LoadReportCodec.isBinary(json));
+
+        byte[] snapshot = LoadReportCodec.encodeSnapshot(new Snapshot(1, report.getBundleStats()));
+        byte[] delta = LoadReportCodec.encodeReport(report, 1, Collections.emptyMap(), Collections.emptySet());
+        assertTrue(snapshot.length * 4 < json.length, snapshot.length + " / " + json.length);
+        assertTrue(delta.length < 512, Integer.toString(delta.length));
+    }
+}
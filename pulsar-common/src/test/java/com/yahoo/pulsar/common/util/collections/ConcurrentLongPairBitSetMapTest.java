@@ -0,0 +1,281 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.common.util.collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+public class ConcurrentLongPairBitSetMapTest {
+
+    @Test
+    public void testConstructor() {
+        try {
+            new ConcurrentLongPairBitSetMap(0);
+            fail("should have thrown exception");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+
+        try {
+            new ConcurrentLongPairBitSetMap().put(1, 1, 0);
+            fail("should have thrown exception");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void simpleInsertions() {
+        ConcurrentLongPairBitSetMap map = new ConcurrentLongPairBitSetMap(4);
+
+        assertTrue(map.isEmpty());
+        map.put(1, 1, 10);
+        assertFalse(map.isEmpty());
+        map.put(1, 2, 100);
+        map.put(2, 0, 1);
+
+        assertEquals(map.size(), 3);
+        assertEquals(map.cardinality(1, 1), 10);
+        assertEquals(map.cardinality(1, 2), 100);
+        assertEquals(map.length(1, 2), 100);
+        assertEquals(map.cardinality(2, 0), 1);
+        assertEquals(map.cardinality(1, 3), -1);
+        assertEquals(map.length(1, 3), -1);
+
+        // Replace an existing bit set
+        map.clear(1, 1, 0, 5);
+        map.put(1, 1, 64);
+        assertEquals(map.size(), 3);
+        assertEquals(map.cardinality(1, 1), 64);
+        assertEquals(map.cardinality(1, 2), 100);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(map.cardinality(1, 1), -1);
+    }
+
+    @Test
+    public void testClearBits() {
+        ConcurrentLongPairBitSetMap map = new ConcurrentLongPairBitSetMap();
+        map.put(1, 1, 130);
+
+        assertEquals(map.clear(1, 1, 5, 6), 129);
+        // Clearing a bit again has no effect
+        assertEquals(map.clear(1, 1, 5, 6), 129);
+        assertEquals(map.clear(1, 1, 0, 64), 66);
+        assertEquals(map.clear(1, 1, 60, 70), 60);
+        // The range is capped to the size of the bit set
+        assertEquals(map.clear(1, 1, 129, 200), 59);
+        assertEquals(map.clear(1, 2, 0, 1), -1);
+
+        for (int i = 70; i < 128; i++) {
+            assertEquals(map.clear(1, 1, i, i + 1), 128 - i);
+        }
+        assertEquals(map.cardinality(1, 1), 1);
+
+        // The entry is removed with its last bit
+        assertEquals(map.clear(1, 1, 128, 129), 0);
+        assertEquals(map.cardinality(1, 1), -1);
+        assertTrue(map.isEmpty());
+        assertEquals(map.clear(1, 1, 0, 1), -1);
+    }
+
+    @Test
+    public void testRemove() {
+        ConcurrentLongPairBitSetMap map = new ConcurrentLongPairBitSetMap();
+        map.put(1, 1, 10);
+        map.put(1, 2, 10);
+        map.put(1, 3, 10);
+
+        assertTrue(map.remove(1, 2));
+        assertFalse(map.remove(1, 2));
+        assertEquals(map.size(), 2);
+        assertEquals(map.cardinality(1, 1), 10);
+        assertEquals(map.cardinality(1, 3), 10);
+
+        // A removed key can be added back
+        map.put(1, 2, 5);
+        assertEquals(map.size(), 3);
+        assertEquals(map.cardinality(1, 2), 5);
+    }
+
+    @Test
+    public void testRemoveBefore() {
+        ConcurrentLongPairBitSetMap map = new ConcurrentLongPairBitSetMap();
+        map.put(1, 1, 10);
+        map.put(1, 2, 10);
+        map.put(1, 3, 10);
+        map.put(2, 0, 10);
+        map.put(2, 1, 10);
+        map.remove(1, 3);
+
+        List<Long> lastRemoved = Lists.newArrayList();
+        assertEquals(map.removeBefore(1, 1, (first, second) -> fail("nothing should be removed")), 0);
+        assertEquals(map.removeBefore(2, 0, (first, second) -> {
+            lastRemoved.add(first);
+            lastRemoved.add(second);
+        }), 2);
+        assertEquals(lastRemoved, Lists.newArrayList(1L, 2L));
+        assertEquals(map.size(), 2);
+        assertEquals(map.cardinality(2, 0), 10);
+
+        // The key doesn't need to be present
+        assertEquals(map.removeBefore(2, 5, null), 2);
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testOutOfOrderInsertions() {
+        ConcurrentLongPairBitSetMap map = new ConcurrentLongPairBitSetMap(2);
+        int n = 1000;
+        for (int i = n - 1; i >= 0; i -= 2) {
+            map.put(1, i, i + 1);
+        }
+        for (int i = 0; i < n; i += 2) {
+            map.put(1, i, i + 1);
+        }
+
+        assertEquals(map.size(), n);
+        for (int i = 0; i < n; i++) {
+            assertEquals(map.cardinality(1, i), i + 1);
+        }
+
+        List<Long> lastRemoved = Lists.newArrayList();
+        assertEquals(map.removeBefore(1, n / 2, (first, second) -> lastRemoved.add(second)), n / 2);
+        assertEquals(lastRemoved, Lists.newArrayList(n / 2 - 1L));
+        assertEquals(map.size(), n / 2);
+    }
+
+    @Test
+    public void testCompaction() {
+        ConcurrentLongPairBitSetMap map = new ConcurrentLongPairBitSetMap(4);
+        int n = 10_000;
+        for (int i = 0; i < n; i++) {
+            map.put(1, i, 100);
+            // Remove the entries out of order, always leaving a few of them behind
+            if (i % 100 == 99) {
+                assertTrue(map.remove(1, i - 1));
+            }
+            if (i >= 3) {
+                int expected = (i - 3) % 100 == 98 ? -1 : 0;
+                assertEquals(map.clear(1, i - 3, 0, 100), expected);
+            }
+        }
+
+        assertEquals(map.size(), 2);
+        assertEquals(map.cardinality(1, n - 1), 100);
+        assertEquals(map.cardinality(1, n - 3), 100);
+        assertEquals(map.cardinality(1, n - 2), -1);
+        assertEquals(map.clear(1, n - 1, 99, 100), 99);
+    }
+
+    final static int Iterations = 10;
+    final static int N = 10_000;
+    final static int BatchSize = 1000;
+    final static int BatchesInFlight = 10;
+
+    // The messages of each batch are acknowledged individually, while the following batches are being received,
+    // except the last one which is acknowledged cumulatively
+    public void benchConcurrentLongPairBitSetMap() throws Exception {
+        ConcurrentLongPairBitSetMap map = new ConcurrentLongPairBitSetMap();
+
+        for (int i = 0; i < Iterations; i++) {
+            for (int j = 0; j < N + BatchesInFlight; j++) {
+                if (j < N) {
+                    map.put(i, j, BatchSize);
+                }
+                if (j >= BatchesInFlight) {
+                    long entryId = j - BatchesInFlight;
+                    for (int k = 0; k < BatchSize - 1; k++) {
+                        map.clear(i, entryId, k, k + 1);
+                    }
+                    if (map.clear(i, entryId, 0, BatchSize) == 0) {
+                        map.removeBefore(i, entryId, null);
+                    }
+                }
+            }
+        }
+    }
+
+    public void benchConcurrentSkipListMap() throws Exception {
+        ConcurrentSkipListMap<LongPair, BitSet> map = new ConcurrentSkipListMap<>();
+
+        for (int i = 0; i < Iterations; i++) {
+            for (int j = 0; j < N + BatchesInFlight; j++) {
+                if (j < N) {
+                    BitSet bitSet = new BitSet(BatchSize);
+                    bitSet.set(0, BatchSize);
+                    map.put(new LongPair(i, j), bitSet);
+                }
+                if (j >= BatchesInFlight) {
+                    long entryId = j - BatchesInFlight;
+                    for (int k = 0; k < BatchSize - 1; k++) {
+                        map.get(new LongPair(i, entryId)).clear(k);
+                    }
+                    LongPair key = new LongPair(i, entryId);
+                    BitSet bitSet = map.get(key);
+                    bitSet.clear(0, BatchSize);
+                    if (bitSet.isEmpty()) {
+                        map.keySet().removeIf(m -> m.compareTo(key) <= 0);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class LongPair implements Comparable<LongPair> {
+        final long first;
+        final long second;
+
+        LongPair(long first, long second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int compareTo(LongPair o) {
+            int cmp = Long.compare(first, o.first);
+            return cmp != 0 ? cmp : Long.compare(second, o.second);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConcurrentLongPairBitSetMapTest t = new ConcurrentLongPairBitSetMapTest();
+
+        long start = System.nanoTime();
+        t.benchConcurrentLongPairBitSetMap();
+        long end = System.nanoTime();
+
+        System.out.println("CLPBSM: " + TimeUnit.NANOSECONDS.toMillis(end - start) + " ms");
+
+        start = System.nanoTime();
+        t.benchConcurrentSkipListMap();
+        end = System.nanoTime();
+
+        System.out.println("CSLM:   " + TimeUnit.NANOSECONDS.toMillis(end - start) + " ms");
+    }
+}
@@ -158,6 +158,35 @@ public class GrowableArrayBlockingQueueTest {
         assertEquals(list, Lists.newArrayList(1, 2, 3));
     }
 
+    @Test
+    public void drainToWithWeight() throws Exception {
+        GrowableArrayBlockingQueue<Integer> queue = new GrowableArrayBlockingQueue<>(4);
+
+        for (int i = 1; i <= 6; i++) {
+            queue.put(i);
+        }
+
+        // Stops once the weight is reached, the last item being allowed to go over it
+        List<Integer> list = new ArrayList<>();
+        assertEquals(queue.drainTo(list, 10, i -> i, 5), 3);
+        assertEquals(list, Lists.newArrayList(1, 2, 3));
+        assertEquals(queue.size(), 3);
+
+        // Stops at the max number of items
+        list.clear();
+        assertEquals(queue.drainTo(list, 2, i -> i, Long.MAX_VALUE), 2);
+        assertEquals(list, Lists.newArrayList(4, 5));
+
+        list.clear();
+        assertEquals(queue.drainTo(list, 10, i -> i, 1), 1);
+        assertEquals(list, Lists.newArrayList(6));
+        assertEquals(queue.size(), 0);
+
+        list.clear();
+        assertEquals(queue.drainTo(list, 10, i -> i, 100), 0);
+        assertEquals(list.size(), 0);
+    }
+
     @Test(timeOut = 10000)
     public void pollTimeout() throws Exception {
         BlockingQueue<Integer> queue = new GrowableArrayBlockingQueue<>(4);
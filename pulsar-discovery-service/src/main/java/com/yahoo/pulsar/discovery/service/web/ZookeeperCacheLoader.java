@@ -25,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReport;
+import com.yahoo.pulsar.common.policies.data.loadbalancer.LoadReportCodec;
 import com.yahoo.pulsar.common.util.ObjectMapperFactory;
 import com.yahoo.pulsar.zookeeper.LocalZooKeeperCache;
 import com.yahoo.pulsar.zookeeper.LocalZooKeeperConnectionService;
@@ -78,6 +79,10 @@ public class ZookeeperCacheLoader implements Closeable {
         this.brokerInfo = new ZooKeeperDataCache<LoadReport>(localZkCache) {
             @Override
             public LoadReport deserialize(String key, byte[] content) throws Exception {
+                if (LoadReportCodec.isBinary(content)) {
+                    // Only the broker urls are needed, no need to merge the bundle stats snapshot
+                    return LoadReportCodec.decodeReport(content).getReport();
+                }
                 return ObjectMapperFactory.getThreadLocal().readValue(content, LoadReport.class);
             }
         };
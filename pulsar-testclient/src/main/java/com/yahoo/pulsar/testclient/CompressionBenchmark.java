@@ -0,0 +1,215 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.testclient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.collect.Lists;
+import com.yahoo.pulsar.common.api.proto.PulsarApi.CompressionType;
+import com.yahoo.pulsar.common.compression.CompressionCodec;
+import com.yahoo.pulsar.common.compression.CompressionCodecProvider;
+import com.yahoo.pulsar.common.compression.CompressionCodecZstd;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * Compare the compression ratio and the compression and decompression throughput of the codecs supported by the
+ * client, over different kinds of payloads.
+ * <p>
+ * Each payload is written in a direct buffer, like a batch being published, and is repeatedly compressed and
+ * decompressed for a fixed amount of time.
+ */
+public class CompressionBenchmark {
+
+    enum PayloadType {
+        /** Random words from a small vocabulary */
+        text,
+        /** A sequence of small JSON records with the same fields */
+        json,
+        /** Random bytes, which cannot be compressed */
+        random
+    }
+
+    static class Arguments {
+
+        @Parameter(names = { "-h", "--help" }, description = "Help message", help = true)
+        boolean help;
+
+        @Parameter(names = { "-c", "--codecs" }, description = "Compression codecs to test")
+        public List<CompressionType> codecs = Lists.newArrayList(CompressionType.LZ4, CompressionType.ZLIB,
+                CompressionType.ZSTD, CompressionType.SNAPPY);
+
+        @Parameter(names = { "-p", "--payloads" }, description = "Payload types to compress")
+        public List<PayloadType> payloads = Lists.newArrayList(PayloadType.values());
+
+        @Parameter(names = { "-s", "--size" }, description = "Payload size in bytes")
+        public int payloadSize = 128 * 1024;
+
+        @Parameter(names = { "--zstd-level" }, description = "Zstandard compression level")
+        public int zstdCompressionLevel = CompressionCodecZstd.DEFAULT_COMPRESSION_LEVEL;
+
+        @Parameter(names = { "-time",
+                "--test-duration" }, description = "Duration in secs of each compression and decompression test")
+        public long testTime = 5;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Arguments arguments = new Arguments();
+        JCommander jc = new JCommander(arguments);
+        jc.setProgramName("pulsar-perf-compression");
+
+        try {
+            jc.parse(args);
+        } catch (ParameterException e) {
+            System.out.println(e.getMessage());
+            jc.usage();
+            System.exit(-1);
+        }
+
+        if (arguments.help) {
+            jc.usage();
+            System.exit(-1);
+        }
+
+        // Dump config variables
+        ObjectMapper m = new ObjectMapper();
+        ObjectWriter w = m.writerWithDefaultPrettyPrinter();
+        log.info("Starting Pulsar compression benchmark with config: {}", w.writeValueAsString(arguments));
+
+        long testTimeNanos = TimeUnit.SECONDS.toNanos(arguments.testTime);
+        for (PayloadType payloadType : arguments.payloads) {
+            byte[] data = generatePayload(payloadType, arguments.payloadSize);
+            ByteBuf payload = PooledByteBufAllocator.DEFAULT.directBuffer(data.length, data.length);
+            payload.writeBytes(data);
+
+            for (CompressionType codecType : arguments.codecs) {
+                CompressionCodec codec = CompressionCodecProvider.getCompressionCodec(codecType,
+                        arguments.zstdCompressionLevel);
+                runBenchmark(codecType, codec, payloadType, payload, testTimeNanos);
+            }
+
+            payload.release();
+        }
+    }
+
+    private static void runBenchmark(CompressionType codecType, CompressionCodec codec, PayloadType payloadType,
+            ByteBuf payload, long testTimeNanos) throws IOException {
+        int uncompressedSize = payload.readableBytes();
+
+        // Warm up the JIT and the buffers pool before measuring
+        long warmupEnd = System.nanoTime() + testTimeNanos / 5;
+        while (System.nanoTime() < warmupEnd) {
+            ByteBuf compressed = codec.encode(payload);
+            codec.decode(compressed, uncompressedSize).release();
+            compressed.release();
+        }
+
+        long compressions = 0;
+        long start = System.nanoTime();
+        long now = start;
+        ByteBuf compressed = null;
+        while (now - start < testTimeNanos) {
+            if (compressed != null) {
+                compressed.release();
+            }
+            compressed = codec.encode(payload);
+            ++compressions;
+            now = System.nanoTime();
+        }
+        double compressThroughput = throughput(compressions * uncompressedSize, now - start);
+
+        long decompressions = 0;
+        start = System.nanoTime();
+        now = start;
+        while (now - start < testTimeNanos) {
+            codec.decode(compressed, uncompressedSize).release();
+            ++decompressions;
+            now = System.nanoTime();
+        }
+        double decompressThroughput = throughput(decompressions * uncompressedSize, now - start);
+
+        double ratio = (double) uncompressedSize / compressed.readableBytes();
+        compressed.release();
+
+        log.info("{} {} payload of {} bytes --- ratio: {} --- compress: {} MB/s --- decompress: {} MB/s", codecType,
+                payloadType, uncompressedSize, dec.format(ratio), dec.format(compressThroughput),
+                dec.format(decompressThroughput));
+    }
+
+    private static double throughput(long bytes, long elapsedNanos) {
+        return bytes / 1024.0 / 1024.0 / (elapsedNanos / 1e9);
+    }
+
+    private static final String[] words = { "pulsar", "broker", "bookie", "topic", "message", "cursor", "ledger",
+            "producer", "consumer", "subscription", "namespace", "property", "cluster", "partition", "batch", "the",
+            "a", "of", "to", "and", "is", "with", "from", "on" };
+
+    private static final String[] events = { "click", "view", "purchase", "login", "logout", "search" };
+
+    static byte[] generatePayload(PayloadType payloadType, int size) {
+        // Use a fixed seed so that runs with the same arguments compress the same content
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder(size + 256);
+
+        switch (payloadType) {
+        case text:
+            while (sb.length() < size) {
+                sb.append(words[random.nextInt(words.length)]).append(random.nextInt(10) == 0 ? ".\n" : " ");
+            }
+            break;
+
+        case json:
+            for (long id = 0; sb.length() < size; id++) {
+                sb.append("{\"id\":").append(id) //
+                        .append(",\"user\":\"user-").append(random.nextInt(10000)) //
+                        .append("\",\"event\":\"").append(events[random.nextInt(events.length)]) //
+                        .append("\",\"timestamp\":").append(1500000000000L + id * 17 + random.nextInt(17)) //
+                        .append(",\"value\":").append(random.nextDouble()) //
+                        .append(",\"tags\":[\"").append(words[random.nextInt(words.length)]) //
+                        .append("\",\"").append(words[random.nextInt(words.length)]).append("\"]}\n");
+            }
+            break;
+
+        case random:
+        default:
+            byte[] data = new byte[size];
+            random.nextBytes(data);
+            return data;
+        }
+
+        byte[] data = new byte[size];
+        byte[] content = sb.toString().getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(content, 0, data, 0, size);
+        return data;
+    }
+
+    static final DecimalFormat dec = new DecimalFormat("0.000");
+    private static final Logger log = LoggerFactory.getLogger(CompressionBenchmark.class);
+}
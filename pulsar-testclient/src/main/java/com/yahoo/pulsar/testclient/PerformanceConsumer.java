@@ -99,6 +99,10 @@ public class PerformanceConsumer {
         @Parameter(names = {
                 "--auth_params" }, description = "Authentication parameters, e.g., \"key1:val1,key2:val2\"")
         public String authParams;
+
+        @Parameter(names = { "--zero-copy" }, description = "Retain the received buffers instead of copying the "
+                + "message payloads")
+        public boolean zeroCopy = false;
     }
 
     public static void main(String[] args) throws Exception {
@@ -154,7 +158,11 @@ public class PerformanceConsumer {
         MessageListener listener = new MessageListener() {
             public void received(Consumer consumer, Message msg) {
                 messagesReceived.increment();
-                bytesReceived.add(msg.getData().length);
+                if (arguments.zeroCopy) {
+                    bytesReceived.add(msg.getByteBuffer().remaining());
+                } else {
+                    bytesReceived.add(msg.getData().length);
+                }
 
                 if (limiter != null) {
                     limiter.acquire();
@@ -186,6 +194,7 @@ public class PerformanceConsumer {
         ConsumerConfiguration consumerConfig = new ConsumerConfiguration();
         consumerConfig.setMessageListener(listener);
         consumerConfig.setReceiverQueueSize(arguments.receiverQueueSize);
+        consumerConfig.setZeroCopyPayload(arguments.zeroCopy);
 
         for (int i = 0; i < arguments.numDestinations; i++) {
             final DestinationName destinationName = (arguments.numDestinations == 1) ? prefixDestinationName
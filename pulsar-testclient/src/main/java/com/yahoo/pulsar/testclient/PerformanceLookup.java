@@ -0,0 +1,287 @@
+/**
+ * Copyright 2016 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.pulsar.testclient;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import java.io.FileInputStream;
+import java.net.HttpURLConnection;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.asynchttpclient.AsyncCompletionHandler;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.BoundRequestBuilder;
+import org.asynchttpclient.DefaultAsyncHttpClient;
+import org.asynchttpclient.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.collect.Lists;
+import com.yahoo.pulsar.client.api.AuthenticationDataProvider;
+import com.yahoo.pulsar.client.api.ClientConfiguration;
+import com.yahoo.pulsar.common.naming.DestinationName;
+import com.yahoo.pulsar.testclient.utils.PaddingDecimalFormat;
+
+/**
+ * Measure the throughput and latency of the broker topic lookups.
+ * <p>
+ * The lookups are issued on the HTTP lookup endpoint, round-robin over a set of topics, with a bounded number of
+ * outstanding requests.
+ */
+public class PerformanceLookup {
+
+    private static final LongAdder lookupsDone = new LongAdder();
+    private static final LongAdder lookupsFailed = new LongAdder();
+
+    private static Recorder recorder = new Recorder(TimeUnit.SECONDS.toMicros(120), 5);
+    private static Recorder cumulativeRecorder = new Recorder(TimeUnit.SECONDS.toMicros(120), 5);
+
+    static class Arguments {
+
+        @Parameter(names = { "-h", "--help" }, description = "Help message", help = true)
+        boolean help;
+
+        @Parameter(names = { "--conf-file" }, description = "Configuration file")
+        public String confFile;
+
+        @Parameter(description = "persistent://prop/cluster/ns/my-topic", required = true)
+        public List<String> destinations;
+
+        @Parameter(names = { "-t", "--num-topic" }, description = "Number of topics to look up")
+        public int numTopics = 1000;
+
+        @Parameter(names = { "-o", "--max-outstanding" }, description = "Max number of outstanding lookups")
+        public int maxOutstanding = 100;
+
+        @Parameter(names = { "-u", "--service-url" }, description = "Pulsar Service URL")
+        public String serviceURL;
+
+        @Parameter(names = { "--auth_plugin" }, description = "Authentication plugin class name")
+        public String authPluginClassName;
+
+        @Parameter(names = {
+                "--auth_params" }, description = "Authentication parameters, e.g., \"key1:val1,key2:val2\"")
+        public String authParams;
+
+        @Parameter(names = { "-time",
+                "--test-duration" }, description = "Test duration in secs. If 0, it will keep looking up")
+        public long testTime = 0;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Arguments arguments = new Arguments();
+        JCommander jc = new JCommander(arguments);
+        jc.setProgramName("pulsar-perf-lookup");
+
+        try {
+            jc.parse(args);
+        } catch (ParameterException e) {
+            System.out.println(e.getMessage());
+            jc.usage();
+            System.exit(-1);
+        }
+
+        if (arguments.help) {
+            jc.usage();
+            System.exit(-1);
+        }
+
+        if (arguments.destinations.size() != 1) {
+            System.out.println("Only one topic name is allowed");
+            jc.usage();
+            System.exit(-1);
+        }
+
+        if (arguments.confFile != null) {
+            Properties prop = new Properties(System.getProperties());
+            prop.load(new FileInputStream(arguments.confFile));
+
+            if (arguments.serviceURL == null) {
+                arguments.serviceURL = prop.getProperty("serviceUrl", "http://localhost:8080/");
+            }
+
+            if (arguments.authPluginClassName == null) {
+                arguments.authPluginClassName = prop.getProperty("authPlugin", null);
+            }
+
+            if (arguments.authParams == null) {
+                arguments.authParams = prop.getProperty("authParams", null);
+            }
+        }
+
+        if (arguments.serviceURL == null) {
+            arguments.serviceURL = "http://localhost:8080/";
+        }
+
+        if (!arguments.serviceURL.endsWith("/")) {
+            arguments.serviceURL = arguments.serviceURL + "/";
+        }
+
+        arguments.testTime = TimeUnit.SECONDS.toMillis(arguments.testTime);
+
+        // Dump config variables
+        ObjectMapper m = new ObjectMapper();
+        ObjectWriter w = m.writerWithDefaultPrettyPrinter();
+        log.info("Starting Pulsar perf lookup with config: {}", w.writeValueAsString(arguments));
+
+        ClientConfiguration clientConf = new ClientConfiguration();
+        if (isNotBlank(arguments.authPluginClassName)) {
+            clientConf.setAuthentication(arguments.authPluginClassName, arguments.authParams);
+        }
+        clientConf.getAuthentication().start();
+        AuthenticationDataProvider authData = clientConf.getAuthentication().getAuthData();
+
+        String prefixTopicName = arguments.destinations.get(0);
+        List<String> lookupUrls = Lists.newArrayListWithCapacity(arguments.numTopics);
+        for (int i = 0; i < arguments.numTopics; i++) {
+            String topic = (arguments.numTopics == 1) ? prefixTopicName : String.format("%s-%d", prefixTopicName, i);
+            lookupUrls.add(
+                    arguments.serviceURL + "lookup/v2/destination/" + DestinationName.get(topic).getLookupName());
+        }
+
+        AsyncHttpClient httpClient = new DefaultAsyncHttpClient();
+
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            public void run() {
+                printAggregatedStats();
+            }
+        });
+
+        Thread lookupThread = new Thread(() -> {
+            Semaphore outstandingLookups = new Semaphore(arguments.maxOutstanding);
+            long startTime = System.currentTimeMillis();
+
+            try {
+                while (true) {
+                    for (String lookupUrl : lookupUrls) {
+                        if (arguments.testTime > 0 && System.currentTimeMillis() - startTime > arguments.testTime) {
+                            log.info("------------------- DONE -----------------------");
+                            printAggregatedStats();
+                            System.exit(0);
+                        }
+
+                        outstandingLookups.acquire();
+                        final long lookupTime = System.nanoTime();
+
+                        BoundRequestBuilder builder = httpClient.prepareGet(lookupUrl).setHeader("Accept",
+                                "application/json");
+                        if (authData.hasDataForHttp()) {
+                            for (Map.Entry<String, String> header : authData.getHttpHeaders()) {
+                                builder.setHeader(header.getKey(), header.getValue());
+                            }
+                        }
+
+                        builder.execute(new AsyncCompletionHandler<Response>() {
+                            @Override
+                            public Response onCompleted(Response response) throws Exception {
+                                outstandingLookups.release();
+                                if (response.getStatusCode() != HttpURLConnection.HTTP_OK) {
+                                    lookupsFailed.increment();
+                                    return response;
+                                }
+
+                                lookupsDone.increment();
+                                long latencyMicros = NANOSECONDS.toMicros(System.nanoTime() - lookupTime);
+                                recorder.recordValue(latencyMicros);
+                                cumulativeRecorder.recordValue(latencyMicros);
+                                return response;
+                            }
+
+                            @Override
+                            public void onThrowable(Throwable t) {
+                                outstandingLookups.release();
+                                lookupsFailed.increment();
+                                log.warn("Lookup error on {}: {}", lookupUrl, t.getMessage());
+                            }
+                        });
+                    }
+                }
+            } catch (Throwable t) {
+                log.error("Got error", t);
+            }
+        }, "pulsar-perf-lookup");
+        lookupThread.setDaemon(true);
+        lookupThread.start();
+
+        // Print report stats
+        long oldTime = System.nanoTime();
+
+        Histogram reportHistogram = null;
+
+        while (true) {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            long now = System.nanoTime();
+            double elapsed = (now - oldTime) / 1e9;
+
+            double rate = lookupsDone.sumThenReset() / elapsed;
+            double failureRate = lookupsFailed.sumThenReset() / elapsed;
+
+            reportHistogram = recorder.getIntervalHistogram(reportHistogram);
+
+            log.info(
+                    "Lookups: {} lookup/s --- Failed: {} lookup/s --- Latency: mean: {} ms - med: {} - 95pct: {} - 99pct: {} - 99.9pct: {} - Max: {}",
+                    throughputFormat.format(rate), throughputFormat.format(failureRate),
+                    dec.format(reportHistogram.getMean() / 1000.0),
+                    dec.format(reportHistogram.getValueAtPercentile(50) / 1000.0),
+                    dec.format(reportHistogram.getValueAtPercentile(95) / 1000.0),
+                    dec.format(reportHistogram.getValueAtPercentile(99) / 1000.0),
+                    dec.format(reportHistogram.getValueAtPercentile(99.9) / 1000.0),
+                    dec.format(reportHistogram.getMaxValue() / 1000.0));
+
+            reportHistogram.reset();
+            oldTime = now;
+        }
+
+        httpClient.close();
+    }
+
+    private static void printAggregatedStats() {
+        Histogram reportHistogram = cumulativeRecorder.getIntervalHistogram();
+
+        log.info(
+                "Aggregated lookup latency stats --- Latency: mean: {} ms - med: {} - 95pct: {} - 99pct: {} - 99.9pct: {} - 99.99pct: {} - Max: {}",
+                dec.format(reportHistogram.getMean() / 1000.0),
+                dec.format(reportHistogram.getValueAtPercentile(50) / 1000.0),
+                dec.format(reportHistogram.getValueAtPercentile(95) / 1000.0),
+                dec.format(reportHistogram.getValueAtPercentile(99) / 1000.0),
+                dec.format(reportHistogram.getValueAtPercentile(99.9) / 1000.0),
+                dec.format(reportHistogram.getValueAtPercentile(99.99) / 1000.0),
+                dec.format(reportHistogram.getMaxValue() / 1000.0));
+    }
+
+    static final DecimalFormat throughputFormat = new PaddingDecimalFormat("0.0", 8);
+    static final DecimalFormat dec = new PaddingDecimalFormat("0.000", 7);
+    private static final Logger log = LoggerFactory.getLogger(PerformanceLookup.class);
+}
@@ -32,6 +32,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 import org.HdrHistogram.Histogram;
@@ -55,6 +56,7 @@ import com.yahoo.pulsar.client.api.ProducerConfiguration;
 import com.yahoo.pulsar.client.api.ProducerConfiguration.MessageRoutingMode;
 import com.yahoo.pulsar.client.api.PulsarClient;
 import com.yahoo.pulsar.client.impl.PulsarClientImpl;
+import com.yahoo.pulsar.common.compression.CompressionCodecZstd;
 import com.yahoo.pulsar.testclient.utils.PaddingDecimalFormat;
 
 import io.netty.channel.EventLoopGroup;
@@ -124,6 +126,9 @@ public class PerformanceProducer {
         @Parameter(names = { "-z", "--compression" }, description = "Compress messages payload")
         public CompressionType compression = CompressionType.NONE;
 
+        @Parameter(names = { "--zstd-level" }, description = "Compression level when using ZSTD compression")
+        public int zstdCompressionLevel = CompressionCodecZstd.DEFAULT_COMPRESSION_LEVEL;
+
         @Parameter(names = { "-f", "--payload-file" }, description = "Use payload from a file instead of empty buffer")
         public String payloadFilename = null;
         @Parameter(names = { "-b",
@@ -133,6 +138,13 @@ public class PerformanceProducer {
         @Parameter(names = { "-time",
                 "--test-duration" }, description = "Test duration in secs. If 0, it will keep publishing")
         public long testTime = 0;
+
+        @Parameter(names = { "--send-threads" }, description = "Number of threads concurrently publishing on the "
+                + "producers, sharing the publish rate")
+        public int numSendThreads = 1;
+
+        @Parameter(names = { "--routing-mode" }, description = "Message routing mode for partitioned topics")
+        public MessageRoutingMode routingMode = MessageRoutingMode.RoundRobinPartition;
     }
 
     public static void main(String[] args) throws Exception {
@@ -217,8 +229,9 @@ public class PerformanceProducer {
         ProducerConfiguration producerConf = new ProducerConfiguration();
         producerConf.setSendTimeout(0, TimeUnit.SECONDS);
         producerConf.setCompressionType(arguments.compression);
-        // enable round robin message routing if it is a partitioned topic
-        producerConf.setMessageRoutingMode(MessageRoutingMode.RoundRobinPartition);
+        producerConf.setZstdCompressionLevel(arguments.zstdCompressionLevel);
+        // enable round robin message routing by default if it is a partitioned topic
+        producerConf.setMessageRoutingMode(arguments.routingMode);
         if (arguments.batchTime > 0) {
             producerConf.setBatchingMaxPublishDelay(arguments.batchTime, TimeUnit.MILLISECONDS);
             producerConf.setBatchingEnabled(true);
@@ -250,57 +263,60 @@ public class PerformanceProducer {
         Collections.shuffle(producers);
         AtomicBoolean isDone = new AtomicBoolean();
 
-        executor.submit(() -> {
-            try {
-                RateLimiter rateLimiter = RateLimiter.create(arguments.msgRate);
-
-                long startTime = System.currentTimeMillis();
-
-                // Send messages on all topics/producers
-                long totalSent = 0;
-                while (true) {
-                    for (Producer producer : producers) {
-                        if (arguments.testTime > 0) {
-                            if (System.currentTimeMillis() - startTime > arguments.testTime) {
-                                log.info("------------------- DONE -----------------------");
-                                printAggregatedStats();
-                                isDone.set(true);
-                                Thread.sleep(5000);
-                                System.exit(0);
+        AtomicLong totalSent = new AtomicLong();
+
+        for (int t = 0; t < arguments.numSendThreads; t++) {
+            executor.submit(() -> {
+                try {
+                    RateLimiter rateLimiter = RateLimiter.create((double) arguments.msgRate / arguments.numSendThreads);
+
+                    long startTime = System.currentTimeMillis();
+
+                    // Send messages on all topics/producers
+                    while (true) {
+                        for (Producer producer : producers) {
+                            if (arguments.testTime > 0) {
+                                if (System.currentTimeMillis() - startTime > arguments.testTime) {
+                                    log.info("------------------- DONE -----------------------");
+                                    printAggregatedStats();
+                                    isDone.set(true);
+                                    Thread.sleep(5000);
+                                    System.exit(0);
+                                }
                             }
-                        }
 
-                        if (arguments.numMessages > 0) {
-                            if (totalSent++ >= arguments.numMessages) {
-                                log.info("------------------- DONE -----------------------");
-                                printAggregatedStats();
-                                isDone.set(true);
-                                Thread.sleep(5000);
-                                System.exit(0);
+                            if (arguments.numMessages > 0) {
+                                if (totalSent.getAndIncrement() >= arguments.numMessages) {
+                                    log.info("------------------- DONE -----------------------");
+                                    printAggregatedStats();
+                                    isDone.set(true);
+                                    Thread.sleep(5000);
+                                    System.exit(0);
+                                }
                             }
+                            rateLimiter.acquire();
+
+                            final long sendTime = System.nanoTime();
+
+                            producer.sendAsync(payloadData).thenRun(() -> {
+                                messagesSent.increment();
+                                bytesSent.add(payloadData.length);
+
+                                long latencyMicros = NANOSECONDS.toMicros(System.nanoTime() - sendTime);
+                                recorder.recordValue(latencyMicros);
+                                cumulativeRecorder.recordValue(latencyMicros);
+                            }).exceptionally(ex -> {
+                                log.warn("Write error on message", ex);
+                                System.exit(-1);
+                                return null;
+                            });
                         }
-                        rateLimiter.acquire();
-
-                        final long sendTime = System.nanoTime();
-
-                        producer.sendAsync(payloadData).thenRun(() -> {
-                            messagesSent.increment();
-                            bytesSent.add(payloadData.length);
-
-                            long latencyMicros = NANOSECONDS.toMicros(System.nanoTime() - sendTime);
-                            recorder.recordValue(latencyMicros);
-                            cumulativeRecorder.recordValue(latencyMicros);
-                        }).exceptionally(ex -> {
-                            log.warn("Write error on message", ex);
-                            System.exit(-1);
-                            return null;
-                        });
                     }
+                } catch (Throwable t1) {
+                    log.error("Got error", t1);
                 }
-            } catch (Throwable t) {
-                log.error("Got error", t);
-            }
-        });
+            });
+        }
 
         // Print report stats
         long oldTime = System.nanoTime();
@@ -109,8 +109,7 @@ public class GlobalZooKeeperCache extends ZooKeeperCache implements Closeable {
                     LOG.info("Global ZK session {} restored connection.", zkSession.get());
 
                     //
-                    dataCache.synchronous().invalidateAll();
-                    childrenCache.invalidateAll();
+                    invalidateAll();
                     return;
                 default:
                     break;
@@ -47,8 +47,7 @@ public class LocalZooKeeperCache extends ZooKeeperCache {
             case Expired:
                 // in case of expired, the zkSession is no longer good
                 LOG.warn("Lost connection from local ZK. Invalidating the whole cache.");
-                dataCache.synchronous().invalidateAll();
-                childrenCache.invalidateAll();
+                invalidateAll();
                 return;
             default:
                 break;
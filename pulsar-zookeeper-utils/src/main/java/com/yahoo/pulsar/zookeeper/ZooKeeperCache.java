@@ -18,6 +18,8 @@ package com.yahoo.pulsar.zookeeper;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
@@ -26,6 +28,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.bookkeeper.util.OrderedSafeExecutor;
@@ -43,6 +46,7 @@ import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 /**
@@ -69,11 +73,19 @@ public abstract class ZooKeeperCache implements Watcher {
 
     public static final String ZK_CACHE_INSTANCE = "zk_cache_instance";
 
+    // Placeholder kept in the data cache for z-nodes known to be missing. An exists watch is set on the path, so the
+    // entry gets invalidated when the z-node is created
+    private static final Entry<Object, Stat> MISSING_NODE = new AbstractMap.SimpleImmutableEntry<>(null, null);
+
     protected final AsyncLoadingCache<String, Entry<Object, Stat>> dataCache;
     protected final Cache<String, Set<String>> childrenCache;
     protected final Cache<String, Boolean> existsCache;
     protected final OrderedSafeExecutor executor;
 
+    private final ZooKeeperCacheStats dataCacheStats = new ZooKeeperCacheStats();
+    private final ZooKeeperCacheStats childrenCacheStats = new ZooKeeperCacheStats();
+    private final ZooKeeperCacheStats existsCacheStats = new ZooKeeperCacheStats();
+
     protected AtomicReference<ZooKeeper> zkSession = new AtomicReference<ZooKeeper>(null);
 
     public ZooKeeperCache(ZooKeeper zkSession, OrderedSafeExecutor executor) {
@@ -95,6 +107,18 @@ public abstract class ZooKeeperCache implements Watcher {
         return this.zkSession.get();
     }
 
+    public ZooKeeperCacheStats getDataCacheStats() {
+        return dataCacheStats;
+    }
+
+    public ZooKeeperCacheStats getChildrenCacheStats() {
+        return childrenCacheStats;
+    }
+
+    public ZooKeeperCacheStats getExistsCacheStats() {
+        return existsCacheStats;
+    }
+
     public <T> void process(WatchedEvent event, final CacheUpdater<T> updater) {
         final String path = event.getPath();
         if (path != null) {
@@ -169,11 +193,16 @@ public abstract class ZooKeeperCache implements Watcher {
      * @throws InterruptedException
      */
     public boolean exists(final String path) throws KeeperException, InterruptedException {
+        AtomicBoolean loaded = new AtomicBoolean(false);
         try {
             return existsCache.get(path, new Callable<Boolean>() {
                 @Override
                 public Boolean call() throws Exception {
-                    return zkSession.get().exists(path, ZooKeeperCache.this) != null;
+                    loaded.set(true);
+                    long startTime = System.nanoTime();
+                    boolean exists = zkSession.get().exists(path, ZooKeeperCache.this) != null;
+                    existsCacheStats.recordLoad(startTime);
+                    return exists;
                 }
             });
         } catch (ExecutionException e) {
@@ -187,6 +216,12 @@ public abstract class ZooKeeperCache implements Watcher {
             } else {
                 throw new RuntimeException(cause);
             }
+        } finally {
+            if (loaded.get()) {
+                existsCacheStats.recordMiss();
+            } else {
+                existsCacheStats.recordHit();
+            }
         }
     }
 
@@ -240,21 +275,30 @@ public abstract class ZooKeeperCache implements Watcher {
         checkNotNull(deserializer);
 
         CompletableFuture<Optional<Entry<T, Stat>>> future = new CompletableFuture<>();
+        AtomicBoolean loaded = new AtomicBoolean(false);
         dataCache.get(path, (p, executor) -> {
             // Return a future for the z-node to be fetched from ZK
             CompletableFuture<Entry<Object, Stat>> zkFuture = new CompletableFuture<>();
+            loaded.set(true);
+            long startTime = System.nanoTime();
 
             this.zkSession.get().getData(path, watcher, (rc, path1, ctx, content, stat) -> {
                 if (rc == Code.OK.intValue()) {
                     try {
                         T obj = deserializer.deserialize(path, content);
+                        dataCacheStats.recordLoad(startTime);
                         zkFuture.complete(new AbstractMap.SimpleImmutableEntry<Object, Stat>(obj, stat));
                     } catch (Exception e) {
                         zkFuture.completeExceptionally(e);
                     }
                 } else if (rc == Code.NONODE.intValue()) {
-                    // Return null values for missing z-nodes, as this is not "exceptional" condition
-                    zkFuture.complete(null);
+                    // Missing z-nodes are not an "exceptional" condition. Set a watch on the node creation before
+                    // caching the miss, otherwise (or if the node appeared in the meantime) return a null value
+                    // that won't be retained by the cache
+                    this.zkSession.get().exists(path, watcher, (rc1, path2, ctx1, stat1) -> {
+                        dataCacheStats.recordLoad(startTime);
+                        zkFuture.complete(rc1 == Code.NONODE.intValue() ? MISSING_NODE : null);
+                    }, null);
                 } else {
                     zkFuture.completeExceptionally(KeeperException.create(rc));
                 }
@@ -262,7 +306,7 @@ public abstract class ZooKeeperCache implements Watcher {
 
             return zkFuture;
         }).thenAccept(result -> {
-            if (result != null) {
+            if (result != null && result != MISSING_NODE) {
                 future.complete(Optional.of((Entry<T, Stat>) result));
             } else {
                 future.complete(Optional.empty());
@@ -272,6 +316,11 @@ public abstract class ZooKeeperCache implements Watcher {
             return null;
         });
 
+        if (loaded.get()) {
+            dataCacheStats.recordMiss();
+        } else {
+            dataCacheStats.recordHit();
+        }
         return future;
     }
 
@@ -299,12 +348,17 @@ public abstract class ZooKeeperCache implements Watcher {
      */
     public Set<String> getChildren(final String path, final Watcher watcher)
             throws KeeperException, InterruptedException {
+        AtomicBoolean loaded = new AtomicBoolean(false);
         try {
             return childrenCache.get(path, new Callable<Set<String>>() {
                 @Override
                 public Set<String> call() throws Exception {
                     LOG.debug("Fetching children at {}", path);
-                    return Sets.newTreeSet(checkNotNull(zkSession.get()).getChildren(path, watcher));
+                    loaded.set(true);
+                    long startTime = System.nanoTime();
+                    Set<String> children = Sets.newTreeSet(checkNotNull(zkSession.get()).getChildren(path, watcher));
+                    childrenCacheStats.recordLoad(startTime);
+                    return children;
                 }
             });
         } catch (ExecutionException e) {
@@ -318,9 +372,87 @@ public abstract class ZooKeeperCache implements Watcher {
             } else {
                 throw new RuntimeException(cause);
             }
+        } finally {
+            if (loaded.get()) {
+                childrenCacheStats.recordMiss();
+            } else {
+                childrenCacheStats.recordHit();
+            }
         }
     }
 
+    /**
+     * Asynchronous version of {@link #getChildren(String, Watcher)}. A missing z-node is returned as an empty set and
+     * is not cached.
+     *
+     * @param path
+     * @param watcher
+     * @return
+     */
+    public CompletableFuture<Set<String>> getChildrenAsync(final String path, final Watcher watcher) {
+        Set<String> cachedChildren = childrenCache.getIfPresent(path);
+        if (cachedChildren != null) {
+            childrenCacheStats.recordHit();
+            return CompletableFuture.completedFuture(cachedChildren);
+        }
+
+        childrenCacheStats.recordMiss();
+        CompletableFuture<Set<String>> future = new CompletableFuture<>();
+        long startTime = System.nanoTime();
+        checkNotNull(zkSession.get()).getChildren(path, watcher, (rc, path1, ctx, children) -> {
+            if (rc == Code.OK.intValue()) {
+                Set<String> result = Sets.newTreeSet(children);
+                childrenCache.put(path, result);
+                childrenCacheStats.recordLoad(startTime);
+                future.complete(result);
+            } else if (rc == Code.NONODE.intValue()) {
+                future.complete(Collections.emptySet());
+            } else {
+                future.completeExceptionally(KeeperException.create(rc));
+            }
+        }, null);
+
+        return future;
+    }
+
+    /**
+     * Loads in the cache all the z-nodes found at the given depth below the root path, issuing all the ZooKeeper reads
+     * of a level in parallel instead of one path at a time. Children lists of the intermediate levels are cached as
+     * well.
+     * <p>
+     * Failures on single z-nodes are ignored: those entries will be loaded on first access instead.
+     *
+     * @param root
+     *            the path where to start the traversal
+     * @param depth
+     *            number of levels below the root where the data z-nodes are located (0 means the root itself)
+     * @param watcher
+     *            the watcher for the data z-nodes
+     * @param deserializer
+     *            the deserializer for the data z-nodes
+     * @return a future completed once the whole subtree has been visited
+     */
+    public <T> CompletableFuture<Void> prefetch(final String root, final int depth, final Watcher watcher,
+            final Deserializer<T> deserializer) {
+        CompletableFuture<Void> future;
+        if (depth == 0) {
+            future = getDataAsync(root, watcher, deserializer).thenApply(data -> null);
+        } else {
+            future = getChildrenAsync(root, this).thenCompose(children -> {
+                List<CompletableFuture<Void>> futures = Lists.newArrayListWithCapacity(children.size());
+                for (String child : children) {
+                    futures.add(prefetch(root + "/" + child, depth - 1, watcher, deserializer));
+                }
+                return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]));
+            });
+        }
+
+        return future.exceptionally(ex -> {
+            LOG.warn("Failed to prefetch z-node {}: {}", root, ex.getMessage());
+            return null;
+        });
+    }
+
     @SuppressWarnings("unchecked")
     public <T> T getDataIfPresent(String path) {
         return (T) dataCache.getIfPresent(path);
@@ -76,6 +76,18 @@ public abstract class ZooKeeperDataCache<T> implements Deserializer<T>, CacheUpd
         return cache.getData(path, this, this);
     }
 
+    /**
+     * Loads in the cache all the objects stored at the given depth below the root path.
+     *
+     * @param root
+     * @param depth
+     *            number of levels below the root (0 to only load the root z-node)
+     * @return a future completed once the subtree has been loaded. Failures on individual z-nodes are ignored.
+     */
+    public CompletableFuture<Void> prefetch(final String root, final int depth) {
+        return cache.prefetch(root, depth, this, this);
+    }
+
     /**
      * Only for UTs (for now), as this clears the whole ZK data cache.
      */
@@ -198,6 +198,68 @@ public class ZookeeperCacheTest {
         assertNull(zkCacheService.getChildrenIfPresent("/test"));
     }
 
+    @Test
+    void testNegativeCaching() throws Exception {
+        ZooKeeperCache zkCacheService = new LocalZooKeeperCache(zkClient, null /* no executor in unit test */);
+        ZooKeeperDataCache<String> zkCache = new ZooKeeperDataCache<String>(zkCacheService) {
+            @Override
+            public String deserialize(String key, byte[] content) throws Exception {
+                return new String(content);
+            }
+        };
+
+        assertFalse(zkCache.get("/my_test").isPresent());
+        assertEquals(zkCacheService.getDataCacheStats().getMisses(), 1);
+
+        // The missing z-node is now served from the cache
+        assertFalse(zkCache.get("/my_test").isPresent());
+        assertEquals(zkCacheService.getDataCacheStats().getHits(), 1);
+        assertEquals(zkCacheService.getDataCacheStats().getMisses(), 1);
+
+        // Creating the z-node triggers the watch and invalidates the negative entry
+        zkClient.create("/my_test", "test".getBytes(), null, null);
+        assertEquals(zkCache.get("/my_test").get(), "test");
+        assertEquals(zkCacheService.getDataCacheStats().getMisses(), 2);
+        assertEquals(zkCacheService.getDataCacheStats().getLoads(), 2);
+    }
+
+    @Test
+    void testPrefetch() throws Exception {
+        zkClient.create("/root", new byte[0], null, null);
+        zkClient.create("/root/a", new byte[0], null, null);
+        zkClient.create("/root/a/x", "ax".getBytes(), null, null);
+        zkClient.create("/root/a/y", "ay".getBytes(), null, null);
+        zkClient.create("/root/b", new byte[0], null, null);
+        zkClient.create("/root/b/z", "bz".getBytes(), null, null);
+
+        ZooKeeperCache zkCacheService = new LocalZooKeeperCache(zkClient, null /* no executor in unit test */);
+        ZooKeeperDataCache<String> zkCache = new ZooKeeperDataCache<String>(zkCacheService) {
+            @Override
+            public String deserialize(String key, byte[] content) throws Exception {
+                return new String(content);
+            }
+        };
+
+        zkCache.prefetch("/root", 2).get();
+        assertEquals(zkCacheService.getChildrenCacheStats().getLoads(), 3);
+        assertEquals(zkCacheService.getDataCacheStats().getLoads(), 3);
+        assertEquals(zkCacheService.getChildrenIfPresent("/root"), Sets.newTreeSet(Lists.newArrayList("a", "b")));
+
+        // All the z-nodes are served from the cache
+        assertEquals(zkCache.get("/root/a/x").get(), "ax");
+        assertEquals(zkCache.get("/root/a/y").get(), "ay");
+        assertEquals(zkCache.get("/root/b/z").get(), "bz");
+        assertEquals(zkCacheService.getDataCacheStats().getHits(), 3);
+        assertEquals(zkCacheService.getDataCacheStats().getLoads(), 3);
+
+        // Updates are still seen through the watches
+        zkClient.setData("/root/a/x", "ax2".getBytes(), -1);
+        assertEquals(zkCache.get("/root/a/x").get(), "ax2");
+
+        // Prefetching a missing subtree is not an error
+        zkCache.prefetch("/other", 2).get();
+    }
+
     @Test
     void testGlobalZooKeeperCache() throws Exception {
         OrderedSafeExecutor executor = new OrderedSafeExecutor(1, "test");